@@ -0,0 +1,110 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Hexadecimal conversions of {@link ByteArrayUtil}, for an APDU header, a record and an extended
+ * response, compared with the former implementation (regex and String table).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ByteArrayUtilBenchmark {
+    @Param({"5", "29", "256"})
+    private int length;
+
+    private static final Pattern HEX_IGNORED_CHARS = Pattern.compile(" |h");
+    private static final String[] BYTE_TO_HEX = new String[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            BYTE_TO_HEX[i] = String.format("%02X", i);
+        }
+    }
+
+    private byte[] bytes;
+    private String hex;
+    private String spacedHex;
+    private char[] hexBuffer;
+    private byte[] bytesBuffer;
+
+    @Setup
+    public void setUp() {
+        bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        hex = ByteArrayUtil.toHex(bytes);
+        spacedHex = hex.replaceAll("(..)", "$1 ");
+        hexBuffer = new char[2 * length];
+        bytesBuffer = new byte[length];
+    }
+
+    @Benchmark
+    public String toHex() {
+        return ByteArrayUtil.toHex(bytes);
+    }
+
+    @Benchmark
+    public char[] toHexIntoBuffer() {
+        ByteArrayUtil.toHex(bytes, 0, bytes.length, hexBuffer, 0);
+        return hexBuffer;
+    }
+
+    @Benchmark
+    public String toHexFormer() {
+        StringBuilder hexStringBuilder = new StringBuilder();
+        for (int i = 0; i < bytes.length; i++) {
+            hexStringBuilder.append(BYTE_TO_HEX[bytes[i] & 0xFF]);
+        }
+        return hexStringBuilder.toString();
+    }
+
+    @Benchmark
+    public byte[] fromHex() {
+        return ByteArrayUtil.fromHex(hex);
+    }
+
+    @Benchmark
+    public byte[] fromHexLenient() {
+        return ByteArrayUtil.fromHex(spacedHex);
+    }
+
+    @Benchmark
+    public byte[] fromHexStrict() {
+        return ByteArrayUtil.fromHexStrict(hex);
+    }
+
+    @Benchmark
+    public byte[] fromHexIntoBuffer() {
+        ByteArrayUtil.fromHex(hex, 0, hex.length(), bytesBuffer, 0);
+        return bytesBuffer;
+    }
+
+    @Benchmark
+    public byte[] fromHexFormer() {
+        String digits = HEX_IGNORED_CHARS.matcher(hex).replaceAll("").toUpperCase();
+        byte[] byteArray = new byte[digits.length() / 2];
+        for (int i = 0; i < digits.length(); i += 2) {
+            byteArray[i / 2] = (byte) ((Character.digit(digits.charAt(i), 16) << 4)
+                    + Character.digit(digits.charAt(i + 1), 16));
+        }
+        return byteArray;
+    }
+}
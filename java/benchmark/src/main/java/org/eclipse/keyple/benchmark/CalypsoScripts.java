@@ -0,0 +1,184 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.calypso.transaction.CalypsoPo;
+import org.eclipse.keyple.calypso.transaction.CalypsoSam;
+import org.eclipse.keyple.calypso.transaction.PoSelectionRequest;
+import org.eclipse.keyple.calypso.transaction.PoSelector;
+import org.eclipse.keyple.calypso.transaction.SamSelectionRequest;
+import org.eclipse.keyple.calypso.transaction.SamSelector;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+import org.eclipse.keyple.plugin.stub.calypso.CalypsoPoSimulator;
+import org.eclipse.keyple.plugin.stub.calypso.CalypsoSamSimulator;
+
+/**
+ * Calypso rev 3.1 PO and SAM used by the benchmarks.
+ * <p>
+ * The responses of the scripted PO and SAM do not depend on the commands data: the SAM accepts any
+ * PO signature, the PO accepts any terminal signature. Two other AIDs are known by the scripted PO
+ * and answered with "file not found", as a PO of another application would do.
+ * <p>
+ * The simulated PO and SAM have the same files and keep their state, the session signatures being
+ * actually computed and checked.
+ */
+final class CalypsoScripts {
+    static final String PO_AID = "315449432E49434131";
+    static final String[] OTHER_AIDS = {"A0000004040125090101", "315449432E49434132"};
+    static final byte SFI_ENVIRONMENT = (byte) 0x07;
+    static final byte SFI_EVENT_LOG = (byte) 0x08;
+    static final byte SFI_CONTRACTS = (byte) 0x09;
+    static final byte SFI_COUNTER = (byte) 0x19;
+
+    static final String PO_FCI = "6F238409" + PO_AID
+            + "A516BF0C13C708000000001122334453070A3C23051410019000";
+
+    private static final String PO_ATR = "3B8880010000000000718100F9";
+    private static final String SAM_ATR = "3B3F9600805A0080C120000012345678829000";
+
+    /* a 29-byte record */
+    private static final String RECORD =
+            "00112233445566778899AABBCCDDEEFF00112233445566778899AABBCC";
+
+    private CalypsoScripts() {}
+
+    /**
+     * @return a new PO
+     */
+    static ScriptedSecureElement po() {
+        ScriptedSecureElement po = new ScriptedSecureElement(PO_ATR, "PROTOCOL_ISO14443_4")
+                /* Select Application */
+                .script(0xA4, PO_FCI)
+                /* Open Secure Session rev 3.1, reading a record */
+                .script(0x8A, "001234000030791D" + RECORD + "9000")
+                /* Read Records */
+                .script(0xB2, RECORD + "9000")
+                /* Decrease, Increase */
+                .script(0x30, "0003E79000").script(0x32, "0003E99000")
+                /* Append Record, Update Record */
+                .script(0xE2, "9000").script(0xDC, "9000")
+                /* Close Secure Session */
+                .script(0x8E, "112233449000");
+        for (String aid : OTHER_AIDS) {
+            po.script(selectApplicationCommand(aid), "6A82");
+        }
+        return po;
+    }
+
+    /**
+     * @return a new SAM
+     */
+    static ScriptedSecureElement sam() {
+        return new ScriptedSecureElement(SAM_ATR, "PROTOCOL_ISO7816_3")
+                /* Select Diversifier */
+                .script(0x14, "9000")
+                /* Get Challenge (4 bytes, rev 3.1 PO) */
+                .script(0x84, "010203049000")
+                /* Digest Init, Digest Update */
+                .script(0x8A, "9000").script(0x8C, "9000")
+                /* Digest Close */
+                .script(0x8E, "556677889000")
+                /* Digest Authenticate */
+                .script(0x82, "9000");
+    }
+
+    /**
+     * @return a new simulated PO
+     */
+    static CalypsoPoSimulator simulatedPo() {
+        CalypsoPoSimulator po = new CalypsoPoSimulator(ByteArrayUtil.fromHex(PO_AID),
+                ByteArrayUtil.fromHex("0000000011223344"))
+                        .addLinearFile(SFI_ENVIRONMENT, 1, 29)
+                        .addCyclicFile(SFI_EVENT_LOG, 3, 29)
+                        .addLinearFile(SFI_CONTRACTS, 4, 29)
+                        .addCountersFile(SFI_COUNTER, 4);
+        po.setRecord(SFI_ENVIRONMENT, 1, ByteArrayUtil.fromHex(RECORD));
+        po.setRecord(SFI_CONTRACTS, 1, ByteArrayUtil.fromHex(RECORD));
+        po.setCounter(SFI_COUNTER, 1, 0xFFFFFF);
+        return po;
+    }
+
+    /**
+     * @return a new simulated SAM
+     */
+    static CalypsoSamSimulator simulatedSam() {
+        return new CalypsoSamSimulator(ByteArrayUtil.fromHex("12345678"));
+    }
+
+    /**
+     * Plugs the PO in the provided reader and defines the contactless protocol
+     */
+    static void insertPo(StubReader poReader, StubSecureElement po) {
+        poReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        poReader.insertSe(po);
+    }
+
+    /**
+     * Plugs the SAM in the provided reader and selects it
+     *
+     * @return the selected SAM
+     */
+    static CalypsoSam insertAndSelectSam(StubReader samReader, StubSecureElement sam)
+            throws KeypleReaderException {
+        samReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO7816_3,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO7816_3));
+        samReader.insertSe(sam);
+        SeSelection samSelection = new SeSelection();
+        samSelection.prepareSelection(new SamSelectionRequest(
+                new SamSelector(SamRevision.C1, null, "SAM"), ChannelState.KEEP_OPEN));
+        return (CalypsoSam) samSelection.processExplicitSelection(samReader).getActiveSelection()
+                .getMatchingSe();
+    }
+
+    /**
+     * @param aid the AID to select
+     * @param channelState the channel state after the selection
+     * @return a PO selection request
+     */
+    static PoSelectionRequest poSelectionRequest(String aid, ChannelState channelState) {
+        return new PoSelectionRequest(
+                new PoSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new PoSelector.PoAidSelector(new SeSelector.AidSelector.IsoAid(aid),
+                                PoSelector.InvalidatedPo.REJECT),
+                        aid),
+                channelState);
+    }
+
+    /**
+     * Selects the PO, keeping the logical channel open
+     *
+     * @return the selected PO
+     */
+    static CalypsoPo selectPo(SeReader poReader) throws KeypleReaderException {
+        SeSelection poSelection = new SeSelection();
+        poSelection.prepareSelection(poSelectionRequest(PO_AID, ChannelState.KEEP_OPEN));
+        return (CalypsoPo) poSelection.processExplicitSelection(poReader).getActiveSelection()
+                .getMatchingSe();
+    }
+
+    private static String selectApplicationCommand(String aid) {
+        return String.format("00A40400%02X%s00", aid.length() / 2, aid);
+    }
+}
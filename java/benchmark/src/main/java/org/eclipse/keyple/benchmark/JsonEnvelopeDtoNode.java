@@ -0,0 +1,80 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.nio.charset.Charset;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.DtoHandler;
+import org.eclipse.keyple.plugin.remotese.transport.DtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+
+/**
+ * {@link DtoNode} decorator serializing each keypleDto sent by the node to json and back, as done
+ * by the web socket transports, and counting the bytes that would be sent on the wire.
+ */
+final class JsonEnvelopeDtoNode implements DtoNode {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final DtoNode dtoNode;
+    private long wireByteCount;
+
+    JsonEnvelopeDtoNode(DtoNode dtoNode) {
+        this.dtoNode = dtoNode;
+    }
+
+    /**
+     * @return the number of bytes sent since the previous call
+     */
+    long takeWireByteCount() {
+        long count = wireByteCount;
+        wireByteCount = 0;
+        return count;
+    }
+
+    private KeypleDto onTheWire(KeypleDto keypleDto) {
+        String json = KeypleDtoHelper.toJson(keypleDto);
+        wireByteCount += json.getBytes(UTF_8).length;
+        return KeypleDtoHelper.fromJson(json);
+    }
+
+    @Override
+    public void setDtoHandler(final DtoHandler handler) {
+        /* the responses are sent by the transport itself */
+        dtoNode.setDtoHandler(new DtoHandler() {
+            @Override
+            public TransportDto onDTO(TransportDto message) {
+                TransportDto response = handler.onDTO(message);
+                if (KeypleDtoHelper.isNoResponse(response.getKeypleDTO())) {
+                    return response;
+                }
+                return response.nextTransportDTO(onTheWire(response.getKeypleDTO()));
+            }
+        });
+    }
+
+    @Override
+    public void sendDTO(TransportDto message) throws KeypleRemoteException {
+        dtoNode.sendDTO(message.nextTransportDTO(onTheWire(message.getKeypleDTO())));
+    }
+
+    @Override
+    public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+        dtoNode.sendDTO(onTheWire(message));
+    }
+
+    @Override
+    public String getNodeId() {
+        return dtoNode.getNodeId();
+    }
+}
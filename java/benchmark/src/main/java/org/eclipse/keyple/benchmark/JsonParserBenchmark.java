@@ -0,0 +1,125 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.plugin.remotese.transport.json.HexTypeAdapter;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.openjdk.jmh.annotations.*;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Json transmitSet round trip of 10 APDUs (request and response bodies, serialized then embedded
+ * in a keypleDto, and back), with:
+ * <ul>
+ * <li>a new reflective Gson per serialization (the former JsonParser.getGson()),</li>
+ * <li>a shared reflective Gson,</li>
+ * <li>the shared Gson of {@link JsonParser} with the streaming adapters.</li>
+ * </ul>
+ * The messages carry no SE protocol, the reflective Gson only needs the hex adapter. Run with -prof
+ * gc to get the allocated bytes per round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonParserBenchmark {
+    private static final int APDU_COUNT = 10;
+
+    private SeRequestSet seRequestSet;
+    private SeResponseSet seResponseSet;
+    private Gson reflectiveGson;
+
+    private static Gson createReflectiveGson() {
+        return new GsonBuilder().registerTypeAdapter(byte[].class, new HexTypeAdapter())
+                .create();
+    }
+
+    @Setup
+    public void setUp() {
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        List<ApduResponse> apduResponses = new ArrayList<ApduResponse>();
+        for (int i = 0; i < APDU_COUNT; i++) {
+            byte[] apdu = new byte[30];
+            Arrays.fill(apdu, (byte) i);
+            apduRequests.add(new ApduRequest(apdu, true));
+            apdu = new byte[32];
+            Arrays.fill(apdu, (byte) i);
+            apdu[30] = (byte) 0x90;
+            apdu[31] = (byte) 0x00;
+            apduResponses.add(new ApduResponse(apdu, null));
+        }
+        seRequestSet = new SeRequestSet(new SeRequest(apduRequests, ChannelState.KEEP_OPEN));
+        seResponseSet = new SeResponseSet(new SeResponse(true, true, null, apduResponses));
+        reflectiveGson = createReflectiveGson();
+    }
+
+    /**
+     * Source of the Gson used for each serialization
+     */
+    private interface GsonProvider {
+        Gson get();
+    }
+
+    private Object roundTrip(GsonProvider provider) {
+        String request = provider.get().toJson(new KeypleDto("reader_transmitSet",
+                provider.get().toJson(seRequestSet, SeRequestSet.class), true, "session1",
+                "nativeReader", "virtualReader", "master", "slave", "id1"));
+        KeypleDto requestDto = provider.get().fromJson(request, KeypleDto.class);
+        provider.get().fromJson(requestDto.getBody(), SeRequestSet.class);
+
+        String response = provider.get().toJson(new KeypleDto("reader_transmitSet",
+                provider.get().toJson(seResponseSet, SeResponseSet.class), false, "session1",
+                "nativeReader", "virtualReader", "slave", "master", "id1"));
+        KeypleDto responseDto = provider.get().fromJson(response, KeypleDto.class);
+        return provider.get().fromJson(responseDto.getBody(), SeResponseSet.class);
+    }
+
+    @Benchmark
+    public Object newReflectiveGson() {
+        return roundTrip(new GsonProvider() {
+            @Override
+            public Gson get() {
+                return createReflectiveGson();
+            }
+        });
+    }
+
+    @Benchmark
+    public Object sharedReflectiveGson() {
+        return roundTrip(new GsonProvider() {
+            @Override
+            public Gson get() {
+                return reflectiveGson;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object jsonParser() {
+        return roundTrip(new GsonProvider() {
+            @Override
+            public Gson get() {
+                return JsonParser.getGson();
+            }
+        });
+    }
+}
@@ -0,0 +1,148 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.keyple.core.selection.ReaderSelectionsResult;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.selection.SelectionsResult;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Selection of a PO presented to one of 4 {@link StubReader}s (the last one), the other readers
+ * holding no card or a foreign card (every SELECT failing):
+ * <ul>
+ * <li>sequentially, reader after reader until a match, as done by the applications,</li>
+ * <li>concurrently, first match wins,</li>
+ * <li>concurrently, all the matches being collected.</li>
+ * </ul>
+ * Each APDU exchanged with the PO takes the configured latency; a contactless SELECT takes
+ * several milliseconds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiReaderSelectionBenchmark {
+    private static final int READER_COUNT = 4;
+
+    @Param({"0", "2000"})
+    private int apduLatencyMicros;
+
+    @Param({"EMPTY", "FOREIGN_CARD"})
+    private String otherReaders;
+
+    private final Set<String> readerNames = new LinkedHashSet<String>();
+    private final List<StubReader> readers = new ArrayList<StubReader>();
+    private ExecutorService executorService;
+    private SeSelection seSelection;
+
+    @Setup
+    public void setUp() throws KeypleReaderException {
+        for (int i = 0; i < READER_COUNT; i++) {
+            readerNames.add("benchmarkMultiReader" + i);
+        }
+        StubPlugin.getInstance().plugStubReaders(readerNames, true);
+        for (String readerName : readerNames) {
+            readers.add((StubReader) StubPlugin.getInstance().getReader(readerName));
+        }
+        for (int i = 0; i < READER_COUNT - 1; i++) {
+            if (otherReaders.equals("FOREIGN_CARD")) {
+                CalypsoScripts.insertPo(readers.get(i), new SlowSecureElement(
+                        CalypsoScripts.po().script(0xA4, "6A82"), apduLatencyMicros));
+            }
+        }
+        CalypsoScripts.insertPo(readers.get(READER_COUNT - 1),
+                new SlowSecureElement(CalypsoScripts.po(), apduLatencyMicros));
+        executorService = Executors.newFixedThreadPool(READER_COUNT);
+        seSelection = new SeSelection();
+        seSelection.prepareSelection(
+                CalypsoScripts.poSelectionRequest(CalypsoScripts.PO_AID, ChannelState.CLOSE_AFTER));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdownNow();
+        StubPlugin.getInstance().unplugStubReaders(readerNames, true);
+    }
+
+    @Benchmark
+    public SelectionsResult sequential() {
+        for (StubReader reader : readers) {
+            try {
+                SelectionsResult selectionsResult = seSelection.processExplicitSelection(reader);
+                if (selectionsResult.getMatchingSelections().size() > 0) {
+                    return selectionsResult;
+                }
+            } catch (KeypleReaderException e) {
+                /* no card in this reader, try the next one */
+            }
+        }
+        throw new IllegalStateException("No matching reader.");
+    }
+
+    @Benchmark
+    public ReaderSelectionsResult concurrentFirstMatch() throws KeypleReaderException {
+        return seSelection.processExplicitSelection(readers, executorService);
+    }
+
+    @Benchmark
+    public List<ReaderSelectionsResult> concurrentCollectAll() throws KeypleReaderException {
+        return seSelection.processExplicitSelectionAll(readers, executorService);
+    }
+
+    /**
+     * Adds a latency to each APDU exchanged with a SE
+     */
+    private static final class SlowSecureElement extends StubSecureElement {
+        private final StubSecureElement se;
+        private final long apduLatencyNanos;
+
+        SlowSecureElement(StubSecureElement se, int apduLatencyMicros) {
+            this.se = se;
+            this.apduLatencyNanos = TimeUnit.MICROSECONDS.toNanos(apduLatencyMicros);
+        }
+
+        @Override
+        public byte[] getATR() {
+            return se.getATR();
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return se.getSeProcotol();
+        }
+
+        @Override
+        public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+            if (apduLatencyNanos > 0) {
+                LockSupport.parkNanos(apduLatencyNanos);
+            }
+            return se.processApdu(apduIn);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.transaction.CalypsoPo;
+import org.eclipse.keyple.calypso.transaction.PoResource;
+import org.eclipse.keyple.calypso.transaction.PoTransaction;
+import org.eclipse.keyple.calypso.transaction.PoTransactionPlan;
+import org.eclipse.keyple.calypso.transaction.SamResource;
+import org.eclipse.keyple.calypso.transaction.SecuritySettings;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.calypso.CalypsoPoSimulator;
+import org.eclipse.keyple.plugin.stub.calypso.CalypsoSamSimulator;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * A complete ticketing tap with a {@link PoTransaction}: selection of the PO, opening of the
+ * session reading the environment, reading of a contract and of the counter, decrease of the
+ * counter, appending of an event and closing of the session.
+ * <p>
+ * The tap is measured with a scripted PO and SAM (cost of Keyple only) and with the simulated
+ * {@link CalypsoPoSimulator} and {@link CalypsoSamSimulator} (signatures actually computed).
+ * <p>
+ * The same tap is also run with a {@link PoTransactionPlan} built once, for the comparison of the
+ * CPU time and of the allocations (run with <code>-prof gc</code>) with the commands prepared for
+ * each tap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PoTransactionBenchmark {
+    private static final String PO_READER_NAME = "benchmarkPoReader";
+    private static final String SAM_READER_NAME = "benchmarkSamReader";
+    private static final String SIMULATED_PO_READER_NAME = "benchmarkSimulatedPoReader";
+    private static final String SIMULATED_SAM_READER_NAME = "benchmarkSimulatedSamReader";
+    private static final byte[] EVENT = ByteArrayUtil
+            .fromHex("0102030405060708090A0B0C0D0E0F101112131415161718191A1B1C1D");
+
+    private StubReader poReader;
+    private SamResource samResource;
+    private StubReader simulatedPoReader;
+    private SamResource simulatedSamResource;
+    private PoTransactionPlan plan;
+    private int decreaseIndex;
+    private int eventIndex;
+
+    @Setup
+    public void setUp() throws KeypleReaderException {
+        StubPlugin stubPlugin = StubPlugin.getInstance();
+        stubPlugin.plugStubReaders(new HashSet<String>(Arrays.asList(PO_READER_NAME,
+                SAM_READER_NAME, SIMULATED_PO_READER_NAME, SIMULATED_SAM_READER_NAME)), true);
+
+        poReader = (StubReader) stubPlugin.getReader(PO_READER_NAME);
+        CalypsoScripts.insertPo(poReader, CalypsoScripts.po());
+        StubReader samReader = (StubReader) stubPlugin.getReader(SAM_READER_NAME);
+        samResource = new SamResource(samReader,
+                CalypsoScripts.insertAndSelectSam(samReader, CalypsoScripts.sam()));
+
+        simulatedPoReader = (StubReader) stubPlugin.getReader(SIMULATED_PO_READER_NAME);
+        CalypsoScripts.insertPo(simulatedPoReader, CalypsoScripts.simulatedPo());
+        samReader = (StubReader) stubPlugin.getReader(SIMULATED_SAM_READER_NAME);
+        simulatedSamResource = new SamResource(samReader,
+                CalypsoScripts.insertAndSelectSam(samReader, CalypsoScripts.simulatedSam()));
+
+        plan = new PoTransactionPlan(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT,
+                CalypsoScripts.SFI_ENVIRONMENT, (byte) 0x01, ChannelState.CLOSE_AFTER);
+        plan.prepareReadRecordsCmd(CalypsoScripts.SFI_CONTRACTS,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, "Contract");
+        plan.prepareReadRecordsCmd(CalypsoScripts.SFI_COUNTER, ReadDataStructure.SINGLE_COUNTER,
+                (byte) 0x01, "Counter");
+        decreaseIndex =
+                plan.prepareDecreaseCmd(CalypsoScripts.SFI_COUNTER, (byte) 0x01, 1, "Decrease");
+        eventIndex = plan.prepareAppendRecordCmd(CalypsoScripts.SFI_EVENT_LOG, EVENT, "Event");
+    }
+
+    @TearDown
+    public void tearDown() {
+        StubPlugin.getInstance().unplugStubReaders(StubPlugin.getInstance().getReaderNames(),
+                true);
+    }
+
+    @Benchmark
+    public boolean openReadModifyClose() throws KeypleReaderException {
+        return tap(poReader, samResource);
+    }
+
+    @Benchmark
+    public boolean openReadModifyCloseSimulated() throws KeypleReaderException {
+        return tap(simulatedPoReader, simulatedSamResource);
+    }
+
+    @Benchmark
+    public boolean openReadModifyClosePlan() throws KeypleReaderException {
+        return tapPlan(poReader, samResource);
+    }
+
+    @Benchmark
+    public boolean openReadModifyClosePlanSimulated() throws KeypleReaderException {
+        return tapPlan(simulatedPoReader, simulatedSamResource);
+    }
+
+    private static boolean tap(StubReader poReader, SamResource samResource)
+            throws KeypleReaderException {
+        CalypsoPo calypsoPo = CalypsoScripts.selectPo(poReader);
+        PoTransaction poTransaction = new PoTransaction(new PoResource(poReader, calypsoPo),
+                samResource, new SecuritySettings());
+
+        poTransaction.prepareReadRecordsCmd(CalypsoScripts.SFI_CONTRACTS,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, "Contract");
+        poTransaction.prepareReadRecordsCmd(CalypsoScripts.SFI_COUNTER,
+                ReadDataStructure.SINGLE_COUNTER, (byte) 0x01, "Counter");
+        poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT,
+                CalypsoScripts.SFI_ENVIRONMENT, (byte) 0x01);
+
+        poTransaction.prepareDecreaseCmd(CalypsoScripts.SFI_COUNTER, (byte) 0x01, 1, "Decrease");
+        poTransaction.prepareAppendRecordCmd(CalypsoScripts.SFI_EVENT_LOG, EVENT, "Event");
+        poTransaction.processClosing(ChannelState.CLOSE_AFTER);
+        if (!poTransaction.isSuccessful()) {
+            throw new IllegalStateException("The transaction failed.");
+        }
+        return true;
+    }
+
+    private boolean tapPlan(StubReader poReader, SamResource samResource)
+            throws KeypleReaderException {
+        CalypsoPo calypsoPo = CalypsoScripts.selectPo(poReader);
+        PoTransaction poTransaction = new PoTransaction(new PoResource(poReader, calypsoPo),
+                samResource, new SecuritySettings());
+
+        /* the fields set for each tap */
+        plan.setCounterValue(decreaseIndex, 1);
+        plan.setRecordData(eventIndex, EVENT);
+        poTransaction.processPlan(plan);
+        if (!poTransaction.isSuccessful()) {
+            throw new IllegalStateException("The transaction failed.");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,164 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.seproxy.event.ObservableReader;
+import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.plugin.PollingPresenceMonitor;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * SE insertion detection latency with 8, 64 and 256 observed {@link StubReader}, with
+ * one monitoring thread per reader (default) and with a {@link PollingPresenceMonitor} of 2
+ * threads shared by the readers of the plugin, both polling every 10 ms.
+ * <p>
+ * Each operation inserts a SE in the next reader, waits for its insertion event, then removes it.
+ * The readers are used in turn, so that the removal has been processed when a reader is used again.
+ * <p>
+ * The {@link MonitoringCost} counters report the live threads of the JVM and the CPU time of the
+ * whole process per operation, which includes the polling of the idle readers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PresenceMonitorBenchmark {
+    private static final int MONITOR_THREADS = 2;
+    private static final long POLLING_PERIOD = 10; // ms, as the stub monitoring thread
+
+    @Param({"thread", "shared"})
+    public String monitoring;
+
+    @Param({"8", "64", "256"})
+    public int readerCount;
+
+    private final Set<String> readerNames = new HashSet<String>();
+    private final List<StubReader> readers = new ArrayList<StubReader>();
+    private PollingPresenceMonitor presenceMonitor;
+    private ObservableReader.ReaderObserver observer;
+    private int position;
+
+    private volatile String expectedReaderName;
+    private volatile CountDownLatch detection;
+
+    private final StubSecureElement se = new StubSecureElement() {
+        @Override
+        public byte[] getATR() {
+            return new byte[] {(byte) 0x3B, (byte) 0x00};
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return "PROTOCOL_ISO14443_4";
+        }
+    };
+
+    /**
+     * Live threads and process CPU time per operation, measured over each iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class MonitoringCost {
+        public int liveThreads;
+        public double cpuMicrosPerOp;
+        private long operations;
+        private long cpuTimeBase;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            operations = 0;
+            cpuTimeBase = processCpuTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void measure() {
+            liveThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+            cpuMicrosPerOp = operations == 0 ? 0
+                    : (processCpuTime() - cpuTimeBase) / 1000.0 / operations;
+        }
+
+        private static long processCpuTime() {
+            return ((com.sun.management.OperatingSystemMXBean) ManagementFactory
+                    .getOperatingSystemMXBean()).getProcessCpuTime();
+        }
+    }
+
+    @Setup
+    public void setUp() throws KeypleReaderException {
+        StubPlugin stubPlugin = StubPlugin.getInstance();
+        if ("shared".equals(monitoring)) {
+            presenceMonitor = new PollingPresenceMonitor(MONITOR_THREADS, POLLING_PERIOD);
+            stubPlugin.setPresenceMonitor(presenceMonitor);
+        }
+        for (int i = 0; i < readerCount; i++) {
+            readerNames.add("benchmarkMonitoredReader" + i);
+        }
+        stubPlugin.plugStubReaders(readerNames, true);
+
+        observer = new ObservableReader.ReaderObserver() {
+            @Override
+            public void update(ReaderEvent event) {
+                CountDownLatch latch = detection;
+                if (latch != null && event.getEventType() == ReaderEvent.EventType.SE_INSERTED
+                        && event.getReaderName().equals(expectedReaderName)) {
+                    latch.countDown();
+                }
+            }
+        };
+        for (String readerName : readerNames) {
+            StubReader reader = (StubReader) stubPlugin.getReader(readerName);
+            reader.addObserver(observer);
+            readers.add(reader);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (StubReader reader : readers) {
+            reader.removeObserver(observer);
+        }
+        StubPlugin stubPlugin = StubPlugin.getInstance();
+        stubPlugin.unplugStubReaders(readerNames, true);
+        stubPlugin.setPresenceMonitor(null);
+        if (presenceMonitor != null) {
+            presenceMonitor.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void insertionDetection(MonitoringCost monitoringCost) throws InterruptedException {
+        position = (position + 1) % readerCount;
+        StubReader reader = readers.get(position);
+        CountDownLatch latch = new CountDownLatch(1);
+        expectedReaderName = reader.getName();
+        detection = latch;
+        reader.insertSe(se);
+        if (!latch.await(5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Insertion not detected on " + reader.getName());
+        }
+        reader.removeSe();
+        monitoringCost.operations++;
+    }
+}
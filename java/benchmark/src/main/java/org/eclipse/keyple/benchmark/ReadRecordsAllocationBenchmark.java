@@ -0,0 +1,97 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Use of the response of a typical Read Records command returning 10 records of 20 bytes: the
+ * application gets each record from the parser, and the response length is checked as
+ * {@link org.eclipse.keyple.calypso.transaction.PoTransaction} does.
+ * <p>
+ * The former behaviour (response data copied and records parsed at each call) is compared with the
+ * current one (no copy to check the length, records parsed once). Run with -prof gc to get the
+ * allocated bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReadRecordsAllocationBenchmark {
+    private static final int NUMBER_OF_RECORDS = 10;
+    private static final int RECORD_SIZE = 20;
+
+    private ApduResponse apduResponse;
+
+    @Setup
+    public void setUp() {
+        byte[] buffer = new byte[NUMBER_OF_RECORDS * (RECORD_SIZE + 2) + 2];
+        int index = 0;
+        for (int i = 1; i <= NUMBER_OF_RECORDS; i++) {
+            buffer[index++] = (byte) i;
+            buffer[index++] = (byte) RECORD_SIZE;
+            for (int j = 0; j < RECORD_SIZE; j++) {
+                buffer[index++] = (byte) (i + j);
+            }
+        }
+        buffer[index++] = (byte) 0x90;
+        buffer[index] = (byte) 0x00;
+        apduResponse = new ApduResponse(buffer, null);
+    }
+
+    @Benchmark
+    public int copyParsedAtEachCall() {
+        int sum = apduResponse.getDataOut().length;
+        for (int i = 1; i <= NUMBER_OF_RECORDS; i++) {
+            sum += legacyGetRecords(apduResponse).get(i)[0];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int zeroCopyParsedOnce() {
+        int sum = apduResponse.getDataOutLength();
+        ReadRecordsRespPars parser = new ReadRecordsRespPars(apduResponse,
+                ReadDataStructure.MULTIPLE_RECORD_DATA, (byte) 1);
+        for (int i = 1; i <= NUMBER_OF_RECORDS; i++) {
+            sum += parser.getRecords().get(i)[0];
+        }
+        return sum;
+    }
+
+    /**
+     * Former implementation of {@link ReadRecordsRespPars#getRecords()} for multiple records
+     */
+    private static SortedMap<Integer, byte[]> legacyGetRecords(ApduResponse response) {
+        SortedMap<Integer, byte[]> records = new TreeMap<Integer, byte[]>();
+        byte[] apdu = response.getDataOut();
+        int apduLen = apdu.length;
+        int index = 0;
+        while (apduLen > 0) {
+            byte recordNb = apdu[index++];
+            byte len = apdu[index++];
+            records.put((int) recordNb, Arrays.copyOfRange(apdu, index, index + len));
+            index = index + len;
+            apduLen = apduLen - 2 - len;
+        }
+        return records;
+    }
+}
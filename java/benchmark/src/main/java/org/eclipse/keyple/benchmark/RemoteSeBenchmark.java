@@ -0,0 +1,141 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.selection.SelectionsResult;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.VirtualReader;
+import org.eclipse.keyple.plugin.remotese.transport.DtoNode;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Round trips between a {@link VirtualReader} of the master and a {@link StubReader} connected by
+ * a slave, through the {@link LocalTransportFactory}: the cost measured is the one of the remote
+ * SE plugin (encoding, dispatching and decoding of the messages), the transport being direct java
+ * calls.
+ * <p>
+ * With the jsonEnvelope transport, each keypleDto is also serialized to json and back as done by
+ * the web socket transports; the bytes sent are reported by the wireBytes counter (divide by the
+ * transmits counter for the bytes per round trip).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemoteSeBenchmark {
+    private static final String SERVER_NODE_ID = "benchmarkServerNodeId";
+    private static final String CLIENT_NODE_ID = "benchmarkClientNodeId";
+    private static final String READER_NAME = "benchmarkNativeReader";
+
+    @Param({"local", "jsonEnvelope"})
+    public String transport;
+
+    private VirtualReader virtualReader;
+    private JsonEnvelopeDtoNode masterNode;
+    private JsonEnvelopeDtoNode slaveNode;
+    private SeSelection seSelection;
+    private SeRequestSet seRequestSet;
+
+    @Setup
+    public void setUp() throws KeypleReaderException {
+        SeProxyService seProxyService = SeProxyService.getInstance();
+        seProxyService.addPlugin(StubPlugin.getInstance());
+        StubPlugin.getInstance().plugStubReader(READER_NAME, true);
+        StubReader nativeReader = (StubReader) StubPlugin.getInstance().getReader(READER_NAME);
+        CalypsoScripts.insertPo(nativeReader, CalypsoScripts.po());
+
+        LocalTransportFactory factory = new LocalTransportFactory(SERVER_NODE_ID);
+        DtoNode serverNode = factory.getServer();
+        DtoNode clientNode = factory.getClient(CLIENT_NODE_ID);
+        if ("jsonEnvelope".equals(transport)) {
+            masterNode = new JsonEnvelopeDtoNode(serverNode);
+            slaveNode = new JsonEnvelopeDtoNode(clientNode);
+            serverNode = masterNode;
+            clientNode = slaveNode;
+        }
+        MasterAPI masterAPI = new MasterAPI(seProxyService, serverNode);
+        SlaveAPI slaveAPI = new SlaveAPI(seProxyService, clientNode, SERVER_NODE_ID);
+        slaveAPI.connectReader(nativeReader);
+        virtualReader = masterAPI.getPlugin().getReaderByRemoteName(READER_NAME, CLIENT_NODE_ID);
+
+        seSelection = new SeSelection();
+        seSelection.prepareSelection(
+                CalypsoScripts.poSelectionRequest(CalypsoScripts.PO_AID, ChannelState.CLOSE_AFTER));
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        apduRequests.add(
+                new ApduRequest("Read Record", ByteArrayUtil.fromHex("00B2013C1D"), false));
+        seRequestSet = new SeRequestSet(new SeRequest(
+                new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new SeSelector.AidSelector(
+                                new SeSelector.AidSelector.IsoAid(CalypsoScripts.PO_AID), null),
+                        null),
+                apduRequests, ChannelState.CLOSE_AFTER));
+    }
+
+    @TearDown
+    public void tearDown() throws KeypleReaderException {
+        StubPlugin.getInstance().unplugStubReader(READER_NAME, true);
+    }
+
+    /**
+     * Bytes sent on the wire by the jsonEnvelope transport
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireCounters {
+        public long wireBytes;
+        public long transmits;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            wireBytes = 0;
+            transmits = 0;
+        }
+    }
+
+    @Benchmark
+    public SeResponseSet transmitSet(WireCounters wireCounters) throws KeypleReaderException {
+        SeResponseSet seResponseSet = virtualReader.transmitSet(seRequestSet);
+        if (masterNode != null) {
+            wireCounters.wireBytes +=
+                    masterNode.takeWireByteCount() + slaveNode.takeWireByteCount();
+            wireCounters.transmits++;
+        }
+        return seResponseSet;
+    }
+
+    @Benchmark
+    public SelectionsResult processExplicitSelection() throws KeypleReaderException {
+        return seSelection.processExplicitSelection(virtualReader);
+    }
+}
@@ -0,0 +1,291 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.calypso.command.sam.builder.security.SamGetChallengeCmdBuild;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.ReaderPlugin;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.ProxyReader;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * SAM allocation throughput of the {@link SamResourceManager} with 8 workers sharing 1 to 16 stub
+ * SAMs, for several {@link SamAllocationStrategy}.
+ * <p>
+ * Each operation allocates a SAM for the next PO of the worker, sends it 4 commands (each one
+ * taking a simulated processing time of 1 ms), then frees it. Each worker processes 16 POs in turn.
+ * <p>
+ * The {@link SamLoad} counters report the allocations of the least and of the most used SAM during
+ * each iteration. No transaction is run, so the SAMs are never diversified: the poAffinity
+ * strategy measures its lookup on top of its leastUsed fallback.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class SamResourceManagerBenchmark {
+    private static final int SAM_COMMANDS_PER_ALLOCATION = 4;
+    private static final long SAM_COMMAND_DURATION = 1; // ms
+    private static final String SAM_READER_PREFIX = "benchmarkSamReader";
+
+    private static final SamIdentifier ANY_SAM = new SamIdentifier(SamRevision.AUTO, null, null);
+
+    @Param({"firstFree", "roundRobin", "leastRecentlyUsed", "leastUsed", "poAffinity"})
+    public String strategy;
+
+    @Param({"1", "4", "16"})
+    public int samCount;
+
+    private final Set<String> readerNames = new HashSet<String>();
+    private final List<SlowSam> sams = new ArrayList<SlowSam>();
+    private SamResourceManager samResourceManager;
+    private SeRequest seRequest;
+
+    /**
+     * Stub SAM answering after a simulated processing time
+     */
+    private static class SlowSam extends StubSecureElement {
+        private final StubSecureElement sam = CalypsoScripts.sam();
+        private final AtomicLong commandCount = new AtomicLong();
+
+        @Override
+        public byte[] getATR() {
+            return sam.getATR();
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return sam.getSeProcotol();
+        }
+
+        @Override
+        public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+            try {
+                Thread.sleep(SAM_COMMAND_DURATION);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            commandCount.incrementAndGet();
+            return sam.processApdu(apduIn);
+        }
+    }
+
+    /**
+     * Non observable plugin listing the SAM readers, the resources are created at once by the
+     * {@link SamResourceManager}
+     */
+    private static class SamReaderPlugin implements ReaderPlugin {
+        private final SortedSet<SeReader> readers;
+
+        private SamReaderPlugin(SortedSet<SeReader> readers) {
+            this.readers = readers;
+        }
+
+        @Override
+        public SortedSet<String> getReaderNames() {
+            SortedSet<String> readerNames = new TreeSet<String>();
+            for (SeReader reader : readers) {
+                readerNames.add(reader.getName());
+            }
+            return readerNames;
+        }
+
+        @Override
+        public SortedSet<? extends SeReader> getReaders() {
+            return readers;
+        }
+
+        @Override
+        public SeReader getReader(String name) throws KeypleReaderNotFoundException {
+            for (SeReader reader : readers) {
+                if (reader.getName().equals(name)) {
+                    return reader;
+                }
+            }
+            throw new KeypleReaderNotFoundException(name);
+        }
+
+        @Override
+        public String getName() {
+            return "benchmarkSamPlugin";
+        }
+
+        @Override
+        public Map<String, String> getParameters() {
+            return new HashMap<String, String>();
+        }
+
+        @Override
+        public void setParameter(String key, String value) {}
+
+        @Override
+        public void setParameters(Map<String, String> parameters) {}
+
+        @Override
+        public int compareTo(ReaderPlugin plugin) {
+            return getName().compareTo(plugin.getName());
+        }
+    }
+
+    /**
+     * Serial numbers of the POs processed in turn by a worker
+     */
+    @State(Scope.Thread)
+    public static class Terminal {
+        private static final int PO_COUNT = 16;
+
+        private final byte[][] poSerialNumbers = new byte[PO_COUNT][];
+        private int position;
+
+        @Setup
+        public void setUp(ThreadParams threadParams) {
+            for (int i = 0; i < PO_COUNT; i++) {
+                poSerialNumbers[i] = new byte[] {0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+                        (byte) threadParams.getThreadIndex(), (byte) i};
+            }
+        }
+
+        private byte[] nextPoSerialNumber() {
+            position = (position + 1) % PO_COUNT;
+            return poSerialNumbers[position];
+        }
+    }
+
+    /**
+     * Allocations of the least and of the most used SAM during an iteration, reported by the first
+     * worker only
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SamLoad {
+        public long minSamAllocations;
+        public long maxSamAllocations;
+        private SamResourceManagerBenchmark benchmark;
+        private boolean reporter;
+        private long[] commandCounts;
+
+        @Setup
+        public void setUp(SamResourceManagerBenchmark benchmark, ThreadParams threadParams) {
+            this.benchmark = benchmark;
+            reporter = threadParams.getThreadIndex() == 0;
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            commandCounts = benchmark.getCommandCounts();
+        }
+
+        @TearDown(Level.Iteration)
+        public void measure() {
+            if (!reporter) {
+                return;
+            }
+            long[] lastCommandCounts = benchmark.getCommandCounts();
+            minSamAllocations = Long.MAX_VALUE;
+            maxSamAllocations = 0;
+            for (int i = 0; i < commandCounts.length; i++) {
+                long allocations = (lastCommandCounts[i] - commandCounts[i])
+                        / SAM_COMMANDS_PER_ALLOCATION;
+                minSamAllocations = Math.min(minSamAllocations, allocations);
+                maxSamAllocations = Math.max(maxSamAllocations, allocations);
+            }
+        }
+    }
+
+    private static SamAllocationStrategy getStrategy(String name) {
+        if ("roundRobin".equals(name)) {
+            return SamAllocationStrategies.roundRobin();
+        }
+        if ("leastRecentlyUsed".equals(name)) {
+            return SamAllocationStrategies.leastRecentlyUsed();
+        }
+        if ("leastUsed".equals(name)) {
+            return SamAllocationStrategies.leastUsed();
+        }
+        if ("poAffinity".equals(name)) {
+            return SamAllocationStrategies.poAffinity(SamAllocationStrategies.leastUsed());
+        }
+        return SamAllocationStrategies.firstFree();
+    }
+
+    @Setup
+    public void setUp() throws KeypleReaderException {
+        StubPlugin stubPlugin = StubPlugin.getInstance();
+        for (int i = 0; i < samCount; i++) {
+            readerNames.add(SAM_READER_PREFIX + i);
+        }
+        stubPlugin.plugStubReaders(readerNames, true);
+        SortedSet<SeReader> readers = new TreeSet<SeReader>();
+        for (String readerName : readerNames) {
+            StubReader samReader = (StubReader) stubPlugin.getReader(readerName);
+            SlowSam sam = new SlowSam();
+            samReader.insertSe(sam);
+            sams.add(sam);
+            readers.add(samReader);
+        }
+        samResourceManager = new SamResourceManager(new SamReaderPlugin(readers),
+                SAM_READER_PREFIX + ".*", 60000);
+        samResourceManager.setAllocationStrategy(getStrategy(strategy));
+
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+        for (int i = 0; i < SAM_COMMANDS_PER_ALLOCATION; i++) {
+            apduRequests
+                    .add(new SamGetChallengeCmdBuild(SamRevision.C1, (byte) 4).getApduRequest());
+        }
+        seRequest = new SeRequest(apduRequests, ChannelState.KEEP_OPEN);
+    }
+
+    private long[] getCommandCounts() {
+        long[] commandCounts = new long[sams.size()];
+        for (int i = 0; i < commandCounts.length; i++) {
+            commandCounts[i] = sams.get(i).commandCount.get();
+        }
+        return commandCounts;
+    }
+
+    @TearDown
+    public void tearDown() {
+        StubPlugin.getInstance().unplugStubReaders(readerNames, true);
+    }
+
+    @Benchmark
+    public SeResponse allocateTransmitFree(Terminal terminal, SamLoad samLoad)
+            throws KeypleReaderException, InterruptedException {
+        SamResource samResource = samResourceManager.allocateSamResource(
+                SamResourceManager.AllocationMode.BLOCKING, ANY_SAM,
+                terminal.nextPoSerialNumber());
+        try {
+            return ((ProxyReader) samResource.getSeReader()).transmit(seRequest);
+        } finally {
+            samResourceManager.freeSamResource(samResource);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+
+/**
+ * Stub SE answering each command with the response scripted for this exact command if any, or
+ * with the response scripted for its instruction byte.
+ * <p>
+ * The responses are decoded once when scripted, so that the time measured is the time spent in
+ * Keyple and not in the simulation of the SE.
+ */
+final class ScriptedSecureElement extends StubSecureElement {
+    private final byte[] atr;
+    private final String seProtocol;
+    private final Map<ByteBuffer, byte[]> commandResponses = new HashMap<ByteBuffer, byte[]>();
+    private final byte[][] responses = new byte[256][];
+
+    ScriptedSecureElement(String atr, String seProtocol) {
+        this.atr = ByteArrayUtil.fromHex(atr);
+        this.seProtocol = seProtocol;
+    }
+
+    /**
+     * Defines the response to the commands having the provided instruction byte
+     *
+     * @param ins the instruction byte
+     * @param hexResponse the response, including the status word
+     * @return this SE
+     */
+    ScriptedSecureElement script(int ins, String hexResponse) {
+        responses[ins & 0xFF] = ByteArrayUtil.fromHex(hexResponse);
+        return this;
+    }
+
+    /**
+     * Defines the response to the provided command
+     *
+     * @param hexCommand the complete command
+     * @param hexResponse the response, including the status word
+     * @return this SE
+     */
+    ScriptedSecureElement script(String hexCommand, String hexResponse) {
+        commandResponses.put(ByteBuffer.wrap(ByteArrayUtil.fromHex(hexCommand)),
+                ByteArrayUtil.fromHex(hexResponse));
+        return this;
+    }
+
+    @Override
+    public byte[] getATR() {
+        return atr;
+    }
+
+    @Override
+    public String getSeProcotol() {
+        return seProtocol;
+    }
+
+    @Override
+    public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+        byte[] response = commandResponses.isEmpty() ? null
+                : commandResponses.get(ByteBuffer.wrap(apduIn));
+        if (response == null) {
+            response = responses[apduIn[1] & 0xFF];
+        }
+        if (response == null) {
+            throw new KeypleIOReaderException("No response available for this request.");
+        }
+        return response.clone();
+    }
+}
@@ -0,0 +1,101 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.selection.SelectionsResult;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Selection of a PO presented to a {@link StubReader} with 3 candidate AIDs, the matching one
+ * being the last:
+ * <ul>
+ * <li>through {@link SeSelection#processExplicitSelection}, including the parsing of the FCI into
+ * a {@link org.eclipse.keyple.calypso.transaction.CalypsoPo},</li>
+ * <li>through {@link StubReader#transmitSet} (AbstractLocalReader.processSeRequestSet) with a
+ * request set reading a record once the application is selected.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SelectionBenchmark {
+    private static final String READER_NAME = "benchmarkSelectionReader";
+
+    private StubReader reader;
+    private SeSelection seSelection;
+    private SeRequestSet seRequestSet;
+
+    @Setup
+    public void setUp() throws KeypleReaderException {
+        StubPlugin.getInstance().plugStubReader(READER_NAME, true);
+        reader = (StubReader) StubPlugin.getInstance().getReader(READER_NAME);
+        CalypsoScripts.insertPo(reader, CalypsoScripts.po());
+
+        seSelection = new SeSelection();
+        Set<SeRequest> seRequests = new LinkedHashSet<SeRequest>();
+        List<String> aids = new ArrayList<String>();
+        for (String aid : CalypsoScripts.OTHER_AIDS) {
+            aids.add(aid);
+        }
+        aids.add(CalypsoScripts.PO_AID);
+        for (String aid : aids) {
+            seSelection.prepareSelection(
+                    CalypsoScripts.poSelectionRequest(aid, ChannelState.CLOSE_AFTER));
+
+            List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+            apduRequests.add(new ApduRequest("Read Record",
+                    ByteArrayUtil.fromHex("00B2013C1D"), false));
+            seRequests.add(new SeRequest(
+                    new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                            new SeSelector.AidSelector(new SeSelector.AidSelector.IsoAid(aid),
+                                    null),
+                            aid),
+                    apduRequests, ChannelState.CLOSE_AFTER));
+        }
+        seRequestSet = new SeRequestSet(seRequests);
+    }
+
+    @TearDown
+    public void tearDown() throws KeypleReaderException {
+        StubPlugin.getInstance().unplugStubReader(READER_NAME, true);
+    }
+
+    @Benchmark
+    public SelectionsResult processExplicitSelection() throws KeypleReaderException {
+        return seSelection.processExplicitSelection(reader);
+    }
+
+    @Benchmark
+    public SeResponseSet processSeRequestSet() throws KeypleReaderException {
+        return reader.transmitSet(seRequestSet);
+    }
+}
@@ -0,0 +1,137 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.core.util.RegexMatcher;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Processing by a {@link StubReader} of a request set made of 10 selectors with protocol flag and
+ * ATR filter, only the last one matching the ATR (AbstractLocalReader.processSeRequestSet), and
+ * the part of this time spent to match the protocol rules and the ATR filters, with the former
+ * approach (regex compiled and ATR converted to hex for each request) and with the precompiled
+ * {@link RegexMatcher}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SelectionMatchingBenchmark {
+    private static final String READER_NAME = "benchmarkMatchingReader";
+
+    private static final byte[] ATR =
+            ByteArrayUtil.fromHex("3B8F8001805A0A0103200311C3C4A1D2829000D2");
+
+    /* ATR filters of 10 applications, only the last one matches the ATR */
+    private static final String[] ATR_REGEXES = {"3B8880....................", "3B8C800150.*",
+            ".*4F4D4141544C4153.*", "3B6F00FF0052.*", "3B8F8001805A0A0103200312........829000..",
+            "3B8F8001805A0A0103200313........829000..", "3B8E800180318066409089120802830190000B",
+            "3B(.{4}|.{6})00FF.*", "3B8F8001804F0CA000000306030001000000006A",
+            "3B8F8001805A0A0103200311........829000.."};
+
+    private static final String PROTOCOL_RULE =
+            StubProtocolSetting.STUB_PROTOCOL_SETTING.get(SeCommonProtocols.PROTOCOL_ISO14443_4);
+
+    private StubReader reader;
+    private SeRequestSet seRequestSet;
+    private RegexMatcher protocolMatcher;
+    private RegexMatcher[] atrMatchers;
+
+    @Setup
+    public void setUp() throws KeypleReaderException {
+        StubPlugin.getInstance().plugStubReader(READER_NAME, true);
+        reader = (StubReader) StubPlugin.getInstance().getReader(READER_NAME);
+        reader.setSeProtocolSetting(StubProtocolSetting.STUB_PROTOCOL_SETTING);
+        reader.insertSe(new StubSecureElement() {
+            @Override
+            public byte[] getATR() {
+                return ATR;
+            }
+
+            @Override
+            public String getSeProcotol() {
+                return PROTOCOL_RULE;
+            }
+        });
+
+        Set<SeRequest> seRequests = new LinkedHashSet<SeRequest>();
+        for (String atrRegex : ATR_REGEXES) {
+            seRequests.add(new SeRequest(
+                    new SeSelector(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                            new SeSelector.AtrFilter(atrRegex), null, atrRegex),
+                    new ArrayList<ApduRequest>(), ChannelState.CLOSE_AFTER));
+        }
+        seRequestSet = new SeRequestSet(seRequests);
+
+        protocolMatcher = RegexMatcher.compile(PROTOCOL_RULE);
+        atrMatchers = new RegexMatcher[ATR_REGEXES.length];
+        for (int i = 0; i < ATR_REGEXES.length; i++) {
+            atrMatchers[i] = RegexMatcher.compile(ATR_REGEXES[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws KeypleReaderException {
+        StubPlugin.getInstance().unplugStubReader(READER_NAME, true);
+    }
+
+    @Benchmark
+    public SeResponseSet processSeRequestSet() throws KeypleReaderException {
+        return reader.transmitSet(seRequestSet);
+    }
+
+    /**
+     * Protocol and ATR matching as done before the precompiled matchers
+     */
+    @Benchmark
+    public int matchCompilingRegex() {
+        int matching = 0;
+        for (String atrRegex : ATR_REGEXES) {
+            if (Pattern.compile(PROTOCOL_RULE).matcher(PROTOCOL_RULE).matches()
+                    && Pattern.compile(atrRegex).matcher(ByteArrayUtil.toHex(ATR)).matches()) {
+                matching++;
+            }
+        }
+        return matching;
+    }
+
+    @Benchmark
+    public int matchPrecompiled() {
+        int matching = 0;
+        for (RegexMatcher atrMatcher : atrMatchers) {
+            if (protocolMatcher.matches(PROTOCOL_RULE) && atrMatcher.matchesHex(ATR)) {
+                matching++;
+            }
+        }
+        return matching;
+    }
+}
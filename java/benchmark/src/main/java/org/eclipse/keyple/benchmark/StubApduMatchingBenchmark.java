@@ -0,0 +1,98 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Response lookup of a {@link StubSecureElement} holding the commands of a Calypso session, with
+ * the byte trie and with the former hexadecimal map (APDU converted to hex, response parsed for
+ * each command).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StubApduMatchingBenchmark {
+    private static final String[][] COMMANDS = {
+            {"00A404000A A0000002 91A0000001 91 00",
+                    "6F25840BA000000291A00000019102A516BF0C13C70800000000C0E11FA653070A3C230C1410019000"},
+            {"00A404000A A0000002 91A0000001 92 00", "6A82"},
+            {"00B2013C00", "00112233445566778899AABBCCDDEEFF00112233445566778899AABBCCDDEE9000"},
+            {"00B2014400", "0102030405060708090A0B0C0D0E0F101112131415161718191A1B1C1D9000"},
+            {"00B201CC00", "000000119000"}, {"00DC013C1D", "9000"}, {"00E200401D", "9000"},
+            {"0032011903000001", "0000629000"}, {"0084000008", "01020304050607089000"},
+            {"008E800000", "000000009000"}};
+
+    /* open secure session with the terminal challenge */
+    private static final String OPEN_COMMAND = "008A0B390401020304 00";
+    private static final String OPEN_RESPONSE =
+            "030D0EFA9C0000000000000000000000000000000000000000000000000000000000000000009000";
+
+    private StubSecureElement se;
+    private Map<String, String> hexCommands;
+    private byte[] readApdu;
+    private byte[] openApdu;
+
+    @Setup
+    public void setUp() {
+        se = new StubSecureElement() {
+            @Override
+            public byte[] getATR() {
+                return new byte[0];
+            }
+
+            @Override
+            public String getSeProcotol() {
+                return "PROTOCOL_ISO14443_4";
+            }
+        };
+        hexCommands = new HashMap<String, String>();
+        for (String[] command : COMMANDS) {
+            se.addHexCommand(command[0], command[1]);
+            hexCommands.put(command[0].replace(" ", ""), command[1]);
+        }
+        /* the trie matches any challenge, the map only the recorded one */
+        se.addHexCommand("008A0B3904 XXXXXXXX 00", OPEN_RESPONSE);
+        hexCommands.put(OPEN_COMMAND.replace(" ", ""), OPEN_RESPONSE);
+        readApdu = ByteArrayUtil.fromHex("00B2014400");
+        openApdu = ByteArrayUtil.fromHex(OPEN_COMMAND);
+    }
+
+    @Benchmark
+    public byte[] trieExact() throws KeypleIOReaderException {
+        return se.processApdu(readApdu);
+    }
+
+    @Benchmark
+    public byte[] trieWildcard() throws KeypleIOReaderException {
+        return se.processApdu(openApdu);
+    }
+
+    @Benchmark
+    public byte[] hexMapExact() {
+        return ByteArrayUtil.fromHex(hexCommands.get(ByteArrayUtil.toHex(readApdu)));
+    }
+
+    @Benchmark
+    public byte[] hexMapWildcard() {
+        return ByteArrayUtil.fromHex(hexCommands.get(ByteArrayUtil.toHex(openApdu)));
+    }
+}
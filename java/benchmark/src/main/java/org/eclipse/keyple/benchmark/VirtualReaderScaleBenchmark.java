@@ -0,0 +1,134 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.core.seproxy.message.SeResponse;
+import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.pluginse.MasterAPI;
+import org.eclipse.keyple.plugin.remotese.pluginse.RemoteSePlugin;
+import org.eclipse.keyple.plugin.remotese.pluginse.VirtualReader;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodecs;
+import org.eclipse.keyple.plugin.remotese.transport.DtoHandler;
+import org.eclipse.keyple.plugin.remotese.transport.factory.ClientNode;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportFactory;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.openjdk.jmh.annotations.*;
+import com.google.gson.JsonObject;
+
+/**
+ * Latency of a transmission on a virtual reader chosen at random among 10 to 10 000 virtual
+ * readers connected to a {@link MasterAPI} through the {@link LocalTransportFactory}: request sent
+ * to the slave and response dispatched back to the virtual reader by its session id.
+ * <p>
+ * The slave is simulated by a {@link DtoHandler} answering the transmissions with an empty
+ * response. The latency should not depend on the number of connected readers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualReaderScaleBenchmark {
+    private static final String SERVER_NODE_ID = "benchmarkServerNodeId";
+    private static final String CLIENT_NODE_ID = "benchmarkClientNodeId";
+
+    @Param({"10", "100", "1000", "10000"})
+    public int readerCount;
+
+    private final List<VirtualReader> virtualReaders = new ArrayList<VirtualReader>();
+    private int[] readerIndexes;
+    private int position;
+    private SeRequestSet seRequestSet;
+
+    @Setup
+    public void setUp() throws KeypleReaderException, KeypleRemoteException {
+        LocalTransportFactory factory = new LocalTransportFactory(SERVER_NODE_ID);
+        MasterAPI masterAPI = new MasterAPI(SeProxyService.getInstance(), factory.getServer());
+        RemoteSePlugin plugin = masterAPI.getPlugin();
+
+        ClientNode client = factory.getClient(CLIENT_NODE_ID);
+        client.setDtoHandler(new SlaveSimulator());
+        for (int i = 0; i < readerCount; i++) {
+            String nativeReaderName = "benchmarkReader" + i;
+            client.sendDTO(connectRequest(nativeReaderName, i));
+            virtualReaders.add(plugin.getReaderByRemoteName(nativeReaderName, CLIENT_NODE_ID));
+        }
+
+        /* readers used in a random order */
+        Random random = new Random(0);
+        readerIndexes = new int[1024];
+        for (int i = 0; i < readerIndexes.length; i++) {
+            readerIndexes[i] = random.nextInt(readerCount);
+        }
+
+        seRequestSet = new SeRequestSet(new SeRequest(
+                Arrays.asList(new ReadRecordsCmdBuild(PoClass.ISO, (byte) 0x14,
+                        ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, true, (byte) 0x20, "")
+                                .getApduRequest()),
+                ChannelState.CLOSE_AFTER));
+    }
+
+    @Benchmark
+    public SeResponseSet transmitSet() throws KeypleReaderException {
+        position = (position + 1) & (readerIndexes.length - 1);
+        return virtualReaders.get(readerIndexes[position]).transmitSet(seRequestSet);
+    }
+
+    private static KeypleDto connectRequest(String nativeReaderName, int index) {
+        JsonObject body = new JsonObject();
+        body.addProperty("transmissionMode", TransmissionMode.CONTACTLESS.name());
+        body.addProperty("options", "{}");
+        body.addProperty("dtoCodecs", DtoCodecs.json().getName());
+        return KeypleDtoHelper.buildRequest(RemoteMethod.READER_CONNECT.getName(),
+                body.toString(), null, nativeReaderName, null, CLIENT_NODE_ID, SERVER_NODE_ID,
+                "connect" + index);
+    }
+
+    /**
+     * Answers the transmissions of the master with an empty response, ignores its responses
+     */
+    private static class SlaveSimulator implements DtoHandler {
+        private final String emptyResponseBody = DtoCodecs.json().encodeBody(
+                new SeResponseSet(new ArrayList<SeResponse>()), SeResponseSet.class);
+
+        @Override
+        public TransportDto onDTO(TransportDto message) {
+            KeypleDto keypleDto = message.getKeypleDTO();
+            if (!keypleDto.isRequest()) {
+                return message.nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
+            }
+            return message.nextTransportDTO(KeypleDtoHelper.buildResponse(keypleDto.getAction(),
+                    emptyResponseBody, keypleDto.getSessionId(), keypleDto.getNativeReaderName(),
+                    keypleDto.getVirtualReaderName(), CLIENT_NODE_ID, SERVER_NODE_ID,
+                    keypleDto.getId()));
+        }
+    }
+}
@@ -29,8 +29,11 @@ public final class ReadRecordsCmdBuild extends AbstractPoCommandBuilder<ReadReco
     /** The command. */
     private static final CalypsoPoCommands command = CalypsoPoCommands.READ_RECORDS;
 
+    private final byte sfi;
     private final byte firstRecordNumber;
     private final ReadDataStructure readDataStructure;
+    private final boolean readJustOneRecord;
+    private final byte expectedLength;
 
     /**
      * Instantiates a new read records cmd build.
@@ -55,8 +58,11 @@ public final class ReadRecordsCmdBuild extends AbstractPoCommandBuilder<ReadReco
             throw new IllegalArgumentException("Bad record number (< 1)");
         }
 
+        this.sfi = sfi;
         this.firstRecordNumber = firstRecordNumber;
         this.readDataStructure = readDataStructure;
+        this.readJustOneRecord = readJustOneRecord;
+        this.expectedLength = expectedLength;
 
         byte p2 = (sfi == (byte) 0x00) ? (byte) 0x05 : (byte) ((byte) (sfi * 8) + 5);
         if (readJustOneRecord) {
@@ -94,4 +100,39 @@ public final class ReadRecordsCmdBuild extends AbstractPoCommandBuilder<ReadReco
     public ReadRecordsRespPars createResponseParser(ApduResponse apduResponse) {
         return new ReadRecordsRespPars(apduResponse, readDataStructure, firstRecordNumber);
     }
+
+    /**
+     * @return the SFI of the file to read (0 for the current EF)
+     */
+    public byte getSfi() {
+        return sfi;
+    }
+
+    /**
+     * @return the record number to read (or first record to read in case of several records)
+     */
+    public byte getFirstRecordNumber() {
+        return firstRecordNumber;
+    }
+
+    /**
+     * @return the file structure type
+     */
+    public ReadDataStructure getReadDataStructure() {
+        return readDataStructure;
+    }
+
+    /**
+     * @return true if only one record is read
+     */
+    public boolean isReadJustOneRecord() {
+        return readJustOneRecord;
+    }
+
+    /**
+     * @return the expected length of the record(s), 0 if not specified
+     */
+    public byte getExpectedLength() {
+        return expectedLength;
+    }
 }
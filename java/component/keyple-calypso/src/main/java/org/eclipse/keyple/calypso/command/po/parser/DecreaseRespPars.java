@@ -64,8 +64,9 @@ public final class DecreaseRespPars extends AbstractPoResponseParser {
      *         response.
      */
     public int getNewValue() throws IllegalStateException {
-        byte[] newValueBuffer = getApduResponse().getDataOut();
-        if (newValueBuffer.length == 3) {
+        if (getApduResponse().getDataOutLength() == 3) {
+            /* the data starts at the beginning of the response buffer */
+            byte[] newValueBuffer = getApduResponse().getBytes();
             return (newValueBuffer[0] << 16) + (newValueBuffer[1] << 8) + newValueBuffer[2];
         } else {
             throw new IllegalStateException(
@@ -19,7 +19,7 @@ import org.eclipse.keyple.calypso.command.po.AbstractPoResponseParser;
 import org.eclipse.keyple.core.command.AbstractApduResponseParser;
 import org.eclipse.keyple.core.seproxy.message.ApduResponse;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
-import org.eclipse.keyple.core.util.bertlv.TLV;
+import org.eclipse.keyple.core.util.bertlv.TLVCursor;
 import org.eclipse.keyple.core.util.bertlv.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -128,9 +128,6 @@ public final class GetDataFciRespPars extends AbstractPoResponseParser {
     public GetDataFciRespPars(ApduResponse selectApplicationResponse) {
         super(selectApplicationResponse);
 
-        final byte[] response = selectApplicationResponse.getBytes();
-        TLV tlv;
-
         /* check the command status to determine if the DF has been invalidated */
         if (selectApplicationResponse.getStatusCode() == 0x6283) {
             logger.debug(
@@ -138,75 +135,81 @@ public final class GetDataFciRespPars extends AbstractPoResponseParser {
             isDfInvalidated = true;
         }
 
-        /* parse the raw data with the help of the TLV class */
+        /* parse the raw data in place with the help of the TLV cursor */
         try {
-            /* init TLV object with the raw data and extract the FCI Template */
-            tlv = new TLV(response);
+            TLVCursor tlv = new TLVCursor(selectApplicationResponse.getBytes(), 0,
+                    selectApplicationResponse.getDataOutLength());
 
             /* Get the FCI template */
-            if (!tlv.parse(TAG_FCI_TEMPLATE, 0)) {
+            if (!tlv.next() || !tlv.matches(TAG_FCI_TEMPLATE)) {
                 logger.error("FCI parsing error: FCI template tag not found.");
                 return;
             }
+            tlv.enter();
 
             /* Get the DF Name */
-            if (!tlv.parse(TAG_DF_NAME, tlv.getPosition())) {
+            if (!tlv.find(TAG_DF_NAME)) {
                 logger.error("FCI parsing error: DF name tag not found.");
                 return;
             }
 
-            dfName = tlv.getValue();
+            dfName = tlv.copyValue();
 
             /* Get the FCI Proprietary Template */
-            if (!tlv.parse(TAG_FCI_PROPRIETARY_TEMPLATE, tlv.getPosition())) {
+            if (!tlv.find(TAG_FCI_PROPRIETARY_TEMPLATE)) {
                 logger.error("FCI parsing error: FCI proprietary template tag not found.");
                 return;
             }
+            tlv.enter();
 
             /* Get the FCI Issuer Discretionary Data */
-            if (!tlv.parse(TAG_FCI_ISSUER_DISCRETIONARY_DATA, tlv.getPosition())) {
+            if (!tlv.find(TAG_FCI_ISSUER_DISCRETIONARY_DATA)) {
                 logger.error("FCI parsing error: FCI issuer discretionary data tag not found.");
                 return;
             }
+            tlv.enter();
 
             /* Get the Application Serial Number */
-            if (!tlv.parse(TAG_APPLICATION_SERIAL_NUMBER, tlv.getPosition())) {
+            if (!tlv.find(TAG_APPLICATION_SERIAL_NUMBER)) {
                 logger.error("FCI parsing error: serial number tag not found.");
                 return;
             }
 
-            applicationSN = tlv.getValue();
+            applicationSN = tlv.copyValue();
 
             if (logger.isDebugEnabled()) {
                 logger.debug("Application Serial Number = {}", ByteArrayUtil.toHex(applicationSN));
             }
 
             /* Get the Discretionary Data */
-            if (!tlv.parse(TAG_DISCRETIONARY_DATA, tlv.getPosition())) {
+            if (!tlv.find(TAG_DISCRETIONARY_DATA)) {
                 logger.error("FCI parsing error: discretionary data tag not found.");
                 return;
             }
 
-            byte[] discretionaryData = tlv.getValue();
+            if (tlv.getValueLength() < 7) {
+                logger.error("FCI parsing error: discretionary data too short.");
+                return;
+            }
 
             if (logger.isDebugEnabled()) {
-                logger.debug("Discretionary Data = {}", ByteArrayUtil.toHex(discretionaryData));
+                logger.debug("Discretionary Data = {}", ByteArrayUtil.toHex(tlv.copyValue()));
             }
 
             /*
              * split discretionary data in as many individual startup information
              */
-            siBufferSizeIndicator = discretionaryData[0];
-            siPlatform = discretionaryData[1];
-            siApplicationType = discretionaryData[2];
-            siApplicationSubtype = discretionaryData[3];
-            siSoftwareIssuer = discretionaryData[4];
-            siSoftwareVersion = discretionaryData[5];
-            siSoftwareRevision = discretionaryData[6];
+            siBufferSizeIndicator = tlv.getValueByte(0);
+            siPlatform = tlv.getValueByte(1);
+            siApplicationType = tlv.getValueByte(2);
+            siApplicationSubtype = tlv.getValueByte(3);
+            siSoftwareIssuer = tlv.getValueByte(4);
+            siSoftwareVersion = tlv.getValueByte(5);
+            siSoftwareRevision = tlv.getValueByte(6);
             /* all 3 main fields were retrieved */
             isValidCalypsoFCI = true;
 
-        } catch (Exception e) {
+        } catch (IllegalArgumentException e) {
             /* Silently ignore problems decoding TLV structure. Just log. */
             logger.debug("Error while parsing the FCI BER-TLV data structure ({})", e.getMessage());
         }
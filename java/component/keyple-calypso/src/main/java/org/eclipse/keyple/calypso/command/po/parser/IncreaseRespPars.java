@@ -67,8 +67,9 @@ public final class IncreaseRespPars extends AbstractPoResponseParser {
      *         response.
      */
     public int getNewValue() throws IllegalStateException {
-        byte[] newValueBuffer = getApduResponse().getDataOut();
-        if (newValueBuffer.length == 3) {
+        if (getApduResponse().getDataOutLength() == 3) {
+            /* the data starts at the beginning of the response buffer */
+            byte[] newValueBuffer = getApduResponse().getBytes();
             return (newValueBuffer[0] << 16) + (newValueBuffer[1] << 8) + newValueBuffer[2];
         } else {
             throw new IllegalStateException(
@@ -54,6 +54,10 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
     private ReadDataStructure readDataStructure;
     /** Number of the first record read */
     private byte recordNumber;
+    /** Records parsed at the first call of getRecords */
+    private SortedMap<Integer, byte[]> records;
+    /** Counters parsed at the first call of getCounters */
+    private SortedMap<Integer, Integer> counters;
 
     /**
      * Instantiates a new ReadRecordsRespPars.
@@ -85,11 +89,21 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
      * The map index follows the PO specification, i.e. starts at 1 for the first record.
      * <p>
      * An empty map is returned if no data is available.
+     * <p>
+     * The response is parsed at the first call only: the returned map and the records it contains
+     * are shared by the successive calls and can not be modified.
      * 
      * @return a map of records
      * @exception IllegalStateException if the parser has not been initialized
      */
     public SortedMap<Integer, byte[]> getRecords() {
+        if (records == null) {
+            records = Collections.unmodifiableSortedMap(parseRecords());
+        }
+        return records;
+    }
+
+    private SortedMap<Integer, byte[]> parseRecords() {
         SortedMap<Integer, byte[]> records = new TreeMap<Integer, byte[]>();
         if (!response.isSuccessful()) {
             /* return an empty map */
@@ -99,8 +113,9 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
         if (readDataStructure == ReadDataStructure.SINGLE_RECORD_DATA) {
             records.put((int) recordNumber, response.getDataOut());
         } else if (readDataStructure == ReadDataStructure.MULTIPLE_RECORD_DATA) {
-            byte[] apdu = response.getDataOut();
-            int apduLen = apdu.length;
+            /* the data starts at the beginning of the response buffer */
+            byte[] apdu = response.getBytes();
+            int apduLen = response.getDataOutLength();
             int index = 0;
             while (apduLen > 0) {
                 byte recordNb = apdu[index++];
@@ -122,11 +137,21 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
      * The map index follows the PO specification, i.e. starts at 1 for the first counter.
      * <p>
      * An empty map is returned if no data is available.
+     * <p>
+     * The response is parsed at the first call only: the returned map is shared by the successive
+     * calls and can not be modified.
      *
      * @return a map of counters
      * @exception IllegalStateException if the parser has not been initialized
      */
     public SortedMap<Integer, Integer> getCounters() {
+        if (counters == null) {
+            counters = Collections.unmodifiableSortedMap(parseCounters());
+        }
+        return counters;
+    }
+
+    private SortedMap<Integer, Integer> parseCounters() {
         SortedMap<Integer, Integer> counters = new TreeMap<Integer, Integer>();
         if (!response.isSuccessful()) {
             /* return an empty map */
@@ -135,8 +160,9 @@ public final class ReadRecordsRespPars extends AbstractPoResponseParser {
         }
         if (readDataStructure == ReadDataStructure.SINGLE_COUNTER
                 || readDataStructure == ReadDataStructure.MULTIPLE_COUNTER) {
-            byte[] apdu = response.getDataOut();
-            int numberOfCounters = apdu.length / 3;
+            /* the data starts at the beginning of the response buffer */
+            byte[] apdu = response.getBytes();
+            int numberOfCounters = response.getDataOutLength() / 3;
             int index = 0;
             int key = 1; /* the first counter is indexed 1 */
             for (int i = 0; i < numberOfCounters; i++) {
@@ -57,6 +57,7 @@ public final class CalypsoPo extends AbstractMatchingSe {
     private byte[] poAtr;
     private int modificationsCounterMax;
     private boolean modificationCounterIsInBytes = true;
+    private final PoRecordCache recordCache = new PoRecordCache();
 
     /**
      * Constructor.
@@ -245,6 +246,15 @@ public final class CalypsoPo extends AbstractMatchingSe {
         return isDfInvalidated;
     }
 
+    /**
+     * The records read from the PO during the selection and the transactions with this PO
+     *
+     * @return the record cache of this PO
+     */
+    public PoRecordCache getRecordCache() {
+        return recordCache;
+    }
+
     /**
      * @return the PO class determined from the PO revision
      */
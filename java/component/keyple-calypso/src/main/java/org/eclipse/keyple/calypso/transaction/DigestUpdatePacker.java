@@ -0,0 +1,104 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.calypso.command.sam.builder.security.DigestUpdateCmdBuild;
+import org.eclipse.keyple.calypso.command.sam.builder.security.DigestUpdateMultipleCmdBuild;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+
+/**
+ * Builds the SAM commands providing the digest data of a secure session.
+ * <p>
+ * When the SAM supports it, the digest blocks (PO commands and responses) are packed in Digest
+ * Update Multiple commands, each one filled up to the maximum APDU data length with as many
+ * consecutive blocks as possible. The order of the blocks is preserved.
+ * <p>
+ * A Digest Update command is used for each block otherwise (SAM revision not supporting Digest
+ * Update Multiple, encrypted session), and for the blocks that cannot be packed.
+ */
+final class DigestUpdatePacker {
+    /** Maximum length of the data field of a SAM command */
+    static final int MAX_DATA_LENGTH = 255;
+
+    private DigestUpdatePacker() {}
+
+    /**
+     * Indicates whether the Digest Update Multiple command can be used
+     *
+     * @param samRevision the SAM revision
+     * @param encryption true if the session is encrypted
+     * @return true if the digest blocks can be packed
+     */
+    static boolean isPackingAvailable(SamRevision samRevision, boolean encryption) {
+        return samRevision == SamRevision.C1 && !encryption;
+    }
+
+    /**
+     * Builds the Digest Update (Multiple) requests for the provided digest blocks.
+     * <p>
+     * The number of saved APDUs is the difference between the number of blocks and the number of
+     * returned requests.
+     *
+     * @param samRevision the SAM revision
+     * @param encryption true if the session is encrypted
+     * @param digestBlocks the digest data, one block per PO command or response
+     * @return the list of SAM requests
+     */
+    static List<ApduRequest> pack(SamRevision samRevision, boolean encryption,
+            List<byte[]> digestBlocks) {
+        List<ApduRequest> apduRequests = new ArrayList<ApduRequest>();
+
+        if (!isPackingAvailable(samRevision, encryption)) {
+            for (byte[] digestBlock : digestBlocks) {
+                apduRequests.add(new DigestUpdateCmdBuild(samRevision, encryption, digestBlock)
+                        .getApduRequest());
+            }
+            return apduRequests;
+        }
+
+        int index = 0;
+        while (index < digestBlocks.size()) {
+            /* find how many consecutive blocks fit in one command (each prefixed by its length) */
+            int last = index;
+            int dataLength = 0;
+            while (last < digestBlocks.size()
+                    && dataLength + 1 + digestBlocks.get(last).length <= MAX_DATA_LENGTH) {
+                dataLength += 1 + digestBlocks.get(last).length;
+                last++;
+            }
+
+            if (last - index <= 1) {
+                /* a single block (or a block too long to be packed): simple Digest Update */
+                apduRequests.add(new DigestUpdateCmdBuild(samRevision, false,
+                        digestBlocks.get(index)).getApduRequest());
+                index++;
+                continue;
+            }
+
+            byte[] digestData = new byte[dataLength];
+            int offset = 0;
+            for (int i = index; i < last; i++) {
+                byte[] digestBlock = digestBlocks.get(i);
+                digestData[offset++] = (byte) digestBlock.length;
+                System.arraycopy(digestBlock, 0, digestData, offset, digestBlock.length);
+                offset += digestBlock.length;
+            }
+            apduRequests.add(
+                    new DigestUpdateMultipleCmdBuild(samRevision, digestData).getApduRequest());
+            index = last;
+        }
+        return apduRequests;
+    }
+}
@@ -0,0 +1,202 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
+
+/**
+ * Cache of the PO records read during the life of a {@link CalypsoPo}, filled with the responses
+ * to the Read Records commands prepared at selection time, the record read at the opening of a
+ * secure session and the Read Records commands processed by {@link PoTransaction}.
+ * <p>
+ * The records are identified by the SFI of their file and their number. The content of a file is
+ * invalidated when a modification command is processed on it. A counter file is stored as its
+ * first record (all the counters).
+ * <p>
+ * The lookups made to serve a read command from the cache are counted: the number of hits is the
+ * number of PO APDUs saved.
+ * <p>
+ * This class is not thread safe: it is intended to be used by the transaction in progress with
+ * the PO.
+ */
+public final class PoRecordCache {
+    /** record data indexed by (sfi &lt;&lt; 8 | record number) */
+    private final Map<Integer, byte[]> records = new HashMap<Integer, byte[]>();
+    private int hitCount;
+    private int missCount;
+
+    PoRecordCache() {}
+
+    private static Integer key(byte sfi, int recordNumber) {
+        return ((sfi & 0xFF) << 8) | (recordNumber & 0xFF);
+    }
+
+    /**
+     * Stores the content of a record, replacing the previous one if any
+     *
+     * @param sfi the SFI of the file (not 0)
+     * @param recordNumber the record number
+     * @param data the record content
+     */
+    void putRecord(byte sfi, int recordNumber, byte[] data) {
+        if (sfi == 0 || data == null || data.length == 0) {
+            /* the current EF is not identified, the record can not be kept */
+            return;
+        }
+        records.put(key(sfi, recordNumber), data.clone());
+    }
+
+    /**
+     * Stores the records contained in the response to a Read Records command
+     *
+     * @param sfi the SFI of the file
+     * @param readDataStructure the structure of the read data
+     * @param firstRecordNumber the number of the first record read
+     * @param apduResponse the response of the PO, ignored if not successful
+     */
+    void putReadRecordsResponse(byte sfi, ReadDataStructure readDataStructure,
+            byte firstRecordNumber, ApduResponse apduResponse) {
+        if (!apduResponse.isSuccessful()) {
+            return;
+        }
+        if (readDataStructure == ReadDataStructure.MULTIPLE_RECORD_DATA) {
+            for (Map.Entry<Integer, byte[]> entry : new ReadRecordsRespPars(apduResponse,
+                    readDataStructure, firstRecordNumber).getRecords().entrySet()) {
+                putRecord(sfi, entry.getKey(), entry.getValue());
+            }
+        } else {
+            /* single record or counters: the whole record */
+            putRecord(sfi, firstRecordNumber, apduResponse.getDataOut());
+        }
+    }
+
+    /**
+     * Stores the records contained in the response to a Read Records command
+     *
+     * @param readRecordsCmdBuild the command builder
+     * @param apduResponse the response of the PO, ignored if not successful
+     */
+    void putReadRecordsResponse(ReadRecordsCmdBuild readRecordsCmdBuild,
+            ApduResponse apduResponse) {
+        putReadRecordsResponse(readRecordsCmdBuild.getSfi(),
+                readRecordsCmdBuild.getReadDataStructure(),
+                readRecordsCmdBuild.getFirstRecordNumber(), apduResponse);
+    }
+
+    /**
+     * Removes the records of a file
+     *
+     * @param sfi the SFI of the file, 0 (current EF) removes all the records
+     */
+    void invalidate(byte sfi) {
+        if (sfi == 0) {
+            records.clear();
+            return;
+        }
+        Iterator<Integer> keyIterator = records.keySet().iterator();
+        while (keyIterator.hasNext()) {
+            if ((keyIterator.next() >> 8) == (sfi & 0xFF)) {
+                keyIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Looks up a record to serve a read command and counts the hit or the miss
+     *
+     * @param sfi the SFI of the file
+     * @param recordNumber the record number
+     * @param expectedLength the expected length of the record, 0 for any length
+     * @return the record content or null if the record is not in the cache
+     */
+    byte[] lookup(byte sfi, int recordNumber, int expectedLength) {
+        byte[] data = sfi == 0 ? null : records.get(key(sfi, recordNumber));
+        if (data == null || (expectedLength != 0 && expectedLength != data.length)) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return data.clone();
+    }
+
+    /**
+     * Get the content of a record without counting it as a lookup
+     *
+     * @param sfi the SFI of the file
+     * @param recordNumber the record number
+     * @return a copy of the record content or null if the record is not in the cache
+     */
+    public byte[] getRecord(byte sfi, int recordNumber) {
+        byte[] data = records.get(key(sfi, recordNumber));
+        return data == null ? null : data.clone();
+    }
+
+    /**
+     * @param sfi the SFI of the file
+     * @param recordNumber the record number
+     * @return true if the record is in the cache
+     */
+    public boolean hasRecord(byte sfi, int recordNumber) {
+        return records.containsKey(key(sfi, recordNumber));
+    }
+
+    /**
+     * @return the number of records in the cache
+     */
+    public int size() {
+        return records.size();
+    }
+
+    /**
+     * Removes all the records, the hit and miss counters are kept
+     */
+    public void clear() {
+        records.clear();
+    }
+
+    /**
+     * @return the number of read commands served from the cache, i.e. the number of PO APDUs
+     *         saved
+     */
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return the number of read commands looked up in the cache and sent to the PO
+     */
+    public int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return the ratio of the lookups served from the cache, 0 if there was no lookup
+     */
+    public double getHitRate() {
+        int lookupCount = hitCount + missCount;
+        return lookupCount == 0 ? 0.0 : (double) hitCount / lookupCount;
+    }
+
+    /**
+     * Resets the hit and miss counters
+     */
+    public void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+    }
+}
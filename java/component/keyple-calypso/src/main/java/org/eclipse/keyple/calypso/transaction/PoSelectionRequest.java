@@ -26,6 +26,7 @@ import org.eclipse.keyple.core.command.AbstractApduResponseParser;
 import org.eclipse.keyple.core.selection.AbstractSeSelectionRequest;
 import org.eclipse.keyple.core.seproxy.ChannelState;
 import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
 import org.eclipse.keyple.core.seproxy.message.SeResponse;
 import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
@@ -41,6 +42,7 @@ public final class PoSelectionRequest extends AbstractSeSelectionRequest {
     private int commandIndex;
     private List<Class<? extends AbstractApduResponseParser>> parsingClassList =
             new ArrayList<Class<? extends AbstractApduResponseParser>>();
+    private Map<Integer, Byte> readRecordSfiMap = new HashMap<Integer, Byte>();
     private Map<Integer, Byte> readRecordFirstRecordNumberMap = new HashMap<Integer, Byte>();
     private Map<Integer, ReadDataStructure> readRecordDataStructureMap =
             new HashMap<Integer, ReadDataStructure>();
@@ -106,6 +108,7 @@ public final class PoSelectionRequest extends AbstractSeSelectionRequest {
         }
 
         /* keep read record parameters in the dedicated Maps */
+        readRecordSfiMap.put(commandIndex, sfi);
         readRecordFirstRecordNumberMap.put(commandIndex, firstRecordNumber);
         readRecordDataStructureMap.put(commandIndex, readDataStructureEnum);
 
@@ -278,13 +281,28 @@ public final class PoSelectionRequest extends AbstractSeSelectionRequest {
 
     /**
      * Create a CalypsoPo object containing the selection data received from the plugin
+     * <p>
+     * The records read following the selection are stored in the record cache of the PO.
      * 
      * @param seResponse the SE response received
      * @return a {@link CalypsoPo}
      */
     @Override
     protected CalypsoPo parse(SeResponse seResponse) {
-        return new CalypsoPo(seResponse, seSelector.getSeProtocol().getTransmissionMode(),
-                seSelector.getExtraInfo());
+        CalypsoPo calypsoPo = new CalypsoPo(seResponse,
+                seSelector.getSeProtocol().getTransmissionMode(), seSelector.getExtraInfo());
+        List<ApduResponse> apduResponses = seResponse.getApduResponses();
+        if (apduResponses != null && apduResponses.size() == parsingClassList.size()) {
+            for (int index = 0; index < parsingClassList.size(); index++) {
+                if (parsingClassList.get(index) != ReadRecordsRespPars.class) {
+                    /* the following records may belong to another DF */
+                    break;
+                }
+                calypsoPo.getRecordCache().putReadRecordsResponse(readRecordSfiMap.get(index),
+                        readRecordDataStructureMap.get(index),
+                        readRecordFirstRecordNumberMap.get(index), apduResponses.get(index));
+            }
+        }
+        return calypsoPo;
     }
 }
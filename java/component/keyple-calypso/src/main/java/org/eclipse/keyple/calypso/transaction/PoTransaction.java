@@ -76,6 +76,8 @@ public final class PoTransaction {
     private final ProxyReader poReader;
     /** The reader for session SAM. */
     private ProxyReader samReader;
+    /** The SAM resource (holds the SAM challenge obtained in advance) */
+    private SamResource samResource;
     /** The SAM default revision. */
     private final SamRevision samRevision = SamRevision.C1;
     /** The security settings. */
@@ -114,6 +116,15 @@ public final class PoTransaction {
     private boolean preparedCommandsProcessed;
     private int preparedCommandIndex;
 
+    /** The use of the record cache of the PO by the commands processed outside a session */
+    private RecordCacheMode recordCacheMode = RecordCacheMode.FILL_ONLY;
+
+    /** The digest computation context of the current secure session */
+    private final DigestProcessor digestProcessor = new DigestProcessor();
+    /** The Read Records exchanges used to compute the anticipated responses */
+    private final AnticipatedResponseBuilder anticipatedResponseBuilder =
+            new AnticipatedResponseBuilder();
+
     /**
      * PoTransaction with PO and SAM readers.
      * <ul>
@@ -131,8 +142,16 @@ public final class PoTransaction {
 
         this(poResource);
 
+        this.samResource = samResource;
+
         samReader = (ProxyReader) samResource.getSeReader();
 
+        /*
+         * the SAM may have been left diversified with this PO by a previous transaction (the
+         * resource forgets it when the SAM channel may have changed)
+         */
+        isDiversificationDone = samResource.isDiversifiedWith(poCalypsoInstanceSerial);
+
         this.securitySettings = securitySettings;
     }
 
@@ -166,47 +185,16 @@ public final class PoTransaction {
     }
 
     /**
-     * Open a Secure Session.
-     * <ul>
-     * <li>The PO must have been previously selected, so a logical channel with the PO application
-     * must be already active.</li>
-     * <li>The PO serial &amp; revision are identified from FCI data.</li>
-     * <li>A first request is sent to the SAM session reader.
-     * <ul>
-     * <li>In case not logical channel is active with the SAM, a channel is open.</li>
-     * <li>Then a Select Diversifier (with the PO serial) &amp; a Get Challenge are automatically
-     * operated. The SAM challenge is recovered.</li>
-     * </ul>
-     * </li>
-     * <li>The PO Open Session command is built according to the PO revision, the SAM challenge, the
-     * keyIndex, and openingSfiToSelect / openingRecordNumberToRead.</li>
-     * <li>Next the PO reader is requested:
-     * <ul>
-     * <li>for the current selected PO AID, with channelState set to KEEP_OPEN,</li>
-     * <li>and some PO Apdu Requests including at least the Open Session command and optionally some
-     * PO command to operate inside the session.</li>
-     * </ul>
-     * </li>
-     * <li>The session PO keyset reference is identified from the PO Open Session response, the PO
-     * challenge is recovered too.</li>
-     * <li>According to the PO responses of Open Session and the PO commands sent inside the
-     * session, a "cache" of SAM commands is filled with the corresponding Digest Init &amp; Digest
-     * Update commands.</li>
-     * <li>Returns the corresponding PO SeResponse (responses to poBuilderParsers).</li>
-     * </ul>
+     * Gets a challenge from the SAM to open a secure session.
+     * <p>
+     * The Select Diversifier command is sent with the Get Challenge command if the diversification
+     * has not already been done.
      *
-     * @param accessLevel access level of the session (personalization, load or debit).
-     * @param openingSfiToSelect SFI of the file to select (0 means no file to select)
-     * @param openingRecordNumberToRead number of the record to read
-     * @param poBuilderParsers the po commands inside session
-     * @return SeResponse response to all executed commands including the self generated "Open
-     *         Secure Session" command
+     * @param challengeLength the expected challenge length
+     * @return the SAM challenge
      * @throws KeypleReaderException the IO reader exception
      */
-    private SeResponse processAtomicOpening(SessionAccessLevel accessLevel, byte openingSfiToSelect,
-            byte openingRecordNumberToRead, List<PoBuilderParser> poBuilderParsers)
-            throws KeypleReaderException {
-
+    private byte[] getSamChallenge(byte challengeLength) throws KeypleReaderException {
         /*
          * counts 'select diversifier' and 'get challenge' commands. At least get challenge is
          * present
@@ -216,11 +204,6 @@ public final class PoTransaction {
         /* SAM ApduRequest List to hold Select Diversifier and Get Challenge commands */
         List<ApduRequest> samApduRequestList = new ArrayList<ApduRequest>();
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("processAtomicOpening => Identification: DFNAME = {}, SERIALNUMBER = {}",
-                    ByteArrayUtil.toHex(poCalypsoInstanceAid),
-                    ByteArrayUtil.toHex(poCalypsoInstanceSerial));
-        }
         /* diversify only if this has not already been done. */
         if (!isDiversificationDone) {
             /* Build the SAM Select Diversifier command to provide the SAM with the PO S/N */
@@ -235,15 +218,18 @@ public final class PoTransaction {
             /* change the diversification status */
             isDiversificationDone = true;
         }
-        /* Build the SAM Get Challenge command */
-        byte challengeLength = poRevision.equals(PoRevision.REV3_2) ? CHALLENGE_LENGTH_REV32
-                : CHALLENGE_LENGTH_REV_INF_32;
 
+        /* the SAM diversification is unknown until the exchange succeeds */
+        samResource.setDiversifier(null);
+        /* Build the SAM Get Challenge command */
         AbstractSamCommandBuilder samGetChallenge =
                 new SamGetChallengeCmdBuild(this.samRevision, challengeLength);
 
         samApduRequestList.add(samGetChallenge.getApduRequest());
 
+        /* a new challenge invalidates any challenge previously obtained from this SAM */
+        samResource.setPrefetchedChallenge(null);
+
         /* Build a SAM SeRequest */
         SeRequest samSeRequest = new SeRequest(samApduRequestList, ChannelState.KEEP_OPEN);
 
@@ -267,10 +253,11 @@ public final class PoTransaction {
 
         if (samApduResponseList.size() == numberOfSamCmd
                 && samApduResponseList.get(numberOfSamCmd - 1).isSuccessful() && samApduResponseList
-                        .get(numberOfSamCmd - 1).getDataOut().length == challengeLength) {
+                        .get(numberOfSamCmd - 1).getDataOutLength() == challengeLength) {
             SamGetChallengeRespPars samChallengePars =
                     new SamGetChallengeRespPars(samApduResponseList.get(numberOfSamCmd - 1));
             sessionTerminalChallenge = samChallengePars.getChallenge();
+            samResource.setDiversifier(poCalypsoInstanceSerial);
             if (logger.isDebugEnabled()) {
                 logger.debug("processAtomicOpening => identification: TERMINALCHALLENGE = {}",
                         ByteArrayUtil.toHex(sessionTerminalChallenge));
@@ -281,6 +268,78 @@ public final class PoTransaction {
                     samApduResponseList);
         }
 
+        return sessionTerminalChallenge;
+    }
+
+    /**
+     * Open a Secure Session.
+     * <ul>
+     * <li>The PO must have been previously selected, so a logical channel with the PO application
+     * must be already active.</li>
+     * <li>The PO serial &amp; revision are identified from FCI data.</li>
+     * <li>A first request is sent to the SAM session reader.
+     * <ul>
+     * <li>In case not logical channel is active with the SAM, a channel is open.</li>
+     * <li>Then a Select Diversifier (with the PO serial) &amp; a Get Challenge are automatically
+     * operated. The SAM challenge is recovered.</li>
+     * <li>If the SAM challenge prefetch is enabled in the {@link SecuritySettings}, the challenge
+     * obtained at the previous session closing is used instead and the SAM is not requested.</li>
+     * </ul>
+     * </li>
+     * <li>The PO Open Session command is built according to the PO revision, the SAM challenge, the
+     * keyIndex, and openingSfiToSelect / openingRecordNumberToRead.</li>
+     * <li>Next the PO reader is requested:
+     * <ul>
+     * <li>for the current selected PO AID, with channelState set to KEEP_OPEN,</li>
+     * <li>and some PO Apdu Requests including at least the Open Session command and optionally some
+     * PO command to operate inside the session.</li>
+     * </ul>
+     * </li>
+     * <li>The session PO keyset reference is identified from the PO Open Session response, the PO
+     * challenge is recovered too.</li>
+     * <li>According to the PO responses of Open Session and the PO commands sent inside the
+     * session, a "cache" of SAM commands is filled with the corresponding Digest Init &amp; Digest
+     * Update commands.</li>
+     * <li>Returns the corresponding PO SeResponse (responses to poBuilderParsers).</li>
+     * </ul>
+     *
+     * @param accessLevel access level of the session (personalization, load or debit).
+     * @param openingSfiToSelect SFI of the file to select (0 means no file to select)
+     * @param openingRecordNumberToRead number of the record to read
+     * @param poBuilderParsers the po commands inside session
+     * @return SeResponse response to all executed commands including the self generated "Open
+     *         Secure Session" command
+     * @throws KeypleReaderException the IO reader exception
+     */
+    private SeResponse processAtomicOpening(SessionAccessLevel accessLevel, byte openingSfiToSelect,
+            byte openingRecordNumberToRead, List<PoBuilderParser> poBuilderParsers)
+            throws KeypleReaderException {
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("processAtomicOpening => Identification: DFNAME = {}, SERIALNUMBER = {}",
+                    ByteArrayUtil.toHex(poCalypsoInstanceAid),
+                    ByteArrayUtil.toHex(poCalypsoInstanceSerial));
+        }
+
+        byte challengeLength = poRevision.equals(PoRevision.REV3_2) ? CHALLENGE_LENGTH_REV32
+                : CHALLENGE_LENGTH_REV_INF_32;
+
+        byte[] sessionTerminalChallenge = null;
+
+        /* use the challenge obtained at the previous closing if any */
+        if (securitySettings.isSamChallengePrefetch()) {
+            sessionTerminalChallenge = samResource.takePrefetchedChallenge(challengeLength);
+            if (sessionTerminalChallenge != null && logger.isDebugEnabled()) {
+                logger.debug(
+                        "processAtomicOpening => identification: prefetched TERMINALCHALLENGE = {}",
+                        ByteArrayUtil.toHex(sessionTerminalChallenge));
+            }
+        }
+
+        if (sessionTerminalChallenge == null) {
+            sessionTerminalChallenge = getSamChallenge(challengeLength);
+        }
+
         /* PO ApduRequest List to hold Open Secure Session and other optional commands */
         List<ApduRequest> poApduRequestList = new ArrayList<ApduRequest>();
 
@@ -339,7 +398,7 @@ public final class PoTransaction {
         }
 
         /* Track Read Records for later use to build anticipated responses. */
-        AnticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
+        anticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
                 poApduResponseList, true);
 
         /* Parse the response to Open Secure Session (the first item of poApduResponseList) */
@@ -389,13 +448,17 @@ public final class PoTransaction {
         /* Keep the ratification status and read data */
         wasRatified = poOpenSessionPars.wasRatified();
         openRecordDataRead = poOpenSessionPars.getRecordDataRead();
+        if (openingRecordNumberToRead != 0) {
+            calypsoPo.getRecordCache().putRecord(openingSfiToSelect, openingRecordNumberToRead,
+                    openRecordDataRead);
+        }
 
         /*
          * Initialize the DigestProcessor. It will store all digest operations (Digest Init, Digest
          * Update) until the session closing. AT this moment, all SAM Apdu will be processed at
          * once.
          */
-        DigestProcessor.initialize(poRevision, samRevision, false, false,
+        digestProcessor.initialize(poRevision, samRevision, false, false,
                 poRevision.equals(PoRevision.REV3_2),
                 securitySettings
                         .getKeyInfo(SecuritySettings.DefaultKeyInfo.SAM_DEFAULT_KEY_RECORD_NUMBER),
@@ -412,7 +475,7 @@ public final class PoTransaction {
                 /*
                  * Add requests and responses to the DigestProcessor
                  */
-                DigestProcessor.pushPoExchangeData(poApduRequestList.get(i),
+                digestProcessor.pushPoExchangeData(poApduRequestList.get(i),
                         poApduResponseList.get(i));
             }
         }
@@ -511,7 +574,7 @@ public final class PoTransaction {
         }
 
         /* Track Read Records for later use to build anticipated responses. */
-        AnticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
+        anticipatedResponseBuilder.storeCommandResponse(poBuilderParsers, poApduRequestList,
                 poApduResponseList, false);
 
         /*
@@ -523,7 +586,7 @@ public final class PoTransaction {
                 /*
                  * Add requests and responses to the DigestProcessor
                  */
-                DigestProcessor.pushPoExchangeData(poApduRequestList.get(i),
+                digestProcessor.pushPoExchangeData(poApduRequestList.get(i),
                         poApduResponseList.get(i));
             }
         }
@@ -653,7 +716,7 @@ public final class PoTransaction {
                     /*
                      * Add requests and responses to the DigestProcessor
                      */
-                    DigestProcessor.pushPoExchangeData(poApduRequestList.get(i),
+                    digestProcessor.pushPoExchangeData(poApduRequestList.get(i),
                             poAnticipatedResponses.get(i));
                 }
             } else {
@@ -666,7 +729,24 @@ public final class PoTransaction {
 
         /* All SAM digest operations will now run at once. */
         /* Get the SAM Digest request from the cache manager */
-        SeRequest samSeRequest = DigestProcessor.getSamDigestRequest();
+        SeRequest samSeRequest = digestProcessor.getSamDigestRequest();
+
+        /*
+         * The diversification has been postponed when the session was opened with a prefetched
+         * challenge: the Select Diversifier command is placed before the Digest Init command.
+         */
+        if (!isDiversificationDone) {
+            List<ApduRequest> samDigestApduRequestList = new ArrayList<ApduRequest>();
+            samDigestApduRequestList.add(
+                    new SelectDiversifierCmdBuild(this.samRevision, poCalypsoInstanceSerial)
+                            .getApduRequest());
+            samDigestApduRequestList.addAll(samSeRequest.getApduRequests());
+            samSeRequest = new SeRequest(samDigestApduRequestList, ChannelState.KEEP_OPEN);
+            isDiversificationDone = true;
+        }
+
+        /* the SAM diversification is unknown until the exchange succeeds */
+        samResource.setDiversifier(null);
 
         logger.debug("processAtomicClosing => SAMREQUEST = {}", samSeRequest);
 
@@ -699,6 +779,8 @@ public final class PoTransaction {
             }
         }
 
+        samResource.setDiversifier(poCalypsoInstanceSerial);
+
         /* Get Terminal Signature from the latest response */
         byte[] sessionTerminalSignature = null;
         // TODO Add length check according to Calypso REV (4 / 8)
@@ -816,11 +898,26 @@ public final class PoTransaction {
         List<ApduRequest> samApduRequestList = new ArrayList<ApduRequest>();
         samApduRequestList.add(digestAuth.getApduRequest());
 
+        /*
+         * Ask the SAM for the challenge of the next session in the same exchange. The length
+         * expected by the current PO is assumed for the next one.
+         */
+        byte nextChallengeLength = poRevision.equals(PoRevision.REV3_2) ? CHALLENGE_LENGTH_REV32
+                : CHALLENGE_LENGTH_REV_INF_32;
+        if (securitySettings.isSamChallengePrefetch()) {
+            samApduRequestList.add(
+                    new SamGetChallengeCmdBuild(this.samRevision, nextChallengeLength)
+                            .getApduRequest());
+        }
+
         samSeRequest = new SeRequest(samApduRequestList, ChannelState.KEEP_OPEN);
 
         logger.debug("PoTransaction.DigestProcessor => checkPoSignature: SAMREQUEST = {}",
                 samSeRequest);
 
+        /* the SAM diversification is unknown until the exchange succeeds */
+        samResource.setDiversifier(null);
+
         samSeResponse = samReader.transmit(samSeRequest);
 
         logger.debug("PoTransaction.DigestProcessor => checkPoSignature: SAMRESPONSE = {}",
@@ -838,6 +935,8 @@ public final class PoTransaction {
                     null);
         }
 
+        samResource.setDiversifier(poCalypsoInstanceSerial);
+
         /* Get transaction result parsing the response */
         samApduResponseList = samSeResponse.getApduResponses();
 
@@ -850,6 +949,8 @@ public final class PoTransaction {
                 logger.debug(
                         "PoTransaction.DigestProcessor => checkPoSignature: mutual authentication successful.");
             } else {
+                /* the records read during the session may not be those of the PO */
+                calypsoPo.getRecordCache().clear();
                 logger.debug(
                         "PoTransaction.DigestProcessor => checkPoSignature: mutual authentication failure.");
             }
@@ -859,6 +960,19 @@ public final class PoTransaction {
             throw new IllegalStateException("No response to Digest Authenticate.");
         }
 
+        /* Keep the prefetched challenge for the next session opening */
+        if (samApduRequestList.size() == 2 && samApduResponseList.size() == 2
+                && samApduResponseList.get(1).isSuccessful()
+                && samApduResponseList.get(1).getDataOutLength() == nextChallengeLength) {
+            byte[] nextChallenge =
+                    new SamGetChallengeRespPars(samApduResponseList.get(1)).getChallenge();
+            if (logger.isDebugEnabled()) {
+                logger.debug("processAtomicClosing => prefetched TERMINALCHALLENGE = {}",
+                        ByteArrayUtil.toHex(nextChallenge));
+            }
+            samResource.setPrefetchedChallenge(nextChallenge);
+        }
+
         sessionState = SessionState.SESSION_CLOSED;
 
         /* Remove ratification response if any */
@@ -894,7 +1008,7 @@ public final class PoTransaction {
             TransmissionMode transmissionMode, ChannelState channelState)
             throws KeypleReaderException {
         List<ApduResponse> poAnticipatedResponses =
-                AnticipatedResponseBuilder.getResponses(poBuilderParsers);
+                anticipatedResponseBuilder.getResponses(poBuilderParsers);
         return processAtomicClosing(poBuilderParsers, poAnticipatedResponses, transmissionMode,
                 channelState);
     }
@@ -919,6 +1033,33 @@ public final class PoTransaction {
         return transactionResult;
     }
 
+    /**
+     * Get the number of SAM APDUs saved by packing the session digest data in Digest Update
+     * Multiple commands, since the creation of this transaction.
+     *
+     * @return the number of saved APDUs
+     */
+    public int getSavedSamApduCount() {
+        return digestProcessor.getSavedApduCount();
+    }
+
+    /**
+     * Defines whether the Read Records commands processed outside a secure session are served from
+     * the record cache of the PO (see {@link CalypsoPo#getRecordCache()})
+     *
+     * @param recordCacheMode the record cache mode (default {@link RecordCacheMode#FILL_ONLY})
+     */
+    public void setRecordCacheMode(RecordCacheMode recordCacheMode) {
+        this.recordCacheMode = recordCacheMode;
+    }
+
+    /**
+     * @return the current record cache mode
+     */
+    public RecordCacheMode getRecordCacheMode() {
+        return recordCacheMode;
+    }
+
     /**
      * Get the ratification status obtained at Session Opening
      * 
@@ -991,6 +1132,23 @@ public final class PoTransaction {
         MULTIPLE
     }
 
+    /**
+     * The record cache mode indicates whether the records already read from the PO are read again
+     * by the commands processed outside a secure session.
+     */
+    public enum RecordCacheMode {
+        /**
+         * The records read are stored in the cache, all the commands are sent to the PO.
+         */
+        FILL_ONLY,
+        /**
+         * The Read Records commands of a single record whose content is in the cache are not sent
+         * to the PO, their response is built from the cache. The commands processed inside a
+         * secure session are always sent to the PO.
+         */
+        SERVE_OUT_OF_SESSION_READS
+    }
+
     /**
      * The PO Transaction State defined with the elements: ‘IOError’, ‘SEInserted’ and ‘SERemoval’.
      */
@@ -1014,6 +1172,9 @@ public final class PoTransaction {
      * - getTerminalSignature: Digest Close, returns the terminal part of the signature
      *
      * - checkPoSignature: Digest Authenticate, verify the PO part of the signature
+     *
+     * Each {@link PoTransaction} owns its own instance so that several transactions can be run
+     * concurrently.
      */
     private static class DigestProcessor {
         /*
@@ -1021,15 +1182,17 @@ public final class PoTransaction {
          * 1st buffer is the data buffer to be provided with Digest Init. The following buffers are
          * PO command/response pairs
          */
-        private static final List<byte[]> poDigestDataCache = new ArrayList<byte[]>();
-        private static SamRevision samRevision;
-        private static PoRevision poRevision;
-        private static boolean encryption;
-        private static boolean verification;
-        private static boolean revMode;
-        private static byte keyRecordNumber;
-        private static byte keyKIF;
-        private static byte keyKVC;
+        private final List<byte[]> poDigestDataCache = new ArrayList<byte[]>();
+        private SamRevision samRevision;
+        private PoRevision poRevision;
+        private boolean encryption;
+        private boolean verification;
+        private boolean revMode;
+        private byte keyRecordNumber;
+        private byte keyKIF;
+        private byte keyKVC;
+        /* number of SAM APDUs saved by packing the digest blocks */
+        private int savedApduCount;
 
         /**
          * Initializes the digest computation process
@@ -1044,7 +1207,7 @@ public final class PoTransaction {
          * @param workKeyKVC the PO KVC
          * @param digestData a first bunch of data to digest.
          */
-        static void initialize(PoRevision poRev, SamRevision samRev, boolean sessionEncryption,
+        void initialize(PoRevision poRev, SamRevision samRev, boolean sessionEncryption,
                 boolean verificationMode, boolean rev3_2Mode, byte workKeyRecordNumber,
                 byte workKeyKif, byte workKeyKVC, byte[] digestData) {
             /* Store work context */
@@ -1084,7 +1247,7 @@ public final class PoTransaction {
          * @param request PO request
          * @param response PO response
          */
-        static void pushPoExchangeData(ApduRequest request, ApduResponse response) {
+        void pushPoExchangeData(ApduRequest request, ApduResponse response) {
 
             logger.debug("PoTransaction.DigestProcessor => pushPoExchangeData: REQUEST = {}",
                     request);
@@ -1108,14 +1271,25 @@ public final class PoTransaction {
             poDigestDataCache.add(response.getBytes());
         }
 
+        /**
+         * @return the number of SAM APDUs saved by the use of Digest Update Multiple since the
+         *         creation of the processor
+         */
+        int getSavedApduCount() {
+            return savedApduCount;
+        }
+
         /**
          * Get a unique SAM request for the whole digest computation process.
          * 
+         * <p>
+         * The Digest Update commands are packed in Digest Update Multiple commands whenever
+         * possible (see {@link DigestUpdatePacker}).
+         *
          * @return SeRequest all the ApduRequest to send to the SAM in order to get the terminal
          *         signature
          */
-        // TODO optimization with the use of Digest Update Multiple whenever possible.
-        static SeRequest getSamDigestRequest() {
+        SeRequest getSamDigestRequest() {
             List<ApduRequest> samApduRequestList = new ArrayList<ApduRequest>();
 
             if (poDigestDataCache.size() == 0) {
@@ -1143,11 +1317,16 @@ public final class PoTransaction {
              *
              * The first command is at index 1.
              */
-            for (int i = 1; i < poDigestDataCache.size(); i++) {
-                samApduRequestList.add(
-                        new DigestUpdateCmdBuild(samRevision, encryption, poDigestDataCache.get(i))
-                                .getApduRequest());
-            }
+            List<byte[]> digestBlocks = poDigestDataCache.subList(1, poDigestDataCache.size());
+            List<ApduRequest> digestUpdateRequests =
+                    DigestUpdatePacker.pack(samRevision, encryption, digestBlocks);
+            samApduRequestList.addAll(digestUpdateRequests);
+
+            savedApduCount += digestBlocks.size() - digestUpdateRequests.size();
+
+            logger.debug(
+                    "PoTransaction.DigestProcessor => getSamDigestRequest: {} digest blocks sent in {} SAM commands.",
+                    digestBlocks.size(), digestUpdateRequests.size());
 
             /*
              * Build and append Digest Close command
@@ -1189,7 +1368,7 @@ public final class PoTransaction {
         /**
          * A Map of SFI and Commands/Responses
          */
-        private static Map<Byte, CommandResponse> sfiCommandResponseHashMap =
+        private final Map<Byte, CommandResponse> sfiCommandResponseHashMap =
                 new HashMap<Byte, CommandResponse>();
 
         /**
@@ -1201,7 +1380,7 @@ public final class PoTransaction {
          * @param skipFirstItem a flag to indicate if the first apduRequest/apduResponse pair has to
          *        be ignored or not.
          */
-        static void storeCommandResponse(List<PoBuilderParser> poBuilderParsers,
+        void storeCommandResponse(List<PoBuilderParser> poBuilderParsers,
                 List<ApduRequest> apduRequests, List<ApduResponse> apduResponses,
                 Boolean skipFirstItem) {
             if (poBuilderParsers != null) {
@@ -1249,7 +1428,7 @@ public final class PoTransaction {
          * @return the anticipated responses.
          * @throws KeypleCalypsoSecureSessionException if an response can't be determined.
          */
-        private static List<ApduResponse> getResponses(List<PoBuilderParser> poBuilderParsers)
+        private List<ApduResponse> getResponses(List<PoBuilderParser> poBuilderParsers)
                 throws KeypleCalypsoSecureSessionException {
             List<ApduResponse> apduResponses = new ArrayList<ApduResponse>();
             if (poBuilderParsers != null) {
@@ -1381,6 +1560,9 @@ public final class PoTransaction {
             preparedCommandsProcessed = false;
         }
 
+        /* a new session starts with an empty modifications buffer */
+        resetModificationsBufferCounter();
+
         /* create a sublist of PoBuilderParser to be sent atomically */
         List<PoBuilderParser> poAtomicCommandList = new ArrayList<PoBuilderParser>();
         for (PoBuilderParser poCommandElement : poBuilderParserList) {
@@ -1447,6 +1629,54 @@ public final class PoTransaction {
         return poProcessSuccess;
     }
 
+    /**
+     * Executes a complete secure session described by a {@link PoTransactionPlan}: opening of the
+     * session with the read commands of the plan, then closing with its modification commands.
+     * <p>
+     * The commands of the plan are not built again: their class byte is adapted to the PO and they
+     * are processed as the prepared commands would be by {@link #processOpening} and
+     * {@link #processClosing}. The commands previously prepared with this transaction and not
+     * processed are discarded.
+     * <p>
+     * The responses are available with {@link PoTransactionPlan#getResponseParser(int)}.
+     *
+     * @param plan the plan to execute
+     * @return true if all commands are successful
+     * @throws IllegalStateException if the plan has a read command without expected length and
+     *         the PO is in contacts mode
+     * @throws KeypleReaderException the IO reader exception
+     */
+    public boolean processPlan(PoTransactionPlan plan) throws KeypleReaderException {
+        if (plan.isExpectedLengthUnspecified()
+                && poReader.getTransmissionMode() == TransmissionMode.CONTACTS) {
+            throw new IllegalStateException(
+                    "In contacts mode, the expected length must be specified.");
+        }
+        plan.setPoClass(calypsoPo.getPoClass());
+        plan.resetResponseParsers();
+
+        loadPlanCommands(plan.getOpeningCommands());
+        boolean poProcessSuccess = processOpening(plan.getModificationMode(),
+                plan.getAccessLevel(), plan.getOpeningSfiToSelect(),
+                plan.getOpeningRecordNumberToRead());
+
+        loadPlanCommands(plan.getClosingCommands());
+        if (!processClosing(plan.getClosingChannelState())) {
+            poProcessSuccess = false;
+        }
+        return poProcessSuccess;
+    }
+
+    /**
+     * Replaces the prepared commands by commands of a plan
+     */
+    private void loadPlanCommands(List<PoBuilderParser> planCommands) {
+        poBuilderParserList.clear();
+        poBuilderParserList.addAll(planCommands);
+        preparedCommandsProcessed = false;
+        preparedCommandIndex = planCommands.size();
+    }
+
     /**
      * Process all prepared PO commands (outside a Secure Session).
      * <ul>
@@ -1471,12 +1701,21 @@ public final class PoTransaction {
 
         boolean poProcessSuccess = true;
 
-        /* PO commands sent outside a Secure Session. No modifications buffer limitation. */
-        SeResponse seResponsePoCommands =
-                processAtomicPoCommands(poBuilderParserList, channelState);
+        List<PoBuilderParser> poCommandsToSend = poBuilderParserList;
+        if (recordCacheMode == RecordCacheMode.SERVE_OUT_OF_SESSION_READS) {
+            poCommandsToSend = serveReadsFromRecordCache(poBuilderParserList);
+        }
 
-        if (!createResponseParsers(seResponsePoCommands, poBuilderParserList)) {
-            poProcessSuccess = false;
+        /* nothing to transmit if all the commands have been served and the channel is kept open */
+        if (!poCommandsToSend.isEmpty() || poCommandsToSend == poBuilderParserList
+                || channelState == ChannelState.CLOSE_AFTER) {
+            /* PO commands sent outside a Secure Session. No modifications buffer limitation. */
+            SeResponse seResponsePoCommands =
+                    processAtomicPoCommands(poCommandsToSend, channelState);
+
+            if (!createResponseParsers(seResponsePoCommands, poCommandsToSend)) {
+                poProcessSuccess = false;
+            }
         }
 
         /* sets the flag indicating that the commands have been executed */
@@ -1517,67 +1756,35 @@ public final class PoTransaction {
 
         boolean poProcessSuccess = true;
 
-        /* A session is open, we have to care about the PO modifications buffer */
-        List<PoBuilderParser> poAtomicBuilderParserList = new ArrayList<PoBuilderParser>();
+        /*
+         * A session is open, we have to care about the PO modifications buffer: in MULTIPLE mode,
+         * the commands are packed in as few sessions as possible
+         */
+        SessionPlanner sessionPlanner = planSessions();
+        List<List<PoBuilderParser>> sessions = sessionPlanner.getSessions();
+        checkAtomicity(sessions);
 
-        for (PoBuilderParser poBuilderParser : this.poBuilderParserList) {
-            if (!(poBuilderParser.getCommandBuilder() instanceof PoModificationCommand)) {
-                /* This command does not affect the PO modifications buffer */
-                poAtomicBuilderParserList.add(poBuilderParser);
-            } else {
-                /* This command affects the PO modifications buffer */
-                if (willOverflowBuffer(
-                        ((PoModificationCommand) poBuilderParser.getCommandBuilder()))) {
-                    if (currentModificationMode == ModificationMode.ATOMIC) {
-                        throw new IllegalStateException(
-                                "ATOMIC mode error! This command would overflow the PO modifications buffer: "
-                                        + poBuilderParser.getCommandBuilder().toString());
-                    }
-                    /*
-                     * The current command would overflow the modifications buffer in the PO. We
-                     * send the current commands and update the parsers. The parsers Iterator is
-                     * kept all along the process.
-                     */
-                    SeResponse seResponsePoCommands = processAtomicPoCommands(
-                            poAtomicBuilderParserList, ChannelState.KEEP_OPEN);
-                    if (!createResponseParsers(seResponsePoCommands, poAtomicBuilderParserList)) {
-                        poProcessSuccess = false;
-                    }
-                    /*
-                     * Close the session and reset the modifications buffer counters for the next
-                     * round (set the contact mode to avoid the transmission of the ratification)
-                     */
-                    processAtomicClosing(null, TransmissionMode.CONTACTS, ChannelState.KEEP_OPEN);
-                    resetModificationsBufferCounter();
-                    /* We reopen a new session for the remaining commands to be sent */
-                    SeResponse seResponseOpening = processAtomicOpening(currentAccessLevel,
-                            (byte) 0x00, (byte) 0x00, null);
-                    /*
-                     * Clear the list and add the command that did not fit in the PO modifications
-                     * buffer. We also update the usage counter without checking the result.
-                     */
-                    poAtomicBuilderParserList.clear();
-                    poAtomicBuilderParserList.add(poBuilderParser);
-                    /*
-                     * just update modifications buffer usage counter, ignore result (always false)
-                     */
-                    willOverflowBuffer((PoModificationCommand) poBuilderParser.getCommandBuilder());
-                } else {
-                    /*
-                     * The command fits in the PO modifications buffer, just add it to the list
-                     */
-                    poAtomicBuilderParserList.add(poBuilderParser);
-                }
+        for (int i = 0; i < sessions.size(); i++) {
+            List<PoBuilderParser> sessionCommands = sessions.get(i);
+            if (i > 0) {
+                /*
+                 * Close the session and reset the modifications buffer counters for the next
+                 * round (set the contact mode to avoid the transmission of the ratification)
+                 */
+                processAtomicClosing(null, TransmissionMode.CONTACTS, ChannelState.KEEP_OPEN);
+                resetModificationsBufferCounter();
+                /* We reopen a new session for the remaining commands to be sent */
+                processAtomicOpening(currentAccessLevel, (byte) 0x00, (byte) 0x00, null);
             }
-        }
-
-        if (!poAtomicBuilderParserList.isEmpty()) {
-            SeResponse seResponsePoCommands =
-                    processAtomicPoCommands(poAtomicBuilderParserList, ChannelState.KEEP_OPEN);
-            if (!createResponseParsers(seResponsePoCommands, poAtomicBuilderParserList)) {
-                poProcessSuccess = false;
+            if (!sessionCommands.isEmpty()) {
+                SeResponse seResponsePoCommands =
+                        processAtomicPoCommands(sessionCommands, ChannelState.KEEP_OPEN);
+                if (!createResponseParsers(seResponsePoCommands, sessionCommands)) {
+                    poProcessSuccess = false;
+                }
             }
         }
+        modificationsCounter = sessionPlanner.getLastSessionModificationsCounter();
 
         /* sets the flag indicating that the commands have been executed */
         preparedCommandsProcessed = true;
@@ -1613,8 +1820,6 @@ public final class PoTransaction {
      */
     public boolean processClosing(ChannelState channelState) throws KeypleReaderException {
         boolean poProcessSuccess = true;
-        boolean atLeastOneReadCommand = false;
-        boolean sessionPreviouslyClosed = false;
 
         /*
          * clear the prepared command list if processed flag is still set (no new command prepared)
@@ -1624,75 +1829,34 @@ public final class PoTransaction {
             preparedCommandsProcessed = false;
         }
 
-        List<PoModificationCommand> poModificationCommandList =
-                new ArrayList<PoModificationCommand>();
-        List<PoBuilderParser> poAtomicBuilderParserList = new ArrayList<PoBuilderParser>();
+        /* in MULTIPLE mode, the commands are packed in as few sessions as possible */
+        SessionPlanner sessionPlanner = planSessions();
+        List<List<PoBuilderParser>> sessions = sessionPlanner.getSessions();
+        checkAtomicity(sessions);
+
         SeResponse seResponseClosing;
-        for (PoBuilderParser poBuilderParser : poBuilderParserList) {
-            if (!(poBuilderParser instanceof PoModificationCommand)) {
-                /*
-                 * This command does not affect the PO modifications buffer. We will call
-                 * processPoCommands first
-                 */
-                poAtomicBuilderParserList.add(poBuilderParser);
-                atLeastOneReadCommand = true;
+        for (int i = 0; i < sessions.size() - 1; i++) {
+            List<PoBuilderParser> sessionCommands = sessions.get(i);
+            if (i > 0) {
+                processAtomicOpening(currentAccessLevel, (byte) 0x00, (byte) 0x00, null);
+            }
+            if (containsNonModificationCommand(sessionCommands)) {
+                /* the responses to the read commands can not be anticipated */
+                seResponseClosing =
+                        processAtomicPoCommands(sessionCommands, ChannelState.KEEP_OPEN);
+                processAtomicClosing(null, TransmissionMode.CONTACTS, ChannelState.KEEP_OPEN);
             } else {
-                /* This command affects the PO modifications buffer */
-                if (willOverflowBuffer(
-                        (PoModificationCommand) poBuilderParser.getCommandBuilder())) {
-                    if (currentModificationMode == ModificationMode.ATOMIC) {
-                        throw new IllegalStateException(
-                                "ATOMIC mode error! This command would overflow the PO modifications buffer: "
-                                        + poBuilderParser.getCommandBuilder().toString());
-                    }
-                    /*
-                     * Reopen a session with the same access level if it was previously closed in
-                     * this current processClosing
-                     */
-                    if (sessionPreviouslyClosed) {
-                        processAtomicOpening(currentAccessLevel, (byte) 0x00, (byte) 0x00, null);
-                    }
-
-                    /*
-                     * If at least one non-modifying was prepared, we use processAtomicPoCommands
-                     * instead of processAtomicClosing to send the list
-                     */
-                    if (atLeastOneReadCommand) {
-                        List<PoBuilderParser> poBuilderParsers = new ArrayList<PoBuilderParser>();
-                        poBuilderParsers.addAll(poAtomicBuilderParserList);
-                        seResponseClosing =
-                                processAtomicPoCommands(poBuilderParsers, ChannelState.KEEP_OPEN);
-                        atLeastOneReadCommand = false;
-                    } else {
-                        /* All commands in the list are 'modifying' */
-                        seResponseClosing = processAtomicClosing(poAtomicBuilderParserList,
-                                TransmissionMode.CONTACTS, ChannelState.KEEP_OPEN);
-                        resetModificationsBufferCounter();
-                        sessionPreviouslyClosed = true;
-                    }
-
-                    if (!createResponseParsers(seResponseClosing, poAtomicBuilderParserList)) {
-                        poProcessSuccess = false;
-                    }
-                    /*
-                     * Clear the list and add the command that did not fit in the PO modifications
-                     * buffer. We also update the usage counter without checking the result.
-                     */
-                    poAtomicBuilderParserList.clear();
-                    poAtomicBuilderParserList.add(poBuilderParser);
-                    /*
-                     * just update modifications buffer usage counter, ignore result (always false)
-                     */
-                    willOverflowBuffer((PoModificationCommand) poBuilderParser.getCommandBuilder());
-                } else {
-                    /*
-                     * The command fits in the PO modifications buffer, just add it to the list
-                     */
-                    poAtomicBuilderParserList.add(poBuilderParser);
-                }
+                /* All commands in the list are 'modifying' */
+                seResponseClosing = processAtomicClosing(sessionCommands,
+                        TransmissionMode.CONTACTS, ChannelState.KEEP_OPEN);
+            }
+            if (!createResponseParsers(seResponseClosing, sessionCommands)) {
+                poProcessSuccess = false;
             }
+            resetModificationsBufferCounter();
         }
-        if (sessionPreviouslyClosed) {
+        List<PoBuilderParser> poAtomicBuilderParserList = sessions.get(sessions.size() - 1);
+        if (sessions.size() > 1) {
             /*
              * Reopen if needed, to close the session with the requested conditions
              * (CommunicationMode and channelState)
@@ -1751,6 +1915,9 @@ public final class PoTransaction {
 
         logger.debug("processCancel => POSERESPONSE = {}", poSeResponse);
 
+        /* the records read during the session may not be those of the PO */
+        calypsoPo.getRecordCache().clear();
+
         /* sets the flag indicating that the commands have been executed */
         preparedCommandsProcessed = true;
 
@@ -1783,6 +1950,7 @@ public final class PoTransaction {
             PoBuilderParser poBuilderParser = commandIterator.next();
             poBuilderParser.setResponseParser((AbstractPoResponseParser) (poBuilderParser
                     .getCommandBuilder().createResponseParser(apduResponse)));
+            updateRecordCache(poBuilderParser.getCommandBuilder(), apduResponse);
             if (!apduResponse.isSuccessful()) {
                 allSuccessfulCommands = false;
             }
@@ -1790,6 +1958,101 @@ public final class PoTransaction {
         return allSuccessfulCommands;
     }
 
+    /**
+     * Stores the records read in the record cache of the PO and removes the records of the files
+     * modified.
+     * <p>
+     * The SFIs may refer to another DF after a file selection: the whole cache is invalidated.
+     *
+     * @param commandBuilder the command sent to the PO
+     * @param apduResponse the response of the PO
+     */
+    private void updateRecordCache(AbstractPoCommandBuilder commandBuilder,
+            ApduResponse apduResponse) {
+        PoRecordCache recordCache = calypsoPo.getRecordCache();
+        if (commandBuilder instanceof ReadRecordsCmdBuild) {
+            recordCache.putReadRecordsResponse((ReadRecordsCmdBuild) commandBuilder, apduResponse);
+        } else if (commandBuilder instanceof SelectFileCmdBuild) {
+            recordCache.invalidate((byte) 0);
+        } else if (commandBuilder instanceof PoModificationCommand) {
+            recordCache.invalidate(getModifiedSfi(commandBuilder));
+        }
+    }
+
+    /**
+     * @param commandBuilder a Calypso modification command (Update/Append Record, Increase,
+     *        Decrease)
+     * @return the SFI of the file modified by the command (0 for the current EF)
+     */
+    private static byte getModifiedSfi(AbstractPoCommandBuilder commandBuilder) {
+        return (byte) ((commandBuilder.getApduRequest().getBytes()[OFFSET_P2] >> 3) & 0x1F);
+    }
+
+    /**
+     * Sets the response parsers of the Read Records commands of a single record found in the
+     * record cache of the PO, with a response built from the cached record.
+     * <p>
+     * A record is not served from the cache when its file may be modified by a previous command of
+     * the list.
+     *
+     * @param poBuilderParsers the list of {@link PoBuilderParser} to process
+     * @return the sublist of the commands to send to the PO
+     */
+    private List<PoBuilderParser> serveReadsFromRecordCache(
+            List<PoBuilderParser> poBuilderParsers) {
+        PoRecordCache recordCache = calypsoPo.getRecordCache();
+        List<PoBuilderParser> poCommandsToSend = new ArrayList<PoBuilderParser>();
+        List<PoBuilderParser> servedCommands = new ArrayList<PoBuilderParser>();
+        List<ApduRequest> servedApduRequests = new ArrayList<ApduRequest>();
+        List<ApduResponse> servedApduResponses = new ArrayList<ApduResponse>();
+        Set<Byte> modifiedSfis = new HashSet<Byte>();
+        boolean allFilesModified = false;
+        for (PoBuilderParser poBuilderParser : poBuilderParsers) {
+            AbstractPoCommandBuilder commandBuilder = poBuilderParser.getCommandBuilder();
+            byte[] record = null;
+            if (commandBuilder instanceof ReadRecordsCmdBuild) {
+                ReadRecordsCmdBuild readRecordsCmdBuild = (ReadRecordsCmdBuild) commandBuilder;
+                ReadDataStructure readDataStructure = readRecordsCmdBuild.getReadDataStructure();
+                if (readRecordsCmdBuild.isReadJustOneRecord()
+                        && (readDataStructure == ReadDataStructure.SINGLE_RECORD_DATA
+                                || readDataStructure == ReadDataStructure.SINGLE_COUNTER)
+                        && !allFilesModified
+                        && !modifiedSfis.contains(readRecordsCmdBuild.getSfi())) {
+                    record = recordCache.lookup(readRecordsCmdBuild.getSfi(),
+                            readRecordsCmdBuild.getFirstRecordNumber(),
+                            readRecordsCmdBuild.getExpectedLength() & 0xFF);
+                }
+            } else if (commandBuilder instanceof SelectFileCmdBuild) {
+                allFilesModified = true;
+            } else if (commandBuilder instanceof PoModificationCommand) {
+                modifiedSfis.add(getModifiedSfi(commandBuilder));
+            }
+            if (record == null) {
+                poCommandsToSend.add(poBuilderParser);
+                continue;
+            }
+            /* response = record data + 9000 */
+            byte[] response = Arrays.copyOf(record, record.length + 2);
+            response[record.length] = (byte) 0x90;
+            ApduResponse apduResponse = new ApduResponse(response, null);
+            poBuilderParser.setResponseParser((AbstractPoResponseParser) (commandBuilder
+                    .createResponseParser(apduResponse)));
+            servedCommands.add(poBuilderParser);
+            servedApduRequests.add(commandBuilder.getApduRequest());
+            servedApduResponses.add(apduResponse);
+        }
+        if (!servedCommands.isEmpty()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("serveReadsFromRecordCache => {} of {} commands served from cache",
+                        servedCommands.size(), poBuilderParsers.size());
+            }
+            /* Track Read Records for later use to build anticipated responses. */
+            anticipatedResponseBuilder.storeCommandResponse(servedCommands, servedApduRequests,
+                    servedApduResponses, false);
+        }
+        return poCommandsToSend;
+    }
+
     /**
      * Checks whether the requirement for the modifications buffer of the command provided in
      * argument is compatible with the current usage level of the buffer.
@@ -1803,8 +2066,8 @@ public final class PoTransaction {
     private boolean willOverflowBuffer(PoModificationCommand modificationCommand) {
         boolean willOverflow = false;
         if (modificationsCounterIsInBytes) {
-            int bufferRequirement = ((AbstractApduCommandBuilder) modificationCommand)
-                    .getApduRequest().getBytes()[OFFSET_Lc] + 6;
+            int bufferRequirement = SessionPlanner.getBufferRequirement(
+                    (AbstractPoCommandBuilder) modificationCommand, true);
 
             if (modificationsCounter - bufferRequirement > 0) {
                 modificationsCounter = modificationsCounter - bufferRequirement;
@@ -1831,6 +2094,99 @@ public final class PoTransaction {
         return willOverflow;
     }
 
+    /**
+     * Plans the secure sessions needed by the prepared commands, from the current state of the
+     * modifications buffer
+     */
+    private SessionPlanner planSessions() {
+        List<PoBuilderParser> poBuilderParsers = preparedCommandsProcessed
+                ? new ArrayList<PoBuilderParser>()
+                : poBuilderParserList;
+        return new SessionPlanner(poBuilderParsers, modificationsCounterIsInBytes,
+                modificationsCounter, modificationsCounterMax);
+    }
+
+    /**
+     * @throws IllegalStateException if the session is ATOMIC and the commands do not fit in it
+     */
+    private void checkAtomicity(List<List<PoBuilderParser>> sessions) {
+        if (sessions.size() > 1 && currentModificationMode == ModificationMode.ATOMIC) {
+            throw new IllegalStateException(
+                    "ATOMIC mode error! This command would overflow the PO modifications buffer: "
+                            + sessions.get(1).get(0).getCommandBuilder().toString());
+        }
+    }
+
+    private static boolean containsNonModificationCommand(
+            List<PoBuilderParser> poBuilderParsers) {
+        for (PoBuilderParser poBuilderParser : poBuilderParsers) {
+            if (!(poBuilderParser.getCommandBuilder() instanceof PoModificationCommand)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of secure sessions needed to process the prepared commands.
+     * <p>
+     * While a session is open, the commands are planned as by {@link #processPoCommandsInSession()}
+     * or {@link #processClosing(ChannelState)}, from the current use of the PO modifications
+     * buffer: the modification commands are packed in as few sessions as possible (commands on
+     * different files or records may be reordered).
+     * <p>
+     * Otherwise, the commands are planned as by
+     * {@link #processOpening(ModificationMode, SessionAccessLevel, byte, byte)}, from an empty
+     * modifications buffer: a new session is opened at each command that overflows the buffer.
+     * <p>
+     * In ATOMIC mode, more than one session leads to an error.
+     *
+     * @return 1 if all the prepared commands fit in the current (or next) session
+     */
+    public int getPlannedSessionCount() {
+        if (sessionState != SessionState.SESSION_OPEN) {
+            return getOpeningSessionCount();
+        }
+        return planSessions().getSessionCount();
+    }
+
+    /**
+     * Counts the sessions of processOpening: the prepared commands are sent in order, a new
+     * session being opened at each command that overflows the modifications buffer
+     */
+    private int getOpeningSessionCount() {
+        int sessionCount = 1;
+        if (preparedCommandsProcessed) {
+            return sessionCount;
+        }
+        int counter = modificationsCounterMax;
+        for (PoBuilderParser poBuilderParser : poBuilderParserList) {
+            if (!(poBuilderParser.getCommandBuilder() instanceof PoModificationCommand)) {
+                continue;
+            }
+            int bufferRequirement = modificationsCounterIsInBytes
+                    ? SessionPlanner.getBufferRequirement(poBuilderParser.getCommandBuilder(),
+                            true)
+                    : 1;
+            if (!fitsInBuffer(counter, bufferRequirement)) {
+                sessionCount++;
+                counter = modificationsCounterMax;
+            }
+            if (fitsInBuffer(counter, bufferRequirement)) {
+                counter -= bufferRequirement;
+            }
+        }
+        return sessionCount;
+    }
+
+    /**
+     * Same check as {@link #willOverflowBuffer(PoModificationCommand)}, without updating the
+     * modifications counter
+     */
+    private boolean fitsInBuffer(int counter, int bufferRequirement) {
+        return modificationsCounterIsInBytes ? counter - bufferRequirement > 0 : counter > 0;
+    }
+
     /**
      * Initialized the modifications buffer counter to its maximum value for the current PO
      */
@@ -0,0 +1,348 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.AbstractPoCommandBuilder;
+import org.eclipse.keyple.calypso.command.po.AbstractPoResponseParser;
+import org.eclipse.keyple.calypso.command.po.PoBuilderParser;
+import org.eclipse.keyple.calypso.command.po.builder.*;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+
+/**
+ * A transaction plan is a secure session whose commands are built once and executed by
+ * {@link PoTransaction#processPlan(PoTransactionPlan)} with each PO presented, e.g. the ticketing
+ * flow of a validator: opening of the session reading the environment, reading of the contracts
+ * and counters, decrease of a counter, appending of an event and closing.
+ * <p>
+ * The Read Records commands are sent with the opening of the session, the modification commands
+ * are sent with the closing. The APDUs of the commands are built when the plan is prepared; only
+ * the fields depending on the PO or on the tap are patched in place before an execution:
+ * <ul>
+ * <li>the class byte, according to the revision of the PO,</li>
+ * <li>the value of the Increase/Decrease commands ({@link #setCounterValue(int, int)}),</li>
+ * <li>the data of the Append/Update Record commands ({@link #setRecordData(int, byte[])}).</li>
+ * </ul>
+ * The responses of the last execution are available with {@link #getResponseParser(int)}.
+ * <p>
+ * A plan is not thread safe: it must be executed by one transaction at a time (e.g. one plan per
+ * PO reader).
+ */
+public final class PoTransactionPlan {
+    /** offset of the class byte in the APDU */
+    private static final int OFFSET_CLA = 0;
+    /** offset of Lc in the APDU */
+    private static final int OFFSET_LC = 4;
+    /** offset of the data in the APDU */
+    private static final int OFFSET_DATA = 5;
+
+    private final PoTransaction.ModificationMode modificationMode;
+    private final PoTransaction.SessionAccessLevel accessLevel;
+    private final byte openingSfiToSelect;
+    private final byte openingRecordNumberToRead;
+    private final ChannelState closingChannelState;
+
+    /** all the commands, in order of preparation */
+    private final List<PoBuilderParser> commands = new ArrayList<PoBuilderParser>();
+    /** the commands sent with the opening of the session */
+    private final List<PoBuilderParser> openingCommands = new ArrayList<PoBuilderParser>();
+    /** the commands sent with the closing of the session */
+    private final List<PoBuilderParser> closingCommands = new ArrayList<PoBuilderParser>();
+    /** the class of the current APDUs */
+    private PoClass poClass = PoClass.ISO;
+    /** a read command without expected length can not be sent in contacts mode */
+    private boolean expectedLengthUnspecified;
+
+    /**
+     * Constructor.
+     *
+     * @param modificationMode the modification mode: ATOMIC or MULTIPLE (see
+     *        {@link PoTransaction.ModificationMode})
+     * @param accessLevel access level of the session (personalization, load or debit).
+     * @param openingSfiToSelect SFI of the file to select (0 means no file to select)
+     * @param openingRecordNumberToRead number of the record to read
+     * @param closingChannelState indicates if the SE channel of the PO reader must be closed
+     *        after the closing of the session
+     */
+    public PoTransactionPlan(PoTransaction.ModificationMode modificationMode,
+            PoTransaction.SessionAccessLevel accessLevel, byte openingSfiToSelect,
+            byte openingRecordNumberToRead, ChannelState closingChannelState) {
+        this.modificationMode = modificationMode;
+        this.accessLevel = accessLevel;
+        this.openingSfiToSelect = openingSfiToSelect;
+        this.openingRecordNumberToRead = openingRecordNumberToRead;
+        this.closingChannelState = closingChannelState;
+    }
+
+    private int addCommand(AbstractPoCommandBuilder commandBuilder,
+            List<PoBuilderParser> phaseCommands) {
+        PoBuilderParser poBuilderParser = new PoBuilderParser(commandBuilder);
+        commands.add(poBuilderParser);
+        phaseCommands.add(poBuilderParser);
+        return commands.size() - 1;
+    }
+
+    private AbstractPoCommandBuilder getCommandBuilder(int commandIndex) {
+        if (commandIndex < 0 || commandIndex >= commands.size()) {
+            throw new IllegalArgumentException(
+                    String.format("Bad command index: index = %d, number of commands = %d",
+                            commandIndex, commands.size()));
+        }
+        return commands.get(commandIndex).getCommandBuilder();
+    }
+
+    /**
+     * Adds a Read Records command sent with the opening of the session.
+     * <p>
+     * The expected length is provided and its value is checked between 1 and 250.
+     *
+     * @param sfi the sfi top select
+     * @param readDataStructureEnum read mode enum to indicate a SINGLE, MULTIPLE or COUNTER read
+     * @param firstRecordNumber the record number to read (or first record to read in case of
+     *        several records)
+     * @param expectedLength the expected length of the record(s)
+     * @param extraInfo extra information included in the logs (can be null or empty)
+     * @return the command index (input order, starting at 0)
+     * @throws IllegalArgumentException - if record number &lt; 1
+     * @throws IllegalArgumentException - if the request is inconsistent
+     */
+    public int prepareReadRecordsCmd(byte sfi, ReadDataStructure readDataStructureEnum,
+            byte firstRecordNumber, int expectedLength, String extraInfo) {
+        if (expectedLength < 1 || expectedLength > 250) {
+            throw new IllegalArgumentException("Bad length.");
+        }
+        return prepareReadRecordsCmdInternal(sfi, readDataStructureEnum, firstRecordNumber,
+                expectedLength, extraInfo);
+    }
+
+    /**
+     * Adds a Read Records command sent with the opening of the session. No expected length is
+     * specified: the plan can only be executed in contactless mode.
+     *
+     * @param sfi the sfi top select
+     * @param readDataStructureEnum read mode enum to indicate a SINGLE, MULTIPLE or COUNTER read
+     * @param firstRecordNumber the record number to read (or first record to read in case of
+     *        several records)
+     * @param extraInfo extra information included in the logs (can be null or empty)
+     * @return the command index (input order, starting at 0)
+     * @throws IllegalArgumentException - if record number &lt; 1
+     * @throws IllegalArgumentException - if the request is inconsistent
+     */
+    public int prepareReadRecordsCmd(byte sfi, ReadDataStructure readDataStructureEnum,
+            byte firstRecordNumber, String extraInfo) {
+        expectedLengthUnspecified = true;
+        return prepareReadRecordsCmdInternal(sfi, readDataStructureEnum, firstRecordNumber, 0,
+                extraInfo);
+    }
+
+    private int prepareReadRecordsCmdInternal(byte sfi, ReadDataStructure readDataStructureEnum,
+            byte firstRecordNumber, int expectedLength, String extraInfo) {
+        /* see PoTransaction: only multiple records reads are not limited to one record */
+        boolean readJustOneRecord =
+                !(readDataStructureEnum == ReadDataStructure.MULTIPLE_RECORD_DATA);
+        return addCommand(new ReadRecordsCmdBuild(poClass, sfi, readDataStructureEnum,
+                firstRecordNumber, readJustOneRecord, (byte) expectedLength, extraInfo),
+                openingCommands);
+    }
+
+    /**
+     * Adds an Append Record command sent with the closing of the session.
+     *
+     * @param sfi the sfi to select
+     * @param newRecordData the initial record data, its length is the length of the data set for
+     *        each execution
+     * @param extraInfo extra information included in the logs (can be null or empty)
+     * @return the command index (input order, starting at 0)
+     * @throws IllegalArgumentException - if the command is inconsistent
+     */
+    public int prepareAppendRecordCmd(byte sfi, byte[] newRecordData, String extraInfo) {
+        return addCommand(new AppendRecordCmdBuild(poClass, sfi, newRecordData, extraInfo),
+                closingCommands);
+    }
+
+    /**
+     * Adds an Update Record command sent with the closing of the session.
+     *
+     * @param sfi the sfi to select
+     * @param recordNumber the record number to update
+     * @param newRecordData the initial record data, its length is the length of the data set for
+     *        each execution
+     * @param extraInfo extra information included in the logs (can be null or empty)
+     * @return the command index (input order, starting at 0)
+     * @throws IllegalArgumentException - if record number is &lt; 1
+     * @throws IllegalArgumentException - if the request is inconsistent
+     */
+    public int prepareUpdateRecordCmd(byte sfi, byte recordNumber, byte[] newRecordData,
+            String extraInfo) {
+        return addCommand(
+                new UpdateRecordCmdBuild(poClass, sfi, recordNumber, newRecordData, extraInfo),
+                closingCommands);
+    }
+
+    /**
+     * Adds an Increase command sent with the closing of the session.
+     *
+     * @param sfi SFI of the file to select or 00h for current EF
+     * @param counterNumber &gt;= 01h: Counters file, number of the counter. 00h: Simulated Counter
+     *        file.
+     * @param incValue the initial value to add to the counter (defined as a positive int &lt;=
+     *        16777215 [FFFFFFh])
+     * @param extraInfo extra information included in the logs (can be null or empty)
+     * @return the command index (input order, starting at 0)
+     * @throws IllegalArgumentException - if the increment value is out of range
+     */
+    public int prepareIncreaseCmd(byte sfi, byte counterNumber, int incValue, String extraInfo) {
+        return addCommand(new IncreaseCmdBuild(poClass, sfi, counterNumber, incValue, extraInfo),
+                closingCommands);
+    }
+
+    /**
+     * Adds a Decrease command sent with the closing of the session.
+     *
+     * @param sfi SFI of the file to select or 00h for current EF
+     * @param counterNumber &gt;= 01h: Counters file, number of the counter. 00h: Simulated Counter
+     *        file.
+     * @param decValue the initial value to subtract to the counter (defined as a positive int
+     *        &lt;= 16777215 [FFFFFFh])
+     * @param extraInfo extra information included in the logs (can be null or empty)
+     * @return the command index (input order, starting at 0)
+     * @throws IllegalArgumentException - if the decrement value is out of range
+     */
+    public int prepareDecreaseCmd(byte sfi, byte counterNumber, int decValue, String extraInfo) {
+        return addCommand(new DecreaseCmdBuild(poClass, sfi, counterNumber, decValue, extraInfo),
+                closingCommands);
+    }
+
+    /**
+     * Sets the value of an Increase or Decrease command for the next executions
+     *
+     * @param commandIndex the index of the command
+     * @param value the value to add or subtract (defined as a positive int &lt;= 16777215
+     *        [FFFFFFh])
+     * @throws IllegalArgumentException - if the command is not an Increase/Decrease command or if
+     *         the value is out of range
+     */
+    public void setCounterValue(int commandIndex, int value) {
+        AbstractPoCommandBuilder commandBuilder = getCommandBuilder(commandIndex);
+        if (!(commandBuilder instanceof IncreaseCmdBuild)
+                && !(commandBuilder instanceof DecreaseCmdBuild)) {
+            throw new IllegalArgumentException("Not an Increase/Decrease command.");
+        }
+        if (value < 0 || value > 0xFFFFFF) {
+            throw new IllegalArgumentException("Value out of range!");
+        }
+        byte[] apdu = commandBuilder.getApduRequest().getBytes();
+        apdu[OFFSET_DATA] = (byte) ((value >> 16) & 0xFF);
+        apdu[OFFSET_DATA + 1] = (byte) ((value >> 8) & 0xFF);
+        apdu[OFFSET_DATA + 2] = (byte) (value & 0xFF);
+    }
+
+    /**
+     * Sets the data of an Append Record or Update Record command for the next executions
+     *
+     * @param commandIndex the index of the command
+     * @param data the record data, of the length of the data provided when preparing the command
+     * @throws IllegalArgumentException - if the command is not an Append/Update Record command or
+     *         if the length of the data is not the expected one
+     */
+    public void setRecordData(int commandIndex, byte[] data) {
+        AbstractPoCommandBuilder commandBuilder = getCommandBuilder(commandIndex);
+        if (!(commandBuilder instanceof AppendRecordCmdBuild)
+                && !(commandBuilder instanceof UpdateRecordCmdBuild)) {
+            throw new IllegalArgumentException("Not an Append/Update Record command.");
+        }
+        byte[] apdu = commandBuilder.getApduRequest().getBytes();
+        if (data.length != (apdu[OFFSET_LC] & 0xFF)) {
+            throw new IllegalArgumentException(String.format(
+                    "Bad data length: %d, expected: %d", data.length, apdu[OFFSET_LC] & 0xFF));
+        }
+        System.arraycopy(data, 0, apdu, OFFSET_DATA, data.length);
+    }
+
+    /**
+     * Get the response parser of a command for the last execution of the plan
+     *
+     * @param commandIndex the index of the command
+     * @return the corresponding command parser, null if the command has not been processed
+     */
+    public AbstractPoResponseParser getResponseParser(int commandIndex) {
+        getCommandBuilder(commandIndex);
+        return commands.get(commandIndex).getResponseParser();
+    }
+
+    /**
+     * Sets the class byte of all the commands, only when it differs from the current one
+     *
+     * @param poClass the class of the PO
+     */
+    void setPoClass(PoClass poClass) {
+        if (poClass == this.poClass) {
+            return;
+        }
+        for (PoBuilderParser poBuilderParser : commands) {
+            poBuilderParser.getCommandBuilder().getApduRequest().getBytes()[OFFSET_CLA] =
+                    poClass.getValue();
+        }
+        this.poClass = poClass;
+    }
+
+    /**
+     * Forgets the responses of the previous execution
+     */
+    void resetResponseParsers() {
+        for (PoBuilderParser poBuilderParser : commands) {
+            poBuilderParser.setResponseParser(null);
+        }
+    }
+
+    List<PoBuilderParser> getOpeningCommands() {
+        return openingCommands;
+    }
+
+    List<PoBuilderParser> getClosingCommands() {
+        return closingCommands;
+    }
+
+    boolean isExpectedLengthUnspecified() {
+        return expectedLengthUnspecified;
+    }
+
+    public PoTransaction.ModificationMode getModificationMode() {
+        return modificationMode;
+    }
+
+    public PoTransaction.SessionAccessLevel getAccessLevel() {
+        return accessLevel;
+    }
+
+    public byte getOpeningSfiToSelect() {
+        return openingSfiToSelect;
+    }
+
+    public byte getOpeningRecordNumberToRead() {
+        return openingRecordNumberToRead;
+    }
+
+    public ChannelState getClosingChannelState() {
+        return closingChannelState;
+    }
+
+    /**
+     * @return the number of commands of the plan
+     */
+    public int getCommandCount() {
+        return commands.size();
+    }
+}
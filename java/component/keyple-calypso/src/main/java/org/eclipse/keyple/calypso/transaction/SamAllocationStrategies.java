@@ -0,0 +1,149 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.List;
+
+/**
+ * Standard {@link SamAllocationStrategy} implementations.
+ * <p>
+ * The returned strategies may keep a state: an instance should not be shared between several
+ * {@link SamResourceManager}.
+ */
+public final class SamAllocationStrategies {
+
+    private SamAllocationStrategies() {}
+
+    /**
+     * The first free SAM resource is allocated (the historical behavior).
+     * <p>
+     * The traffic concentrates on the first SAM resources.
+     *
+     * @return the strategy
+     */
+    public static SamAllocationStrategy firstFree() {
+        return new SamAllocationStrategy() {
+            @Override
+            public SamResource select(List<SamResource> candidates, byte[] poSerialNumber) {
+                return candidates.get(0);
+            }
+        };
+    }
+
+    /**
+     * The SAM resources are allocated in turn, following their creation order.
+     *
+     * @return the strategy
+     */
+    public static SamAllocationStrategy roundRobin() {
+        return new SamAllocationStrategy() {
+            /* creation index of the last allocated resource */
+            private long lastCreationIndex = -1;
+
+            @Override
+            public SamResource select(List<SamResource> candidates, byte[] poSerialNumber) {
+                /* the next resource after the last allocated one, or the first one */
+                SamResource first = null;
+                SamResource next = null;
+                for (SamResource candidate : candidates) {
+                    long creationIndex = candidate.getCreationIndex();
+                    if (first == null || creationIndex < first.getCreationIndex()) {
+                        first = candidate;
+                    }
+                    if (creationIndex > lastCreationIndex
+                            && (next == null || creationIndex < next.getCreationIndex())) {
+                        next = candidate;
+                    }
+                }
+                SamResource selected = next != null ? next : first;
+                lastCreationIndex = selected.getCreationIndex();
+                return selected;
+            }
+        };
+    }
+
+    /**
+     * The SAM resource which has not been allocated for the longest time is allocated.
+     *
+     * @return the strategy
+     */
+    public static SamAllocationStrategy leastRecentlyUsed() {
+        return new SamAllocationStrategy() {
+            @Override
+            public SamResource select(List<SamResource> candidates, byte[] poSerialNumber) {
+                SamResource selected = candidates.get(0);
+                for (SamResource candidate : candidates) {
+                    if (candidate.getAllocationCount() == 0) {
+                        return candidate;
+                    }
+                    if (candidate.getLastAllocationTime()
+                            - selected.getLastAllocationTime() < 0) {
+                        selected = candidate;
+                    }
+                }
+                return selected;
+            }
+        };
+    }
+
+    /**
+     * The SAM resource with the lowest number of allocations is allocated, which evens the load
+     * and the wear of the SAMs.
+     * <p>
+     * Since a SAM resource is allocated to one user at a time, this is the "least in flight"
+     * policy over the lifetime of the manager.
+     *
+     * @return the strategy
+     */
+    public static SamAllocationStrategy leastUsed() {
+        return new SamAllocationStrategy() {
+            @Override
+            public SamResource select(List<SamResource> candidates, byte[] poSerialNumber) {
+                SamResource selected = candidates.get(0);
+                for (SamResource candidate : candidates) {
+                    if (candidate.getAllocationCount() < selected.getAllocationCount()) {
+                        selected = candidate;
+                    }
+                }
+                return selected;
+            }
+        };
+    }
+
+    /**
+     * A SAM resource already diversified with the serial number of the PO is allocated if
+     * possible, so that the {@link PoTransaction} can skip the Select Diversifier command. The
+     * provided fallback strategy is used otherwise.
+     *
+     * @param fallback the strategy used when no SAM resource is diversified with the PO serial
+     *        number or when it is not provided
+     * @return the strategy
+     */
+    public static SamAllocationStrategy poAffinity(final SamAllocationStrategy fallback) {
+        if (fallback == null) {
+            throw new IllegalArgumentException("The fallback strategy must be defined.");
+        }
+        return new SamAllocationStrategy() {
+            @Override
+            public SamResource select(List<SamResource> candidates, byte[] poSerialNumber) {
+                if (poSerialNumber != null) {
+                    for (SamResource candidate : candidates) {
+                        if (candidate.isDiversifiedWith(poSerialNumber)) {
+                            return candidate;
+                        }
+                    }
+                }
+                return fallback.select(candidates, poSerialNumber);
+            }
+        };
+    }
+}
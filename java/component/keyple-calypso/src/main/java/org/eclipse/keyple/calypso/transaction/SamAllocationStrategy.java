@@ -0,0 +1,34 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.List;
+
+/**
+ * Policy used by the {@link SamResourceManager} to choose a SAM resource among the free resources
+ * matching an allocation request.
+ * <p>
+ * The method is called by the manager while holding its internal lock: it must be fast and must
+ * not call the manager. The standard policies are provided by {@link SamAllocationStrategies}.
+ */
+public interface SamAllocationStrategy {
+    /**
+     * Chooses the SAM resource to allocate
+     *
+     * @param candidates the free SAM resources matching the request, in the order in which they
+     *        were added to the manager (never empty)
+     * @param poSerialNumber the serial number of the PO that will be processed with the SAM, may
+     *        be null if not provided by the requester
+     * @return one of the candidates
+     */
+    SamResource select(List<SamResource> candidates, byte[] poSerialNumber);
+}
@@ -11,6 +11,8 @@
  ********************************************************************************/
 package org.eclipse.keyple.calypso.transaction;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 import org.eclipse.keyple.core.selection.SeResource;
 import org.eclipse.keyple.core.seproxy.SeReader;
 
@@ -20,12 +22,30 @@ public class SamResource extends SeResource<CalypsoSam> {
         FREE, BUSY;
     }
 
+    /** the source of the creation indexes */
+    private static final AtomicLong creationCounter = new AtomicLong();
+
+    /** the creation index, orders the resources by creation */
+    private final long creationIndex = creationCounter.getAndIncrement();
+
     /** the free/busy status of the resource */
     private SamResourceStatus samResourceStatus;
 
     /** the sam identifier */
     private SamIdentifier samIdentifier;
 
+    /** the SAM challenge obtained in advance for the next secure session (may be null) */
+    private byte[] prefetchedChallenge;
+
+    /** the PO serial number provided to the SAM by the last Select Diversifier (may be null) */
+    private byte[] diversifier;
+
+    /** the number of times this resource has been allocated */
+    private long allocationCount;
+
+    /** the time (System.nanoTime) of the last allocation of this resource */
+    private long lastAllocationTime;
+
     /**
      * Constructor
      *
@@ -84,4 +104,100 @@ public class SamResource extends SeResource<CalypsoSam> {
     public void setSamResourceStatus(SamResourceStatus samResourceStatus) {
         this.samResourceStatus = samResourceStatus;
     }
+
+    /**
+     * @return the creation index of this resource, a higher index means a more recent creation
+     */
+    long getCreationIndex() {
+        return creationIndex;
+    }
+
+    /**
+     * Records an allocation of this resource
+     */
+    void markAllocated() {
+        allocationCount++;
+        lastAllocationTime = System.nanoTime();
+    }
+
+    /**
+     * @return the number of times this resource has been allocated
+     */
+    public long getAllocationCount() {
+        return allocationCount;
+    }
+
+    /**
+     * @return the time of the last allocation (as given by {@link System#nanoTime()}), 0 if the
+     *         resource has never been allocated
+     */
+    public long getLastAllocationTime() {
+        return lastAllocationTime;
+    }
+
+    /**
+     * Keeps the PO serial number with which the SAM has been diversified.
+     * <p>
+     * Setting a null value indicates that the SAM diversification is unknown.
+     *
+     * @param poSerialNumber the PO serial number provided to the SAM
+     */
+    void setDiversifier(byte[] poSerialNumber) {
+        this.diversifier = poSerialNumber;
+    }
+
+    /**
+     * Forgets the SAM state known by this resource (diversification and prefetched challenge).
+     * <p>
+     * To be called when the SAM may have been reset, i.e. when its logical channel is reopened or
+     * when the SAM reader is released.
+     */
+    void resetSamState() {
+        diversifier = null;
+        prefetchedChallenge = null;
+    }
+
+    /**
+     * Indicates whether the SAM is currently diversified with the provided PO serial number, i.e.
+     * whether a Select Diversifier command can be skipped for this PO.
+     * <p>
+     * The diversification is only known as long as the logical channel with the SAM stays open
+     * and is used through this resource only. It is forgotten when the SAM is reselected or
+     * released by the {@link SamResourceManager}, or when an exchange with the SAM fails.
+     *
+     * @param poSerialNumber the PO serial number
+     * @return true if the last Select Diversifier was done with this serial number
+     */
+    public boolean isDiversifiedWith(byte[] poSerialNumber) {
+        return diversifier != null && Arrays.equals(diversifier, poSerialNumber);
+    }
+
+    /**
+     * Keeps a SAM challenge obtained in advance, to be used by the next secure session opening.
+     * <p>
+     * Setting a null value discards the current challenge.
+     *
+     * @param challenge the challenge returned by the SAM
+     */
+    void setPrefetchedChallenge(byte[] challenge) {
+        this.prefetchedChallenge = challenge;
+    }
+
+    /**
+     * Gets and discards the SAM challenge obtained in advance.
+     * <p>
+     * A challenge is never returned twice. If its length does not match the expected length, the
+     * challenge is discarded and null is returned.
+     *
+     * @param expectedLength the challenge length expected by the PO
+     * @return the challenge or null if no suitable challenge is available
+     */
+    byte[] takePrefetchedChallenge(int expectedLength) {
+        byte[] challenge = prefetchedChallenge;
+        prefetchedChallenge = null;
+        if (challenge == null || challenge.length != expectedLength) {
+            return null;
+        }
+        return challenge;
+    }
 }
@@ -13,6 +13,8 @@ package org.eclipse.keyple.calypso.transaction;
 
 import static org.eclipse.keyple.calypso.command.sam.SamRevision.AUTO;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import org.eclipse.keyple.core.selection.SeSelection;
 import org.eclipse.keyple.core.selection.SelectionsResult;
@@ -32,6 +34,9 @@ import org.slf4j.LoggerFactory;
  * Management of SAM resources:
  * <p>
  * Provides methods fot the allocation/deallocation of SAM resources
+ * <p>
+ * The allocation requests that cannot be satisfied immediately are queued and served in their
+ * arrival order as soon as a matching SAM resource is freed or added.
  */
 public class SamResourceManager {
     private static final Logger logger = LoggerFactory.getLogger(SamResourceManager.class);
@@ -40,11 +45,49 @@ public class SamResourceManager {
         BLOCKING, NON_BLOCKING
     }
 
-    /* the maximum time (in tenths of a second) during which the BLOCKING mode will wait */
-    private final static int MAX_BLOCKING_TIME = 1000; // 10 sec
+    /**
+     * Callback notified of the result of an asynchronous SAM resource allocation.
+     * <p>
+     * The callback is invoked by the thread completing the allocation (usually the one freeing a
+     * SAM resource), it should return quickly.
+     */
+    public interface AllocationCallback {
+        /**
+         * Called when a SAM resource has been allocated
+         *
+         * @param samResource the allocated SAM resource
+         */
+        void onAllocated(SamResource samResource);
+
+        /**
+         * Called when the allocation failed
+         *
+         * @param e the exception raised while creating the SAM resource
+         */
+        void onFailure(Exception e);
+    }
+
+    /* the default maximum time (in milliseconds) during which the BLOCKING mode will wait */
+    public final static long DEFAULT_MAX_BLOCKING_TIME = 10000; // 10 sec
+    /*
+     * the period (in milliseconds) at which the availability of a reader is checked again with a
+     * pool plugin, which does not notify the releases made outside of this manager
+     */
+    private final static long POOL_RETRY_PERIOD = 100;
     private final ReaderPlugin samReaderPlugin;
     private final List<SamResource> localSamResources = new ArrayList<SamResource>();
     private final boolean dynamicAllocationPlugin;
+    private final long maxBlockingTime;
+    /* the policy choosing among the free SAM resources, guarded by localSamResources */
+    private SamAllocationStrategy allocationStrategy = SamAllocationStrategies.firstFree();
+    /* pending allocations in arrival order, guarded by localSamResources */
+    private final LinkedList<PendingAllocation> pendingAllocations =
+            new LinkedList<PendingAllocation>();
+    /* allocation metrics */
+    private final AtomicLong allocationCount = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
 
     /**
      * Instantiate a new SamResourceManager.
@@ -60,6 +103,25 @@ public class SamResourceManager {
      */
     public SamResourceManager(ReaderPlugin samReaderPlugin, String samReaderFilter)
             throws KeypleReaderException {
+        this(samReaderPlugin, samReaderFilter, DEFAULT_MAX_BLOCKING_TIME);
+    }
+
+    /**
+     * Instantiate a new SamResourceManager with a specific maximum blocking time.
+     *
+     * @param samReaderPlugin the plugin through which SAM readers are accessible
+     * @param samReaderFilter the regular expression defining how to identify SAM readers among
+     *        others.
+     * @param maxBlockingTime the maximum time (in milliseconds) during which a BLOCKING allocation
+     *        waits for a SAM resource
+     * @throws KeypleReaderException throw if an error occurs while getting the readers list.
+     */
+    public SamResourceManager(ReaderPlugin samReaderPlugin, String samReaderFilter,
+            long maxBlockingTime) throws KeypleReaderException {
+        if (maxBlockingTime < 0) {
+            throw new IllegalArgumentException("The maximum blocking time must be positive.");
+        }
+        this.maxBlockingTime = maxBlockingTime;
         this.samReaderPlugin = samReaderPlugin;
         if (samReaderPlugin instanceof ReaderPoolPlugin) {
             logger.info("Create SAM resource manager from reader pool plugin: {}",
@@ -124,6 +186,14 @@ public class SamResourceManager {
             throw new IllegalStateException("Unable to open a logical channel for SAM!");
         }
         CalypsoSam calypsoSam = (CalypsoSam) selectionsResult.getActiveSelection().getMatchingSe();
+        /* the SAM has been reselected: the former resources of this reader lose their state */
+        synchronized (localSamResources) {
+            for (SamResource samResource : localSamResources) {
+                if (samResource.getSeReader().equals(samReader)) {
+                    samResource.resetSamState();
+                }
+            }
+        }
         return new SamResource(samReader, calypsoSam);
     }
 
@@ -132,7 +202,9 @@ public class SamResourceManager {
      * <p>
      * In the case where the allocation mode is BLOCKING, this method will wait until a SAM resource
      * becomes free and then return the reference to the allocated resource. However, the BLOCKING
-     * mode will wait a maximum time defined in tenths of a second by MAX_BLOCKING_TIME.
+     * mode will wait a maximum time defined in milliseconds at the construction of the manager
+     * ({@link #DEFAULT_MAX_BLOCKING_TIME} by default), null is returned when it is exceeded. The
+     * waiting allocations are served in their arrival order.
      * <p>
      * In the case where the allocation mode is NON_BLOCKING and no SAM resource is available, this
      * method will return null.
@@ -142,59 +214,123 @@ public class SamResourceManager {
      *
      * @param allocationMode the blocking/non-blocking mode
      * @param samIdentifier the targeted SAM identifier
+     * @return the allocated SAM resource or null if no SAM resource could be allocated
+     * @throws InterruptedException if the current thread has been interrupted while waiting
+     * @throws KeypleReaderException if a reader error occurs while creating the SAM resource
      */
     public SamResource allocateSamResource(AllocationMode allocationMode,
             SamIdentifier samIdentifier) throws InterruptedException, KeypleReaderException {
-        long maxBlockingDate = System.currentTimeMillis() + MAX_BLOCKING_TIME;
-        boolean noSamResourceLogged = false;
+        return allocateSamResource(allocationMode, samIdentifier, null);
+    }
+
+    /**
+     * Allocate a SAM resource from the specified SAM group for the processing of a given PO.
+     * <p>
+     * Same as {@link #allocateSamResource(AllocationMode, SamIdentifier)}, the PO serial number is
+     * provided to the {@link SamAllocationStrategy} (see
+     * {@link SamAllocationStrategies#poAffinity(SamAllocationStrategy)}).
+     *
+     * @param allocationMode the blocking/non-blocking mode
+     * @param samIdentifier the targeted SAM identifier
+     * @param poSerialNumber the serial number of the PO to be processed (may be null)
+     * @return the allocated SAM resource or null if no SAM resource could be allocated
+     * @throws InterruptedException if the current thread has been interrupted while waiting
+     * @throws KeypleReaderException if a reader error occurs while creating the SAM resource
+     */
+    public SamResource allocateSamResource(AllocationMode allocationMode,
+            SamIdentifier samIdentifier, byte[] poSerialNumber)
+            throws InterruptedException, KeypleReaderException {
         logger.debug("Allocating SAM reader channel...");
-        while (true) {
-            if (dynamicAllocationPlugin) {
-                // virtually infinite number of readers
-                SeReader samReader = ((ReaderPoolPlugin) samReaderPlugin)
-                        .allocateReader(samIdentifier.getGroupReference());
-                if (samReader != null) {
-                    SamResource samResource = createSamResource(samReader);
-                    logger.debug("Allocation succeeded. SAM resource created.");
-                    return samResource;
+        PendingAllocation pendingAllocation =
+                new PendingAllocation(samIdentifier, poSerialNumber, null);
+        serve();
+
+        if (allocationMode == AllocationMode.NON_BLOCKING) {
+            if (pendingAllocation.cancel(false)) {
+                logger.trace("No SAM resources available at the moment.");
+                return null;
+            }
+            return getAllocatedSamResource(pendingAllocation);
+        }
+
+        long maxBlockingDate = System.currentTimeMillis() + maxBlockingTime;
+        long remainingTime;
+        try {
+            while ((remainingTime = maxBlockingDate - System.currentTimeMillis()) > 0) {
+                if (dynamicAllocationPlugin) {
+                    remainingTime = Math.min(remainingTime, POOL_RETRY_PERIOD);
                 }
-            } else {
-                synchronized (localSamResources) {
-                    for (SamResource samResource : localSamResources) {
-                        if (samResource.isSamResourceFree()) {
-                            if (samResource.isSamMatching(samIdentifier)) {
-                                samResource
-                                        .setSamResourceStatus(SamResource.SamResourceStatus.BUSY);
-                                logger.debug("Allocation succeeded. SAM resource created.");
-                                return samResource;
-                            }
-                        }
+                try {
+                    return getAllocatedSamResource(pendingAllocation, remainingTime);
+                } catch (TimeoutException e) {
+                    if (dynamicAllocationPlugin) {
+                        /* the pool may have been released by another user in the meantime */
+                        serve();
                     }
                 }
             }
-            // loop until MAX_BLOCKING_TIME in blocking mode, only once in non-blocking mode
-            if (allocationMode == AllocationMode.NON_BLOCKING) {
-                logger.trace("No SAM resources available at the moment.");
-                break;
-            } else {
-                if (!noSamResourceLogged) {
-                    /* log once the first time */
-                    logger.trace("No SAM resources available at the moment.");
-                    noSamResourceLogged = true;
-                }
-                Thread.sleep(10);
-                if (System.currentTimeMillis() >= maxBlockingDate) {
-                    logger.error("The allocation process failed. Timeout {} sec exceeded .",
-                            (MAX_BLOCKING_TIME / 100.0));
-                    return null;
-                }
+        } catch (InterruptedException e) {
+            if (!pendingAllocation.cancel(false)) {
+                /* allocated in the meantime */
+                freeSamResource(getAllocatedSamResource(pendingAllocation));
             }
+            throw e;
         }
+
+        if (!pendingAllocation.cancel(false)) {
+            /* allocated in the meantime */
+            return getAllocatedSamResource(pendingAllocation);
+        }
+        timeoutCount.incrementAndGet();
+        logger.error("The allocation process failed. Timeout {} sec exceeded .",
+                (maxBlockingTime / 1000.0));
         return null;
     }
 
+    /**
+     * Allocate a SAM resource asynchronously.
+     * <p>
+     * The allocation request is queued and served in its arrival order when a matching SAM resource
+     * is available. There is no timeout: the returned {@link Future} has to be cancelled if the SAM
+     * resource is no longer needed (a successful cancellation removes the request from the queue).
+     *
+     * @param samIdentifier the targeted SAM identifier
+     * @param callback an optional callback notified of the result of the allocation (may be null)
+     * @return a {@link Future} providing the allocated SAM resource
+     */
+    public Future<SamResource> allocateSamResourceAsync(SamIdentifier samIdentifier,
+            AllocationCallback callback) {
+        return allocateSamResourceAsync(samIdentifier, null, callback);
+    }
+
+    /**
+     * Allocate a SAM resource asynchronously for the processing of a given PO.
+     * <p>
+     * Same as {@link #allocateSamResourceAsync(SamIdentifier, AllocationCallback)}, the PO serial
+     * number is provided to the {@link SamAllocationStrategy}.
+     *
+     * @param samIdentifier the targeted SAM identifier
+     * @param poSerialNumber the serial number of the PO to be processed (may be null)
+     * @param callback an optional callback notified of the result of the allocation (may be null)
+     * @return a {@link Future} providing the allocated SAM resource
+     */
+    public Future<SamResource> allocateSamResourceAsync(SamIdentifier samIdentifier,
+            byte[] poSerialNumber, AllocationCallback callback) {
+        logger.debug("Allocating SAM reader channel asynchronously...");
+        PendingAllocation pendingAllocation =
+                new PendingAllocation(samIdentifier, poSerialNumber, callback);
+        serve();
+        return pendingAllocation;
+    }
+
     /**
      * Free a previously allocated SAM resource.
+     * <p>
+     * The SAM resource is handed over to the first waiting allocation it matches, if any.
+     * <p>
+     * A local SAM keeps its logical channel open, and thus its diversification, for the next
+     * allocation. A SAM reader allocated from a reader pool plugin is released to the pool: the
+     * SAM state known by the resource is forgotten.
      *
      * @param samResource the SAM resource reference to free
      */
@@ -202,6 +338,8 @@ public class SamResourceManager {
         if (dynamicAllocationPlugin) {
             // virtually infinite number of readers
             logger.debug("Freeing HSM SAM resource.");
+            /* the reader goes back to the pool, the SAM may be reset before the next allocation */
+            samResource.resetSamState();
             ((ReaderPoolPlugin) samReaderPlugin).releaseReader(samResource.getSeReader());
         } else {
             synchronized (localSamResources) {
@@ -209,6 +347,269 @@ public class SamResourceManager {
                 samResource.setSamResourceStatus(SamResource.SamResourceStatus.FREE);
             }
         }
+        serve();
+    }
+
+    /**
+     * Defines how a SAM resource is chosen among the free SAM resources matching a request.
+     * <p>
+     * The default strategy is {@link SamAllocationStrategies#firstFree()}. The strategy is not used
+     * with a reader pool plugin, which chooses the reader itself.
+     *
+     * @param allocationStrategy the allocation strategy
+     */
+    public void setAllocationStrategy(SamAllocationStrategy allocationStrategy) {
+        if (allocationStrategy == null) {
+            throw new IllegalArgumentException("The allocation strategy must be defined.");
+        }
+        synchronized (localSamResources) {
+            this.allocationStrategy = allocationStrategy;
+        }
+    }
+
+    /**
+     * @return the number of allocations currently waiting for a SAM resource
+     */
+    public int getPendingAllocationCount() {
+        synchronized (localSamResources) {
+            return pendingAllocations.size();
+        }
+    }
+
+    /**
+     * @return the number of successful allocations since the creation of the manager
+     */
+    public long getAllocationCount() {
+        return allocationCount.get();
+    }
+
+    /**
+     * @return the average time (in milliseconds) spent waiting for a SAM resource by the successful
+     *         allocations
+     */
+    public long getAverageWaitTime() {
+        long count = allocationCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitTime.get() / count);
+    }
+
+    /**
+     * @return the maximum time (in milliseconds) spent waiting for a SAM resource by a successful
+     *         allocation
+     */
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitTime.get());
+    }
+
+    /**
+     * @return the number of BLOCKING allocations that failed because the maximum blocking time was
+     *         exceeded
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    private SamResource getAllocatedSamResource(PendingAllocation pendingAllocation)
+            throws InterruptedException, KeypleReaderException {
+        try {
+            return pendingAllocation.get();
+        } catch (ExecutionException e) {
+            throw toReaderException(e);
+        }
+    }
+
+    private SamResource getAllocatedSamResource(PendingAllocation pendingAllocation, long timeout)
+            throws InterruptedException, KeypleReaderException, TimeoutException {
+        try {
+            return pendingAllocation.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw toReaderException(e);
+        }
+    }
+
+    private static KeypleReaderException toReaderException(ExecutionException e) {
+        if (e.getCause() instanceof KeypleReaderException) {
+            return (KeypleReaderException) e.getCause();
+        }
+        if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+        }
+        return new KeypleReaderException("SAM resource allocation failure", e.getCause());
+    }
+
+    /**
+     * Serve the pending allocations in their arrival order with the available SAM resources.
+     */
+    private void serve() {
+        if (dynamicAllocationPlugin) {
+            serveFromPool();
+        } else {
+            serveFromLocalResources();
+        }
+    }
+
+    private void serveFromLocalResources() {
+        List<PendingAllocation> servedAllocations = new ArrayList<PendingAllocation>();
+        List<SamResource> allocatedSamResources = new ArrayList<SamResource>();
+        synchronized (localSamResources) {
+            List<SamResource> candidates = new ArrayList<SamResource>();
+            Iterator<PendingAllocation> iterator = pendingAllocations.iterator();
+            while (iterator.hasNext()) {
+                PendingAllocation pendingAllocation = iterator.next();
+                candidates.clear();
+                for (SamResource samResource : localSamResources) {
+                    if (samResource.isSamResourceFree()
+                            && samResource.isSamMatching(pendingAllocation.samIdentifier)) {
+                        candidates.add(samResource);
+                    }
+                }
+                if (!candidates.isEmpty()) {
+                    SamResource samResource = allocationStrategy.select(candidates,
+                            pendingAllocation.poSerialNumber);
+                    samResource.setSamResourceStatus(SamResource.SamResourceStatus.BUSY);
+                    samResource.markAllocated();
+                    iterator.remove();
+                    servedAllocations.add(pendingAllocation);
+                    allocatedSamResources.add(samResource);
+                }
+            }
+        }
+        /* complete outside of the lock since the callbacks are invoked */
+        for (int i = 0; i < servedAllocations.size(); i++) {
+            servedAllocations.get(i).complete(allocatedSamResources.get(i));
+        }
+    }
+
+    private void serveFromPool() {
+        while (true) {
+            PendingAllocation pendingAllocation;
+            SeReader samReader;
+            synchronized (localSamResources) {
+                if (pendingAllocations.isEmpty()) {
+                    return;
+                }
+                pendingAllocation = pendingAllocations.getFirst();
+                // virtually infinite number of readers
+                samReader = ((ReaderPoolPlugin) samReaderPlugin)
+                        .allocateReader(pendingAllocation.samIdentifier.getGroupReference());
+                if (samReader == null) {
+                    return;
+                }
+                pendingAllocations.removeFirst();
+            }
+            try {
+                pendingAllocation.complete(createSamResource(samReader));
+            } catch (KeypleReaderException e) {
+                ((ReaderPoolPlugin) samReaderPlugin).releaseReader(samReader);
+                pendingAllocation.fail(e);
+            } catch (RuntimeException e) {
+                ((ReaderPoolPlugin) samReaderPlugin).releaseReader(samReader);
+                pendingAllocation.fail(e);
+            }
+        }
+    }
+
+    /**
+     * An allocation request waiting in the queue.
+     * <p>
+     * A request leaves the queue either when it is served, its completion is then guaranteed, or
+     * when it is cancelled.
+     */
+    private class PendingAllocation implements Future<SamResource> {
+        private final SamIdentifier samIdentifier;
+        private final byte[] poSerialNumber;
+        private final AllocationCallback callback;
+        private final long creationTime = System.nanoTime();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile SamResource samResource;
+        private volatile Exception failure;
+        private volatile boolean cancelled;
+
+        /**
+         * Create and queue an allocation request
+         */
+        PendingAllocation(SamIdentifier samIdentifier, byte[] poSerialNumber,
+                AllocationCallback callback) {
+            this.samIdentifier = samIdentifier;
+            this.poSerialNumber = poSerialNumber;
+            this.callback = callback;
+            synchronized (localSamResources) {
+                pendingAllocations.addLast(this);
+            }
+        }
+
+        void complete(SamResource samResource) {
+            long waitTime = System.nanoTime() - creationTime;
+            allocationCount.incrementAndGet();
+            totalWaitTime.addAndGet(waitTime);
+            long currentMax;
+            while (waitTime > (currentMax = maxWaitTime.get())
+                    && !maxWaitTime.compareAndSet(currentMax, waitTime)) {
+                /* retry */
+            }
+            logger.debug("Allocation succeeded. SAM resource created.");
+            this.samResource = samResource;
+            done.countDown();
+            if (callback != null) {
+                callback.onAllocated(samResource);
+            }
+        }
+
+        void fail(Exception e) {
+            logger.error("The allocation process failed: {}", e.getMessage());
+            this.failure = e;
+            done.countDown();
+            if (callback != null) {
+                callback.onFailure(e);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            synchronized (localSamResources) {
+                if (!pendingAllocations.remove(this)) {
+                    /* already served or cancelled */
+                    return false;
+                }
+                cancelled = true;
+            }
+            done.countDown();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public SamResource get() throws InterruptedException, ExecutionException {
+            done.await();
+            return getResult();
+        }
+
+        @Override
+        public SamResource get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!done.await(timeout, unit)) {
+                throw new TimeoutException("No SAM resource allocated");
+            }
+            return getResult();
+        }
+
+        private SamResource getResult() throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException("SAM resource allocation cancelled");
+            }
+            if (failure != null) {
+                throw new ExecutionException(failure);
+            }
+            return samResource;
+        }
     }
 
     /**
@@ -308,6 +709,7 @@ public class SamResourceManager {
                                         synchronized (localSamResources) {
                                             localSamResources.add(createSamResource(samReader));
                                         }
+                                        serve();
                                     }
                                 } catch (NoStackTraceThrowable noStackTraceThrowable) {
                                     noStackTraceThrowable.printStackTrace();
@@ -336,7 +738,9 @@ public class SamResourceManager {
                                     logger.info("Remove observer READERNAME = {}", readerName);
                                     ((ObservableReader) samReader).removeObserver(readerObserver);
                                 } else {
-                                    removeResource(samReader);
+                                    synchronized (localSamResources) {
+                                        removeResource(samReader);
+                                    }
                                     logger.info(
                                             "Unplugged reader READERNAME = {} wasn't observed. Resource removed.",
                                             readerName);
@@ -414,6 +818,8 @@ public class SamResourceManager {
                         break;
                 }
             }
+            /* a new SAM resource may satisfy a pending allocation */
+            serve();
         }
     }
 }
@@ -48,6 +48,8 @@ public class SecuritySettings {
     private final static byte DEFAULT_KEY_RECORD_NUMER = (byte) 0x00;
     /** List of authorized KVCs */
     private List<Byte> authorizedKvcList;
+    /** SAM challenge prefetch flag */
+    private boolean samChallengePrefetch = false;
 
     /** Enummap containing the key information */
     private final EnumMap<DefaultKeyInfo, Byte> keySettings =
@@ -115,4 +117,33 @@ public class SecuritySettings {
     public boolean isAuthorizedKvc(byte kvc) {
         return authorizedKvcList == null || authorizedKvcList.contains(kvc);
     }
+
+    /**
+     * Enables or disables the pipelining of the SAM exchanges.
+     * <p>
+     * When enabled, the SAM challenge needed to open the next secure session is requested together
+     * with the Digest Authenticate command that ends the current session. It is kept by the
+     * {@link SamResource} and used by the next session opening (of the same or of another
+     * {@link PoTransaction} sharing the SAM resource), which then requires no exchange with the
+     * SAM. The Select Diversifier command is postponed and sent with the digest commands at the
+     * session closing.
+     * <p>
+     * This mode saves one SAM round trip per secure session. It requires a SAM keeping its
+     * challenge between the Get Challenge command and the Digest Init command regardless of a
+     * Select Diversifier command. It is disabled by default.
+     *
+     * @param samChallengePrefetch true to enable the SAM challenge prefetch
+     */
+    public void setSamChallengePrefetch(boolean samChallengePrefetch) {
+        this.samChallengePrefetch = samChallengePrefetch;
+    }
+
+    /**
+     * Indicates whether the SAM challenge prefetch is enabled
+     *
+     * @return true if the SAM challenge is requested in advance
+     */
+    public boolean isSamChallengePrefetch() {
+        return samChallengePrefetch;
+    }
 }
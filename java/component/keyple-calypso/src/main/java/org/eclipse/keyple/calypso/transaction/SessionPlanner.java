@@ -0,0 +1,241 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.keyple.calypso.command.po.AbstractPoCommandBuilder;
+import org.eclipse.keyple.calypso.command.po.PoBuilderParser;
+import org.eclipse.keyple.calypso.command.po.PoModificationCommand;
+import org.eclipse.keyple.calypso.command.po.builder.*;
+
+/**
+ * Distribution of a list of PO commands into consecutive secure sessions, each of them fitting in
+ * the PO modifications buffer.
+ * <p>
+ * The modification commands are packed in as few sessions as possible: each session is filled
+ * with the largest commands that still fit, instead of being closed at the first command that
+ * overflows. Commands are only moved when this can not change the result:
+ * <ul>
+ * <li>two commands on different files (SFI) are independent,</li>
+ * <li>two Update Record commands of different records of the same file are independent,</li>
+ * <li>two read commands are independent,</li>
+ * <li>all the other pairs of commands on the same file (Append Record, Increase/Decrease, read
+ * commands with modifications), the commands on the current EF (SFI 0) and the file selections
+ * keep their relative order.</li>
+ * </ul>
+ * The read commands do not use the buffer and are placed in the first possible session. Within a
+ * session, the commands are sent in the order of preparation.
+ */
+final class SessionPlanner {
+    private static final int OFFSET_P1 = 2;
+    private static final int OFFSET_P2 = 3;
+    private static final int OFFSET_LC = 4;
+
+    private final List<List<PoBuilderParser>> sessions = new ArrayList<List<PoBuilderParser>>();
+    private int lastSessionModificationsCounter;
+
+    /**
+     * Plans the sessions
+     *
+     * @param commands the commands, in order of preparation
+     * @param modificationsCounterIsInBytes true if the buffer is counted in bytes (each
+     *        modification command needs Lc + 6 bytes), false if counted in commands
+     * @param modificationsCounter the value of the modifications counter in the current session
+     * @param modificationsCounterMax the value of the modifications counter in a new session
+     */
+    SessionPlanner(List<PoBuilderParser> commands, boolean modificationsCounterIsInBytes,
+            int modificationsCounter, int modificationsCounterMax) {
+        int count = commands.size();
+        AbstractPoCommandBuilder[] builders = new AbstractPoCommandBuilder[count];
+        int[] requirements = new int[count];
+        for (int i = 0; i < count; i++) {
+            builders[i] = commands.get(i).getCommandBuilder();
+            requirements[i] = getBufferRequirement(builders[i], modificationsCounterIsInBytes);
+        }
+        /* predecessors[i]: the previous commands that must be sent before the command i */
+        int[][] predecessors = new int[count][];
+        int[] buffer = new int[count];
+        for (int i = 0; i < count; i++) {
+            int predecessorCount = 0;
+            for (int j = 0; j < i; j++) {
+                if (areDependent(builders[j], builders[i])) {
+                    buffer[predecessorCount++] = j;
+                }
+            }
+            predecessors[i] = new int[predecessorCount];
+            System.arraycopy(buffer, 0, predecessors[i], 0, predecessorCount);
+        }
+
+        boolean[] placed = new boolean[count];
+        int placedCount = 0;
+        /* the buffer check of PoTransaction is strict in bytes mode: counter - requirement > 0 */
+        int capacity = modificationsCounterIsInBytes ? modificationsCounter - 1
+                : modificationsCounter;
+        int used = 0;
+        int counter = modificationsCounter;
+        while (placedCount < count) {
+            boolean[] inSession = new boolean[count];
+            boolean sessionEmpty = true;
+            used = 0;
+            boolean progress = true;
+            while (progress) {
+                progress = false;
+                int best = -1;
+                for (int i = 0; i < count; i++) {
+                    if (placed[i] || !isAvailable(predecessors[i], placed)) {
+                        continue;
+                    }
+                    if (requirements[i] == 0) {
+                        /* the read commands are placed as soon as possible */
+                        placed[i] = inSession[i] = true;
+                        placedCount++;
+                        sessionEmpty = false;
+                        progress = true;
+                    } else if (used + requirements[i] <= capacity
+                            && (best < 0 || requirements[i] > requirements[best])) {
+                        best = i;
+                    }
+                }
+                if (!progress && best >= 0) {
+                    placed[best] = inSession[best] = true;
+                    placedCount++;
+                    used += requirements[best];
+                    sessionEmpty = false;
+                    progress = true;
+                }
+            }
+            if (sessionEmpty && counter == modificationsCounterMax) {
+                /*
+                 * the first available command does not fit even in an empty session: sent alone
+                 * (the PO will reject it)
+                 */
+                for (int i = 0; i < count; i++) {
+                    if (!placed[i] && isAvailable(predecessors[i], placed)) {
+                        placed[i] = inSession[i] = true;
+                        placedCount++;
+                        used += requirements[i];
+                        break;
+                    }
+                }
+            }
+            List<PoBuilderParser> session = new ArrayList<PoBuilderParser>();
+            for (int i = 0; i < count; i++) {
+                if (inSession[i]) {
+                    session.add(commands.get(i));
+                }
+            }
+            sessions.add(session);
+            if (placedCount < count) {
+                counter = modificationsCounterMax;
+                capacity = modificationsCounterIsInBytes ? counter - 1 : counter;
+            }
+        }
+        if (sessions.isEmpty()) {
+            sessions.add(new ArrayList<PoBuilderParser>());
+        }
+        lastSessionModificationsCounter = counter - used;
+    }
+
+    private static boolean isAvailable(int[] predecessors, boolean[] placed) {
+        for (int predecessor : predecessors) {
+            if (!placed[predecessor]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param commandBuilder a PO command
+     * @param modificationsCounterIsInBytes true if the buffer is counted in bytes
+     * @return the use of the modifications buffer by the command, 0 if it does not modify the PO
+     */
+    static int getBufferRequirement(AbstractPoCommandBuilder commandBuilder,
+            boolean modificationsCounterIsInBytes) {
+        if (!(commandBuilder instanceof PoModificationCommand)) {
+            return 0;
+        }
+        if (modificationsCounterIsInBytes) {
+            return (commandBuilder.getApduRequest().getBytes()[OFFSET_LC] & 0xFF) + 6;
+        }
+        return 1;
+    }
+
+    private static byte getSfi(AbstractPoCommandBuilder commandBuilder) {
+        if (commandBuilder instanceof ReadRecordsCmdBuild) {
+            return ((ReadRecordsCmdBuild) commandBuilder).getSfi();
+        }
+        return (byte) ((commandBuilder.getApduRequest().getBytes()[OFFSET_P2] >> 3) & 0x1F);
+    }
+
+    /**
+     * @return true if the order of the two commands can not be changed
+     */
+    private static boolean areDependent(AbstractPoCommandBuilder first,
+            AbstractPoCommandBuilder second) {
+        boolean firstModifies = first instanceof PoModificationCommand;
+        boolean secondModifies = second instanceof PoModificationCommand;
+        if (!isKnownFileCommand(first) || !isKnownFileCommand(second)) {
+            /* e.g. file selection: barrier */
+            return true;
+        }
+        if (!firstModifies && !secondModifies) {
+            return false;
+        }
+        byte firstSfi = getSfi(first);
+        byte secondSfi = getSfi(second);
+        if (firstSfi == 0 || secondSfi == 0) {
+            /* the current EF is not identified */
+            return true;
+        }
+        if (firstSfi != secondSfi) {
+            return false;
+        }
+        if (first instanceof UpdateRecordCmdBuild && second instanceof UpdateRecordCmdBuild) {
+            /* same record */
+            return first.getApduRequest().getBytes()[OFFSET_P1] == second.getApduRequest()
+                    .getBytes()[OFFSET_P1];
+        }
+        return true;
+    }
+
+    private static boolean isKnownFileCommand(AbstractPoCommandBuilder commandBuilder) {
+        return commandBuilder instanceof ReadRecordsCmdBuild
+                || commandBuilder instanceof UpdateRecordCmdBuild
+                || commandBuilder instanceof AppendRecordCmdBuild
+                || commandBuilder instanceof IncreaseCmdBuild
+                || commandBuilder instanceof DecreaseCmdBuild;
+    }
+
+    /**
+     * @return the commands of each session, in order of execution; the first session is the
+     *         current one (possibly without any command if the buffer is already full)
+     */
+    List<List<PoBuilderParser>> getSessions() {
+        return sessions;
+    }
+
+    /**
+     * @return the number of sessions, 1 if all the commands fit in the current session
+     */
+    int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * @return the value of the modifications counter after the commands of the last session
+     */
+    int getLastSessionModificationsCounter() {
+        return lastSessionModificationsCounter;
+    }
+}
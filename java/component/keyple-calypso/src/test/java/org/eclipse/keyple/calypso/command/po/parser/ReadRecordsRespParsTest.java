@@ -12,6 +12,10 @@
 package org.eclipse.keyple.calypso.command.po.parser;
 
 
+import static org.junit.Assert.*;
+import java.util.SortedMap;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -26,7 +30,36 @@ public class ReadRecordsRespParsTest {
     public void readRecordRespPars_records() {}
 
     @Test
-    public void sampleMultipleRecordsParsing() {}
+    public void sampleMultipleRecordsParsing() {
+        ApduResponse apduResponse = new ApduResponse(
+                ByteArrayUtil.fromHex("0103112233 02021122 0300 9000"), null);
+        ReadRecordsRespPars readRecordsRespPars = new ReadRecordsRespPars(apduResponse,
+                ReadDataStructure.MULTIPLE_RECORD_DATA, (byte) 1);
+
+        SortedMap<Integer, byte[]> records = readRecordsRespPars.getRecords();
+
+        assertEquals(3, records.size());
+        assertArrayEquals(ByteArrayUtil.fromHex("112233"), records.get(1));
+        assertArrayEquals(ByteArrayUtil.fromHex("1122"), records.get(2));
+        assertArrayEquals(new byte[0], records.get(3));
+        /* parsed once */
+        assertSame(records, readRecordsRespPars.getRecords());
+    }
+
+    @Test
+    public void sampleMultipleCountersParsing() {
+        ApduResponse apduResponse =
+                new ApduResponse(ByteArrayUtil.fromHex("000001 FFFFFF 9000"), null);
+        ReadRecordsRespPars readRecordsRespPars = new ReadRecordsRespPars(apduResponse,
+                ReadDataStructure.MULTIPLE_COUNTER, (byte) 1);
+
+        SortedMap<Integer, Integer> counters = readRecordsRespPars.getCounters();
+
+        assertEquals(2, counters.size());
+        assertEquals(Integer.valueOf(1), counters.get(1));
+        assertEquals(Integer.valueOf(0xFFFFFF), counters.get(2));
+        assertSame(counters, readRecordsRespPars.getCounters());
+    }
 
     @Test
     public void readRecordRespPars_one_record_sfi() {}
@@ -0,0 +1,82 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Test;
+
+public class DigestUpdatePackerTest {
+
+    private static List<byte[]> blocks(int count, int length) {
+        List<byte[]> blocks = new ArrayList<byte[]>();
+        for (int i = 0; i < count; i++) {
+            byte[] block = new byte[length];
+            Arrays.fill(block, (byte) i);
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    @Test
+    public void pack_tenCommandsSession() {
+        /* 10 commands and 10 responses of 10 bytes: 20 blocks of 11 bytes in a single APDU */
+        List<ApduRequest> requests = DigestUpdatePacker.pack(SamRevision.C1, false, blocks(20, 10));
+
+        assertEquals(1, requests.size());
+        byte[] apdu = requests.get(0).getBytes();
+        assertEquals((byte) 0x8C, apdu[1]);
+        assertEquals((byte) 0x80, apdu[2]);
+        assertEquals(220, apdu[4] & 0xFF);
+        assertEquals(10, apdu[5]);
+        assertEquals((byte) 0x13, apdu[apdu.length - 1]);
+    }
+
+    @Test
+    public void pack_fillsUpToMaximumLength() {
+        /* 84 bytes per block: 3 blocks per APDU */
+        List<ApduRequest> requests = DigestUpdatePacker.pack(SamRevision.C1, false, blocks(7, 84));
+
+        assertEquals(3, requests.size());
+        assertEquals(255, requests.get(0).getBytes()[4] & 0xFF);
+        assertEquals(255, requests.get(1).getBytes()[4] & 0xFF);
+        /* last block alone: simple Digest Update */
+        assertArrayEquals(ByteArrayUtil.fromHex("808C000054"),
+                Arrays.copyOf(requests.get(2).getBytes(), 5));
+    }
+
+    @Test
+    public void pack_longBlockNotPacked() {
+        List<byte[]> blocks = blocks(1, 10);
+        blocks.addAll(blocks(1, 255));
+        blocks.addAll(blocks(2, 10));
+
+        List<ApduRequest> requests = DigestUpdatePacker.pack(SamRevision.C1, false, blocks);
+
+        assertEquals(3, requests.size());
+        assertEquals((byte) 0x00, requests.get(0).getBytes()[2]);
+        assertEquals((byte) 0x00, requests.get(1).getBytes()[2]);
+        assertEquals(255, requests.get(1).getBytes()[4] & 0xFF);
+        assertEquals((byte) 0x80, requests.get(2).getBytes()[2]);
+    }
+
+    @Test
+    public void pack_notAvailable_singleUpdates() {
+        assertEquals(20, DigestUpdatePacker.pack(SamRevision.S1D, false, blocks(20, 10)).size());
+        assertEquals(20, DigestUpdatePacker.pack(SamRevision.C1, true, blocks(20, 10)).size());
+    }
+}
@@ -0,0 +1,77 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.junit.Assert.*;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.message.ApduResponse;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Test;
+
+public class PoRecordCacheTest {
+    private static final byte SFI_A = (byte) 0x07;
+    private static final byte SFI_B = (byte) 0x08;
+
+    @Test
+    public void putReadRecordsResponse_multipleRecords() {
+        PoRecordCache recordCache = new PoRecordCache();
+        /* records 1 and 2, then a failed read */
+        recordCache.putReadRecordsResponse(SFI_A, ReadDataStructure.MULTIPLE_RECORD_DATA,
+                (byte) 0x01, new ApduResponse(ByteArrayUtil.fromHex("0102AABB0201CC9000"), null));
+        recordCache.putReadRecordsResponse(SFI_B, ReadDataStructure.SINGLE_RECORD_DATA,
+                (byte) 0x01, new ApduResponse(ByteArrayUtil.fromHex("6A83"), null));
+
+        assertEquals(2, recordCache.size());
+        assertArrayEquals(ByteArrayUtil.fromHex("AABB"), recordCache.getRecord(SFI_A, 1));
+        assertArrayEquals(ByteArrayUtil.fromHex("CC"), recordCache.getRecord(SFI_A, 2));
+        assertFalse(recordCache.hasRecord(SFI_B, 1));
+    }
+
+    @Test
+    public void invalidate() {
+        PoRecordCache recordCache = new PoRecordCache();
+        recordCache.putRecord(SFI_A, 1, new byte[] {1});
+        recordCache.putRecord(SFI_A, 2, new byte[] {2});
+        recordCache.putRecord(SFI_B, 1, new byte[] {3});
+        /* the current EF is not identified */
+        recordCache.putRecord((byte) 0x00, 1, new byte[] {4});
+        assertEquals(3, recordCache.size());
+
+        recordCache.invalidate(SFI_A);
+        assertEquals(1, recordCache.size());
+        assertTrue(recordCache.hasRecord(SFI_B, 1));
+
+        recordCache.invalidate((byte) 0x00);
+        assertEquals(0, recordCache.size());
+    }
+
+    @Test
+    public void lookup_countsHitsAndMisses() {
+        PoRecordCache recordCache = new PoRecordCache();
+        byte[] record = new byte[] {1, 2, 3};
+        recordCache.putRecord(SFI_A, 1, record);
+        record[0] = 0;
+
+        assertArrayEquals(new byte[] {1, 2, 3}, recordCache.lookup(SFI_A, 1, 0));
+        assertArrayEquals(new byte[] {1, 2, 3}, recordCache.lookup(SFI_A, 1, 3));
+        /* other length expected by the command */
+        assertNull(recordCache.lookup(SFI_A, 1, 29));
+        assertNull(recordCache.lookup(SFI_A, 2, 0));
+        assertEquals(2, recordCache.getHitCount());
+        assertEquals(2, recordCache.getMissCount());
+        assertEquals(0.5, recordCache.getHitRate(), 0.0);
+
+        recordCache.resetStatistics();
+        assertEquals(0.0, recordCache.getHitRate(), 0.0);
+        assertTrue(recordCache.hasRecord(SFI_A, 1));
+    }
+}
@@ -0,0 +1,123 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.junit.Assert.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs many {@link PoTransaction} in parallel, each one with its own stub PO and stub SAM.
+ * <p>
+ * The stub SEs (see {@link SessionStubs}) compute the session signatures from the data they
+ * actually exchanged, so any mixing of the digest data between two transactions results in a
+ * signature mismatch.
+ */
+public class PoTransactionConcurrencyTest {
+    private static final int NUMBER_OF_SESSIONS = 200;
+    private static final int NUMBER_OF_THREADS = 32;
+
+    private final StubPlugin stubPlugin = StubPlugin.getInstance();
+    private final Set<String> readerNames = new HashSet<String>();
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < NUMBER_OF_SESSIONS; i++) {
+            readerNames.add(poReaderName(i));
+            readerNames.add(samReaderName(i));
+        }
+        stubPlugin.plugStubReaders(readerNames, true);
+    }
+
+    @After
+    public void tearDown() {
+        stubPlugin.unplugStubReaders(readerNames, true);
+        readerNames.clear();
+    }
+
+    @Test
+    public void concurrentSessions_allSucceed() throws Exception {
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+
+        for (int i = 0; i < NUMBER_OF_SESSIONS; i++) {
+            final int index = i;
+            results.add(executorService.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    startSignal.await();
+                    return runSession(index);
+                }
+            }));
+        }
+
+        startSignal.countDown();
+
+        try {
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static String poReaderName(int index) {
+        return "concurrentPoReader" + index;
+    }
+
+    private static String samReaderName(int index) {
+        return "concurrentSamReader" + index;
+    }
+
+    /**
+     * Selects the PO and the SAM, then runs a secure session reading the counter file and
+     * decreasing the counter.
+     *
+     * @param index the session index (used to differentiate the PO serial number and counter)
+     * @return the result of the secure session
+     */
+    private boolean runSession(int index) throws Exception {
+        StubReader poReader = (StubReader) stubPlugin.getReader(poReaderName(index));
+        StubReader samReader = (StubReader) stubPlugin.getReader(samReaderName(index));
+
+        CalypsoSam calypsoSam = SessionStubs.selectSam(samReader, new SessionStubs.Sam());
+        CalypsoPo calypsoPo =
+                SessionStubs.selectPo(poReader, new SessionStubs.Po(index, 1000 + index * 10));
+
+        PoTransaction poTransaction = new PoTransaction(new PoResource(poReader, calypsoPo),
+                new SamResource(samReader, calypsoSam), new SecuritySettings());
+
+        int readIndex = poTransaction.prepareReadRecordsCmd(SessionStubs.SFI_COUNTER,
+                ReadDataStructure.SINGLE_COUNTER, (byte) 0x01, "Counter");
+
+        assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SessionStubs.SFI_ENVIRONMENT,
+                (byte) 0x01));
+        assertTrue(poTransaction.getResponseParser(readIndex).isSuccessful());
+
+        poTransaction.prepareDecreaseCmd(SessionStubs.SFI_COUNTER, (byte) 0x01, index + 1,
+                "Decrease");
+
+        assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+
+        return poTransaction.isSuccessful();
+    }
+}
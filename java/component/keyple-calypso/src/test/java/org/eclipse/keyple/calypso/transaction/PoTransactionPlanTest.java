@@ -0,0 +1,56 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.junit.Assert.*;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Test;
+
+public class PoTransactionPlanTest {
+
+    private static String getApdu(PoTransactionPlan plan, int commandIndex) {
+        return ByteArrayUtil.toHex(plan.getOpeningCommands().size() > commandIndex
+                ? plan.getOpeningCommands().get(commandIndex).getCommandBuilder().getApduRequest()
+                        .getBytes()
+                : plan.getClosingCommands()
+                        .get(commandIndex - plan.getOpeningCommands().size())
+                        .getCommandBuilder().getApduRequest().getBytes());
+    }
+
+    @Test
+    public void templatesPatched() {
+        PoTransactionPlan plan = new PoTransactionPlan(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, (byte) 0x07, (byte) 0x01,
+                ChannelState.KEEP_OPEN);
+        int readIndex = plan.prepareReadRecordsCmd((byte) 0x19, ReadDataStructure.SINGLE_COUNTER,
+                (byte) 0x01, 0x1D, "Counter");
+        int decreaseIndex = plan.prepareDecreaseCmd((byte) 0x19, (byte) 0x01, 1, "Decrease");
+        int updateIndex = plan.prepareUpdateRecordCmd((byte) 0x09, (byte) 0x02,
+                ByteArrayUtil.fromHex("0000"), "Update");
+        assertEquals("00B201CC1D", getApdu(plan, readIndex));
+        assertEquals("003001C80300000100", getApdu(plan, decreaseIndex));
+        assertEquals("00DC024C020000", getApdu(plan, updateIndex));
+
+        plan.setCounterValue(decreaseIndex, 0x123456);
+        plan.setRecordData(updateIndex, ByteArrayUtil.fromHex("ABCD"));
+        plan.setPoClass(PoClass.LEGACY);
+        assertEquals("94B201CC1D", getApdu(plan, readIndex));
+        assertEquals("943001C80312345600", getApdu(plan, decreaseIndex));
+        assertEquals("94DC024C02ABCD", getApdu(plan, updateIndex));
+
+        plan.setPoClass(PoClass.ISO);
+        assertEquals("003001C80312345600", getApdu(plan, decreaseIndex));
+    }
+}
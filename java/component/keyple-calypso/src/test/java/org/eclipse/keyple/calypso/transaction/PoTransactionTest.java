@@ -0,0 +1,177 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.junit.Assert.*;
+import java.util.HashSet;
+import java.util.Set;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PoTransactionTest {
+    private static final String PO_READER_NAME = "poTransactionTestPoReader";
+    private static final String SAM_READER_NAME = "poTransactionTestSamReader";
+
+    private static final byte INS_SELECT_DIVERSIFIER = (byte) 0x14;
+    private static final byte INS_GET_CHALLENGE = (byte) 0x84;
+    private static final byte INS_DIGEST_AUTHENTICATE = (byte) 0x82;
+    private static final byte INS_DIGEST_UPDATE = (byte) 0x8C;
+
+    private final StubPlugin stubPlugin = StubPlugin.getInstance();
+    private final Set<String> readerNames = new HashSet<String>();
+
+    private StubReader poReader;
+    private SessionStubs.Sam sam;
+    private SamResource samResource;
+    private PoTransaction lastTransaction;
+
+    @Before
+    public void setUp() throws Exception {
+        readerNames.add(PO_READER_NAME);
+        readerNames.add(SAM_READER_NAME);
+        stubPlugin.plugStubReaders(readerNames, true);
+
+        poReader = (StubReader) stubPlugin.getReader(PO_READER_NAME);
+        StubReader samReader = (StubReader) stubPlugin.getReader(SAM_READER_NAME);
+        sam = new SessionStubs.Sam();
+        samResource = new SamResource(samReader, SessionStubs.selectSam(samReader, sam));
+    }
+
+    @After
+    public void tearDown() {
+        stubPlugin.unplugStubReaders(readerNames, true);
+        readerNames.clear();
+    }
+
+    @Test
+    public void processClosing_withoutPrefetch_noChallengeRequestedAtClosing() throws Exception {
+        SecuritySettings securitySettings = new SecuritySettings();
+
+        assertTrue(runSession(1, securitySettings));
+        assertTrue(runSession(2, securitySettings));
+
+        assertEquals(2, sam.getCommandCount(INS_SELECT_DIVERSIFIER));
+        assertEquals(2, sam.getCommandCount(INS_GET_CHALLENGE));
+        assertEquals(2, sam.getCommandCount(INS_DIGEST_AUTHENTICATE));
+    }
+
+    @Test
+    public void processOpening_samAlreadyDiversified_noSelectDiversifier() throws Exception {
+        SecuritySettings securitySettings = new SecuritySettings();
+
+        assertTrue(runSession(1, securitySettings));
+        assertTrue(runSession(1, securitySettings));
+        assertTrue(runSession(2, securitySettings));
+
+        assertEquals(2, sam.getCommandCount(INS_SELECT_DIVERSIFIER));
+    }
+
+    @Test
+    public void processOpening_samExchangeFailed_selectDiversifierSentAgain() throws Exception {
+        SecuritySettings securitySettings = new SecuritySettings();
+        StubReader samReader = (StubReader) samResource.getSeReader();
+
+        assertTrue(runSession(1, securitySettings));
+
+        /* the SAM is reset: the session opening fails */
+        samReader.removeSe();
+        try {
+            runSession(1, securitySettings);
+            fail("The SAM exchange should have failed.");
+        } catch (Exception e) {
+            /* expected */
+        }
+        poReader.removeSe();
+
+        SessionStubs.selectSam(samReader, sam);
+        assertTrue(runSession(1, securitySettings));
+
+        assertEquals(2, sam.getCommandCount(INS_SELECT_DIVERSIFIER));
+    }
+
+    @Test
+    public void processClosing_digestBlocksPacked() throws Exception {
+        SecuritySettings securitySettings = new SecuritySettings();
+
+        assertTrue(runSession(1, securitySettings));
+
+        /* Read Records and Decrease commands and responses in a single Digest Update Multiple */
+        assertEquals(1, sam.getCommandCount(INS_DIGEST_UPDATE));
+        assertEquals(3, lastTransaction.getSavedSamApduCount());
+    }
+
+    @Test
+    public void processOpening_withPrefetch_usesChallengeObtainedAtClosing() throws Exception {
+        SecuritySettings securitySettings = new SecuritySettings();
+        securitySettings.setSamChallengePrefetch(true);
+
+        assertTrue(runSession(1, securitySettings));
+        assertTrue(runSession(2, securitySettings));
+        assertTrue(runSession(3, securitySettings));
+
+        /* one challenge for the first opening, then one per closing */
+        assertEquals(4, sam.getCommandCount(INS_GET_CHALLENGE));
+        assertEquals(3, sam.getCommandCount(INS_SELECT_DIVERSIFIER));
+        assertEquals(3, sam.getCommandCount(INS_DIGEST_AUTHENTICATE));
+    }
+
+    @Test
+    public void processOpening_withPrefetch_afterSessionWithoutPrefetch() throws Exception {
+        SecuritySettings prefetchSettings = new SecuritySettings();
+        prefetchSettings.setSamChallengePrefetch(true);
+
+        assertTrue(runSession(1, prefetchSettings));
+        /* this session requests a new challenge: the prefetched one can no longer be used */
+        assertTrue(runSession(2, new SecuritySettings()));
+        assertTrue(runSession(3, prefetchSettings));
+
+        /* the third session had to request its own challenge at opening */
+        assertEquals(5, sam.getCommandCount(INS_GET_CHALLENGE));
+    }
+
+    /**
+     * Inserts a new PO and runs a secure session reading and decreasing its counter.
+     *
+     * @param index the PO index
+     * @param securitySettings the security settings
+     * @return the result of the secure session
+     */
+    private boolean runSession(int index, SecuritySettings securitySettings) throws Exception {
+        SessionStubs.Po po = new SessionStubs.Po(index, 100);
+        CalypsoPo calypsoPo = SessionStubs.selectPo(poReader, po);
+
+        PoTransaction poTransaction = new PoTransaction(new PoResource(poReader, calypsoPo),
+                samResource, securitySettings);
+
+        poTransaction.prepareReadRecordsCmd(SessionStubs.SFI_COUNTER,
+                ReadDataStructure.SINGLE_COUNTER, (byte) 0x01, "Counter");
+
+        assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SessionStubs.SFI_ENVIRONMENT,
+                (byte) 0x01));
+
+        poTransaction.prepareDecreaseCmd(SessionStubs.SFI_COUNTER, (byte) 0x01, 1, "Decrease");
+
+        assertTrue(poTransaction.processClosing(ChannelState.CLOSE_AFTER));
+
+        poReader.removeSe();
+
+        lastTransaction = poTransaction;
+
+        return poTransaction.isSuccessful() && po.getCounterValue() == 99;
+    }
+}
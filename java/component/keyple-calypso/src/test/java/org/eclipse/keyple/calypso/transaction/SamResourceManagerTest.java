@@ -0,0 +1,228 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.core.seproxy.ReaderPlugin;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SamResourceManagerTest {
+    private static final String SAM_READER_NAME_PREFIX = "samResourceManagerTestReader";
+
+    private static final SamIdentifier ANY_SAM = new SamIdentifier(SamRevision.AUTO, null, null);
+
+    private final StubPlugin stubPlugin = StubPlugin.getInstance();
+    private final Set<String> readerNames = new HashSet<String>();
+
+    private SamResourceManager samResourceManager;
+
+    @Before
+    public void setUp() throws Exception {
+        samResourceManager = createSamResourceManager(1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        stubPlugin.unplugStubReaders(readerNames, true);
+        readerNames.clear();
+    }
+
+    /**
+     * Creates a SAM resource manager handling the provided number of stub SAMs
+     */
+    private SamResourceManager createSamResourceManager(int numberOfSams) throws Exception {
+        SortedSet<SeReader> readers = new TreeSet<SeReader>();
+        for (int i = readerNames.size(); i < readerNames.size() + numberOfSams; i++) {
+            String readerName = SAM_READER_NAME_PREFIX + i;
+            stubPlugin.plugStubReader(readerName, true);
+            StubReader samReader = (StubReader) stubPlugin.getReader(readerName);
+            samReader.insertSe(new SessionStubs.Sam());
+            readers.add(samReader);
+        }
+        for (SeReader reader : readers) {
+            readerNames.add(reader.getName());
+        }
+        ReaderPlugin samReaderPlugin = mock(ReaderPlugin.class);
+        when(samReaderPlugin.getName()).thenReturn("samPlugin");
+        doReturn(readers).when(samReaderPlugin).getReaders();
+
+        return new SamResourceManager(samReaderPlugin, ".*", 200);
+    }
+
+    /**
+     * Allocates and frees a SAM resource the provided number of times
+     *
+     * @return the allocated SAM resources
+     */
+    private List<SamResource> allocateAndFree(int count, byte[] poSerialNumber)
+            throws Exception {
+        List<SamResource> samResources = new ArrayList<SamResource>();
+        for (int i = 0; i < count; i++) {
+            SamResource samResource = samResourceManager.allocateSamResource(
+                    SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM, poSerialNumber);
+            samResources.add(samResource);
+            samResourceManager.freeSamResource(samResource);
+        }
+        return samResources;
+    }
+
+    @Test
+    public void allocateSamResource_nonBlocking_busy_returnsNull() throws Exception {
+        SamResource samResource = samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM);
+        assertNotNull(samResource);
+
+        assertNull(samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM));
+        assertEquals(0, samResourceManager.getPendingAllocationCount());
+    }
+
+    @Test
+    public void allocateSamResource_blocking_timeout() throws Exception {
+        samResourceManager.allocateSamResource(SamResourceManager.AllocationMode.BLOCKING, ANY_SAM);
+
+        long start = System.currentTimeMillis();
+        assertNull(samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.BLOCKING, ANY_SAM));
+        assertTrue(System.currentTimeMillis() - start >= 200);
+        assertEquals(1, samResourceManager.getTimeoutCount());
+        assertEquals(0, samResourceManager.getPendingAllocationCount());
+    }
+
+    @Test
+    public void allocateSamResource_blocking_servedWhenFreed() throws Exception {
+        final SamResource samResource = samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.BLOCKING, ANY_SAM);
+
+        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        executorService.schedule(new Runnable() {
+            @Override
+            public void run() {
+                samResourceManager.freeSamResource(samResource);
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        try {
+            assertSame(samResource, samResourceManager
+                    .allocateSamResource(SamResourceManager.AllocationMode.BLOCKING, ANY_SAM));
+        } finally {
+            executorService.shutdown();
+        }
+        assertEquals(2, samResourceManager.getAllocationCount());
+        assertTrue(samResourceManager.getMaxWaitTime() >= 40);
+    }
+
+    @Test
+    public void allocateSamResourceAsync_servedInArrivalOrder() throws Exception {
+        SamResource samResource = samResourceManager
+                .allocateSamResource(SamResourceManager.AllocationMode.NON_BLOCKING, ANY_SAM);
+
+        final List<Integer> allocationOrder = new ArrayList<Integer>();
+        List<Future<SamResource>> futures = new ArrayList<Future<SamResource>>();
+        for (int i = 0; i < 3; i++) {
+            final int index = i;
+            futures.add(samResourceManager.allocateSamResourceAsync(ANY_SAM,
+                    new SamResourceManager.AllocationCallback() {
+                        @Override
+                        public void onAllocated(SamResource samResource) {
+                            allocationOrder.add(index);
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            fail();
+                        }
+                    }));
+        }
+        assertEquals(3, samResourceManager.getPendingAllocationCount());
+
+        /* the second request gives up */
+        assertTrue(futures.get(1).cancel(false));
+        assertTrue(futures.get(1).isCancelled());
+
+        samResourceManager.freeSamResource(samResource);
+        assertSame(samResource, futures.get(0).get(1, TimeUnit.SECONDS));
+        assertFalse(futures.get(2).isDone());
+
+        samResourceManager.freeSamResource(samResource);
+        assertSame(samResource, futures.get(2).get(1, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList(0, 2), allocationOrder);
+        assertEquals(0, samResourceManager.getPendingAllocationCount());
+    }
+
+    @Test
+    public void allocationStrategy_firstFree_default() throws Exception {
+        samResourceManager = createSamResourceManager(3);
+
+        assertEquals(1, new HashSet<SamResource>(allocateAndFree(6, null)).size());
+    }
+
+    @Test
+    public void allocationStrategy_roundRobin() throws Exception {
+        samResourceManager = createSamResourceManager(3);
+        samResourceManager.setAllocationStrategy(SamAllocationStrategies.roundRobin());
+
+        List<SamResource> samResources = allocateAndFree(6, null);
+
+        assertEquals(3, new HashSet<SamResource>(samResources.subList(0, 3)).size());
+        assertEquals(samResources.subList(0, 3), samResources.subList(3, 6));
+    }
+
+    @Test
+    public void allocationStrategy_leastRecentlyUsed() throws Exception {
+        samResourceManager = createSamResourceManager(3);
+        samResourceManager.setAllocationStrategy(SamAllocationStrategies.leastRecentlyUsed());
+
+        List<SamResource> samResources = allocateAndFree(6, null);
+
+        assertEquals(3, new HashSet<SamResource>(samResources.subList(0, 3)).size());
+        assertEquals(samResources.subList(0, 3), samResources.subList(3, 6));
+    }
+
+    @Test
+    public void allocationStrategy_leastUsed() throws Exception {
+        samResourceManager = createSamResourceManager(3);
+        samResourceManager.setAllocationStrategy(SamAllocationStrategies.leastUsed());
+
+        for (SamResource samResource : allocateAndFree(9, null)) {
+            assertEquals(3, samResource.getAllocationCount());
+        }
+    }
+
+    @Test
+    public void allocationStrategy_poAffinity() throws Exception {
+        byte[] poSerialNumber = ByteArrayUtil.fromHex("0000000011223344");
+        samResourceManager = createSamResourceManager(3);
+        samResourceManager.setAllocationStrategy(
+                SamAllocationStrategies.poAffinity(SamAllocationStrategies.roundRobin()));
+
+        List<SamResource> samResources = allocateAndFree(3, null);
+        samResources.get(1).setDiversifier(poSerialNumber);
+
+        for (SamResource samResource : allocateAndFree(3, poSerialNumber)) {
+            assertSame(samResources.get(1), samResource);
+        }
+        /* without PO serial number, the fallback strategy applies */
+        assertEquals(3, new HashSet<SamResource>(allocateAndFree(3, null)).size());
+    }
+}
@@ -0,0 +1,161 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.keyple.calypso.command.PoClass;
+import org.eclipse.keyple.calypso.command.po.AbstractPoCommandBuilder;
+import org.eclipse.keyple.calypso.command.po.PoBuilderParser;
+import org.eclipse.keyple.calypso.command.po.builder.AppendRecordCmdBuild;
+import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
+import org.eclipse.keyple.calypso.command.po.builder.SelectFileCmdBuild;
+import org.eclipse.keyple.calypso.command.po.builder.UpdateRecordCmdBuild;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.junit.Test;
+
+public class SessionPlannerTest {
+    private final List<PoBuilderParser> commands = new ArrayList<PoBuilderParser>();
+
+    private PoBuilderParser add(AbstractPoCommandBuilder commandBuilder) {
+        PoBuilderParser poBuilderParser = new PoBuilderParser(commandBuilder);
+        commands.add(poBuilderParser);
+        return poBuilderParser;
+    }
+
+    /**
+     * Update Record needing a given number of bytes in the modifications buffer (Lc + 6)
+     */
+    private PoBuilderParser update(int sfi, int recordNumber, int bufferRequirement) {
+        return add(new UpdateRecordCmdBuild(PoClass.ISO, (byte) sfi, (byte) recordNumber,
+                new byte[bufferRequirement - 6], null));
+    }
+
+    private PoBuilderParser read(int sfi) {
+        return add(new ReadRecordsCmdBuild(PoClass.ISO, (byte) sfi,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, true, (byte) 0x00, null));
+    }
+
+    @Test
+    public void bytesMode_fewerSessionsThanInOrder() {
+        /* in order: [60], [50, 39], [49] */
+        PoBuilderParser a = update(1, 1, 60);
+        PoBuilderParser b = update(2, 1, 50);
+        PoBuilderParser c = update(3, 1, 39);
+        PoBuilderParser d = update(4, 1, 49);
+
+        SessionPlanner sessionPlanner = new SessionPlanner(commands, true, 100, 100);
+
+        assertEquals(2, sessionPlanner.getSessionCount());
+        assertEquals(2, sessionPlanner.getSessions().get(0).size());
+        assertSame(a, sessionPlanner.getSessions().get(0).get(0));
+        assertSame(c, sessionPlanner.getSessions().get(0).get(1));
+        assertSame(b, sessionPlanner.getSessions().get(1).get(0));
+        assertSame(d, sessionPlanner.getSessions().get(1).get(1));
+        /* strict check: 100 - 99 */
+        assertEquals(1, sessionPlanner.getLastSessionModificationsCounter());
+    }
+
+    @Test
+    public void bytesMode_largeRecords() {
+        /* Lc > 127 */
+        update(1, 1, 236);
+        update(2, 1, 230);
+        SessionPlanner sessionPlanner = new SessionPlanner(commands, true, 430, 430);
+        assertEquals(2, sessionPlanner.getSessionCount());
+        assertEquals(430 - 230, sessionPlanner.getLastSessionModificationsCounter());
+    }
+
+    @Test
+    public void sameFile_orderKept() {
+        PoBuilderParser first = update(1, 1, 60);
+        PoBuilderParser other = update(2, 1, 50);
+        /* same record, can not be sent before the first update */
+        PoBuilderParser second = update(1, 1, 39);
+        PoBuilderParser append = add(new AppendRecordCmdBuild(PoClass.ISO, (byte) 0x01,
+                new byte[43], null));
+        PoBuilderParser readAfter = read(1);
+
+        SessionPlanner sessionPlanner = new SessionPlanner(commands, true, 100, 100);
+
+        List<List<PoBuilderParser>> sessions = sessionPlanner.getSessions();
+        assertEquals(2, sessions.size());
+        assertEquals(2, sessions.get(0).size());
+        assertSame(first, sessions.get(0).get(0));
+        assertSame(second, sessions.get(0).get(1));
+        assertEquals(3, sessions.get(1).size());
+        assertSame(other, sessions.get(1).get(0));
+        assertSame(append, sessions.get(1).get(1));
+        assertSame(readAfter, sessions.get(1).get(2));
+    }
+
+    @Test
+    public void readCommands_placedAsSoonAsPossible() {
+        update(1, 1, 60);
+        update(2, 1, 60);
+        PoBuilderParser readOtherFile = read(3);
+        PoBuilderParser readModifiedFile = read(2);
+
+        SessionPlanner sessionPlanner = new SessionPlanner(commands, true, 100, 100);
+
+        assertEquals(2, sessionPlanner.getSessionCount());
+        assertTrue(sessionPlanner.getSessions().get(0).contains(readOtherFile));
+        assertTrue(sessionPlanner.getSessions().get(1).contains(readModifiedFile));
+    }
+
+    @Test
+    public void fileSelection_barrier() {
+        update(1, 1, 60);
+        add(new SelectFileCmdBuild(PoClass.ISO, SelectFileCmdBuild.SelectControl.FIRST));
+        PoBuilderParser afterSelection = update(2, 1, 39);
+        SessionPlanner sessionPlanner = new SessionPlanner(commands, true, 100, 100);
+        assertEquals(1, sessionPlanner.getSessionCount());
+        assertSame(afterSelection, sessionPlanner.getSessions().get(0).get(2));
+    }
+
+    @Test
+    public void commandsMode_currentSessionPartiallyUsed() {
+        for (int i = 1; i <= 7; i++) {
+            update(i, 1, 10);
+        }
+        SessionPlanner sessionPlanner = new SessionPlanner(commands, false, 3, 6);
+        assertEquals(2, sessionPlanner.getSessionCount());
+        assertEquals(3, sessionPlanner.getSessions().get(0).size());
+        assertEquals(4, sessionPlanner.getSessions().get(1).size());
+        assertEquals(2, sessionPlanner.getLastSessionModificationsCounter());
+    }
+
+    @Test
+    public void currentSessionFull_emptyFirstSession() {
+        update(1, 1, 60);
+        SessionPlanner sessionPlanner = new SessionPlanner(commands, true, 20, 100);
+        assertEquals(2, sessionPlanner.getSessionCount());
+        assertTrue(sessionPlanner.getSessions().get(0).isEmpty());
+    }
+
+    @Test
+    public void oversizedCommand_alone() {
+        update(1, 1, 120);
+        update(2, 1, 20);
+        SessionPlanner sessionPlanner = new SessionPlanner(commands, true, 100, 100);
+        assertEquals(2, sessionPlanner.getSessionCount());
+        assertEquals(1, sessionPlanner.getSessions().get(1).size());
+    }
+
+    @Test
+    public void noCommand() {
+        SessionPlanner sessionPlanner = new SessionPlanner(commands, true, 100, 100);
+        assertEquals(1, sessionPlanner.getSessionCount());
+        assertEquals(100, sessionPlanner.getLastSessionModificationsCounter());
+    }
+}
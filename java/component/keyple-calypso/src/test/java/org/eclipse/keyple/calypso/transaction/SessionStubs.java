@@ -0,0 +1,309 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.calypso.transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+
+/**
+ * Stub PO and SAM able to run complete secure sessions with {@link PoTransaction}.
+ * <p>
+ * The stub SEs compute the session signatures from the data they actually exchanged and from the
+ * SAM challenge received by the PO, so any inconsistency in the digest data or in the challenge
+ * results in a signature mismatch.
+ */
+final class SessionStubs {
+    static final String PO_AID = "315449432E49434131";
+    static final byte SFI_COUNTER = (byte) 0x19;
+    static final byte SFI_ENVIRONMENT = (byte) 0x07;
+
+    private static final byte ROLE_TERMINAL = (byte) 0x54;
+    private static final byte ROLE_PO = (byte) 0x50;
+
+    private SessionStubs() {}
+
+    /**
+     * Inserts a SAM in the provided reader and selects it
+     *
+     * @param samReader the SAM reader
+     * @param sam the stub SAM
+     * @return the selected SAM
+     */
+    static CalypsoSam selectSam(StubReader samReader, Sam sam) throws KeypleReaderException {
+        samReader.insertSe(sam);
+        samReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO7816_3,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO7816_3));
+
+        SeSelection samSelection = new SeSelection();
+        samSelection.prepareSelection(new SamSelectionRequest(
+                new SamSelector(SamRevision.C1, null, "SAM"), ChannelState.KEEP_OPEN));
+        return (CalypsoSam) samSelection.processExplicitSelection(samReader).getActiveSelection()
+                .getMatchingSe();
+    }
+
+    /**
+     * Inserts a PO in the provided reader and selects it
+     *
+     * @param poReader the PO reader
+     * @param po the stub PO
+     * @return the selected PO
+     */
+    static CalypsoPo selectPo(StubReader poReader, Po po) throws KeypleReaderException {
+        poReader.insertSe(po);
+        poReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+
+        SeSelection poSelection = new SeSelection();
+        poSelection.prepareSelection(new PoSelectionRequest(
+                new PoSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new PoSelector.PoAidSelector(new SeSelector.AidSelector.IsoAid(PO_AID),
+                                PoSelector.InvalidatedPo.REJECT),
+                        "PO"),
+                ChannelState.KEEP_OPEN));
+        return (CalypsoPo) poSelection.processExplicitSelection(poReader).getActiveSelection()
+                .getMatchingSe();
+    }
+
+    /**
+     * Computes a 4-byte session signature from a role byte, the SAM challenge and the digest data.
+     */
+    private static byte[] signature(byte role, byte[] challenge, byte[] digestData) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        messageDigest.update(role);
+        messageDigest.update(challenge);
+        return Arrays.copyOf(messageDigest.digest(digestData), 4);
+    }
+
+    private static byte[] withStatus(byte[] data, int statusWord) {
+        byte[] response = Arrays.copyOf(data, data.length + 2);
+        response[data.length] = (byte) (statusWord >> 8);
+        response[data.length + 1] = (byte) statusWord;
+        return response;
+    }
+
+    /**
+     * Stub Calypso rev 3.1 PO that keeps track of the session digest data.
+     */
+    static class Po extends StubSecureElement {
+        private final byte[] fci;
+        private final ByteArrayOutputStream digestData = new ByteArrayOutputStream();
+        private byte[] terminalChallenge;
+        private int counterValue;
+        private int transactionCounter = 0x001234;
+        private boolean sessionOpen;
+
+        Po(int index, int counterValue) {
+            this.fci = ByteArrayUtil.fromHex("6F238409" + PO_AID + "A516BF0C13C708"
+                    + String.format("%016X", index) + "53070A3C23051410019000");
+            this.counterValue = counterValue;
+        }
+
+        int getCounterValue() {
+            return counterValue;
+        }
+
+        @Override
+        public byte[] getATR() {
+            return ByteArrayUtil.fromHex("3B8880010000000000718100F9");
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return "PROTOCOL_ISO14443_4";
+        }
+
+        @Override
+        public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+            byte[] response;
+            switch (apduIn[1]) {
+                case (byte) 0xA4:
+                    return fci;
+                case (byte) 0x8A:
+                    terminalChallenge = Arrays.copyOfRange(apduIn, 5, 5 + (apduIn[4] & 0xFF));
+                    response = openSession();
+                    break;
+                case (byte) 0xB2:
+                    if (apduIn[2] == 0x00) {
+                        /* ratification command */
+                        return ByteArrayUtil.fromHex("6B00");
+                    }
+                    response = withStatus(record(apduIn[3]), 0x9000);
+                    break;
+                case (byte) 0x30:
+                    counterValue -= ByteArrayUtil.threeBytesToInt(apduIn, 5);
+                    response = withStatus(new byte[] {(byte) (counterValue >> 16),
+                            (byte) (counterValue >> 8), (byte) counterValue}, 0x9000);
+                    break;
+                case (byte) 0x8E:
+                    return closeSession(apduIn);
+                default:
+                    throw new KeypleIOReaderException("Unexpected PO command.");
+            }
+            if (sessionOpen && apduIn[1] != (byte) 0x8A) {
+                /* Le is excluded from the digest for case 4 commands */
+                int length = apduIn.length > 5 && apduIn.length == 6 + (apduIn[4] & 0xFF)
+                        ? apduIn.length - 1
+                        : apduIn.length;
+                digestData.write(apduIn, 0, length);
+                digestData.write(response, 0, response.length);
+            }
+            return response;
+        }
+
+        private byte[] record(byte p2) {
+            byte[] record = new byte[29];
+            if (((p2 >> 3) & 0x1F) == SFI_COUNTER) {
+                record[0] = (byte) (counterValue >> 16);
+                record[1] = (byte) (counterValue >> 8);
+                record[2] = (byte) counterValue;
+            } else {
+                Arrays.fill(record, p2);
+            }
+            return record;
+        }
+
+        private byte[] openSession() {
+            transactionCounter++;
+            byte[] record = record((byte) (SFI_ENVIRONMENT << 3));
+            byte[] data = new byte[8 + record.length];
+            data[0] = (byte) (transactionCounter >> 16);
+            data[1] = (byte) (transactionCounter >> 8);
+            data[2] = (byte) transactionCounter;
+            data[3] = (byte) counterValue;
+            data[4] = (byte) 0x00;
+            data[5] = (byte) 0x30;
+            data[6] = (byte) 0x79;
+            data[7] = (byte) record.length;
+            System.arraycopy(record, 0, data, 8, record.length);
+            digestData.reset();
+            digestData.write(data, 0, data.length);
+            sessionOpen = true;
+            return withStatus(data, 0x9000);
+        }
+
+        private byte[] closeSession(byte[] apduIn) {
+            if (!sessionOpen) {
+                return ByteArrayUtil.fromHex("6985");
+            }
+            sessionOpen = false;
+            byte[] terminalSignature = Arrays.copyOfRange(apduIn, 5, 5 + (apduIn[4] & 0xFF));
+            if (!Arrays.equals(terminalSignature,
+                    signature(ROLE_TERMINAL, terminalChallenge, digestData.toByteArray()))) {
+                return ByteArrayUtil.fromHex("6988");
+            }
+            return withStatus(signature(ROLE_PO, terminalChallenge, digestData.toByteArray()),
+                    0x9000);
+        }
+    }
+
+    /**
+     * Stub Calypso SAM computing the session signatures from the received digest data.
+     * <p>
+     * Each challenge can be used by one Digest Init command only. The number of commands received
+     * is counted per instruction byte.
+     */
+    static class Sam extends StubSecureElement {
+        private final ByteArrayOutputStream digestData = new ByteArrayOutputStream();
+        private final int[] commandCounts = new int[256];
+        private int challengeCounter;
+        private byte[] challenge;
+        private byte[] sessionChallenge;
+
+        int getCommandCount(byte ins) {
+            return commandCounts[ins & 0xFF];
+        }
+
+        @Override
+        public byte[] getATR() {
+            return ByteArrayUtil.fromHex("3B3F9600805A0080C120000012345678829000");
+        }
+
+        @Override
+        public String getSeProcotol() {
+            return "PROTOCOL_ISO7816_3";
+        }
+
+        @Override
+        public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+            commandCounts[apduIn[1] & 0xFF]++;
+            switch (apduIn[1]) {
+                case (byte) 0x14:
+                    /* Select Diversifier */
+                    return ByteArrayUtil.fromHex("9000");
+                case (byte) 0x84:
+                    /* Get Challenge */
+                    challengeCounter++;
+                    challenge = new byte[apduIn[4] & 0xFF];
+                    Arrays.fill(challenge, (byte) challengeCounter);
+                    return withStatus(challenge, 0x9000);
+                case (byte) 0x8A:
+                    /* Digest Init: skip KIF and KVC */
+                    if (challenge == null) {
+                        return ByteArrayUtil.fromHex("6985");
+                    }
+                    sessionChallenge = challenge;
+                    challenge = null;
+                    digestData.reset();
+                    digestData.write(apduIn, 7, (apduIn[4] & 0xFF) - 2);
+                    return ByteArrayUtil.fromHex("9000");
+                case (byte) 0x8C:
+                    if (apduIn[2] == (byte) 0x80) {
+                        /* Digest Update Multiple: length-prefixed blocks */
+                        int offset = 5;
+                        while (offset < 5 + (apduIn[4] & 0xFF)) {
+                            int length = apduIn[offset] & 0xFF;
+                            digestData.write(apduIn, offset + 1, length);
+                            offset += 1 + length;
+                        }
+                    } else {
+                        /* Digest Update */
+                        digestData.write(apduIn, 5, apduIn[4] & 0xFF);
+                    }
+                    return ByteArrayUtil.fromHex("9000");
+                case (byte) 0x8E:
+                    /* Digest Close */
+                    return withStatus(
+                            signature(ROLE_TERMINAL, sessionChallenge, digestData.toByteArray()),
+                            0x9000);
+                case (byte) 0x82:
+                    /* Digest Authenticate */
+                    byte[] poSignature = Arrays.copyOfRange(apduIn, 5, 5 + (apduIn[4] & 0xFF));
+                    return Arrays.equals(poSignature,
+                            signature(ROLE_PO, sessionChallenge, digestData.toByteArray()))
+                                    ? ByteArrayUtil.fromHex("9000")
+                                    : ByteArrayUtil.fromHex("6988");
+                default:
+                    throw new KeypleIOReaderException("Unexpected SAM command.");
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.selection;
+
+import org.eclipse.keyple.core.seproxy.SeReader;
+
+/**
+ * The ReaderSelectionsResult class holds the result of a selection made on one of several
+ * readers.
+ */
+public final class ReaderSelectionsResult {
+    private final SeReader seReader;
+    private final SelectionsResult selectionsResult;
+
+    /**
+     * Constructor
+     *
+     * @param seReader the reader on which the selection was made
+     * @param selectionsResult the result of the selection
+     */
+    ReaderSelectionsResult(SeReader seReader, SelectionsResult selectionsResult) {
+        this.seReader = seReader;
+        this.selectionsResult = selectionsResult;
+    }
+
+    /**
+     * @return the reader on which the selection was made
+     */
+    public SeReader getSeReader() {
+        return seReader;
+    }
+
+    /**
+     * @return the result of the selection
+     */
+    public SelectionsResult getSelectionsResult() {
+        return selectionsResult;
+    }
+}
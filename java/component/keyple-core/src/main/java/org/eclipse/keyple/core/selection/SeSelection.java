@@ -12,10 +12,17 @@
 package org.eclipse.keyple.core.selection;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import org.eclipse.keyple.core.seproxy.ChannelState;
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.event.AbstractDefaultSelectionsRequest;
 import org.eclipse.keyple.core.seproxy.event.AbstractDefaultSelectionsResponse;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
 import org.eclipse.keyple.core.seproxy.message.DefaultSelectionsRequest;
 import org.eclipse.keyple.core.seproxy.message.DefaultSelectionsResponse;
 import org.eclipse.keyple.core.seproxy.message.ProxyReader;
@@ -44,6 +51,9 @@ public final class SeSelection {
             new SeRequestSet(new LinkedHashSet<SeRequest>());
     private int selectionIndex;
 
+    /* match frequencies used to order the explicit selection, null to keep the prepared order */
+    private volatile SelectionStatistics selectionStatistics;
+
     /**
      * Initializes the SeSelection
      */
@@ -73,6 +83,36 @@ public final class SeSelection {
         return selectionIndex++;
     }
 
+    /**
+     * Enables or disables the adaptive ordering of the explicit selection.
+     * <p>
+     * When enabled, {@link #processExplicitSelection(SeReader)} tries the selection cases by
+     * decreasing match frequency instead of the prepared order, and records the matches in the
+     * provided statistics. Combined with
+     * {@link org.eclipse.keyple.core.seproxy.ChannelState#KEEP_OPEN} selection cases, the reader
+     * stops at the first match, so that the failing selection commands sent before the most
+     * likely one are avoided.
+     * <p>
+     * The selection indexes of the {@link SelectionsResult} are not affected: they are always the
+     * indexes returned by {@link #prepareSelection(AbstractSeSelectionRequest)}.
+     * <p>
+     * The default selection ({@link #getSelectionOperation()}) keeps the prepared order.
+     *
+     * @param selectionStatistics the match frequencies to use, null to keep the prepared order
+     *        (default)
+     */
+    public void setSelectionStatistics(SelectionStatistics selectionStatistics) {
+        this.selectionStatistics = selectionStatistics;
+    }
+
+    /**
+     * @return the match frequencies used to order the explicit selection, null if the prepared
+     *         order is kept
+     */
+    public SelectionStatistics getSelectionStatistics() {
+        return selectionStatistics;
+    }
+
     /**
      * Process the selection response either from a
      * {@link org.eclipse.keyple.core.seproxy.event.ReaderEvent} (default selection) or from an
@@ -166,10 +206,271 @@ public final class SeSelection {
                     selectionRequestSet.getRequests().size());
         }
 
-        /* Communicate with the SE to do the selection */
-        SeResponseSet seResponseSet = ((ProxyReader) seReader).transmitSet(selectionRequestSet);
+        SelectionStatistics statistics = selectionStatistics;
+        if (statistics == null) {
+            /* Communicate with the SE to do the selection */
+            SeResponseSet seResponseSet =
+                    ((ProxyReader) seReader).transmitSet(selectionRequestSet);
+
+            return processSelection(new DefaultSelectionsResponse(seResponseSet));
+        }
+
+        String readerName = seReader.getName();
+        int[] order = statistics.getSelectionOrder(readerName, seSelectionRequestList.size());
+        SeResponseSet seResponseSet = ((ProxyReader) seReader)
+                .transmitSet(isPreparedOrder(order) ? selectionRequestSet : reorder(order));
+
+        /* put the responses back in the prepared order, the missing ones being null */
+        List<SeResponse> orderedResponses = seResponseSet.getResponses();
+        List<SeResponse> responses =
+                new ArrayList<SeResponse>(Collections.<SeResponse> nCopies(order.length, null));
+        for (int i = 0; i < orderedResponses.size() && i < order.length; i++) {
+            responses.set(order[i], orderedResponses.get(i));
+        }
+
+        SelectionsResult selectionsResult =
+                processSelection(new DefaultSelectionsResponse(new SeResponseSet(responses)));
+        for (MatchingSelection matchingSelection : selectionsResult.getMatchingSelections()) {
+            statistics.recordMatch(readerName, matchingSelection.getSelectionIndex());
+        }
+        return selectionsResult;
+    }
+
+    /**
+     * Execute the selection process concurrently on several readers and return the result of the
+     * first reader where a selection case matched.
+     * <p>
+     * Each reader is processed as by {@link #processExplicitSelection(SeReader)} in a task
+     * submitted to the provided executor. As soon as a selection case matches on a reader, the
+     * tasks of the other readers that have not started yet are skipped.
+     * <p>
+     * The method returns as soon as the first match is known. The running tasks are not
+     * interrupted, since an interrupt in the middle of an APDU exchange would leave the reader in
+     * an unknown state: they end in the background, and a reader that matches later has its
+     * logical channel closed (KEEP_OPEN selection). Only the channel of the returned reader remains
+     * open. If the current thread is interrupted while waiting, the method returns immediately and
+     * the channels of all the matching readers are closed.
+     * <p>
+     * A reader whose transmission fails is considered as not matching.
+     *
+     * @param seReaders the readers on which the selection is made
+     * @param executorService the executor running the selection on each reader
+     * @return the first matching reader and its {@link SelectionsResult}, null if no selection case
+     *         matched on any reader
+     * @throws KeypleReaderException if the transmission failed on all the readers, or if the
+     *         current thread was interrupted while waiting for the readers
+     */
+    public ReaderSelectionsResult processExplicitSelection(Collection<? extends SeReader> seReaders,
+            ExecutorService executorService) throws KeypleReaderException {
+        List<ReaderSelectionsResult> readerSelectionsResults =
+                processConcurrentSelection(seReaders, executorService, true);
+        return readerSelectionsResults.isEmpty() ? null : readerSelectionsResults.get(0);
+    }
+
+    /**
+     * Execute the selection process concurrently on several readers and return the results of all
+     * the readers where a selection case matched.
+     * <p>
+     * Each reader is processed as by {@link #processExplicitSelection(SeReader)} in a task
+     * submitted to the provided executor. A reader whose transmission fails is considered as not
+     * matching. If the current thread is interrupted while waiting, the channels of the matching
+     * readers are closed.
+     *
+     * @param seReaders the readers on which the selection is made
+     * @param executorService the executor running the selection on each reader
+     * @return the matching readers and their {@link SelectionsResult}, in the order of the
+     *         provided readers (empty if no selection case matched)
+     * @throws KeypleReaderException if the transmission failed on all the readers, or if the
+     *         current thread was interrupted while waiting for the readers
+     */
+    public List<ReaderSelectionsResult> processExplicitSelectionAll(
+            Collection<? extends SeReader> seReaders, ExecutorService executorService)
+            throws KeypleReaderException {
+        return processConcurrentSelection(seReaders, executorService, false);
+    }
+
+    private List<ReaderSelectionsResult> processConcurrentSelection(
+            Collection<? extends SeReader> seReaders, ExecutorService executorService,
+            boolean firstMatchOnly) throws KeypleReaderException {
+        CompletionService<Void> completionService =
+                new ExecutorCompletionService<Void>(executorService);
+        final ConcurrentSelection concurrentSelection =
+                new ConcurrentSelection(seReaders.size(), firstMatchOnly);
+        int taskCount = 0;
+        KeypleReaderException firstFailure = null;
+        int failureCount = 0;
+        boolean completed = false;
+        try {
+            for (final SeReader seReader : seReaders) {
+                final int index = taskCount++;
+                completionService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws KeypleReaderException {
+                        concurrentSelection.select(index, seReader);
+                        return null;
+                    }
+                });
+            }
+            /* wait for the tasks (all of them unless the first match is enough) */
+            for (int i = 0; i < taskCount; i++) {
+                try {
+                    completionService.take().get();
+                    if (firstMatchOnly) {
+                        List<ReaderSelectionsResult> matchingResults =
+                                concurrentSelection.getMatchingResults();
+                        if (!matchingResults.isEmpty()) {
+                            /* the remaining tasks close the channels of their late matches */
+                            completed = true;
+                            return matchingResults;
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    logger.debug("Selection failed: {}", e.getCause().getMessage());
+                    if (firstFailure == null) {
+                        firstFailure = (KeypleReaderException) e.getCause();
+                    }
+                    failureCount++;
+                }
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeypleReaderException("Interrupted while waiting for the selection.", e);
+        } finally {
+            if (!completed) {
+                concurrentSelection.abandon();
+            }
+        }
+
+        if (failureCount > 0 && failureCount == taskCount) {
+            throw firstFailure;
+        }
+        return concurrentSelection.getMatchingResults();
+    }
+
+    /**
+     * Closes the logical and physical channels left open by a selection.
+     *
+     * @param seReader the reader
+     */
+    private static void closeChannel(SeReader seReader) {
+        try {
+            ((ProxyReader) seReader).transmit(
+                    new SeRequest(new ArrayList<ApduRequest>(), ChannelState.CLOSE_AFTER));
+        } catch (KeypleReaderException e) {
+            logger.debug("Failed to close the channel of {}: {}", seReader.getName(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * The results of a selection made concurrently on several readers.
+     * <p>
+     * A reader that matches once the selection is over (first match already found, or result no
+     * longer expected by the caller) has its logical channel closed instead of being kept in the
+     * results.
+     */
+    private final class ConcurrentSelection {
+        private final ReaderSelectionsResult[] readerSelectionsResults;
+        private final boolean firstMatchOnly;
+        private boolean matched;
+        private boolean abandoned;
+
+        ConcurrentSelection(int readerCount, boolean firstMatchOnly) {
+            readerSelectionsResults = new ReaderSelectionsResult[readerCount];
+            this.firstMatchOnly = firstMatchOnly;
+        }
+
+        private synchronized boolean isOver() {
+            return abandoned || (firstMatchOnly && matched);
+        }
+
+        /**
+         * Processes the selection on a reader, unless the selection is already over.
+         *
+         * @param index the index of the reader
+         * @param seReader the reader
+         * @throws KeypleReaderException if the transmission failed
+         */
+        void select(int index, SeReader seReader) throws KeypleReaderException {
+            if (isOver()) {
+                return;
+            }
+            SelectionsResult selectionsResult = processExplicitSelection(seReader);
+            if (selectionsResult.getMatchingSelections().isEmpty()) {
+                return;
+            }
+            synchronized (this) {
+                if (!isOver()) {
+                    readerSelectionsResults[index] =
+                            new ReaderSelectionsResult(seReader, selectionsResult);
+                    matched = true;
+                    return;
+                }
+            }
+            if (selectionsResult.hasActiveSelection()) {
+                closeChannel(seReader);
+            }
+        }
+
+        /**
+         * Ends the selection without result: the channels of the matching readers are closed,
+         * including those of the readers that will match later.
+         */
+        void abandon() {
+            List<ReaderSelectionsResult> matchingResults;
+            synchronized (this) {
+                abandoned = true;
+                matchingResults = getMatchingResults();
+            }
+            for (ReaderSelectionsResult readerSelectionsResult : matchingResults) {
+                if (readerSelectionsResult.getSelectionsResult().hasActiveSelection()) {
+                    closeChannel(readerSelectionsResult.getSeReader());
+                }
+            }
+        }
 
-        return processSelection(new DefaultSelectionsResponse(seResponseSet));
+        /**
+         * @return the matching readers and their {@link SelectionsResult}, in the reader order
+         */
+        synchronized List<ReaderSelectionsResult> getMatchingResults() {
+            List<ReaderSelectionsResult> matchingResults =
+                    new ArrayList<ReaderSelectionsResult>();
+            for (ReaderSelectionsResult readerSelectionsResult : readerSelectionsResults) {
+                if (readerSelectionsResult != null) {
+                    matchingResults.add(readerSelectionsResult);
+                }
+            }
+            return matchingResults;
+        }
+    }
+
+    private static boolean isPreparedOrder(int[] order) {
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a request set made of the prepared selection requests in the provided order
+     */
+    private SeRequestSet reorder(int[] order) {
+        SeRequest[] preparedRequests = selectionRequestSet.getRequests()
+                .toArray(new SeRequest[selectionRequestSet.getRequests().size()]);
+        SeRequestSet orderedRequestSet = new SeRequestSet(new LinkedHashSet<SeRequest>());
+        for (int selectionIndex : order) {
+            orderedRequestSet.add(preparedRequests[selectionIndex]);
+        }
+        return orderedRequestSet;
     }
 
     /**
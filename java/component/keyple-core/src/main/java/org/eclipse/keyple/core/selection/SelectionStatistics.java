@@ -0,0 +1,137 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.selection;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Match frequencies of the selection cases of a {@link SeSelection}, used to try the most likely
+ * selection cases first (see {@link SeSelection#setSelectionStatistics(SelectionStatistics)}).
+ * <p>
+ * The frequencies are tracked either for all the readers together or reader per reader. All
+ * counters are halved when one of them reaches {@link #MAX_MATCH_COUNT}, so that the order
+ * follows a change of the SE population.
+ * <p>
+ * An instance is tied to the selection cases of a single {@link SeSelection}. It is thread-safe.
+ */
+public final class SelectionStatistics {
+    /**
+     * Scope of the match frequencies
+     */
+    public enum Scope {
+        /** one set of frequencies shared by all the readers */
+        GLOBAL,
+        /** one set of frequencies per reader name */
+        PER_READER
+    }
+
+    /** match count from which all the counters of a set are halved */
+    public static final int MAX_MATCH_COUNT = 1024;
+
+    private static final String GLOBAL_KEY = "";
+
+    private final Scope scope;
+
+    /* match counts indexed by selection index, per reader name (or GLOBAL_KEY) */
+    private final Map<String, int[]> matchCounts = new HashMap<String, int[]>();
+
+    /**
+     * @param scope the scope of the match frequencies
+     */
+    public SelectionStatistics(Scope scope) {
+        if (scope == null) {
+            throw new IllegalArgumentException("The scope must be defined.");
+        }
+        this.scope = scope;
+    }
+
+    /**
+     * @return the scope of the match frequencies
+     */
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * Computes the order in which the selection cases are to be tried: by decreasing match count,
+     * the selection cases with the same count being kept in the prepared order.
+     *
+     * @param readerName the name of the reader
+     * @param selectionCount the number of selection cases
+     * @return the selection indexes, in the order they are to be tried
+     */
+    synchronized int[] getSelectionOrder(String readerName, int selectionCount) {
+        int[] counts = matchCounts.get(key(readerName));
+        int[] order = new int[selectionCount];
+        for (int i = 0; i < selectionCount; i++) {
+            /* stable insertion sort, the number of selection cases is small */
+            int count = count(counts, i);
+            int j = i;
+            while (j > 0 && count(counts, order[j - 1]) < count) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Records a match of a selection case
+     *
+     * @param readerName the name of the reader
+     * @param selectionIndex the index of the matching selection case
+     */
+    synchronized void recordMatch(String readerName, int selectionIndex) {
+        String key = key(readerName);
+        int[] counts = matchCounts.get(key);
+        if (counts == null || counts.length <= selectionIndex) {
+            counts = counts == null ? new int[selectionIndex + 1]
+                    : Arrays.copyOf(counts, selectionIndex + 1);
+            matchCounts.put(key, counts);
+        }
+        if (++counts[selectionIndex] >= MAX_MATCH_COUNT) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Gets the current match count of a selection case
+     *
+     * @param readerName the name of the reader (ignored in the {@link Scope#GLOBAL} scope)
+     * @param selectionIndex the selection index returned by
+     *        {@link SeSelection#prepareSelection(AbstractSeSelectionRequest)}
+     * @return the match count, possibly halved
+     */
+    public synchronized int getMatchCount(String readerName, int selectionIndex) {
+        return count(matchCounts.get(key(readerName)), selectionIndex);
+    }
+
+    /**
+     * Forgets all the match frequencies
+     */
+    public synchronized void reset() {
+        matchCounts.clear();
+    }
+
+    private String key(String readerName) {
+        return scope == Scope.PER_READER && readerName != null ? readerName : GLOBAL_KEY;
+    }
+
+    private static int count(int[] counts, int selectionIndex) {
+        return counts != null && selectionIndex < counts.length ? counts[selectionIndex] : 0;
+    }
+}
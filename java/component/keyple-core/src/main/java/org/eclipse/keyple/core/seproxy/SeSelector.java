@@ -12,9 +12,9 @@
 package org.eclipse.keyple.core.seproxy;
 
 import java.util.*;
-import java.util.regex.Pattern;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.core.util.RegexMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -253,13 +253,18 @@ public class SeSelector {
          */
         private String atrRegex;
 
+        /**
+         * Matcher compiled from the regular expression (not serialized, rebuilt when needed)
+         */
+        private transient RegexMatcher atrMatcher;
+
         /**
          * Regular expression based filter
          *
          * @param atrRegex String hex regular expression
          */
         public AtrFilter(String atrRegex) {
-            this.atrRegex = atrRegex;
+            setAtrRegex(atrRegex);
         }
 
         /**
@@ -269,6 +274,7 @@ public class SeSelector {
          */
         public void setAtrRegex(String atrRegex) {
             this.atrRegex = atrRegex;
+            this.atrMatcher = atrRegex != null ? RegexMatcher.compile(atrRegex) : null;
         }
 
         /**
@@ -291,9 +297,13 @@ public class SeSelector {
         public boolean atrMatches(byte[] atr) {
             boolean m;
             if (atrRegex.length() != 0) {
-                Pattern p = Pattern.compile(atrRegex);
-                String atrString = ByteArrayUtil.toHex(atr);
-                m = p.matcher(atrString).matches();
+                RegexMatcher matcher = atrMatcher;
+                if (matcher == null) {
+                    /* deserialized filter */
+                    matcher = RegexMatcher.compile(atrRegex);
+                    atrMatcher = matcher;
+                }
+                m = matcher.matchesHex(atr);
             } else {
                 m = true;
             }
@@ -12,6 +12,7 @@
 package org.eclipse.keyple.core.seproxy.message;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Set;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
@@ -102,6 +103,9 @@ public final class ApduResponse implements Serializable {
 
     /**
      * Get the data before the statusCode
+     * <p>
+     * A new array is returned for each call: use {@link #getDataOutLength()} or
+     * {@link #getDataOutBuffer()} to read the data without copy.
      * 
      * @return slice of the buffer before the status code
      */
@@ -109,6 +113,25 @@ public final class ApduResponse implements Serializable {
         return Arrays.copyOfRange(this.bytes, 0, this.bytes.length - 2);
     }
 
+    /**
+     * Get the length of the data before the statusCode
+     *
+     * @return the number of bytes of the data, the data starting at offset 0 of
+     *         {@link #getBytes()}
+     */
+    public int getDataOutLength() {
+        return this.bytes.length - 2;
+    }
+
+    /**
+     * Get a read-only view of the data before the statusCode, sharing the response buffer
+     *
+     * @return the view, positioned at the first byte of the data
+     */
+    public ByteBuffer getDataOutBuffer() {
+        return ByteBuffer.wrap(this.bytes, 0, this.bytes.length - 2).slice().asReadOnlyBuffer();
+    }
+
     @Override
     public String toString() {
         String prefix;
@@ -14,6 +14,7 @@ package org.eclipse.keyple.core.seproxy.message;
 
 import org.eclipse.keyple.core.seproxy.SeReader;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.metrics.ReaderMetrics;
 
 
 /**
@@ -82,4 +83,19 @@ public interface ProxyReader extends SeReader {
      */
     SeResponse transmit(SeRequest seApplicationRequest)
             throws KeypleReaderException, IllegalArgumentException;
+
+    /**
+     * Defines the metrics receiving the latencies and failures measured by the reader
+     * (transmission of the request sets and of the APDUs, selection, physical channel management).
+     * <p>
+     * No measurement is made when no metrics are defined (default).
+     *
+     * @param readerMetrics the metrics, null to stop the measurements
+     */
+    void setReaderMetrics(ReaderMetrics readerMetrics);
+
+    /**
+     * @return the metrics defined with {@link #setReaderMetrics(ReaderMetrics)}, null if none
+     */
+    ReaderMetrics getReaderMetrics();
 }
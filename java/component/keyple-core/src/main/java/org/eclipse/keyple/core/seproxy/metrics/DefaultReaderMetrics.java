@@ -0,0 +1,109 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Default {@link ReaderMetrics} implementation keeping in memory the {@link ReaderStatistics} of
+ * each reader.
+ * <p>
+ * An instance can be shared by several readers. The recording is lock-free: it only involves
+ * atomic counters once the statistics of the reader exist.
+ * <p>
+ * The measurements can also be forwarded to a delegate, for example an adapter to a monitoring
+ * system.
+ */
+public class DefaultReaderMetrics implements ReaderMetrics {
+    private final ReaderMetrics delegate;
+
+    private final ConcurrentMap<String, ReaderStatistics> readerStatistics =
+            new ConcurrentHashMap<String, ReaderStatistics>();
+
+    /**
+     * Creates metrics kept in memory only
+     */
+    public DefaultReaderMetrics() {
+        this(null);
+    }
+
+    /**
+     * Creates metrics kept in memory and forwarded to the provided delegate
+     *
+     * @param delegate the metrics receiving all the measurements too (may be null)
+     */
+    public DefaultReaderMetrics(ReaderMetrics delegate) {
+        this.delegate = delegate;
+    }
+
+    private ReaderStatistics getOrCreateStatistics(String readerName) {
+        ReaderStatistics statistics = readerStatistics.get(readerName);
+        if (statistics == null) {
+            ReaderStatistics newStatistics = new ReaderStatistics(readerName);
+            statistics = readerStatistics.putIfAbsent(readerName, newStatistics);
+            if (statistics == null) {
+                statistics = newStatistics;
+            }
+        }
+        return statistics;
+    }
+
+    @Override
+    public void recordLatency(String readerName, Operation operation, int ins,
+            long durationNanos) {
+        getOrCreateStatistics(readerName).recordLatency(operation, ins, durationNanos);
+        if (delegate != null) {
+            delegate.recordLatency(readerName, operation, ins, durationNanos);
+        }
+    }
+
+    @Override
+    public void recordFailure(String readerName, Operation operation, int ins) {
+        getOrCreateStatistics(readerName).recordFailure(operation, ins);
+        if (delegate != null) {
+            delegate.recordFailure(readerName, operation, ins);
+        }
+    }
+
+    @Override
+    public void recordCase4GetResponse(String readerName) {
+        getOrCreateStatistics(readerName).recordCase4GetResponse();
+        if (delegate != null) {
+            delegate.recordCase4GetResponse(readerName);
+        }
+    }
+
+    /**
+     * @return the names of the readers having statistics
+     */
+    public Set<String> getReaderNames() {
+        return Collections.unmodifiableSet(readerStatistics.keySet());
+    }
+
+    /**
+     * @param readerName the name of the reader
+     * @return the statistics of the reader, null if nothing has been recorded for it
+     */
+    public ReaderStatistics getReaderStatistics(String readerName) {
+        return readerStatistics.get(readerName);
+    }
+
+    /**
+     * Removes all the statistics
+     */
+    public void clear() {
+        readerStatistics.clear();
+    }
+}
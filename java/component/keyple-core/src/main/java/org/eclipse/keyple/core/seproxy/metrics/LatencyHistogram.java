@@ -0,0 +1,136 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with exponential buckets.
+ * <p>
+ * The bucket 0 counts the durations lower than 1 µs, the bucket i (i &gt; 0) the durations from
+ * 2^(i-1) µs (included) to 2^i µs (excluded), the last bucket the longer durations. The percentiles
+ * are thus estimated with the upper bound of a bucket (i.e. with a precision of a factor 2).
+ */
+public final class LatencyHistogram {
+    /** Number of buckets, the last one counting the durations from about 18 minutes */
+    public static final int BUCKET_COUNT = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a duration
+     *
+     * @param durationNanos the duration in nanoseconds (negative values are recorded as 0)
+     */
+    public void record(long durationNanos) {
+        long duration = durationNanos < 0 ? 0 : durationNanos;
+        buckets.incrementAndGet(getBucketIndex(duration));
+        count.incrementAndGet();
+        totalNanos.addAndGet(duration);
+        long max = maxNanos.get();
+        while (duration > max && !maxNanos.compareAndSet(max, duration)) {
+            max = maxNanos.get();
+        }
+    }
+
+    private static int getBucketIndex(long durationNanos) {
+        int index = 64 - Long.numberOfLeadingZeros(durationNanos / 1000);
+        return index < BUCKET_COUNT ? index : BUCKET_COUNT - 1;
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return the sum of the recorded durations in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * @return the longest recorded duration in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * @return the mean of the recorded durations in nanoseconds, 0 if none
+     */
+    public long getMeanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : totalNanos.get() / n;
+    }
+
+    /**
+     * @param index the index of the bucket (0 to {@link #BUCKET_COUNT} - 1)
+     * @return the number of durations recorded in the bucket
+     */
+    public long getBucketCount(int index) {
+        return buckets.get(index);
+    }
+
+    /**
+     * @param index the index of the bucket (0 to {@link #BUCKET_COUNT} - 1)
+     * @return the upper bound (excluded) of the bucket in nanoseconds, Long.MAX_VALUE for the last
+     *         bucket
+     */
+    public static long getBucketUpperBoundNanos(int index) {
+        return index < BUCKET_COUNT - 1 ? (1L << index) * 1000 : Long.MAX_VALUE;
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations
+     *
+     * @param percentile the percentile (between 0 and 100)
+     * @return the upper bound of the bucket containing the percentile in nanoseconds, limited to
+     *         the longest recorded duration, 0 if no duration has been recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        }
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100);
+        long cumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulated += snapshot[i];
+            if (cumulated >= rank && cumulated > 0) {
+                return Math.min(getBucketUpperBoundNanos(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%dns, p50=%dns, p99=%dns, max=%dns", getCount(),
+                getMeanNanos(), getPercentileNanos(50), getPercentileNanos(99), getMaxNanos());
+    }
+}
@@ -0,0 +1,75 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+/**
+ * Receives the measurements made by a {@link org.eclipse.keyple.core.seproxy.message.ProxyReader}
+ * while it processes the requests.
+ * <p>
+ * The methods are called by the threads processing the requests: the implementations must be
+ * thread-safe, fast and must not throw any exception.
+ * <p>
+ * {@link DefaultReaderMetrics} keeps latency histograms and counters in memory. A specific
+ * implementation can forward the measurements to a monitoring system, directly or as the delegate
+ * of a {@link DefaultReaderMetrics}.
+ */
+public interface ReaderMetrics {
+    /**
+     * The measured operations
+     */
+    enum Operation {
+        /** processing of a whole SeRequestSet (transmitSet) */
+        PROCESS_SE_REQUEST_SET,
+        /** processing of a single SeRequest (transmit) */
+        PROCESS_SE_REQUEST,
+        /** ATR filtering and application selection */
+        SELECTION,
+        /** opening of the physical channel */
+        OPEN_PHYSICAL_CHANNEL,
+        /** closing of the physical channel */
+        CLOSE_PHYSICAL_CHANNEL,
+        /** transmission of an APDU, including the case 4 Get Response if any */
+        TRANSMIT_APDU
+    }
+
+    /** Value of the ins argument for the operations other than TRANSMIT_APDU */
+    int NO_INS = -1;
+
+    /**
+     * Records the duration of an operation that succeeded
+     *
+     * @param readerName the name of the reader
+     * @param operation the operation
+     * @param ins the instruction byte of the APDU (0 to 255), {@link #NO_INS} for the other
+     *        operations
+     * @param durationNanos the duration in nanoseconds
+     */
+    void recordLatency(String readerName, Operation operation, int ins, long durationNanos);
+
+    /**
+     * Records the failure of an operation (exception raised)
+     *
+     * @param readerName the name of the reader
+     * @param operation the operation
+     * @param ins the instruction byte of the APDU (0 to 255), {@link #NO_INS} for the other
+     *        operations
+     */
+    void recordFailure(String readerName, Operation operation, int ins);
+
+    /**
+     * Records the transmission of a Get Response command after a case 4 command that returned no
+     * data (see {@link org.eclipse.keyple.core.seproxy.message.ApduRequest#isCase4()})
+     *
+     * @param readerName the name of the reader
+     */
+    void recordCase4GetResponse(String readerName);
+}
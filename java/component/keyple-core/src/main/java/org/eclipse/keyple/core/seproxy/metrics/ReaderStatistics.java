@@ -0,0 +1,131 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency histograms and counters of a reader, kept by {@link DefaultReaderMetrics}
+ * <p>
+ * The APDU latencies are available for all the APDUs and by instruction byte (INS).
+ */
+public final class ReaderStatistics {
+    private static final int INS_COUNT = 256;
+
+    private final String readerName;
+    private final LatencyHistogram[] operationHistograms =
+            new LatencyHistogram[ReaderMetrics.Operation.values().length];
+    private final AtomicLongArray operationFailures =
+            new AtomicLongArray(ReaderMetrics.Operation.values().length);
+    /* created on the first APDU with the instruction byte */
+    private final AtomicReferenceArray<LatencyHistogram> insHistograms =
+            new AtomicReferenceArray<LatencyHistogram>(INS_COUNT);
+    private final AtomicLongArray insFailures = new AtomicLongArray(INS_COUNT);
+    private final AtomicLong case4GetResponseCount = new AtomicLong();
+
+    ReaderStatistics(String readerName) {
+        this.readerName = readerName;
+        for (int i = 0; i < operationHistograms.length; i++) {
+            operationHistograms[i] = new LatencyHistogram();
+        }
+    }
+
+    void recordLatency(ReaderMetrics.Operation operation, int ins, long durationNanos) {
+        operationHistograms[operation.ordinal()].record(durationNanos);
+        if (ins >= 0 && ins < INS_COUNT) {
+            LatencyHistogram histogram = insHistograms.get(ins);
+            if (histogram == null) {
+                insHistograms.compareAndSet(ins, null, new LatencyHistogram());
+                histogram = insHistograms.get(ins);
+            }
+            histogram.record(durationNanos);
+        }
+    }
+
+    void recordFailure(ReaderMetrics.Operation operation, int ins) {
+        operationFailures.incrementAndGet(operation.ordinal());
+        if (ins >= 0 && ins < INS_COUNT) {
+            insFailures.incrementAndGet(ins);
+        }
+    }
+
+    void recordCase4GetResponse() {
+        case4GetResponseCount.incrementAndGet();
+    }
+
+    /**
+     * @return the name of the reader
+     */
+    public String getReaderName() {
+        return readerName;
+    }
+
+    /**
+     * @param operation the operation
+     * @return the latencies of the operations that succeeded
+     */
+    public LatencyHistogram getHistogram(ReaderMetrics.Operation operation) {
+        return operationHistograms[operation.ordinal()];
+    }
+
+    /**
+     * @param operation the operation
+     * @return the number of operations that failed
+     */
+    public long getFailureCount(ReaderMetrics.Operation operation) {
+        return operationFailures.get(operation.ordinal());
+    }
+
+    /**
+     * @param ins the instruction byte (0 to 255)
+     * @return the latencies of the APDUs with this instruction byte that succeeded, null if none
+     */
+    public LatencyHistogram getApduHistogram(int ins) {
+        return insHistograms.get(ins);
+    }
+
+    /**
+     * @param ins the instruction byte (0 to 255)
+     * @return the number of APDUs with this instruction byte that failed
+     */
+    public long getApduFailureCount(int ins) {
+        return insFailures.get(ins);
+    }
+
+    /**
+     * @return the number of Get Response commands sent after case 4 commands
+     */
+    public long getCase4GetResponseCount() {
+        return case4GetResponseCount.get();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ReaderStatistics: READER = ").append(readerName);
+        for (ReaderMetrics.Operation operation : ReaderMetrics.Operation.values()) {
+            sb.append(", ").append(operation).append(" = {")
+                    .append(operationHistograms[operation.ordinal()]).append(", failures=")
+                    .append(operationFailures.get(operation.ordinal())).append('}');
+        }
+        for (int ins = 0; ins < INS_COUNT; ins++) {
+            LatencyHistogram histogram = insHistograms.get(ins);
+            if (histogram != null) {
+                sb.append(String.format(", INS %02X = {", ins)).append(histogram)
+                        .append(", failures=").append(insFailures.get(ins)).append('}');
+            }
+        }
+        return sb.append(", case 4 Get Response = ").append(case4GetResponseCount.get())
+                .toString();
+    }
+}
@@ -12,14 +12,18 @@
 package org.eclipse.keyple.core.seproxy.plugin;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.eclipse.keyple.core.seproxy.SeSelector;
 import org.eclipse.keyple.core.seproxy.event.AbstractDefaultSelectionsRequest;
 import org.eclipse.keyple.core.seproxy.event.ObservableReader;
 import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
 import org.eclipse.keyple.core.seproxy.exception.*;
 import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.metrics.ReaderMetrics;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.core.util.RegexMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -207,7 +211,7 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
         }
         closeLogicalChannel();
         try {
-            closePhysicalChannel();
+            closePhysicalChannelMeasured();
         } catch (KeypleChannelStateException e) {
             logger.trace("[{}] Exception occured in waitForCardAbsent. Message: {}", this.getName(),
                     e.getMessage());
@@ -409,18 +413,73 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
              * channel
              */
             if (!isPhysicalChannelOpen()) {
-                openPhysicalChannel();
+                openPhysicalChannelMeasured();
             }
             if (!isPhysicalChannelOpen()) {
                 throw new KeypleChannelStateException("Fail to open physical channel.");
             }
         }
 
-        selectionStatus = openLogicalChannel(seSelector);
+        ReaderMetrics metrics = getReaderMetrics();
+        long start = metrics != null ? System.nanoTime() : 0;
+        boolean succeeded = false;
+        try {
+            selectionStatus = openLogicalChannel(seSelector);
+            succeeded = true;
+        } finally {
+            if (metrics != null) {
+                recordMeasurement(metrics, ReaderMetrics.Operation.SELECTION,
+                        ReaderMetrics.NO_INS, start, succeeded);
+            }
+        }
 
         return selectionStatus;
     }
 
+    /**
+     * Opens the physical channel, measuring the operation if metrics are defined
+     *
+     * @throws KeypleChannelStateException if the channel opening fails
+     */
+    private void openPhysicalChannelMeasured() throws KeypleChannelStateException {
+        ReaderMetrics metrics = getReaderMetrics();
+        if (metrics == null) {
+            openPhysicalChannel();
+            return;
+        }
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            openPhysicalChannel();
+            succeeded = true;
+        } finally {
+            recordMeasurement(metrics, ReaderMetrics.Operation.OPEN_PHYSICAL_CHANNEL,
+                    ReaderMetrics.NO_INS, start, succeeded);
+        }
+    }
+
+    /**
+     * Closes the physical channel, measuring the operation if metrics are defined
+     *
+     * @throws KeypleChannelStateException if the channel closing fails
+     */
+    private void closePhysicalChannelMeasured() throws KeypleChannelStateException {
+        ReaderMetrics metrics = getReaderMetrics();
+        if (metrics == null) {
+            closePhysicalChannel();
+            return;
+        }
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            closePhysicalChannel();
+            succeeded = true;
+        } finally {
+            recordMeasurement(metrics, ReaderMetrics.Operation.CLOSE_PHYSICAL_CHANNEL,
+                    ReaderMetrics.NO_INS, start, succeeded);
+        }
+    }
+
     /**
      * Attempts to open the physical channel
      *
@@ -476,6 +535,12 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
      */
     protected Map<SeProtocol, String> protocolsMap = new HashMap<SeProtocol, String>();
 
+    /**
+     * Matchers compiled from the protocolsMap rules, to avoid compiling a rule for each request
+     */
+    private final ConcurrentMap<SeProtocol, RegexMatcher> protocolMatchers =
+            new ConcurrentHashMap<SeProtocol, RegexMatcher>();
+
     /**
      * Defines the protocol setting Map to allow SE to be differentiated according to their
      * communication protocol.
@@ -486,6 +551,7 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
     @Override
     public void addSeProtocolSetting(SeProtocol seProtocol, String protocolRule) {
         this.protocolsMap.put(seProtocol, protocolRule);
+        getProtocolMatcher(seProtocol);
     }
 
     /**
@@ -495,6 +561,32 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
      */
     public void setSeProtocolSetting(Map<SeProtocol, String> protocolSetting) {
         this.protocolsMap.putAll(protocolSetting);
+        for (SeProtocol seProtocol : protocolSetting.keySet()) {
+            getProtocolMatcher(seProtocol);
+        }
+    }
+
+    /**
+     * Gets the matcher compiled from the protocolsMap rule of the provided protocol.
+     * <p>
+     * The matcher is compiled once and reused as long as the rule is not changed.
+     *
+     * @param seProtocol the protocol flag
+     * @return the matcher or null if no rule is defined for this protocol
+     */
+    protected final RegexMatcher getProtocolMatcher(SeProtocol seProtocol) {
+        String protocolRule = protocolsMap.get(seProtocol);
+        if (protocolRule == null) {
+            return null;
+        }
+        RegexMatcher matcher = protocolMatchers.get(seProtocol);
+        if (matcher == null || (matcher.getRegex() != protocolRule
+                && !matcher.getRegex().equals(protocolRule))) {
+            /* first use or rule changed directly in protocolsMap */
+            matcher = RegexMatcher.compile(protocolRule);
+            protocolMatchers.put(seProtocol, matcher);
+        }
+        return matcher;
     }
 
     /**
@@ -606,7 +698,7 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
                          * SE reader status, if the logical channel doesn't require to be kept open,
                          * then the physical channel is closed.
                          */
-                        closePhysicalChannel();
+                        closePhysicalChannelMeasured();
 
                         logger.debug("[{}] processSeRequestSet => Closing of the physical channel.",
                                 this.getName());
@@ -647,7 +739,7 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
 
         /* close the physical channel if CLOSE_AFTER is requested */
         if (!seRequest.isKeepChannelOpen()) {
-            closePhysicalChannel();
+            closePhysicalChannelMeasured();
         }
 
         return seResponse;
@@ -800,6 +892,9 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
      * <p>
      * The time measurement is carried out and logged with the detailed information of the exchanges
      * (TRACE level).
+     * <p>
+     * The duration of the exchange is recorded in the reader metrics, if defined, by instruction
+     * byte.
      *
      * @param apduRequest APDU request
      * @return APDU response
@@ -817,13 +912,28 @@ public abstract class AbstractLocalReader extends AbstractObservableReader {
         }
 
         byte[] buffer = apduRequest.getBytes();
-        apduResponse =
-                new ApduResponse(transmitApdu(buffer), apduRequest.getSuccessfulStatusCodes());
-
-        if (apduRequest.isCase4() && apduResponse.getDataOut().length == 0
-                && apduResponse.isSuccessful()) {
-            // do the get response command but keep the original status code
-            apduResponse = case4HackGetResponse(apduResponse.getStatusCode());
+        ReaderMetrics metrics = getReaderMetrics();
+        long start = metrics != null ? System.nanoTime() : 0;
+        boolean succeeded = false;
+        try {
+            apduResponse =
+                    new ApduResponse(transmitApdu(buffer), apduRequest.getSuccessfulStatusCodes());
+
+            if (apduRequest.isCase4() && apduResponse.getDataOutLength() == 0
+                    && apduResponse.isSuccessful()) {
+                // do the get response command but keep the original status code
+                if (metrics != null) {
+                    metrics.recordCase4GetResponse(getName());
+                }
+                apduResponse = case4HackGetResponse(apduResponse.getStatusCode());
+            }
+            succeeded = true;
+        } finally {
+            if (metrics != null) {
+                recordMeasurement(metrics, ReaderMetrics.Operation.TRANSMIT_APDU,
+                        buffer.length > 1 ? buffer[1] & 0xFF : ReaderMetrics.NO_INS, start,
+                        succeeded);
+            }
         }
 
         if (logger.isTraceEnabled()) {
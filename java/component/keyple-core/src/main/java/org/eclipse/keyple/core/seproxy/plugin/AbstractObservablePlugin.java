@@ -12,6 +12,8 @@
 package org.eclipse.keyple.core.seproxy.plugin;
 
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import org.eclipse.keyple.core.seproxy.ReaderPlugin;
 import org.eclipse.keyple.core.seproxy.event.ObservablePlugin;
@@ -32,9 +34,20 @@ public abstract class AbstractObservablePlugin extends AbstractLoggedObservable<
 
     /**
      * The list of readers
+     * <p>
+     * Subclasses should update it with {@link #addReader(AbstractObservableReader)} and
+     * {@link #removeReader(AbstractObservableReader)} to keep the readers index up to date. A
+     * reader added to or removed from the list directly is still handled by
+     * {@link #getReader(String)}, with a scan of the list.
      */
     protected SortedSet<AbstractObservableReader> readers = null;
 
+    /**
+     * Index of the readers by name, used by {@link #getReader(String)}
+     */
+    private final ConcurrentMap<String, AbstractObservableReader> readersByName =
+            new ConcurrentHashMap<String, AbstractObservableReader>();
+
 
     /**
      * Instanciates a new ReaderPlugin. Retrieve the current readers list.
@@ -48,6 +61,9 @@ public abstract class AbstractObservablePlugin extends AbstractLoggedObservable<
         if (readers == null) {
             try {
                 readers = initNativeReaders();
+                for (AbstractObservableReader reader : readers) {
+                    readersByName.put(reader.getName(), reader);
+                }
             } catch (KeypleReaderException e) {
                 e.printStackTrace();
             }
@@ -69,6 +85,35 @@ public abstract class AbstractObservablePlugin extends AbstractLoggedObservable<
         return readers;
     }
 
+    /**
+     * Adds a reader to the readers list and to the readers index
+     *
+     * @param reader the reader to add
+     */
+    protected final void addReader(AbstractObservableReader reader) {
+        onReaderAdded(reader);
+        readers.add(reader);
+        readersByName.put(reader.getName(), reader);
+    }
+
+    /**
+     * Called by {@link #addReader(AbstractObservableReader)} before the reader is listed, to let
+     * subclasses prepare it
+     *
+     * @param reader the reader being added
+     */
+    protected void onReaderAdded(AbstractObservableReader reader) {}
+
+    /**
+     * Removes a reader from the readers list and from the readers index
+     *
+     * @param reader the reader to remove
+     */
+    protected final void removeReader(AbstractObservableReader reader) {
+        readersByName.remove(reader.getName(), reader);
+        readers.remove(reader);
+    }
+
     /**
      * Returns the current list of reader names.
      *
@@ -178,17 +223,40 @@ public abstract class AbstractObservablePlugin extends AbstractLoggedObservable<
 
     /**
      * Gets a specific reader designated by its name in the current readers list
+     * <p>
+     * The reader is retrieved from the readers index and checked against the readers list in
+     * logarithmic time. The readers list is searched only when the reader is not indexed or when
+     * the indexed reader is not listed anymore (readers list updated directly by the plugin).
      * 
      * @param name of the reader
      * @return the reader
      * @throws KeypleReaderNotFoundException if the wanted reader is not found
      */
     public final ProxyReader getReader(String name) throws KeypleReaderNotFoundException {
-        for (ProxyReader reader : readers) {
-            if (reader.getName().equals(name)) {
-                return reader;
+        if (name != null) {
+            AbstractObservableReader reader = readersByName.get(name);
+            if (reader != null) {
+                if (isListed(reader)) {
+                    return reader;
+                }
+                readersByName.remove(name, reader);
+            }
+            for (AbstractObservableReader listedReader : readers) {
+                if (listedReader.getName().equals(name)) {
+                    readersByName.put(name, listedReader);
+                    return listedReader;
+                }
             }
         }
         throw new KeypleReaderNotFoundException(name);
     }
+
+    /**
+     * @param reader an indexed reader
+     * @return true if this very reader instance is in the current readers list
+     */
+    private boolean isListed(AbstractObservableReader reader) {
+        SortedSet<AbstractObservableReader> tailSet = readers.tailSet(reader);
+        return !tailSet.isEmpty() && tailSet.first() == reader;
+    }
 }
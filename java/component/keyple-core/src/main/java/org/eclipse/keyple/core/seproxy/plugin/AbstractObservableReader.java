@@ -19,6 +19,7 @@ import org.eclipse.keyple.core.seproxy.exception.KeypleChannelStateException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.metrics.ReaderMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +43,9 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
     /** Timestamp recorder */
     private long before;
 
+    /** Metrics receiving the measurements, null if none */
+    private volatile ReaderMetrics readerMetrics;
+
     /** Contains the name of the plugin */
     protected final String pluginName;
 
@@ -127,8 +131,12 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
                     requestSet.toString(), elapsedMs);
         }
 
+        ReaderMetrics metrics = readerMetrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        boolean succeeded = false;
         try {
             responseSet = processSeRequestSet(requestSet);
+            succeeded = true;
         } catch (KeypleChannelStateException ex) {
             long timeStamp = System.nanoTime();
             double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
@@ -145,6 +153,11 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
                     elapsedMs);
             /* Throw an exception with the responses collected so far. */
             throw ex;
+        } finally {
+            if (metrics != null) {
+                recordMeasurement(metrics, ReaderMetrics.Operation.PROCESS_SE_REQUEST_SET,
+                        ReaderMetrics.NO_INS, start, succeeded);
+            }
         }
 
         if (logger.isDebugEnabled()) {
@@ -158,6 +171,41 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
         return responseSet;
     }
 
+    /** ==== Metrics ======================================================= */
+
+    /**
+     * {@inheritDoc}
+     */
+    public final void setReaderMetrics(ReaderMetrics readerMetrics) {
+        this.readerMetrics = readerMetrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public final ReaderMetrics getReaderMetrics() {
+        return readerMetrics;
+    }
+
+    /**
+     * Records the latency of an operation if it succeeded, its failure otherwise
+     *
+     * @param metrics the metrics
+     * @param operation the operation
+     * @param ins the instruction byte of the APDU, {@link ReaderMetrics#NO_INS} for the other
+     *        operations
+     * @param start the value of System.nanoTime() at the beginning of the operation
+     * @param succeeded true if the operation succeeded
+     */
+    protected final void recordMeasurement(ReaderMetrics metrics,
+            ReaderMetrics.Operation operation, int ins, long start, boolean succeeded) {
+        if (succeeded) {
+            metrics.recordLatency(getName(), operation, ins, System.nanoTime() - start);
+        } else {
+            metrics.recordFailure(getName(), operation, ins);
+        }
+    }
+
     /**
      * Abstract method implemented by the AbstractLocalReader and VirtualReader classes.
      * <p>
@@ -197,8 +245,12 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
                     seRequest.toString(), elapsedMs);
         }
 
+        ReaderMetrics metrics = readerMetrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        boolean succeeded = false;
         try {
             seResponse = processSeRequest(seRequest);
+            succeeded = true;
         } catch (KeypleChannelStateException ex) {
             long timeStamp = System.nanoTime();
             double elapsedMs = (double) ((timeStamp - this.before) / 100000) / 10;
@@ -215,6 +267,11 @@ public abstract class AbstractObservableReader extends AbstractLoggedObservable<
                     elapsedMs);
             /* Throw an exception with the responses collected so far (ex.getSeResponse()). */
             throw ex;
+        } finally {
+            if (metrics != null) {
+                recordMeasurement(metrics, ReaderMetrics.Operation.PROCESS_SE_REQUEST,
+                        ReaderMetrics.NO_INS, start, succeeded);
+            }
         }
 
         if (logger.isDebugEnabled()) {
@@ -0,0 +1,133 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.eclipse.keyple.core.seproxy.exception.NoStackTraceThrowable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Monitors the SE presence of several {@link AbstractThreadedLocalReader} with a few shared
+ * threads, instead of one monitoring thread per reader.
+ * <p>
+ * The observed readers are registered when their observation starts and unregistered when it
+ * stops (see {@link AbstractThreadedLocalReader#setPresenceMonitor(AbstractPresenceMonitor)}).
+ * The implementations decide when the presence of the readers is checked and call
+ * {@link #checkPresence(AbstractThreadedLocalReader)} which raises the insertion and removal
+ * events.
+ */
+public abstract class AbstractPresenceMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractPresenceMonitor.class);
+
+    /**
+     * Presence state of a monitored reader
+     */
+    private static class ReaderState {
+        private boolean sePresent;
+    }
+
+    /**
+     * The monitored readers and their last known presence state
+     */
+    private final ConcurrentMap<AbstractThreadedLocalReader, ReaderState> readerStates =
+            new ConcurrentHashMap<AbstractThreadedLocalReader, ReaderState>();
+
+    /**
+     * Starts the monitoring of a reader (called when its observation starts)
+     *
+     * @param reader the reader to monitor
+     */
+    final void register(AbstractThreadedLocalReader reader) {
+        if (readerStates.putIfAbsent(reader, new ReaderState()) == null) {
+            logger.trace("[{}] Start presence monitoring", reader.getName());
+            readerRegistered(reader);
+        }
+    }
+
+    /**
+     * Ends the monitoring of a reader (called when its observation stops)
+     *
+     * @param reader the monitored reader
+     */
+    final void unregister(AbstractThreadedLocalReader reader) {
+        if (readerStates.remove(reader) != null) {
+            logger.trace("[{}] Stop presence monitoring", reader.getName());
+            readerUnregistered(reader);
+        }
+    }
+
+    /**
+     * Called when a reader has to be monitored
+     *
+     * @param reader the reader
+     */
+    protected abstract void readerRegistered(AbstractThreadedLocalReader reader);
+
+    /**
+     * Called when a reader must not be monitored anymore
+     *
+     * @param reader the reader
+     */
+    protected abstract void readerUnregistered(AbstractThreadedLocalReader reader);
+
+    /**
+     * @return the currently monitored readers
+     */
+    protected final Set<AbstractThreadedLocalReader> getReaders() {
+        return readerStates.keySet();
+    }
+
+    /**
+     * @return the number of monitored readers
+     */
+    public final int getReaderCount() {
+        return readerStates.size();
+    }
+
+    /**
+     * Checks the SE presence of a monitored reader and notifies the SE insertion or removal if it
+     * has changed since the previous check.
+     * <p>
+     * The first check notifies the insertion of a SE already present. The monitoring of the reader
+     * ends if the presence can not be checked anymore (e.g. the reader has been unplugged).
+     *
+     * @param reader the monitored reader
+     */
+    protected final void checkPresence(AbstractThreadedLocalReader reader) {
+        ReaderState readerState = readerStates.get(reader);
+        if (readerState == null) {
+            /* not monitored anymore */
+            return;
+        }
+        synchronized (readerState) {
+            try {
+                if (readerState.sePresent) {
+                    if (!reader.checkSePresence()) {
+                        readerState.sePresent = false;
+                        reader.cardRemoved();
+                    }
+                } else if (reader.isSePresent()) {
+                    readerState.sePresent = true;
+                    reader.cardInserted();
+                }
+            } catch (NoStackTraceThrowable e) {
+                logger.trace("[{}] Exception occurred while monitoring the reader: {}",
+                        reader.getName(), e.getMessage());
+                unregister(reader);
+            }
+        }
+    }
+}
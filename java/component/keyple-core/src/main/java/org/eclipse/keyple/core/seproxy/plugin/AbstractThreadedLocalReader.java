@@ -19,12 +19,20 @@ import org.slf4j.LoggerFactory;
 /**
  * Abstract definition of an threader local reader. Factorizes the observation mechanism through the
  * implementation of a monitoring thread.
+ * <p>
+ * The reader can alternatively be monitored by an {@link AbstractPresenceMonitor} shared with
+ * other readers.
  */
 public abstract class AbstractThreadedLocalReader extends AbstractSelectionLocalReader {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractThreadedLocalReader.class);
     private EventThread thread;
     private static final AtomicInteger threadCount = new AtomicInteger();
+    /**
+     * Shared presence monitor, null if the reader is monitored by its own thread
+     */
+    private AbstractPresenceMonitor presenceMonitor;
+    private boolean observing = false;
     /**
      * Thread wait timeout in ms
      */
@@ -37,20 +45,62 @@ public abstract class AbstractThreadedLocalReader extends AbstractSelectionLocal
     /**
      * Start the monitoring thread.
      * <p>
-     * The thread is created if it does not already exist
+     * The thread is created if it does not already exist. The reader is registered to the presence
+     * monitor instead if one is defined.
      */
     @Override
-    protected void startObservation() {
-        thread = new EventThread(this.getPluginName(), this.getName());
-        thread.start();
+    protected synchronized void startObservation() {
+        observing = true;
+        if (presenceMonitor != null) {
+            presenceMonitor.register(this);
+        } else {
+            thread = new EventThread(this.getPluginName(), this.getName());
+            thread.start();
+        }
     }
 
     /**
      * Terminate the monitoring thread
      */
     @Override
-    protected void stopObservation() {
-        thread.end();
+    protected synchronized void stopObservation() {
+        observing = false;
+        if (presenceMonitor != null) {
+            presenceMonitor.unregister(this);
+        }
+        if (thread != null) {
+            thread.end();
+            thread = null;
+        }
+    }
+
+    /**
+     * Defines how the SE presence is monitored when the reader is observed.
+     * <p>
+     * If the reader is being observed, its monitoring is moved to the new monitor.
+     *
+     * @param presenceMonitor the shared presence monitor, null to use a dedicated monitoring
+     *        thread (default)
+     */
+    public final synchronized void setPresenceMonitor(AbstractPresenceMonitor presenceMonitor) {
+        if (presenceMonitor == this.presenceMonitor) {
+            return;
+        }
+        boolean wasObserving = observing;
+        if (wasObserving) {
+            stopObservation();
+        }
+        this.presenceMonitor = presenceMonitor;
+        if (wasObserving) {
+            startObservation();
+        }
+    }
+
+    /**
+     * @return the shared presence monitor, null if the reader uses a dedicated monitoring thread
+     */
+    public final synchronized AbstractPresenceMonitor getPresenceMonitor() {
+        return presenceMonitor;
     }
 
     /**
@@ -170,8 +220,10 @@ public abstract class AbstractThreadedLocalReader extends AbstractSelectionLocal
      */
     @Override
     protected void finalize() throws Throwable {
-        thread.end();
-        thread = null;
+        if (thread != null) {
+            thread.end();
+            thread = null;
+        }
         logger.trace("[{}] Observable Reader thread ended.", this.getName());
         super.finalize();
     }
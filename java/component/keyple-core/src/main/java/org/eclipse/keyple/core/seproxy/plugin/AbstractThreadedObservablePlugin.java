@@ -47,6 +47,12 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
      */
     private SortedSet<String> nativeReadersNames = new ConcurrentSkipListSet<String>();
 
+    /**
+     * Presence monitor shared by the readers of the plugin, null if each reader has its own
+     * monitoring thread
+     */
+    private volatile AbstractPresenceMonitor presenceMonitor;
+
     /**
      * Fetch the list of connected native reader (usually from third party library) and returns
      * their names (or id)
@@ -65,6 +71,43 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
         super(name);
     }
 
+    /**
+     * Defines how the SE presence of the readers of this plugin is monitored.
+     * <p>
+     * The monitor applies to the current readers and to the readers added later.
+     *
+     * @param presenceMonitor the presence monitor shared by the readers, null to monitor each
+     *        reader with its own thread (default)
+     */
+    public final void setPresenceMonitor(AbstractPresenceMonitor presenceMonitor) {
+        this.presenceMonitor = presenceMonitor;
+        for (AbstractObservableReader reader : readers) {
+            if (reader instanceof AbstractThreadedLocalReader) {
+                ((AbstractThreadedLocalReader) reader).setPresenceMonitor(presenceMonitor);
+            }
+        }
+    }
+
+    /**
+     * @return the presence monitor shared by the readers, null if each reader has its own
+     *         monitoring thread
+     */
+    public final AbstractPresenceMonitor getPresenceMonitor() {
+        return presenceMonitor;
+    }
+
+    /**
+     * Applies the presence monitor of the plugin to the added reader
+     *
+     * @param reader the reader being added
+     */
+    @Override
+    protected void onReaderAdded(AbstractObservableReader reader) {
+        if (presenceMonitor != null && reader instanceof AbstractThreadedLocalReader) {
+            ((AbstractThreadedLocalReader) reader).setPresenceMonitor(presenceMonitor);
+        }
+    }
+
     /**
      * Start the monitoring thread.
      * <p>
@@ -135,7 +178,7 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
                             /* list update */
                             for (AbstractObservableReader reader : readers) {
                                 if (!actualNativeReadersNames.contains(reader.getName())) {
-                                    readers.remove(reader);
+                                    removeReader(reader);
                                     logger.trace(
                                             "[{}][{}] Plugin thread => Remove unplugged reader from readers list.",
                                             this.pluginName, reader.getName());
@@ -153,7 +196,7 @@ public abstract class AbstractThreadedObservablePlugin extends AbstractObservabl
                         for (String readerName : actualNativeReadersNames) {
                             if (!nativeReadersNames.contains(readerName)) {
                                 AbstractObservableReader reader = fetchNativeReader(readerName);
-                                readers.add(reader);
+                                addReader(reader);
                                 /* add to the notification list */
                                 changedReaderNames.add(readerName);
                                 logger.trace(
@@ -0,0 +1,100 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Presence monitor polling the monitored readers periodically from a small pool of threads.
+ * <p>
+ * Each poll is a non-blocking presence check: the number of threads does not depend on the number
+ * of readers. Suitable for any {@link AbstractThreadedLocalReader} whose presence check is fast
+ * (e.g. stub readers).
+ */
+public class PollingPresenceMonitor extends AbstractPresenceMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PollingPresenceMonitor.class);
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final long pollingPeriod;
+    private final ScheduledExecutorService executorService;
+    private final ConcurrentMap<AbstractThreadedLocalReader, ScheduledFuture<?>> pollingTasks =
+            new ConcurrentHashMap<AbstractThreadedLocalReader, ScheduledFuture<?>>();
+
+    /**
+     * Constructor
+     *
+     * @param threads number of polling threads shared by the monitored readers
+     * @param pollingPeriod delay in milliseconds between two presence checks of a reader
+     */
+    public PollingPresenceMonitor(int threads, long pollingPeriod) {
+        if (threads <= 0 || pollingPeriod <= 0) {
+            throw new IllegalArgumentException(
+                    "The number of threads and the polling period must be positive.");
+        }
+        this.pollingPeriod = pollingPeriod;
+        this.executorService = Executors.newScheduledThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread =
+                        new Thread(runnable, "presence-monitor-" + threadCount.addAndGet(1));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    protected void readerRegistered(final AbstractThreadedLocalReader reader) {
+        ScheduledFuture<?> pollingTask = executorService.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    checkPresence(reader);
+                } catch (RuntimeException e) {
+                    /* keep polling the reader */
+                    logger.error("[{}] Error while monitoring the reader", reader.getName(), e);
+                }
+            }
+        }, 0, pollingPeriod, TimeUnit.MILLISECONDS);
+        pollingTasks.put(reader, pollingTask);
+        if (!getReaders().contains(reader)) {
+            /* unregistered by its first check */
+            readerUnregistered(reader);
+        }
+    }
+
+    @Override
+    protected void readerUnregistered(AbstractThreadedLocalReader reader) {
+        ScheduledFuture<?> pollingTask = pollingTasks.remove(reader);
+        if (pollingTask != null) {
+            pollingTask.cancel(false);
+        }
+    }
+
+    /**
+     * Stops the polling threads. The monitor can not be used anymore.
+     */
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+}
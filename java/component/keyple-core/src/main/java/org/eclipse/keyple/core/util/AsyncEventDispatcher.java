@@ -0,0 +1,317 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EventDispatcher} delivering the events from a pool of threads, so that a slow observer
+ * does not delay the thread raising the events (e.g. the SE detection of a reader).
+ * <p>
+ * The events of a given source (reader or plugin) are queued and delivered one at a time in their
+ * order of arrival; the events of different sources are delivered in parallel. When the queue of a
+ * source is full, the {@link OverflowPolicy} applies.
+ * <p>
+ * The same dispatcher can be shared by several readers and plugins (see
+ * {@link Observable#setEventDispatcher(EventDispatcher)}).
+ */
+public class AsyncEventDispatcher implements EventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncEventDispatcher.class);
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Behavior when the queue of a source is full
+     */
+    public enum OverflowPolicy {
+        /** the new event is dropped */
+        DROP,
+        /** the thread raising the event waits for a free place in the queue */
+        BLOCK,
+        /**
+         * the queued events are replaced by the new one: the observers only receive the most
+         * recent event
+         */
+        COALESCE
+    }
+
+    private final Executor executor;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+
+    private final ConcurrentMap<Observable<?>, SourceQueue> sourceQueues =
+            new ConcurrentHashMap<Observable<?>, SourceQueue>();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong deliveredEventCount = new AtomicLong();
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private final AtomicLong coalescedEventCount = new AtomicLong();
+
+    /**
+     * Creates a dispatcher with its own pool of daemon threads
+     *
+     * @param threads number of delivery threads
+     * @param queueCapacity maximum number of events queued per source
+     * @param overflowPolicy behavior when the queue of a source is full
+     */
+    public AsyncEventDispatcher(int threads, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread =
+                        new Thread(runnable, "event-dispatcher-" + threadCount.addAndGet(1));
+                thread.setDaemon(true);
+                return thread;
+            }
+        }), queueCapacity, overflowPolicy);
+    }
+
+    /**
+     * Creates a dispatcher delivering the events with the provided executor
+     *
+     * @param executor the executor running the deliveries
+     * @param queueCapacity maximum number of events queued per source
+     * @param overflowPolicy behavior when the queue of a source is full
+     */
+    public AsyncEventDispatcher(Executor executor, int queueCapacity,
+            OverflowPolicy overflowPolicy) {
+        if (executor == null || overflowPolicy == null) {
+            throw new IllegalArgumentException("The executor and the policy must be defined.");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("The queue capacity must be positive.");
+        }
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The event is delivered to the observers registered when it is delivered. With the BLOCK
+     * policy, this method must not be called from an observer of the same source.
+     */
+    @Override
+    public <T> void dispatch(Observable<T> source, Iterable<Observable.Observer<T>> observers,
+            T event) {
+        Delivery<T> delivery = new Delivery<T>(observers, event);
+        while (true) {
+            SourceQueue sourceQueue = sourceQueues.get(source);
+            if (sourceQueue == null) {
+                sourceQueue = new SourceQueue(source);
+                SourceQueue existingQueue = sourceQueues.putIfAbsent(source, sourceQueue);
+                if (existingQueue != null) {
+                    sourceQueue = existingQueue;
+                }
+            }
+            if (sourceQueue.offer(delivery)) {
+                return;
+            }
+            /* the queue has just been released, retry with a new one */
+        }
+    }
+
+    /**
+     * @return the number of events waiting for delivery (all sources)
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * @param source a reader or a plugin
+     * @return the number of events of the source waiting for delivery
+     */
+    public int getQueueDepth(Observable<?> source) {
+        SourceQueue sourceQueue = sourceQueues.get(source);
+        return sourceQueue == null ? 0 : sourceQueue.size();
+    }
+
+    /**
+     * @return the highest number of events that have been waiting for delivery at the same time
+     *         (all sources)
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    /**
+     * @return the number of events handed to the observers
+     */
+    public long getDeliveredEventCount() {
+        return deliveredEventCount.get();
+    }
+
+    /**
+     * @return the number of events dropped because of a full queue (DROP policy or interrupted
+     *         BLOCK policy) or a stopped executor
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount.get();
+    }
+
+    /**
+     * @return the number of queued events replaced by a more recent one (COALESCE policy)
+     */
+    public long getCoalescedEventCount() {
+        return coalescedEventCount.get();
+    }
+
+    /**
+     * An event and the observers to notify
+     */
+    private static class Delivery<T> {
+        private final Iterable<Observable.Observer<T>> observers;
+        private final T event;
+
+        private Delivery(Iterable<Observable.Observer<T>> observers, T event) {
+            this.observers = observers;
+            this.event = event;
+        }
+
+        private void deliver() {
+            for (Observable.Observer<T> observer : observers) {
+                try {
+                    observer.update(event);
+                } catch (RuntimeException e) {
+                    logger.error("Observer failed to process the event {}", event, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ordered queue of the events of a source, processed by at most one thread at a time
+     */
+    private class SourceQueue implements Runnable {
+        private final Observable<?> source;
+        private final Deque<Delivery<?>> deliveries = new ArrayDeque<Delivery<?>>();
+        private boolean scheduled = false;
+        private boolean released = false;
+
+        private SourceQueue(Observable<?> source) {
+            this.source = source;
+        }
+
+        private synchronized int size() {
+            return deliveries.size();
+        }
+
+        /**
+         * Queues a delivery, applying the overflow policy
+         *
+         * @return false if the queue has been released and can not be used anymore
+         */
+        private synchronized boolean offer(Delivery<?> delivery) {
+            while (!released && deliveries.size() >= queueCapacity) {
+                switch (overflowPolicy) {
+                    case DROP:
+                        droppedEventCount.incrementAndGet();
+                        return true;
+                    case COALESCE:
+                        coalescedEventCount.addAndGet(deliveries.size());
+                        queueDepth.addAndGet(-deliveries.size());
+                        deliveries.clear();
+                        break;
+                    default:
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            droppedEventCount.incrementAndGet();
+                            return true;
+                        }
+                }
+            }
+            if (released) {
+                return false;
+            }
+            deliveries.add(delivery);
+            int depth = queueDepth.incrementAndGet();
+            int maxDepth;
+            while (depth > (maxDepth = maxQueueDepth.get())
+                    && !maxQueueDepth.compareAndSet(maxDepth, depth)) {
+                // retry
+            }
+            if (!scheduled) {
+                scheduled = true;
+                schedule();
+            }
+            return true;
+        }
+
+        /**
+         * Submits the delivery of the next event (queue lock held)
+         */
+        private void schedule() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                logger.error("Events of {} dropped, the executor is stopped", source);
+                droppedEventCount.addAndGet(deliveries.size());
+                queueDepth.addAndGet(-deliveries.size());
+                deliveries.clear();
+                scheduled = false;
+                notifyAll();
+            }
+        }
+
+        /**
+         * Delivers the next event then reschedules the queue if needed, so that a busy source does
+         * not monopolize a thread
+         */
+        @Override
+        public void run() {
+            Delivery<?> delivery;
+            synchronized (this) {
+                delivery = deliveries.poll();
+                if (delivery == null) {
+                    scheduled = false;
+                    return;
+                }
+                queueDepth.decrementAndGet();
+                notifyAll();
+            }
+            deliveredEventCount.incrementAndGet();
+            try {
+                delivery.deliver();
+            } finally {
+                /* also when an observer throws an Error, otherwise the source would be stuck */
+                synchronized (this) {
+                    if (!deliveries.isEmpty()) {
+                        schedule();
+                    } else {
+                        scheduled = false;
+                        /* release the queue of an idle source */
+                        released = true;
+                        sourceQueues.remove(source, this);
+                        notifyAll();
+                    }
+                }
+            }
+        }
+    }
+}
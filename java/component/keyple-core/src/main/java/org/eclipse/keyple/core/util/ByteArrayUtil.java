@@ -11,56 +11,147 @@
  ********************************************************************************/
 package org.eclipse.keyple.core.util;
 
-import java.util.regex.Pattern;
+import java.util.Arrays;
 
 
 /**
  * Utils around byte arrays
  */
 public class ByteArrayUtil {
-    /* byte to hex string conversion table */
-    private static final String[] byteToHex = new String[] {"00", "01", "02", "03", "04", "05",
-            "06", "07", "08", "09", "0A", "0B", "0C", "0D", "0E", "0F", "10", "11", "12", "13",
-            "14", "15", "16", "17", "18", "19", "1A", "1B", "1C", "1D", "1E", "1F", "20", "21",
-            "22", "23", "24", "25", "26", "27", "28", "29", "2A", "2B", "2C", "2D", "2E", "2F",
-            "30", "31", "32", "33", "34", "35", "36", "37", "38", "39", "3A", "3B", "3C", "3D",
-            "3E", "3F", "40", "41", "42", "43", "44", "45", "46", "47", "48", "49", "4A", "4B",
-            "4C", "4D", "4E", "4F", "50", "51", "52", "53", "54", "55", "56", "57", "58", "59",
-            "5A", "5B", "5C", "5D", "5E", "5F", "60", "61", "62", "63", "64", "65", "66", "67",
-            "68", "69", "6A", "6B", "6C", "6D", "6E", "6F", "70", "71", "72", "73", "74", "75",
-            "76", "77", "78", "79", "7A", "7B", "7C", "7D", "7E", "7F", "80", "81", "82", "83",
-            "84", "85", "86", "87", "88", "89", "8A", "8B", "8C", "8D", "8E", "8F", "90", "91",
-            "92", "93", "94", "95", "96", "97", "98", "99", "9A", "9B", "9C", "9D", "9E", "9F",
-            "A0", "A1", "A2", "A3", "A4", "A5", "A6", "A7", "A8", "A9", "AA", "AB", "AC", "AD",
-            "AE", "AF", "B0", "B1", "B2", "B3", "B4", "B5", "B6", "B7", "B8", "B9", "BA", "BB",
-            "BC", "BD", "BE", "BF", "C0", "C1", "C2", "C3", "C4", "C5", "C6", "C7", "C8", "C9",
-            "CA", "CB", "CC", "CD", "CE", "CF", "D0", "D1", "D2", "D3", "D4", "D5", "D6", "D7",
-            "D8", "D9", "DA", "DB", "DC", "DD", "DE", "DF", "E0", "E1", "E2", "E3", "E4", "E5",
-            "E6", "E7", "E8", "E9", "EA", "EB", "EC", "ED", "EE", "EF", "F0", "F1", "F2", "F3",
-            "F4", "F5", "F6", "F7", "F8", "F9", "FA", "FB", "FC", "FD", "FE", "FF"};
+    /* byte to hex digits conversion table: the two digits of byte b are at 2*b and 2*b+1 */
+    private static final char[] BYTE_TO_HEX_DIGITS = new char[512];
 
-    /**
-     * Chars we will ignore when loading a sample HEX string. It allows to copy/paste the specs APDU
-     */
-    private static final Pattern HEX_IGNORED_CHARS = Pattern.compile(" |h");
+    /* hex digit to nibble conversion table, indexed by the char value, -1 if not a digit */
+    private static final byte[] HEX_DIGIT_TO_NIBBLE = new byte[128];
+
+    static {
+        String digits = "0123456789ABCDEF";
+        for (int i = 0; i < 256; i++) {
+            BYTE_TO_HEX_DIGITS[2 * i] = digits.charAt(i >>> 4);
+            BYTE_TO_HEX_DIGITS[2 * i + 1] = digits.charAt(i & 0x0F);
+        }
+        Arrays.fill(HEX_DIGIT_TO_NIBBLE, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_DIGIT_TO_NIBBLE[digits.charAt(i)] = (byte) i;
+            HEX_DIGIT_TO_NIBBLE[Character.toLowerCase(digits.charAt(i))] = (byte) i;
+        }
+    }
 
     /**
      * Create a byte array from an hexa string. This method allows spaces and "h".
+     * <p>
+     * A string made of hexadecimal digits only is decoded in a single pass (see
+     * {@link #fromHexStrict(String)}), the other strings are decoded leniently.
      *
      * @param hex Hexa string
      * @return byte array
      */
     public static byte[] fromHex(String hex) {
-        hex = HEX_IGNORED_CHARS.matcher(hex).replaceAll("").toUpperCase();
+        int length = hex.length();
+        if (length % 2 == 0) {
+            byte[] byteArray = new byte[length / 2];
+            if (decodeHex(hex, 0, length, byteArray, 0) >= 0) {
+                return byteArray;
+            }
+        }
+        return fromHexLenient(hex);
+    }
 
+    /**
+     * Create a byte array from an hexa string made of hexadecimal digits only (upper or lower
+     * case), without separator.
+     *
+     * @param hex Hexa string
+     * @return byte array
+     * @throws IllegalArgumentException if the string length is odd or if it contains a character
+     *         which is not an hexadecimal digit
+     */
+    public static byte[] fromHexStrict(String hex) {
         if (hex.length() % 2 != 0) {
             throw new IllegalArgumentException("Odd numbered hex array");
         }
-
         byte[] byteArray = new byte[hex.length() / 2];
-        for (int i = 0; i < hex.length(); i += 2) {
-            byteArray[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4)
-                    + Character.digit(hex.charAt(i + 1), 16));
+        fromHex(hex, 0, hex.length(), byteArray, 0);
+        return byteArray;
+    }
+
+    /**
+     * Decode hexadecimal digits (upper or lower case, without separator) into a caller-provided
+     * buffer.
+     *
+     * @param hex the hexadecimal digits
+     * @param hexOffset offset of the first digit
+     * @param hexLength number of digits, even
+     * @param dest destination buffer
+     * @param destOffset offset of the first decoded byte in the destination buffer
+     * @return the number of decoded bytes (hexLength / 2)
+     * @throws IllegalArgumentException if the number of digits is odd or if a character is not an
+     *         hexadecimal digit
+     * @throws IndexOutOfBoundsException if the ranges are outside the string or the buffer
+     */
+    public static int fromHex(CharSequence hex, int hexOffset, int hexLength, byte[] dest,
+            int destOffset) {
+        if (hexLength % 2 != 0) {
+            throw new IllegalArgumentException("Odd numbered hex array");
+        }
+        if (hexOffset < 0 || hexLength < 0 || hexOffset + hexLength > hex.length()
+                || destOffset < 0 || destOffset + hexLength / 2 > dest.length) {
+            throw new IndexOutOfBoundsException("Bad range for hex conversion.");
+        }
+        int decoded = decodeHex(hex, hexOffset, hexLength, dest, destOffset);
+        if (decoded < 0) {
+            throw new IllegalArgumentException("Not an hex digit at index " + (-decoded - 1));
+        }
+        return decoded;
+    }
+
+    /**
+     * Single pass decoding of the hexadecimal digits
+     *
+     * @return the number of decoded bytes, or -(index + 1) of the first character which is not
+     *         an hexadecimal digit
+     */
+    private static int decodeHex(CharSequence hex, int hexOffset, int hexLength, byte[] dest,
+            int destOffset) {
+        int end = hexOffset + hexLength;
+        for (int i = hexOffset, j = destOffset; i < end; i += 2, j++) {
+            char high = hex.charAt(i);
+            char low = hex.charAt(i + 1);
+            int highNibble = high < 128 ? HEX_DIGIT_TO_NIBBLE[high] : -1;
+            int lowNibble = low < 128 ? HEX_DIGIT_TO_NIBBLE[low] : -1;
+            if (highNibble < 0) {
+                return -(i + 1);
+            }
+            if (lowNibble < 0) {
+                return -(i + 2);
+            }
+            dest[j] = (byte) (highNibble << 4 | lowNibble);
+        }
+        return hexLength / 2;
+    }
+
+    /**
+     * Lenient decoding: spaces and "h" are ignored, the other characters are not verified.
+     */
+    private static byte[] fromHexLenient(String hex) {
+        int length = hex.length();
+        char[] digits = new char[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            char c = hex.charAt(i);
+            if (c != ' ' && c != 'h') {
+                digits[count++] = c;
+            }
+        }
+
+        if (count % 2 != 0) {
+            throw new IllegalArgumentException("Odd numbered hex array");
+        }
+
+        byte[] byteArray = new byte[count / 2];
+        for (int i = 0; i < count; i += 2) {
+            byteArray[i / 2] = (byte) ((Character.digit(digits[i], 16) << 4)
+                    + Character.digit(digits[i + 1], 16));
         }
 
         return byteArray;
@@ -76,11 +167,57 @@ public class ByteArrayUtil {
         if (byteArray == null) {
             return "";
         }
-        StringBuilder hexStringBuilder = new StringBuilder();
-        for (int i = 0; i < byteArray.length; i++) {
-            hexStringBuilder.append(byteToHex[byteArray[i] & 0xFF]);
+        char[] hex = new char[2 * byteArray.length];
+        toHex(byteArray, 0, byteArray.length, hex, 0);
+        return new String(hex);
+    }
+
+    /**
+     * Encode bytes as upper case hexadecimal digits into a caller-provided buffer.
+     *
+     * @param src source bytes
+     * @param srcOffset offset of the first byte to encode
+     * @param length number of bytes to encode
+     * @param dest destination buffer
+     * @param destOffset offset of the first digit in the destination buffer
+     * @return the number of written digits (2 * length)
+     * @throws IndexOutOfBoundsException if the ranges are outside the buffers
+     */
+    public static int toHex(byte[] src, int srcOffset, int length, char[] dest, int destOffset) {
+        if (srcOffset < 0 || length < 0 || srcOffset + length > src.length || destOffset < 0
+                || destOffset + 2 * length > dest.length) {
+            throw new IndexOutOfBoundsException("Bad range for hex conversion.");
+        }
+        for (int i = srcOffset, j = destOffset; i < srcOffset + length; i++, j += 2) {
+            int index = (src[i] & 0xFF) << 1;
+            dest[j] = BYTE_TO_HEX_DIGITS[index];
+            dest[j + 1] = BYTE_TO_HEX_DIGITS[index + 1];
+        }
+        return 2 * length;
+    }
+
+    /**
+     * Append bytes as upper case hexadecimal digits to a caller-provided builder (e.g. a log
+     * message).
+     *
+     * @param builder the builder
+     * @param src source bytes
+     * @param srcOffset offset of the first byte to encode
+     * @param length number of bytes to encode
+     * @return the builder
+     * @throws IndexOutOfBoundsException if the range is outside the source bytes
+     */
+    public static StringBuilder appendHex(StringBuilder builder, byte[] src, int srcOffset,
+            int length) {
+        if (srcOffset < 0 || length < 0 || srcOffset + length > src.length) {
+            throw new IndexOutOfBoundsException("Bad range for hex conversion.");
+        }
+        builder.ensureCapacity(builder.length() + 2 * length);
+        for (int i = srcOffset; i < srcOffset + length; i++) {
+            int index = (src[i] & 0xFF) << 1;
+            builder.append(BYTE_TO_HEX_DIGITS[index]).append(BYTE_TO_HEX_DIGITS[index + 1]);
         }
-        return hexStringBuilder.toString();
+        return builder;
     }
 
     /**
@@ -0,0 +1,31 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util;
+
+/**
+ * Strategy delivering the events of an {@link Observable} to its observers.
+ * <p>
+ * Without dispatcher, the observers are notified synchronously by the thread raising the event
+ * (e.g. the SE monitoring thread of a reader). See {@link AsyncEventDispatcher} to notify them
+ * from other threads.
+ */
+public interface EventDispatcher {
+    /**
+     * Delivers an event to the observers of its source
+     *
+     * @param source the observable raising the event
+     * @param observers the observers of the source (thread safe and iterable without copy)
+     * @param event the event
+     * @param <T> the event type
+     */
+    <T> void dispatch(Observable<T> source, Iterable<Observable.Observer<T>> observers, T event);
+}
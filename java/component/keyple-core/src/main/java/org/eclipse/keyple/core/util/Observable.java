@@ -12,12 +12,15 @@
 package org.eclipse.keyple.core.util;
 
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 
 /**
  * Generic Observable class
+ * <p>
+ * The observers are notified synchronously by the thread raising the event, unless an
+ * {@link EventDispatcher} is defined.
  *
  * @param <T> Generic event
  *
@@ -31,42 +34,45 @@ public class Observable<T> {
     private boolean changed = false;
 
     /*
-     * this object will be used to synchronize the access to the observers list in order to be
-     * thread safe
+     * copy-on-write set: the observers are rarely modified and are iterated without copy nor lock
+     * for each event
      */
-    private final Object SYNC = new Object();
+    private final Set<Observer<T>> observers = new CopyOnWriteArraySet<Observer<T>>();
 
-    private Set<Observer<T>> observers;
+    private volatile EventDispatcher eventDispatcher;
 
     public void addObserver(final Observer<T> observer) {
         if (observer == null) {
             return;
         }
-
-        synchronized (SYNC) {
-            if (observers == null) {
-                observers = new HashSet<Observer<T>>(1);
-            }
-            observers.add(observer);
-        }
+        observers.add(observer);
     }
 
     public void removeObserver(final Observer<T> observer) {
         if (observer == null) {
             return;
         }
-
-        synchronized (SYNC) {
-            if (observers != null) {
-                observers.remove(observer);
-            }
-        }
+        observers.remove(observer);
     }
 
     public void clearObservers() {
-        if (observers != null) {
-            this.observers.clear();
-        }
+        this.observers.clear();
+    }
+
+    /**
+     * Defines how the events are delivered to the observers
+     *
+     * @param eventDispatcher the dispatcher, null to notify the observers synchronously (default)
+     */
+    public void setEventDispatcher(EventDispatcher eventDispatcher) {
+        this.eventDispatcher = eventDispatcher;
+    }
+
+    /**
+     * @return the event dispatcher, null if the observers are notified synchronously
+     */
+    public EventDispatcher getEventDispatcher() {
+        return eventDispatcher;
     }
 
     public void setChanged() {
@@ -82,7 +88,7 @@ public class Observable<T> {
     }
 
     public int countObservers() {
-        return observers == null ? 0 : observers.size();
+        return observers.size();
     }
 
     public void notifyObservers() {
@@ -90,17 +96,16 @@ public class Observable<T> {
     }
 
     public void notifyObservers(final T event) {
-        Set<Observer> observersCopy;
-
-        synchronized (SYNC) {
-            if (observers == null) {
-                return;
-            }
-            observersCopy = new HashSet<Observer>(observers);
+        if (observers.isEmpty()) {
+            return;
         }
-
-        for (Observer observer : observersCopy) {
-            observer.update(event);
+        EventDispatcher dispatcher = eventDispatcher;
+        if (dispatcher != null) {
+            dispatcher.dispatch(this, observers, event);
+        } else {
+            for (Observer<T> observer : observers) {
+                observer.update(event);
+            }
         }
     }
 }
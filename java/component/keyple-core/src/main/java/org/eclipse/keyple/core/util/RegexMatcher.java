@@ -0,0 +1,228 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Regular expression compiled once and matched without allocation in the common cases.
+ * <p>
+ * The hexadecimal expressions used to filter the ATR (e.g. "3B8F8001805A0A0103200311........",
+ * "3B8880.{20}", "3.*", alternatives separated by '|') are converted into nibble masks and matched
+ * directly against the raw bytes. The expressions without metacharacter are compared as plain
+ * strings. The other expressions are matched with a {@link Pattern} compiled on first use.
+ * <p>
+ * The results are the same as {@code Pattern.matches(regex, text)}, with
+ * {@code ByteArrayUtil.toHex(bytes)} as text for {@link #matchesHex(byte[])}.
+ */
+public final class RegexMatcher {
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final String regex;
+
+    /**
+     * true if the expression does not contain any metacharacter
+     */
+    private final boolean literal;
+
+    /**
+     * Nibble masks of the alternatives, null if the expression can not be converted
+     */
+    private final List<NibbleMask> nibbleMasks;
+
+    private volatile Pattern pattern;
+
+    /**
+     * Hexadecimal alternative converted into a nibble mask
+     */
+    private static final class NibbleMask {
+        /* expected value of each nibble */
+        private final byte[] values;
+        /* 0xF for the nibbles to compare, 0 for the wildcards */
+        private final byte[] masks;
+        /* true if any nibbles can follow (trailing ".*") */
+        private final boolean open;
+
+        private NibbleMask(byte[] values, byte[] masks, boolean open) {
+            this.values = values;
+            this.masks = masks;
+            this.open = open;
+        }
+
+        private boolean matches(byte[] data) {
+            int nibbleCount = data == null ? 0 : data.length * 2;
+            if (nibbleCount < values.length || (!open && nibbleCount != values.length)) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (masks[i] != 0) {
+                    int b = data[i >> 1];
+                    int nibble = (i & 1) == 0 ? (b >> 4) & 0xF : b & 0xF;
+                    if (nibble != values[i]) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    private RegexMatcher(String regex) {
+        this.regex = regex;
+        boolean hasMetacharacter = false;
+        for (int i = 0; i < regex.length() && !hasMetacharacter; i++) {
+            hasMetacharacter = METACHARACTERS.indexOf(regex.charAt(i)) >= 0;
+        }
+        this.literal = !hasMetacharacter;
+        this.nibbleMasks = parseNibbleMasks(regex);
+    }
+
+    /**
+     * Compiles a regular expression
+     *
+     * @param regex the regular expression
+     * @return the matcher
+     */
+    public static RegexMatcher compile(String regex) {
+        if (regex == null) {
+            throw new IllegalArgumentException("The regular expression must be defined.");
+        }
+        return new RegexMatcher(regex);
+    }
+
+    /**
+     * @return the regular expression
+     */
+    public String getRegex() {
+        return regex;
+    }
+
+    /**
+     * Tells if the whole text matches the regular expression
+     *
+     * @param text the text to check
+     * @return true if the text matches
+     */
+    public boolean matches(CharSequence text) {
+        if (literal) {
+            return regex.contentEquals(text);
+        }
+        return getPattern().matcher(text).matches();
+    }
+
+    /**
+     * Tells if the hexadecimal representation of the provided bytes (upper case, see
+     * {@link ByteArrayUtil#toHex(byte[])}) matches the regular expression
+     *
+     * @param bytes the bytes to check (null is handled as an empty array)
+     * @return true if the bytes match
+     */
+    public boolean matchesHex(byte[] bytes) {
+        if (nibbleMasks != null) {
+            for (NibbleMask nibbleMask : nibbleMasks) {
+                if (nibbleMask.matches(bytes)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return matches(ByteArrayUtil.toHex(bytes));
+    }
+
+    private Pattern getPattern() {
+        Pattern p = pattern;
+        if (p == null) {
+            p = Pattern.compile(regex);
+            pattern = p;
+        }
+        return p;
+    }
+
+    /**
+     * Converts an expression made of upper case hex digits, '.', '.{n}' and a trailing '.*',
+     * possibly with several alternatives separated by '|'
+     *
+     * @return the nibble masks of the alternatives, null if the expression can not be converted
+     */
+    private static List<NibbleMask> parseNibbleMasks(String regex) {
+        List<NibbleMask> nibbleMasks = new ArrayList<NibbleMask>();
+        int start = 0;
+        while (start <= regex.length()) {
+            int end = regex.indexOf('|', start);
+            if (end < 0) {
+                end = regex.length();
+            }
+            NibbleMask nibbleMask = parseNibbleMask(regex, start, end);
+            if (nibbleMask == null) {
+                return null;
+            }
+            nibbleMasks.add(nibbleMask);
+            start = end + 1;
+        }
+        return nibbleMasks;
+    }
+
+    private static NibbleMask parseNibbleMask(String regex, int start, int end) {
+        StringBuilder values = new StringBuilder();
+        StringBuilder masks = new StringBuilder();
+        boolean open = false;
+        int i = start;
+        while (i < end) {
+            char c = regex.charAt(i);
+            if ((c >= '0' && c <= '9') || (c >= 'A' && c <= 'F')) {
+                values.append((char) Character.digit(c, 16));
+                masks.append((char) 0xF);
+                i++;
+            } else if (c != '.') {
+                return null;
+            } else if (i + 1 < end && regex.charAt(i + 1) == '*') {
+                if (i + 2 != end) {
+                    /* '.*' is only supported at the end */
+                    return null;
+                }
+                open = true;
+                i += 2;
+            } else if (i + 1 < end && regex.charAt(i + 1) == '{') {
+                int close = regex.indexOf('}', i + 2);
+                if (close < 0 || close >= end || close == i + 2) {
+                    return null;
+                }
+                int count = 0;
+                for (int j = i + 2; j < close; j++) {
+                    char d = regex.charAt(j);
+                    if (d < '0' || d > '9' || count > 1000) {
+                        return null;
+                    }
+                    count = count * 10 + (d - '0');
+                }
+                for (int j = 0; j < count; j++) {
+                    values.append((char) 0);
+                    masks.append((char) 0);
+                }
+                i = close + 1;
+            } else {
+                values.append((char) 0);
+                masks.append((char) 0);
+                i++;
+            }
+        }
+        byte[] valueBytes = new byte[values.length()];
+        byte[] maskBytes = new byte[masks.length()];
+        for (int j = 0; j < valueBytes.length; j++) {
+            valueBytes[j] = (byte) values.charAt(j);
+            maskBytes[j] = (byte) masks.charAt(j);
+        }
+        return new NibbleMask(valueBytes, maskBytes, open);
+    }
+}
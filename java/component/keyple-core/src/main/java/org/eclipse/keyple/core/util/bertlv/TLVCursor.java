@@ -0,0 +1,346 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util.bertlv;
+
+/**
+ * Cursor walking through a BER-TLV structure (ITU-T X.690 / ISO 8825) held in a byte array,
+ * without allocation nor copy.
+ * <p>
+ * The cursor reads the TLVs of a level one after the other with {@link #next()}, the value of the
+ * current TLV being given as an offset and a length in the original array. The value of a
+ * constructed TLV is entered with {@link #enter()} and left with {@link #exit()}.
+ * {@link #find(Tag)} looks for a tag at the current level, {@link #lookup(Tag)} in the nested
+ * levels too.
+ * <p>
+ * A cursor can be reused for another array with {@link #reset(byte[], int, int)}. It is not
+ * thread-safe.
+ * <p>
+ * Malformed structures (truncated TLV, value exceeding the enclosing TLV, indefinite length) are
+ * reported with an {@link IllegalArgumentException}.
+ */
+public final class TLVCursor {
+    /** Maximum number of nested levels that can be entered */
+    public static final int MAX_DEPTH = 8;
+
+    private byte[] buffer;
+
+    /* end (exclusive) of the current level and offset of the next TLV to read in it */
+    private int levelEnd;
+    private int nextOffset;
+
+    /* values of levelEnd and nextOffset of the parent levels */
+    private final int[] parentLevelEnds = new int[MAX_DEPTH];
+    private final int[] parentNextOffsets = new int[MAX_DEPTH];
+    private int depth;
+
+    /* current TLV */
+    private boolean positioned;
+    private int tagOffset;
+    private byte tagClass;
+    private boolean constructed;
+    private int tagNumber;
+    private int valueOffset;
+    private int valueLength;
+
+    /**
+     * Creates a cursor to be initialized with {@link #reset(byte[], int, int)}
+     */
+    public TLVCursor() {}
+
+    /**
+     * Creates a cursor on the whole byte array
+     *
+     * @param buffer the byte array containing the TLV structure
+     */
+    public TLVCursor(byte[] buffer) {
+        reset(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Creates a cursor on a part of a byte array
+     *
+     * @param buffer the byte array containing the TLV structure
+     * @param offset the offset of the first TLV
+     * @param length the length of the TLV structure
+     */
+    public TLVCursor(byte[] buffer, int offset, int length) {
+        reset(buffer, offset, length);
+    }
+
+    /**
+     * Positions the cursor before the first TLV of a new structure
+     *
+     * @param buffer the byte array containing the TLV structure
+     * @param offset the offset of the first TLV
+     * @param length the length of the TLV structure
+     * @return the cursor
+     */
+    public TLVCursor reset(byte[] buffer, int offset, int length) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("TLV parsing: buffer can't be null.");
+        }
+        if (offset < 0 || length < 0 || offset + length > buffer.length) {
+            throw new IllegalArgumentException("TLV parsing: range out of the buffer.");
+        }
+        this.buffer = buffer;
+        this.levelEnd = offset + length;
+        this.nextOffset = offset;
+        this.depth = 0;
+        this.positioned = false;
+        return this;
+    }
+
+    /**
+     * Moves to the next TLV of the current level
+     *
+     * @return true if a TLV has been read, false if the end of the level is reached
+     * @throws IllegalArgumentException if the TLV is malformed
+     */
+    public boolean next() {
+        positioned = false;
+        if (nextOffset >= levelEnd) {
+            return false;
+        }
+        int index = nextOffset;
+        int firstByte = buffer[index] & 0xFF;
+        /* the 2 first bits (b7b6) define the class, the third bit (b5) the type */
+        byte readTagClass = (byte) (firstByte >>> 6);
+        boolean readConstructed = (firstByte & 0x20) != 0;
+        int number;
+        if ((firstByte & 0x1F) == 0x1F) {
+            /* multi-octet tag number, while the "more bit" (b7) is set */
+            number = 0;
+            do {
+                index++;
+                checkIndex(index);
+                if (number > 0x00FFFFFF) {
+                    throw new IllegalArgumentException("TLV parsing: tag number too large.");
+                }
+                number = (number << 7) + (buffer[index] & 0x7F);
+            } while ((buffer[index] & 0x80) == 0x80);
+        } else {
+            number = firstByte & 0x1F;
+        }
+        index++;
+        checkIndex(index);
+        int length = buffer[index++] & 0xFF;
+        if (length > 0x7F) {
+            /* long form: b6-b0 give the number of following length octets */
+            int following = length & 0x7F;
+            if (following == 0 || following > 4) {
+                throw new IllegalArgumentException("TLV parsing: unsupported length field.");
+            }
+            length = 0;
+            while (following > 0) {
+                checkIndex(index);
+                length = (length << 8) + (buffer[index++] & 0xFF);
+                following--;
+            }
+        }
+        if (length < 0 || length > levelEnd - index) {
+            throw new IllegalArgumentException(
+                    "TLV parsing: value exceeding the enclosing structure.");
+        }
+        tagOffset = nextOffset;
+        tagClass = readTagClass;
+        constructed = readConstructed;
+        tagNumber = number;
+        valueOffset = index;
+        valueLength = length;
+        nextOffset = index + length;
+        positioned = true;
+        return true;
+    }
+
+    /**
+     * Moves to the next TLV of the current level having the provided tag
+     *
+     * @param tag the tag to find
+     * @return true if the tag has been found, false if the end of the level is reached
+     * @throws IllegalArgumentException if a TLV is malformed
+     */
+    public boolean find(Tag tag) {
+        while (next()) {
+            if (matches(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves to the next TLV having the provided tag, looking into the constructed TLVs of the
+     * current level (depth first)
+     * <p>
+     * When found, the cursor is positioned on the TLV inside its level: {@link #exit()} goes back
+     * to the enclosing levels. When not found, the cursor is at the end of the current level.
+     *
+     * @param tag the tag to find
+     * @return true if the tag has been found
+     * @throws IllegalArgumentException if a TLV is malformed
+     */
+    public boolean lookup(Tag tag) {
+        int startDepth = depth;
+        while (true) {
+            if (next()) {
+                if (matches(tag)) {
+                    return true;
+                }
+                if (constructed && depth < MAX_DEPTH) {
+                    enter();
+                }
+            } else if (depth > startDepth) {
+                exit();
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Enters the value of the current constructed TLV: the cursor is positioned before its first
+     * nested TLV
+     *
+     * @throws IllegalStateException if the current TLV is not constructed or if the maximum depth
+     *         is reached
+     */
+    public void enter() {
+        checkPositioned();
+        if (!constructed) {
+            throw new IllegalStateException("TLV parsing: the current TLV is not constructed.");
+        }
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("TLV parsing: maximum depth reached.");
+        }
+        parentLevelEnds[depth] = levelEnd;
+        parentNextOffsets[depth] = nextOffset;
+        depth++;
+        levelEnd = valueOffset + valueLength;
+        nextOffset = valueOffset;
+        positioned = false;
+    }
+
+    /**
+     * Leaves the current level: the cursor is positioned after the constructed TLV that was
+     * entered
+     *
+     * @throws IllegalStateException if the cursor is at the first level
+     */
+    public void exit() {
+        if (depth == 0) {
+            throw new IllegalStateException("TLV parsing: no level to exit.");
+        }
+        depth--;
+        levelEnd = parentLevelEnds[depth];
+        nextOffset = parentNextOffsets[depth];
+        positioned = false;
+    }
+
+    /**
+     * @return the number of levels entered
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @param tag the tag to compare
+     * @return true if the current TLV has the provided tag
+     */
+    public boolean matches(Tag tag) {
+        checkPositioned();
+        return tagNumber == tag.getTagNumber() && tagClass == tag.getTagClass()
+                && constructed == (tag.getTagType() == Tag.TagType.CONSTRUCTED);
+    }
+
+    /**
+     * @return the class of the current tag (see {@link Tag#UNIVERSAL}...)
+     */
+    public byte getTagClass() {
+        checkPositioned();
+        return tagClass;
+    }
+
+    /**
+     * @return true if the current TLV is constructed
+     */
+    public boolean isConstructed() {
+        checkPositioned();
+        return constructed;
+    }
+
+    /**
+     * @return the number of the current tag
+     */
+    public int getTagNumber() {
+        checkPositioned();
+        return tagNumber;
+    }
+
+    /**
+     * @return the offset of the current TLV (first byte of the tag) in the array
+     */
+    public int getTagOffset() {
+        checkPositioned();
+        return tagOffset;
+    }
+
+    /**
+     * @return the offset of the value of the current TLV in the array
+     */
+    public int getValueOffset() {
+        checkPositioned();
+        return valueOffset;
+    }
+
+    /**
+     * @return the length of the value of the current TLV
+     */
+    public int getValueLength() {
+        checkPositioned();
+        return valueLength;
+    }
+
+    /**
+     * @param index the index in the value
+     * @return a byte of the value of the current TLV
+     */
+    public byte getValueByte(int index) {
+        checkPositioned();
+        if (index < 0 || index >= valueLength) {
+            throw new IndexOutOfBoundsException("TLV parsing: index out of the value.");
+        }
+        return buffer[valueOffset + index];
+    }
+
+    /**
+     * @return a copy of the value of the current TLV
+     */
+    public byte[] copyValue() {
+        checkPositioned();
+        byte[] value = new byte[valueLength];
+        System.arraycopy(buffer, valueOffset, value, 0, valueLength);
+        return value;
+    }
+
+    private void checkIndex(int index) {
+        if (index >= levelEnd) {
+            throw new IllegalArgumentException("TLV parsing: truncated TLV.");
+        }
+    }
+
+    private void checkPositioned() {
+        if (!positioned) {
+            throw new IllegalStateException("TLV parsing: the cursor is not on a TLV.");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.selection;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SelectionStatisticsTest {
+
+    @Test
+    public void getSelectionOrder_preparedOrderWithoutMatch() {
+        SelectionStatistics statistics =
+                new SelectionStatistics(SelectionStatistics.Scope.GLOBAL);
+        assertArrayEquals(new int[] {0, 1, 2}, statistics.getSelectionOrder("reader", 3));
+    }
+
+    @Test
+    public void getSelectionOrder_decreasingMatchCount() {
+        SelectionStatistics statistics =
+                new SelectionStatistics(SelectionStatistics.Scope.GLOBAL);
+        statistics.recordMatch("reader", 3);
+        statistics.recordMatch("reader", 3);
+        statistics.recordMatch("reader", 1);
+
+        /* the indexes with the same count keep the prepared order */
+        assertArrayEquals(new int[] {3, 1, 0, 2}, statistics.getSelectionOrder("reader", 4));
+        assertEquals(2, statistics.getMatchCount("reader", 3));
+    }
+
+    @Test
+    public void scope_global() {
+        SelectionStatistics statistics =
+                new SelectionStatistics(SelectionStatistics.Scope.GLOBAL);
+        statistics.recordMatch("reader1", 2);
+
+        assertArrayEquals(new int[] {2, 0, 1}, statistics.getSelectionOrder("reader2", 3));
+        assertEquals(1, statistics.getMatchCount("reader2", 2));
+    }
+
+    @Test
+    public void scope_perReader() {
+        SelectionStatistics statistics =
+                new SelectionStatistics(SelectionStatistics.Scope.PER_READER);
+        statistics.recordMatch("reader1", 2);
+
+        assertArrayEquals(new int[] {2, 0, 1}, statistics.getSelectionOrder("reader1", 3));
+        assertArrayEquals(new int[] {0, 1, 2}, statistics.getSelectionOrder("reader2", 3));
+        assertEquals(0, statistics.getMatchCount("reader2", 2));
+    }
+
+    @Test
+    public void recordMatch_countsHalved() {
+        SelectionStatistics statistics =
+                new SelectionStatistics(SelectionStatistics.Scope.GLOBAL);
+        statistics.recordMatch(null, 0);
+        statistics.recordMatch(null, 0);
+        for (int i = 0; i < SelectionStatistics.MAX_MATCH_COUNT; i++) {
+            statistics.recordMatch(null, 1);
+        }
+
+        assertEquals(1, statistics.getMatchCount(null, 0));
+        assertEquals(SelectionStatistics.MAX_MATCH_COUNT / 2, statistics.getMatchCount(null, 1));
+    }
+
+    @Test
+    public void reset() {
+        SelectionStatistics statistics =
+                new SelectionStatistics(SelectionStatistics.Scope.GLOBAL);
+        statistics.recordMatch("reader", 1);
+        statistics.reset();
+
+        assertArrayEquals(new int[] {0, 1}, statistics.getSelectionOrder("reader", 2));
+    }
+}
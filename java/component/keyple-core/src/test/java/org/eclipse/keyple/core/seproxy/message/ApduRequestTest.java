@@ -12,6 +12,7 @@
 package org.eclipse.keyple.core.seproxy.message;
 
 import static org.junit.Assert.*;
+import java.nio.ByteBuffer;
 import java.util.HashSet;
 import java.util.Set;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
@@ -41,6 +42,15 @@ public class ApduRequestTest {
                 request.toString());
     }
 
+    @Test
+    public void testBufferView() {
+        ApduRequest request = new ApduRequest(getACommand(), true);
+        ByteBuffer buffer = request.getBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(getACommand().length, buffer.remaining());
+        assertEquals(getACommand()[1], buffer.get(1));
+    }
+
     @Test
     public void testAPDURequest() {
         ApduRequest request = getApduSample();
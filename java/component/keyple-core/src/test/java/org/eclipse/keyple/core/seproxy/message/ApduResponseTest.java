@@ -12,6 +12,7 @@
 package org.eclipse.keyple.core.seproxy.message;
 
 import static org.junit.Assert.*;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -75,6 +76,20 @@ public class ApduResponseTest {
         assertFalse(response.isSuccessful());
     }
 
+    @Test
+    public void dataOutViews() {
+        ApduResponse response = new ApduResponse(ByteArrayUtil.fromHex("FEDCBA98 9000h"), null);
+        assertEquals(4, response.getDataOutLength());
+        ByteBuffer dataOut = response.getDataOutBuffer();
+        assertTrue(dataOut.isReadOnly());
+        assertEquals(4, dataOut.remaining());
+        assertEquals((byte) 0xFE, dataOut.get(0));
+        assertEquals((byte) 0x98, dataOut.get(3));
+        /* the view shares the response buffer */
+        response.getBytes()[0] = 0x01;
+        assertEquals((byte) 0x01, dataOut.get(0));
+    }
+
     @Test
     public void isEqualsTest() {
         assertTrue(getAFCI().equals(getAFCI()));
@@ -0,0 +1,68 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+import org.junit.Test;
+
+public class DefaultReaderMetricsTest {
+
+    @Test
+    public void record_perReaderAndIns() {
+        DefaultReaderMetrics readerMetrics = new DefaultReaderMetrics();
+
+        readerMetrics.recordLatency("reader1", ReaderMetrics.Operation.TRANSMIT_APDU, 0xB2, 1000);
+        readerMetrics.recordLatency("reader1", ReaderMetrics.Operation.TRANSMIT_APDU, 0xB2, 3000);
+        readerMetrics.recordLatency("reader1", ReaderMetrics.Operation.TRANSMIT_APDU, 0x8A, 5000);
+        readerMetrics.recordFailure("reader1", ReaderMetrics.Operation.TRANSMIT_APDU, 0x8A);
+        readerMetrics.recordCase4GetResponse("reader1");
+        readerMetrics.recordLatency("reader2", ReaderMetrics.Operation.SELECTION,
+                ReaderMetrics.NO_INS, 2000);
+
+        assertEquals(2, readerMetrics.getReaderNames().size());
+        ReaderStatistics statistics = readerMetrics.getReaderStatistics("reader1");
+        assertEquals("reader1", statistics.getReaderName());
+        assertEquals(3,
+                statistics.getHistogram(ReaderMetrics.Operation.TRANSMIT_APDU).getCount());
+        assertEquals(2, statistics.getApduHistogram(0xB2).getCount());
+        assertEquals(2000, statistics.getApduHistogram(0xB2).getMeanNanos());
+        assertEquals(1, statistics.getApduHistogram(0x8A).getCount());
+        assertNull(statistics.getApduHistogram(0x00));
+        assertEquals(1, statistics.getFailureCount(ReaderMetrics.Operation.TRANSMIT_APDU));
+        assertEquals(1, statistics.getApduFailureCount(0x8A));
+        assertEquals(1, statistics.getCase4GetResponseCount());
+        assertEquals(0, statistics.getHistogram(ReaderMetrics.Operation.SELECTION).getCount());
+        assertEquals(1, readerMetrics.getReaderStatistics("reader2")
+                .getHistogram(ReaderMetrics.Operation.SELECTION).getCount());
+
+        readerMetrics.clear();
+        assertNull(readerMetrics.getReaderStatistics("reader1"));
+    }
+
+    @Test
+    public void record_forwardedToDelegate() {
+        ReaderMetrics delegate = mock(ReaderMetrics.class);
+        DefaultReaderMetrics readerMetrics = new DefaultReaderMetrics(delegate);
+
+        readerMetrics.recordLatency("reader", ReaderMetrics.Operation.TRANSMIT_APDU, 0xB2, 1000);
+        readerMetrics.recordFailure("reader", ReaderMetrics.Operation.SELECTION,
+                ReaderMetrics.NO_INS);
+        readerMetrics.recordCase4GetResponse("reader");
+
+        verify(delegate).recordLatency("reader", ReaderMetrics.Operation.TRANSMIT_APDU, 0xB2,
+                1000);
+        verify(delegate).recordFailure("reader", ReaderMetrics.Operation.SELECTION,
+                ReaderMetrics.NO_INS);
+        verify(delegate).recordCase4GetResponse("reader");
+    }
+}
@@ -0,0 +1,81 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.metrics;
+
+import static org.junit.Assert.*;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void record_statistics() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(50));
+
+        histogram.record(500); // bucket 0
+        histogram.record(1500); // bucket 1
+        histogram.record(3000); // bucket 2
+        histogram.record(3500); // bucket 2
+
+        assertEquals(4, histogram.getCount());
+        assertEquals(8500, histogram.getTotalNanos());
+        assertEquals(2125, histogram.getMeanNanos());
+        assertEquals(3500, histogram.getMaxNanos());
+        assertEquals(1, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(1));
+        assertEquals(2, histogram.getBucketCount(2));
+        assertEquals(2000, histogram.getPercentileNanos(50));
+        /* limited to the max */
+        assertEquals(3500, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void record_longDuration_lastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(1, histogram.getBucketCount(LatencyHistogram.BUCKET_COUNT - 1));
+        assertEquals(Long.MAX_VALUE,
+                LatencyHistogram.getBucketUpperBoundNanos(LatencyHistogram.BUCKET_COUNT - 1));
+    }
+
+    @Test
+    public void record_concurrent() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final long duration = (i + 1) * 1000;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 10000; j++) {
+                        histogram.record(duration);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40000, histogram.getCount());
+        assertEquals(100000000, histogram.getTotalNanos());
+        assertEquals(4000, histogram.getMaxNanos());
+    }
+}
@@ -0,0 +1,105 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.seproxy.plugin;
+
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Readers index of {@link AbstractObservablePlugin} with a plugin updating its readers list
+ * directly
+ */
+public class AbstractObservablePluginTest {
+    private static final String READER_NAME = "indexedReader";
+
+    private final AbstractObservableReaderTest readerFactory = new AbstractObservableReaderTest();
+
+    private AbstractObservableReader newReader() {
+        return readerFactory.getBlankAbstractObservableReader("plugin", READER_NAME);
+    }
+
+    private static class DirectPlugin extends AbstractObservablePlugin {
+        private DirectPlugin() {
+            super("directPlugin");
+        }
+
+        /* readers list replaced as done by some native plugins */
+        private void setReaders(SortedSet<AbstractObservableReader> readers) {
+            this.readers = readers;
+        }
+
+        @Override
+        protected SortedSet<AbstractObservableReader> initNativeReaders() {
+            return new ConcurrentSkipListSet<AbstractObservableReader>();
+        }
+
+        @Override
+        protected AbstractObservableReader fetchNativeReader(String name) {
+            return null;
+        }
+
+        @Override
+        protected void startObservation() {}
+
+        @Override
+        protected void stopObservation() {}
+
+        @Override
+        public Map<String, String> getParameters() {
+            return null;
+        }
+
+        @Override
+        public void setParameter(String key, String value) {}
+    }
+
+    @Test
+    public void getReader_indexed() throws Exception {
+        DirectPlugin plugin = new DirectPlugin();
+        AbstractObservableReader reader = newReader();
+        plugin.addReader(reader);
+        Assert.assertSame(reader, plugin.getReader(READER_NAME));
+        plugin.removeReader(reader);
+        try {
+            plugin.getReader(READER_NAME);
+            Assert.fail();
+        } catch (KeypleReaderNotFoundException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = KeypleReaderNotFoundException.class)
+    public void getReader_removedFromList() throws Exception {
+        DirectPlugin plugin = new DirectPlugin();
+        AbstractObservableReader reader = newReader();
+        plugin.addReader(reader);
+        plugin.getReaders().remove(reader);
+        plugin.getReader(READER_NAME);
+    }
+
+    @Test
+    public void getReader_listReplaced() throws KeypleReaderException {
+        DirectPlugin plugin = new DirectPlugin();
+        plugin.addReader(newReader());
+        AbstractObservableReader newReader = newReader();
+        SortedSet<AbstractObservableReader> readers =
+                new ConcurrentSkipListSet<AbstractObservableReader>();
+        readers.add(newReader);
+        plugin.setReaders(readers);
+        Assert.assertSame(newReader, plugin.getReader(READER_NAME));
+    }
+}
@@ -0,0 +1,200 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncEventDispatcherTest {
+
+    /**
+     * Observer recording the events, optionally blocked while processing the first one
+     */
+    static class RecordingObserver implements Observable.Observer<Integer> {
+        final List<Integer> events = Collections.synchronizedList(new ArrayList<Integer>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        final CountDownLatch firstEventReceived = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done;
+
+        RecordingObserver(int expectedEvents, boolean blocking) {
+            this.done = new CountDownLatch(expectedEvents);
+            if (!blocking) {
+                release.countDown();
+            }
+        }
+
+        @Override
+        public void update(Integer event) {
+            events.add(event);
+            threads.add(Thread.currentThread());
+            firstEventReceived.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        }
+    }
+
+    @Test
+    public void dispatch_ordered_notOnCallerThread() throws Exception {
+        AsyncEventDispatcher dispatcher =
+                new AsyncEventDispatcher(4, 1000, AsyncEventDispatcher.OverflowPolicy.BLOCK);
+        Observable<Integer> source = new Observable<Integer>();
+        source.setEventDispatcher(dispatcher);
+        RecordingObserver observer = new RecordingObserver(1000, false);
+        source.addObserver(observer);
+
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            source.notifyObservers(i);
+            expected.add(i);
+        }
+
+        Assert.assertTrue(observer.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(expected, observer.events);
+        Assert.assertFalse(observer.threads.contains(Thread.currentThread()));
+        Assert.assertEquals(1000, dispatcher.getDeliveredEventCount());
+        Assert.assertEquals(0, dispatcher.getQueueDepth());
+    }
+
+    @Test
+    public void dispatch_drop() throws Exception {
+        AsyncEventDispatcher dispatcher =
+                new AsyncEventDispatcher(1, 2, AsyncEventDispatcher.OverflowPolicy.DROP);
+        Observable<Integer> source = new Observable<Integer>();
+        source.setEventDispatcher(dispatcher);
+        RecordingObserver observer = new RecordingObserver(3, true);
+        source.addObserver(observer);
+
+        source.notifyObservers(1);
+        Assert.assertTrue(observer.firstEventReceived.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 5; i++) {
+            source.notifyObservers(i);
+        }
+        Assert.assertEquals(2, dispatcher.getQueueDepth(source));
+        Assert.assertEquals(2, dispatcher.getMaxQueueDepth());
+        Assert.assertEquals(2, dispatcher.getDroppedEventCount());
+
+        observer.release.countDown();
+        Assert.assertTrue(observer.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), observer.events);
+    }
+
+    @Test
+    public void dispatch_coalesce() throws Exception {
+        AsyncEventDispatcher dispatcher =
+                new AsyncEventDispatcher(1, 2, AsyncEventDispatcher.OverflowPolicy.COALESCE);
+        Observable<Integer> source = new Observable<Integer>();
+        source.setEventDispatcher(dispatcher);
+        RecordingObserver observer = new RecordingObserver(2, true);
+        source.addObserver(observer);
+
+        source.notifyObservers(1);
+        Assert.assertTrue(observer.firstEventReceived.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 4; i++) {
+            source.notifyObservers(i);
+        }
+        Assert.assertEquals(1, dispatcher.getQueueDepth(source));
+        Assert.assertEquals(2, dispatcher.getCoalescedEventCount());
+
+        observer.release.countDown();
+        Assert.assertTrue(observer.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList(1, 4), observer.events);
+    }
+
+    @Test
+    public void dispatch_block() throws Exception {
+        AsyncEventDispatcher dispatcher =
+                new AsyncEventDispatcher(1, 1, AsyncEventDispatcher.OverflowPolicy.BLOCK);
+        final Observable<Integer> source = new Observable<Integer>();
+        source.setEventDispatcher(dispatcher);
+        RecordingObserver observer = new RecordingObserver(3, true);
+        source.addObserver(observer);
+
+        source.notifyObservers(1);
+        Assert.assertTrue(observer.firstEventReceived.await(5, TimeUnit.SECONDS));
+        source.notifyObservers(2);
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                source.notifyObservers(3);
+            }
+        };
+        producer.start();
+        producer.join(100);
+        Assert.assertTrue(producer.isAlive());
+
+        observer.release.countDown();
+        producer.join(5000);
+        Assert.assertFalse(producer.isAlive());
+        Assert.assertTrue(observer.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), observer.events);
+        Assert.assertEquals(0, dispatcher.getDroppedEventCount());
+    }
+
+    @Test
+    public void dispatch_sourcesInParallel() throws Exception {
+        AsyncEventDispatcher dispatcher =
+                new AsyncEventDispatcher(2, 10, AsyncEventDispatcher.OverflowPolicy.BLOCK);
+        Observable<Integer> slowSource = new Observable<Integer>();
+        Observable<Integer> source = new Observable<Integer>();
+        slowSource.setEventDispatcher(dispatcher);
+        source.setEventDispatcher(dispatcher);
+        RecordingObserver slowObserver = new RecordingObserver(1, true);
+        RecordingObserver observer = new RecordingObserver(1, false);
+        slowSource.addObserver(slowObserver);
+        source.addObserver(observer);
+
+        slowSource.notifyObservers(1);
+        source.notifyObservers(2);
+
+        /* the slow observer does not delay the other source */
+        Assert.assertTrue(observer.done.await(5, TimeUnit.SECONDS));
+        slowObserver.release.countDown();
+        Assert.assertTrue(slowObserver.done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void dispatch_observerThrowsError() throws Exception {
+        AsyncEventDispatcher dispatcher =
+                new AsyncEventDispatcher(1, 2, AsyncEventDispatcher.OverflowPolicy.BLOCK);
+        Observable<Integer> source = new Observable<Integer>();
+        source.setEventDispatcher(dispatcher);
+        final RecordingObserver observer = new RecordingObserver(10, false);
+        source.addObserver(new Observable.Observer<Integer>() {
+            @Override
+            public void update(Integer event) {
+                observer.update(event);
+                throw new AssertionError("observer failure " + event);
+            }
+        });
+
+        /* more events than the queue capacity: the producer would block forever */
+        for (int i = 0; i < 10; i++) {
+            source.notifyObservers(i);
+        }
+
+        Assert.assertTrue(observer.done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(10, observer.events.size());
+        Assert.assertEquals(0, dispatcher.getDroppedEventCount());
+    }
+}
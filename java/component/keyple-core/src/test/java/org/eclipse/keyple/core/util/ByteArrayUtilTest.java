@@ -55,6 +55,47 @@ public class ByteArrayUtilTest {
         assertArrayEquals(bytes, BYTEARRAY_GOOD);
     }
 
+    @Test
+    public void fromHex_lenient() {
+        assertArrayEquals(BYTEARRAY_GOOD,
+                ByteArrayUtil.fromHex("12 34 56 78 90 ab cd ef FE DC BA 09 87 65 43 21h"));
+    }
+
+    @Test
+    public void fromHexStrict_good_hex() {
+        assertArrayEquals(BYTEARRAY_GOOD, ByteArrayUtil.fromHexStrict(HEXSTRING_GOOD));
+        assertArrayEquals(BYTEARRAY_GOOD,
+                ByteArrayUtil.fromHexStrict(HEXSTRING_GOOD.toLowerCase()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromHexStrict_bad_hex() {
+        ByteArrayUtil.fromHexStrict(HEXSTRING_BAD);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromHexStrict_space() {
+        ByteArrayUtil.fromHexStrict("12 34 ");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromHexStrict_odd_length() {
+        ByteArrayUtil.fromHexStrict(HEXSTRING_ODD);
+    }
+
+    @Test
+    public void fromHex_into_buffer() {
+        byte[] buffer = new byte[4];
+        int length = ByteArrayUtil.fromHex("xx1234yy", 2, 4, buffer, 1);
+        assertEquals(2, length);
+        assertArrayEquals(new byte[] {0, (byte) 0x12, (byte) 0x34, 0}, buffer);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void fromHex_into_too_short_buffer() {
+        ByteArrayUtil.fromHex(HEXSTRING_GOOD, 0, HEXSTRING_GOOD.length(), new byte[15], 0);
+    }
+
     @Test
     public void toHex_null() {
         String hex = ByteArrayUtil.toHex(null);
@@ -74,6 +115,39 @@ public class ByteArrayUtilTest {
         assertEquals(hex, HEXSTRING_GOOD);
     }
 
+    @Test
+    public void toHex_all_bytes() {
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        String hex = ByteArrayUtil.toHex(bytes);
+        for (int i = 0; i < bytes.length; i++) {
+            assertEquals(String.format("%02X", i), hex.substring(2 * i, 2 * i + 2));
+        }
+        assertArrayEquals(bytes, ByteArrayUtil.fromHex(hex));
+    }
+
+    @Test
+    public void toHex_into_buffer() {
+        char[] buffer = new char[6];
+        int length = ByteArrayUtil.toHex(BYTEARRAY_GOOD, 1, 2, buffer, 1);
+        assertEquals(4, length);
+        assertEquals("\u00003456\u0000", new String(buffer));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void toHex_into_too_short_buffer() {
+        ByteArrayUtil.toHex(BYTEARRAY_GOOD, 0, BYTEARRAY_GOOD.length, new char[31], 0);
+    }
+
+    @Test
+    public void appendHex() {
+        StringBuilder builder = new StringBuilder("apdu: ");
+        ByteArrayUtil.appendHex(builder, BYTEARRAY_GOOD, 14, 2);
+        assertEquals("apdu: 4321", builder.toString());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void threeBytesToInt_null() {
         int value = ByteArrayUtil.threeBytesToInt(null, 0);
@@ -0,0 +1,61 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util;
+
+import static org.junit.Assert.*;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class RegexMatcherTest {
+    private static final String[] REGEXES = {"", ".*", "3.*", "3B", "3B8F8001805A0A0103200311",
+            "3B8F8001805A0A0103200311........829000..", "3B8880.{20}",
+            "3B8880....................|3B8C800150.*|.*4F4D4141544C4153.*",
+            "3B8C800150.*|3B8F80018.*", "3B(.{4}|.{6})00FF.*", "3b8f.*", "3B.{0}8F.*", "3B||8F",
+            "PROTOCOL_ISO14443_4", "PROTOCOL_.*"};
+
+    private static final String[] ATRS = {null, "", "3B", "3F", "3B8F8001805A0A0103200311",
+            "3B8F8001805A0A0103200311C3C4A1D2829000D2",
+            "3B8F8001805A0A0103200311C3C4A1D2829100D2", "3B888001020304050607080910",
+            "3B8C800150AABBCCDD", "3B6F00FF00", "3B01020300FF", "3B0102030400FF112233",
+            "3B004F4D4141544C415300", "8F"};
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_null() {
+        RegexMatcher.compile(null);
+    }
+
+    @Test
+    public void matchesHex_sameAsPattern() {
+        for (String regex : REGEXES) {
+            RegexMatcher matcher = RegexMatcher.compile(regex);
+            assertEquals(regex, matcher.getRegex());
+            for (String atr : ATRS) {
+                byte[] bytes = atr == null ? null : ByteArrayUtil.fromHex(atr);
+                assertEquals(regex + " / " + atr,
+                        Pattern.matches(regex, ByteArrayUtil.toHex(bytes)),
+                        matcher.matchesHex(bytes));
+            }
+        }
+    }
+
+    @Test
+    public void matches_sameAsPattern() {
+        String[] texts = {"", "PROTOCOL_ISO14443_4", "PROTOCOL_B_PRIME", "3B8C800150", "3b8f"};
+        for (String regex : REGEXES) {
+            RegexMatcher matcher = RegexMatcher.compile(regex);
+            for (String text : texts) {
+                assertEquals(regex + " / " + text, Pattern.matches(regex, text),
+                        matcher.matches(text));
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.core.util.bertlv;
+
+import static org.eclipse.keyple.core.util.bertlv.Tag.TagType.CONSTRUCTED;
+import static org.eclipse.keyple.core.util.bertlv.Tag.TagType.PRIMITIVE;
+import static org.junit.Assert.*;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Test;
+
+public class TLVCursorTest {
+    private static final Tag TAG_FCI_TEMPLATE = new Tag(0x0F, Tag.APPLICATION, CONSTRUCTED);
+    private static final Tag TAG_DF_NAME = new Tag(0x04, Tag.CONTEXT, PRIMITIVE);
+    private static final Tag TAG_FCI_ISSUER_DISCRETIONARY_DATA =
+            new Tag(0x0C, Tag.CONTEXT, CONSTRUCTED);
+    private static final Tag TAG_APPLICATION_SERIAL_NUMBER = new Tag(0x07, Tag.PRIVATE, PRIMITIVE);
+    private static final Tag TAG_DISCRETIONARY_DATA = new Tag(0x13, Tag.APPLICATION, PRIMITIVE);
+
+    /* FCI of a Calypso PO followed by the status word */
+    private static final byte[] FCI = ByteArrayUtil.fromHex("6F22 8408315449432E494341 A516 BF0C13"
+            + " C7080000000011223344 53070A3C2005141001 9000");
+
+    @Test
+    public void next_sameLevel() {
+        TLVCursor cursor = new TLVCursor(ByteArrayUtil.fromHex("8405001122334484055566778899"));
+        assertTrue(cursor.next());
+        assertTrue(cursor.matches(TAG_DF_NAME));
+        assertEquals(0, cursor.getTagOffset());
+        assertEquals(2, cursor.getValueOffset());
+        assertEquals(5, cursor.getValueLength());
+        assertTrue(cursor.next());
+        assertEquals(7, cursor.getTagOffset());
+        assertArrayEquals(ByteArrayUtil.fromHex("5566778899"), cursor.copyValue());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void next_longFormLength() {
+        TLVCursor cursor = new TLVCursor(ByteArrayUtil.fromHex("8481050011223344"));
+        assertTrue(cursor.next());
+        assertEquals(3, cursor.getValueOffset());
+        assertEquals(5, cursor.getValueLength());
+    }
+
+    @Test
+    public void next_multiOctetTag() {
+        TLVCursor cursor = new TLVCursor(ByteArrayUtil.fromHex("BF0C00 DF810203AABBCC"));
+        assertTrue(cursor.next());
+        assertTrue(cursor.matches(TAG_FCI_ISSUER_DISCRETIONARY_DATA));
+        assertEquals(0, cursor.getValueLength());
+        assertTrue(cursor.next());
+        assertEquals(Tag.PRIVATE, cursor.getTagClass());
+        assertFalse(cursor.isConstructed());
+        assertEquals(0x82, cursor.getTagNumber());
+        assertEquals((byte) 0xCC, cursor.getValueByte(2));
+    }
+
+    @Test
+    public void enter_exit() {
+        TLVCursor cursor = new TLVCursor(FCI, 0, FCI.length - 2);
+        assertTrue(cursor.next());
+        cursor.enter();
+        assertEquals(1, cursor.getDepth());
+        assertTrue(cursor.find(TAG_DF_NAME));
+        assertArrayEquals(ByteArrayUtil.fromHex("315449432E494341"), cursor.copyValue());
+        assertTrue(cursor.next());
+        cursor.enter();
+        assertTrue(cursor.next());
+        cursor.exit();
+        assertFalse(cursor.next());
+        cursor.exit();
+        assertEquals(0, cursor.getDepth());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void lookup_nested() {
+        TLVCursor cursor = new TLVCursor(FCI, 0, FCI.length - 2);
+        assertTrue(cursor.lookup(TAG_DISCRETIONARY_DATA));
+        assertEquals(3, cursor.getDepth());
+        assertEquals(7, cursor.getValueLength());
+        assertEquals((byte) 0x0A, cursor.getValueByte(0));
+
+        /* reused cursor */
+        cursor.reset(FCI, 0, FCI.length - 2);
+        assertTrue(cursor.lookup(TAG_APPLICATION_SERIAL_NUMBER));
+        assertArrayEquals(ByteArrayUtil.fromHex("0000000011223344"), cursor.copyValue());
+
+        cursor.reset(FCI, 0, FCI.length - 2);
+        assertFalse(cursor.lookup(new Tag(0x01, Tag.PRIVATE, PRIMITIVE)));
+        assertEquals(0, cursor.getDepth());
+    }
+
+    @Test
+    public void find_notFound() {
+        TLVCursor cursor = new TLVCursor(FCI, 0, FCI.length - 2);
+        assertFalse(cursor.find(TAG_DF_NAME));
+        cursor.reset(FCI, 0, FCI.length - 2);
+        assertTrue(cursor.find(TAG_FCI_TEMPLATE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void next_valueExceedingStructure() {
+        new TLVCursor(ByteArrayUtil.fromHex("84050011")).next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void next_nestedValueExceedingParent() {
+        TLVCursor cursor = new TLVCursor(ByteArrayUtil.fromHex("A503840500112233"));
+        cursor.next();
+        cursor.enter();
+        cursor.next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void next_truncatedLength() {
+        new TLVCursor(ByteArrayUtil.fromHex("BF0C")).next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void next_indefiniteLength() {
+        new TLVCursor(ByteArrayUtil.fromHex("A580840100")).next();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void enter_primitive() {
+        TLVCursor cursor = new TLVCursor(ByteArrayUtil.fromHex("840100"));
+        cursor.next();
+        cursor.enter();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getValueOffset_notPositioned() {
+        new TLVCursor(ByteArrayUtil.fromHex("840100")).getValueOffset();
+    }
+}
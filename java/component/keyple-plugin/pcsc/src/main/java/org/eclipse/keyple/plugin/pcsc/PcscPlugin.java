@@ -180,7 +180,7 @@ public final class PcscPlugin extends AbstractThreadedObservablePlugin {
         return reader;
     }
 
-    private CardTerminals getCardTerminals() {
+    CardTerminals getCardTerminals() {
         try {
             Class pcscterminal = null;
             pcscterminal = Class.forName("sun.security.smartcardio.PCSCTerminals");
@@ -0,0 +1,125 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.pcsc;
+
+import javax.smartcardio.CardException;
+import javax.smartcardio.CardTerminals;
+import org.eclipse.keyple.core.seproxy.plugin.AbstractPresenceMonitor;
+import org.eclipse.keyple.core.seproxy.plugin.AbstractThreadedLocalReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Presence monitor of the PC/SC readers using a single thread for all the readers.
+ * <p>
+ * The thread waits for a card insertion or removal in any terminal with a single PC/SC status
+ * change request ({@link CardTerminals#waitForChange(long)}), then checks the presence of the
+ * monitored readers.
+ * <p>
+ * Usage: PcscPlugin.getInstance().setPresenceMonitor(new PcscPresenceMonitor());
+ */
+public class PcscPresenceMonitor extends AbstractPresenceMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PcscPresenceMonitor.class);
+
+    private static final long WAIT_TIMEOUT_DEFAULT = 1000;
+
+    /**
+     * Maximum duration of a status change wait in ms, the latency to start monitoring a new
+     * reader
+     */
+    private final long waitTimeout;
+
+    private MonitoringThread thread;
+
+    /**
+     * Constructor with the default status change wait timeout (1 s)
+     */
+    public PcscPresenceMonitor() {
+        this(WAIT_TIMEOUT_DEFAULT);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param waitTimeout maximum duration of a status change wait in ms
+     */
+    public PcscPresenceMonitor(long waitTimeout) {
+        if (waitTimeout <= 0) {
+            throw new IllegalArgumentException("Timeout has to be of at least 1ms");
+        }
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * The monitoring thread is started when the first reader is registered
+     */
+    @Override
+    protected synchronized void readerRegistered(AbstractThreadedLocalReader reader) {
+        if (thread == null) {
+            thread = new MonitoringThread();
+            thread.start();
+        }
+    }
+
+    /**
+     * The monitoring thread is ended when the last reader is unregistered
+     */
+    @Override
+    protected synchronized void readerUnregistered(AbstractThreadedLocalReader reader) {
+        if (getReaderCount() == 0 && thread != null) {
+            thread.end();
+            thread = null;
+        }
+    }
+
+    /**
+     * Thread checking the presence in all the monitored readers after each status change
+     */
+    private class MonitoringThread extends Thread {
+        private volatile boolean running = true;
+
+        MonitoringThread() {
+            super("pcsc-presence-monitor");
+            setDaemon(true);
+        }
+
+        void end() {
+            running = false;
+            this.interrupt();
+        }
+
+        public void run() {
+            /* the status changes are tracked by the CardTerminals object between two waits */
+            CardTerminals terminals = PcscPlugin.getInstance().getCardTerminals();
+            while (running) {
+                try {
+                    for (AbstractThreadedLocalReader reader : getReaders()) {
+                        checkPresence(reader);
+                    }
+                    terminals.waitForChange(waitTimeout);
+                } catch (CardException e) {
+                    /* e.g. no reader available, retry later */
+                    logger.trace("Exception occurred while waiting for a status change: {}",
+                            e.getMessage());
+                    try {
+                        Thread.sleep(waitTimeout);
+                    } catch (InterruptedException ie) {
+                        logger.trace("PC/SC presence monitor interrupted");
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Error while monitoring the PC/SC readers", e);
+                }
+            }
+        }
+    }
+}
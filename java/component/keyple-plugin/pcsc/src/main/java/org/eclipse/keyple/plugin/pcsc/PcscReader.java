@@ -13,13 +13,13 @@ package org.eclipse.keyple.plugin.pcsc;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.regex.Pattern;
 import javax.smartcardio.*;
 import org.eclipse.keyple.core.seproxy.exception.*;
 import org.eclipse.keyple.core.seproxy.plugin.AbstractThreadedLocalReader;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.core.util.RegexMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -190,17 +190,17 @@ public final class PcscReader extends AbstractThreadedLocalReader {
                 openPhysicalChannel();
             }
             // the requestSet will be executed only if the protocol match the requestElement
-            String selectionMask = protocolsMap.get(protocolFlag);
+            RegexMatcher selectionMask = getProtocolMatcher(protocolFlag);
             if (selectionMask == null) {
                 throw new KeypleReaderException("Target selector mask not found!", null);
             }
-            Pattern p = Pattern.compile(selectionMask);
-            String atr = ByteArrayUtil.toHex(card.getATR().getBytes());
-            if (!p.matcher(atr).matches()) {
+            byte[] atr = card.getATR().getBytes();
+            if (!selectionMask.matchesHex(atr)) {
                 if (logging) {
                     logger.trace(
                             "[{}] protocolFlagMatches => unmatching SE. PROTOCOLFLAG = {}, ATR = {}, MASK = {}",
-                            this.getName(), protocolFlag, atr, selectionMask);
+                            this.getName(), protocolFlag, ByteArrayUtil.toHex(atr),
+                            selectionMask.getRegex());
                 }
                 result = false;
             } else {
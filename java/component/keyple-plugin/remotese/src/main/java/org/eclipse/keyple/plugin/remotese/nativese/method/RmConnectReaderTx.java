@@ -22,6 +22,7 @@ import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
 import org.eclipse.keyple.plugin.remotese.nativese.INativeReaderService;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTx;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
@@ -107,6 +108,8 @@ public class RmConnectReaderTx extends RemoteMethodTx<String> {
         JsonObject body = new JsonObject();
         body.addProperty("transmissionMode", localReader.getTransmissionMode().name());
         body.addProperty("options", JsonParser.getGson().toJson(options));
+        // codecs supported by this node for the transmissions
+        body.addProperty("dtoCodecs", DtoCodecs.SUPPORTED_CODECS);
 
         return KeypleDtoHelper.buildRequest(getMethodName().getName(), body.toString(), null,
                 localReader.getName(), null, requesterNodeId, targetNodeId, id);
@@ -16,7 +16,8 @@ import org.eclipse.keyple.core.seproxy.message.*;
 import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodExecutor;
-import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodec;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
 import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
@@ -49,7 +50,9 @@ public class RmTransmitExecutor implements RemoteMethodExecutor {
         SeResponse seResponse = null;
 
         // Extract info from keypleDto
-        SeRequest seRequest = JsonParser.getGson().fromJson(keypleDto.getBody(), SeRequest.class);
+        // the response is encoded with the codec of the request
+        DtoCodec dtoCodec = DtoCodecs.forBody(keypleDto.getBody());
+        SeRequest seRequest = dtoCodec.decodeBody(keypleDto.getBody(), SeRequest.class);
         String nativeReaderName = keypleDto.getNativeReaderName();
         logger.trace("Execute locally seRequest : {}", seRequest);
 
@@ -61,7 +64,7 @@ public class RmTransmitExecutor implements RemoteMethodExecutor {
             seResponse = reader.transmit(seRequest);
 
             // prepare response
-            String parseBody = JsonParser.getGson().toJson(seResponse, SeResponse.class);
+            String parseBody = dtoCodec.encodeBody(seResponse, SeResponse.class);
             out = transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
                     getMethodName().getName(), parseBody, keypleDto.getSessionId(),
                     nativeReaderName, keypleDto.getVirtualReaderName(), keypleDto.getTargetNodeId(),
@@ -18,7 +18,8 @@ import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
 import org.eclipse.keyple.plugin.remotese.nativese.SlaveAPI;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodExecutor;
-import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodec;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
 import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
@@ -49,8 +50,9 @@ public class RmTransmitSetExecutor implements RemoteMethodExecutor {
         SeResponseSet seResponseSet = null;
 
         // Extract info from keypleDto
-        SeRequestSet seRequestSet =
-                JsonParser.getGson().fromJson(keypleDto.getBody(), SeRequestSet.class);
+        // the response is encoded with the codec of the request
+        DtoCodec dtoCodec = DtoCodecs.forBody(keypleDto.getBody());
+        SeRequestSet seRequestSet = dtoCodec.decodeBody(keypleDto.getBody(), SeRequestSet.class);
         String nativeReaderName = keypleDto.getNativeReaderName();
         logger.trace("Execute locally seRequestSet : {}", seRequestSet);
 
@@ -62,7 +64,7 @@ public class RmTransmitSetExecutor implements RemoteMethodExecutor {
             seResponseSet = reader.transmitSet(seRequestSet);
 
             // prepare response
-            String parseBody = JsonParser.getGson().toJson(seResponseSet, SeResponseSet.class);
+            String parseBody = dtoCodec.encodeBody(seResponseSet, SeResponseSet.class);
             out = transportDto.nextTransportDTO(KeypleDtoHelper.buildResponse(
                     getMethodName().getName(), parseBody, keypleDto.getSessionId(),
                     nativeReaderName, keypleDto.getVirtualReaderName(), keypleDto.getTargetNodeId(),
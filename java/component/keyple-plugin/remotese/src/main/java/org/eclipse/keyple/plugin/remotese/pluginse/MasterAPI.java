@@ -13,8 +13,6 @@ package org.eclipse.keyple.plugin.remotese.pluginse;
 
 
 import org.eclipse.keyple.core.seproxy.SeProxyService;
-import org.eclipse.keyple.core.seproxy.SeReader;
-import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
 import org.eclipse.keyple.plugin.remotese.transport.*;
@@ -187,7 +185,7 @@ public class MasterAPI implements DtoHandler {
                 // dispatch dto to the appropriate reader
                 try {
                     // find reader by sessionId
-                    VirtualReader reader = getReaderBySessionId(keypleDTO.getSessionId());
+                    VirtualReader reader = plugin.getReaderBySessionId(keypleDTO.getSessionId());
 
                     // process response with the reader rmtx engine
                     return reader.getRmTxEngine().onDTO(transportDto);
@@ -198,9 +196,6 @@ public class MasterAPI implements DtoHandler {
                             "Virtual Reader was not found while receiving a "
                                     + keypleDTO.getAction() + " response",
                             e);
-                } catch (KeypleReaderException e) {
-                    // reader not found;
-                    throw new IllegalStateException("Readers list has not been initiated", e);
                 }
 
             case POOL_ALLOCATE_READER:
@@ -226,23 +221,4 @@ public class MasterAPI implements DtoHandler {
     }
 
 
-
-    /**
-     * Retrieve reader by its session Id
-     * 
-     * @param sessionId : sessionId which virtual reader is tight to
-     * @return VirtualReader matching the sessionId
-     * @throws KeypleReaderNotFoundException : if none reader was found
-     */
-    private VirtualReader getReaderBySessionId(String sessionId) throws KeypleReaderException {
-        for (SeReader reader : plugin.getReaders()) {
-
-            if (((VirtualReader) reader).getSession().getSessionId().equals(sessionId)) {
-                return (VirtualReader) reader;
-            }
-        }
-        throw new KeypleReaderNotFoundException(
-                "Reader session was not found for session : " + sessionId);
-    }
-
 }
@@ -14,7 +14,9 @@ package org.eclipse.keyple.plugin.remotese.pluginse;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import org.eclipse.keyple.core.seproxy.event.PluginEvent;
 import org.eclipse.keyple.core.seproxy.event.ReaderEvent;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
@@ -24,6 +26,8 @@ import org.eclipse.keyple.core.seproxy.plugin.AbstractObservablePlugin;
 import org.eclipse.keyple.core.seproxy.plugin.AbstractObservableReader;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxEngine;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodec;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +42,14 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
     private static final Logger logger = LoggerFactory.getLogger(RemoteSePlugin.class);
     public static final String DEFAULT_PLUGIN_NAME = "RemoteSePlugin";
 
+    /**
+     * Parameter: names of the {@link org.eclipse.keyple.plugin.remotese.transport.DtoCodec}
+     * accepted for the transmissions with the slaves, in the order of preference (comma
+     * separated). The codec of each virtual reader is negotiated with its slave when it connects.
+     * Default: {@link DtoCodecs#DEFAULT_CODECS}.
+     */
+    public static final String PARAMETER_DTO_CODECS = "dto_codecs";
+
     // in milliseconds, throw an exception if slave hasn't answer during this time
     public final long rpc_timeout;
 
@@ -47,6 +59,10 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
     protected final DtoSender dtoSender;
     private final Map<String, String> parameters;
 
+    // index of the virtual readers by session id, to dispatch the responses of the slaves
+    private final ConcurrentMap<String, VirtualReader> readersBySessionId =
+            new ConcurrentHashMap<String, VirtualReader>();
+
     /**
      * Only {@link MasterAPI} can instanciate a RemoteSePlugin
      */
@@ -57,6 +73,7 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
         logger.info("Init RemoteSePlugin");
         this.dtoSender = dtoSender;
         this.parameters = new HashMap<String, String>();
+        this.parameters.put(PARAMETER_DTO_CODECS, DtoCodecs.DEFAULT_CODECS);
         this.rpc_timeout = rpc_timeout;
     }
 
@@ -70,21 +87,47 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
      */
     public VirtualReader getReaderByRemoteName(String remoteName, String slaveNodeId)
             throws KeypleReaderNotFoundException {
-        for (AbstractObservableReader virtualReader : readers) {
-            if (((VirtualReader) virtualReader).getName()
-                    .equals(RemoteSePlugin.generateReaderName(remoteName, slaveNodeId))) {
-                return (VirtualReader) virtualReader;
-            }
+        try {
+            return (VirtualReader) getReader(generateReaderName(remoteName, slaveNodeId));
+        } catch (KeypleReaderNotFoundException e) {
+            throw new KeypleReaderNotFoundException(remoteName);
         }
-        throw new KeypleReaderNotFoundException(remoteName);
     }
 
     /**
-     * Create a virtual reader (internal method)
+     * Retrieve a reader by its session id (internal method)
+     *
+     * @param sessionId : session id of the virtual reader
+     * @return corresponding Virtual reader if exists
+     * @throws KeypleReaderNotFoundException if no virtual reader match the session id
+     */
+    VirtualReader getReaderBySessionId(String sessionId) throws KeypleReaderNotFoundException {
+        VirtualReader virtualReader = sessionId != null ? readersBySessionId.get(sessionId) : null;
+        if (virtualReader == null) {
+            throw new KeypleReaderNotFoundException(
+                    "Reader session was not found for session : " + sessionId);
+        }
+        return virtualReader;
+    }
+
+    /**
+     * Create a virtual reader using the json codec (internal method)
      */
     ProxyReader createVirtualReader(String slaveNodeId, String nativeReaderName,
             DtoSender dtoSender, TransmissionMode transmissionMode, Map<String, String> options)
             throws KeypleReaderException {
+        return createVirtualReader(slaveNodeId, nativeReaderName, dtoSender, transmissionMode,
+                options, null);
+    }
+
+    /**
+     * Create a virtual reader (internal method)
+     *
+     * @param slaveDtoCodecs : names of the codecs supported by the slave, null if not advertised
+     */
+    ProxyReader createVirtualReader(String slaveNodeId, String nativeReaderName,
+            DtoSender dtoSender, TransmissionMode transmissionMode, Map<String, String> options,
+            String slaveDtoCodecs) throws KeypleReaderException {
         logger.debug("createVirtualReader for slaveNodeId {} and reader {}", slaveNodeId,
                 nativeReaderName);
 
@@ -109,10 +152,13 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
         // Create virtual reader with a remote method engine so the reader can send dto
         // with a session
         // and the provided name
+        DtoCodec dtoCodec =
+                DtoCodecs.negotiate(parameters.get(PARAMETER_DTO_CODECS), slaveDtoCodecs);
         final VirtualReader virtualReader = new VirtualReader(session, nativeReaderName,
                 new RemoteMethodTxEngine(dtoSender, rpc_timeout), slaveNodeId, transmissionMode,
-                options);
-        readers.add(virtualReader);
+                options, dtoCodec);
+        addReader(virtualReader);
+        readersBySessionId.put(session.getSessionId(), virtualReader);
 
         // notify that a new reader is connected in a separated thread
         /*
@@ -144,7 +190,8 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
         virtualReader.clearObservers();
 
         // remove reader
-        readers.remove(virtualReader);
+        readersBySessionId.remove(virtualReader.getSession().getSessionId(), virtualReader);
+        removeReader(virtualReader);
 
         // send event READER_DISCONNECTED in a separate thread
         // new Thread() {public void run() { }}.start();
@@ -169,11 +216,11 @@ public class RemoteSePlugin extends AbstractObservablePlugin {
 
 
     /**
-     * Init Native Readers to empty Set
+     * Init Native Readers to empty Set, safe for the concurrent connections of the slaves
      */
     @Override
     protected SortedSet<AbstractObservableReader> initNativeReaders() {
-        return new TreeSet<AbstractObservableReader>();
+        return new ConcurrentSkipListSet<AbstractObservableReader>();
     }
 
     /**
@@ -58,6 +58,8 @@ class RmConnectReaderExecutor implements RemoteMethodExecutor {
         String tranmissionMode = body.get("transmissionMode").getAsString();
         Map<String, String> options =
                 JsonParser.getGson().fromJson(body.get("options").getAsString(), Map.class);
+        // codecs supported by the slave, not advertised by the older slaves
+        String dtoCodecs = body.has("dtoCodecs") ? body.get("dtoCodecs").getAsString() : null;
 
 
         VirtualReader virtualReader = null;
@@ -65,7 +67,8 @@ class RmConnectReaderExecutor implements RemoteMethodExecutor {
             // create a virtual Reader
             virtualReader =
                     (VirtualReader) this.plugin.createVirtualReader(slaveNodeId, nativeReaderName,
-                            this.dtoSender, TransmissionMode.valueOf(tranmissionMode), options);
+                            this.dtoSender, TransmissionMode.valueOf(tranmissionMode), options,
+                            dtoCodecs);
 
 
             // create response
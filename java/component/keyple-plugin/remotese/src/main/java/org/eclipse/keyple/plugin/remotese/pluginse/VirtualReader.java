@@ -28,6 +28,8 @@ import org.eclipse.keyple.plugin.remotese.pluginse.method.RmSetDefaultSelectionR
 import org.eclipse.keyple.plugin.remotese.pluginse.method.RmTransmitSetTx;
 import org.eclipse.keyple.plugin.remotese.pluginse.method.RmTransmitTx;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxEngine;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxFuture;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +44,7 @@ public final class VirtualReader extends AbstractObservableReader {
     private final RemoteMethodTxEngine rmTxEngine;
     private final String slaveNodeId;
     private final TransmissionMode transmissionMode;
+    private final DtoCodec dtoCodec;
 
     private static final Logger logger = LoggerFactory.getLogger(VirtualReader.class);
 
@@ -54,10 +57,11 @@ public final class VirtualReader extends AbstractObservableReader {
      * @param nativeReaderName : native reader name on slave terminal
      * @param rmTxEngine : processor for remote method
      * @param transmissionMode : transmission mode of the native reader on slave terminal
+     * @param dtoCodec : codec negotiated with the slave for the transmissions
      */
     VirtualReader(VirtualReaderSession session, String nativeReaderName,
             RemoteMethodTxEngine rmTxEngine, String slaveNodeId, TransmissionMode transmissionMode,
-            Map<String, String> options) {
+            Map<String, String> options, DtoCodec dtoCodec) {
         super(RemoteSePlugin.DEFAULT_PLUGIN_NAME,
                 RemoteSePlugin.generateReaderName(nativeReaderName, slaveNodeId));
         this.session = session;
@@ -66,9 +70,10 @@ public final class VirtualReader extends AbstractObservableReader {
         this.slaveNodeId = slaveNodeId;
         this.transmissionMode = transmissionMode;
         this.parameters = options;
+        this.dtoCodec = dtoCodec;
         logger.info(
-                "A new virtual reader was created with name:{}, sessionId:{}, transmissionMode:{}, options:{}",
-                name, session, transmissionMode, options);
+                "A new virtual reader was created with name:{}, sessionId:{}, transmissionMode:{}, options:{}, dtoCodec:{}",
+                name, session, transmissionMode, options, dtoCodec.getName());
     }
 
     /**
@@ -87,6 +92,15 @@ public final class VirtualReader extends AbstractObservableReader {
         return nativeReaderName;
     }
 
+    /**
+     * Codec used for the transmissions with the native reader, negotiated with the slave
+     *
+     * @return codec of the transmissions
+     */
+    public DtoCodec getDtoCodec() {
+        return dtoCodec;
+    }
+
     VirtualReaderSession getSession() {
         return session;
     }
@@ -116,7 +130,7 @@ public final class VirtualReader extends AbstractObservableReader {
 
         RmTransmitSetTx transmit = new RmTransmitSetTx(seRequestSet, session.getSessionId(),
                 this.getNativeReaderName(), this.getName(), session.getMasterNodeId(),
-                session.getSlaveNodeId());
+                session.getSlaveNodeId(), dtoCodec);
         try {
             rmTxEngine.add(transmit);
 
@@ -148,7 +162,8 @@ public final class VirtualReader extends AbstractObservableReader {
 
         RmTransmitTx transmit =
                 new RmTransmitTx(seRequest, session.getSessionId(), this.getNativeReaderName(),
-                        this.getName(), session.getMasterNodeId(), session.getSlaveNodeId());
+                        this.getName(), session.getMasterNodeId(), session.getSlaveNodeId(),
+                        dtoCodec);
         try {
             rmTxEngine.add(transmit);
 
@@ -161,6 +176,43 @@ public final class VirtualReader extends AbstractObservableReader {
 
     }
 
+    /**
+     * Non blocking TransmitSet: the request is sent by the calling thread and the returned handle
+     * is completed when the response is received from the slave.
+     * <p>
+     * In case of failure, the exception given to the handle is a {@link KeypleRemoteException}
+     * whose cause is the {@link KeypleReaderException} thrown by the native reader, if any.
+     *
+     * @param seRequestSet : SeRequestSet to be transmitted to SE
+     * @return the handle on the SeResponseSet from SE
+     */
+    public RemoteMethodTxFuture<SeResponseSet> transmitSetAsync(SeRequestSet seRequestSet) {
+        RmTransmitSetTx transmit = new RmTransmitSetTx(seRequestSet, session.getSessionId(),
+                this.getNativeReaderName(), this.getName(), session.getMasterNodeId(),
+                session.getSlaveNodeId(), dtoCodec);
+        rmTxEngine.add(transmit);
+        return transmit.getResponseAsync();
+    }
+
+    /**
+     * Non blocking Transmit: the request is sent by the calling thread and the returned handle is
+     * completed when the response is received from the slave.
+     * <p>
+     * In case of failure, the exception given to the handle is a {@link KeypleRemoteException}
+     * whose cause is the {@link KeypleReaderException} thrown by the native reader, if any.
+     *
+     * @param seRequest : SeRequest to be transmitted to SE
+     * @return the handle on the SeResponse from SE
+     */
+    public RemoteMethodTxFuture<SeResponse> transmitAsync(SeRequest seRequest) {
+        RmTransmitTx transmit =
+                new RmTransmitTx(seRequest, session.getSessionId(), this.getNativeReaderName(),
+                        this.getName(), session.getMasterNodeId(), session.getSlaveNodeId(),
+                        dtoCodec);
+        rmTxEngine.add(transmit);
+        return transmit.getResponseAsync();
+    }
+
     @Override
     protected void startObservation() {
         logger.trace("startObservation is not used in this plugin");
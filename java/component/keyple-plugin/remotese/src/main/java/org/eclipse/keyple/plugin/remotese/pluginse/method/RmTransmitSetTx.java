@@ -17,6 +17,8 @@ import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
 import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTx;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodec;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
@@ -31,6 +33,7 @@ public class RmTransmitSetTx extends RemoteMethodTx<SeResponseSet> {
     private static final Logger logger = LoggerFactory.getLogger(RmTransmitSetTx.class);
 
     private final SeRequestSet seRequestSet;
+    private final DtoCodec dtoCodec;
 
     @Override
     public RemoteMethod getMethodName() {
@@ -39,14 +42,25 @@ public class RmTransmitSetTx extends RemoteMethodTx<SeResponseSet> {
 
     public RmTransmitSetTx(SeRequestSet seRequestSet, String sessionId, String nativeReaderName,
             String virtualReaderName, String requesterNodeId, String slaveNodeId) {
+        this(seRequestSet, sessionId, nativeReaderName, virtualReaderName, requesterNodeId,
+                slaveNodeId, DtoCodecs.json());
+    }
+
+    /**
+     * @param dtoCodec : codec used to encode the request, negotiated with the slave
+     */
+    public RmTransmitSetTx(SeRequestSet seRequestSet, String sessionId, String nativeReaderName,
+            String virtualReaderName, String requesterNodeId, String slaveNodeId,
+            DtoCodec dtoCodec) {
         super(sessionId, nativeReaderName, virtualReaderName, slaveNodeId, requesterNodeId);
         this.seRequestSet = seRequestSet;
+        this.dtoCodec = dtoCodec;
     }
 
     @Override
     public KeypleDto dto() {
         return KeypleDtoHelper.buildRequest(getMethodName().getName(),
-                JsonParser.getGson().toJson(seRequestSet, SeRequestSet.class), this.sessionId,
+                dtoCodec.encodeBody(seRequestSet, SeRequestSet.class), this.sessionId,
                 this.nativeReaderName, this.virtualReaderName, requesterNodeId, targetNodeId, id);
     }
 
@@ -63,7 +77,9 @@ public class RmTransmitSetTx extends RemoteMethodTx<SeResponseSet> {
                     "An exception occurs while calling the remote method transmitSet", ex);
         } else {
             logger.trace("KeypleDto contains a response: {}", keypleDto);
-            return JsonParser.getGson().fromJson(keypleDto.getBody(), SeResponseSet.class);
+            // the slave answers with the codec of the request
+            return DtoCodecs.forBody(keypleDto.getBody()).decodeBody(keypleDto.getBody(),
+                    SeResponseSet.class);
         }
     }
 
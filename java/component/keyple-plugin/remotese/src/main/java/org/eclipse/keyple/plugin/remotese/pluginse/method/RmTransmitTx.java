@@ -17,6 +17,8 @@ import org.eclipse.keyple.core.seproxy.message.SeResponse;
 import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethod;
 import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTx;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodec;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodecs;
 import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
@@ -31,6 +33,7 @@ public class RmTransmitTx extends RemoteMethodTx<SeResponse> {
     private static final Logger logger = LoggerFactory.getLogger(RmTransmitTx.class);
 
     private final SeRequest seRequest;
+    private final DtoCodec dtoCodec;
 
     @Override
     public RemoteMethod getMethodName() {
@@ -39,14 +42,25 @@ public class RmTransmitTx extends RemoteMethodTx<SeResponse> {
 
     public RmTransmitTx(SeRequest seRequest, String sessionId, String nativeReaderName,
             String virtualReaderName, String requesterNodeId, String slaveNodeId) {
+        this(seRequest, sessionId, nativeReaderName, virtualReaderName, requesterNodeId,
+                slaveNodeId, DtoCodecs.json());
+    }
+
+    /**
+     * @param dtoCodec : codec used to encode the request, negotiated with the slave
+     */
+    public RmTransmitTx(SeRequest seRequest, String sessionId, String nativeReaderName,
+            String virtualReaderName, String requesterNodeId, String slaveNodeId,
+            DtoCodec dtoCodec) {
         super(sessionId, nativeReaderName, virtualReaderName, slaveNodeId, requesterNodeId);
         this.seRequest = seRequest;
+        this.dtoCodec = dtoCodec;
     }
 
     @Override
     public KeypleDto dto() {
         return KeypleDtoHelper.buildRequest(getMethodName().getName(),
-                JsonParser.getGson().toJson(seRequest, SeRequest.class), this.sessionId,
+                dtoCodec.encodeBody(seRequest, SeRequest.class), this.sessionId,
                 this.nativeReaderName, this.virtualReaderName, requesterNodeId, targetNodeId, id);
     }
 
@@ -63,7 +77,9 @@ public class RmTransmitTx extends RemoteMethodTx<SeResponse> {
                     "An exception occurs while calling the remote method transmitSet", ex);
         } else {
             logger.trace("KeypleDto contains a response: {}", keypleDto);
-            return JsonParser.getGson().fromJson(keypleDto.getBody(), SeResponse.class);
+            // the slave answers with the codec of the request
+            return DtoCodecs.forBody(keypleDto.getBody()).decodeBody(keypleDto.getBody(),
+                    SeResponse.class);
         }
     }
 
@@ -12,8 +12,6 @@
 package org.eclipse.keyple.plugin.remotese.rm;
 
 import java.util.UUID;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
 import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
@@ -35,7 +33,7 @@ public abstract class RemoteMethodTx<T> {
     protected final String targetNodeId;
     protected final String requesterNodeId;
     protected final String id;
-    protected Boolean isRegistered;
+    protected Boolean isRegistered = false;
 
     // response
     private T response;
@@ -43,11 +41,13 @@ public abstract class RemoteMethodTx<T> {
     // exception thrown if any
     private KeypleRemoteException remoteException;
 
-    // blocking mechanism
-    private CountDownLatch lock;
+    // completion mechanism
     private RemoteMethodTxCallback<T> callback;
     private long timeout;
 
+    // completion state, guarded by this
+    private boolean isDone;
+
     private DtoSender sender;
 
     protected RemoteMethodTx(String sessionId, String nativeReaderName, String virtualReaderName,
@@ -71,6 +71,19 @@ public abstract class RemoteMethodTx<T> {
         this.timeout = timeout;
     }
 
+    long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Correlation id of this call, shared by the request and the response keypleDto
+     *
+     * @return id of the call
+     */
+    public String getId() {
+        return id;
+    }
+
     /**
      * Internal method to set manually the keypleDto response To be called by the tx manager
      */
@@ -89,7 +102,16 @@ public abstract class RemoteMethodTx<T> {
      * @param callback
      */
     public void send(RemoteMethodTxCallback<T> callback) throws KeypleRemoteException {
-        this.callback = callback;
+        boolean isAlreadyDone;
+        synchronized (this) {
+            this.callback = callback;
+            isAlreadyDone = isDone;
+        }
+        if (isAlreadyDone) {
+            // timeout elapsed before the sending
+            callback.get(response, remoteException);
+            return;
+        }
         sender.sendDTO(this.dto());
     }
 
@@ -97,65 +119,42 @@ public abstract class RemoteMethodTx<T> {
     /**
      * Blocking method to getResponse results from the remote method call. To be called by the
      * client (used internally by rmCommands, do not use)
+     * <p>
+     * The request is sent by the calling thread, which then waits for the answer.
      *
      * @return T : result of the command
-     * @throws KeypleRemoteException : if an
+     * @throws KeypleRemoteException : if the remote method failed or if no answer has been
+     *         received in time
      */
     final public T getResponse() throws KeypleRemoteException {
+        logger.debug("Blocking Get {}", this.getClass().getCanonicalName());
+        /*
+         * the timeout is enforced by the RemoteMethodTxEngine which completes the call with an
+         * exception when no answer has been received
+         */
+        return getResponseAsync().getResponse();
+    }
+
+    /**
+     * Non blocking method to get the result of the remote method call. The request is sent by the
+     * calling thread, the returned handle is completed when the answer is received (or when the
+     * timeout elapses).
+     *
+     * @return the handle on the result of the call
+     */
+    final public RemoteMethodTxFuture<T> getResponseAsync() {
         if (!isRegistered) {
             throw new IllegalStateException(
                     "RemoteMethodTx#getResponse() can not be used until RemoteMethod is isRegistered in a RemoteMethodEngine, please call RemoteMethodEngine#register");
         }
-        logger.debug("Blocking Get {}", this.getClass().getCanonicalName());
-        final RemoteMethodTx thisInstance = this;
-
-        Thread asyncSend = new Thread() {
-            public void run() {
-                try {
-                    send(new RemoteMethodTxCallback<T>() {
-                        @Override
-                        public void get(T response, KeypleRemoteException exception) {
-                            logger.debug("release lock");
-                            lock.countDown();
-                        }
-                    });
-                } catch (KeypleRemoteException e) {
-                    logger.error("Exception while sending Dto", e);
-                    thisInstance.remoteException = e;
-                    lock.countDown();
-                }
-            }
-        };
-
+        RemoteMethodTxFuture<T> future = new RemoteMethodTxFuture<T>();
         try {
-            lock = new CountDownLatch(1);
-            logger.trace("" + "" + "Set callback on RemoteMethodTx {} {}",
-                    this.getClass().getCanonicalName(), this.hashCode());
-            asyncSend.start();
-            logger.trace("Lock {}, {}", this.getClass().getCanonicalName(), this.hashCode());
-            boolean responseReceived = lock.await(timeout, TimeUnit.MILLISECONDS);
-
-            if (responseReceived) {
-                logger.trace("Unlock {}, {}", this.getClass().getCanonicalName(), this.hashCode());
-                if (this.remoteException != null) {
-                    throw remoteException;
-                } else {
-                    return response;
-                }
-            } else {
-                /*
-                 * timeout, no answer has been received
-                 */
-                throw new KeypleRemoteException(
-                        "Waiting time elapsed, no answer received from the other node for method "
-                                + this.getClass().getCanonicalName());
-            }
-
-
-        } catch (InterruptedException e) {
-            throw new IllegalStateException(
-                    "Thread locking in blocking transmitSet has encountered an exception", e);
+            send(future);
+        } catch (KeypleRemoteException e) {
+            logger.error("Exception while sending Dto", e);
+            complete(null, e);
         }
+        return future;
     }
 
     /**
@@ -165,11 +164,48 @@ public abstract class RemoteMethodTx<T> {
      */
     void setResponse(KeypleDto keypleDto) {
         try {
-            this.response = parseResponse(keypleDto);
-            this.callback.get(response, null);
+            complete(parseResponse(keypleDto), null);
         } catch (KeypleRemoteException e) {
-            this.remoteException = e;
-            this.callback.get(null, e);
+            complete(null, e);
+        }
+    }
+
+    /**
+     * Completes the call with an exception when no answer has been received in time
+     */
+    void setTimeoutElapsed() {
+        complete(null, new KeypleRemoteException(
+                "Waiting time elapsed, no answer received from the other node for method "
+                        + this.getClass().getCanonicalName()));
+    }
+
+    /**
+     * Check if the call has been completed (response, exception or timeout)
+     *
+     * @return true if completed
+     */
+    synchronized boolean isDone() {
+        return isDone;
+    }
+
+    /**
+     * Sets the result of the call and calls the callback if already defined. Only the first result
+     * is kept, the next ones (late response after a timeout) are ignored.
+     */
+    private void complete(T response, KeypleRemoteException exception) {
+        RemoteMethodTxCallback<T> callback;
+        synchronized (this) {
+            if (isDone) {
+                logger.debug("RemoteMethodTx {} already completed, result ignored", id);
+                return;
+            }
+            this.response = response;
+            this.remoteException = exception;
+            isDone = true;
+            callback = this.callback;
+        }
+        if (callback != null) {
+            callback.get(response, exception);
         }
     }
 
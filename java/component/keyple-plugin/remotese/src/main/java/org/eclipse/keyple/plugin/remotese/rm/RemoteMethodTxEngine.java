@@ -11,6 +11,9 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.rm;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.*;
 import org.eclipse.keyple.plugin.remotese.transport.*;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
@@ -20,16 +23,41 @@ import org.slf4j.LoggerFactory;
 
 
 /**
- * Manages the transaction (request/response) for remote method invocation It holds
- * the @{@link RemoteMethodTx} untils the answer is received
+ * Manages the transactions (request/response) for remote method invocation. It holds the
+ * {@link RemoteMethodTx} until their answer is received.
+ * <p>
+ * Several transactions may be in progress at the same time: the responses are matched to their
+ * request by the id of the keypleDto (correlation id), whatever their order of arrival. The engine
+ * is thread safe.
+ * <p>
+ * The timeouts of the transactions are checked by a single timer thread shared by all the
+ * engines, the transactions whose answer has not been received in time are completed with a
+ * {@link org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException}.
  */
 public class RemoteMethodTxEngine implements DtoHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(RemoteMethodTxEngine.class);
 
+    // maximum period of the timeout checks, in milliseconds
+    private static final long MAX_SWEEP_PERIOD = 100;
 
-    // waiting transaction, supports only one at the time
-    private RemoteMethodTx remoteMethodTx;
+    // timer shared by all the engines to check the timeouts
+    private static final ScheduledExecutorService timeoutTimer =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "RemoteMethodTxEngine-timeout");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    // waiting transactions: rm id, rm
+    private final ConcurrentMap<String, PendingTx> pendingTxs =
+            new ConcurrentHashMap<String, PendingTx>();
+
+    // true when a timeout check is scheduled, guarded by pendingTxs
+    private boolean isSweepScheduled;
 
     // Dto Sender
     private final DtoSender sender;
@@ -37,15 +65,31 @@ public class RemoteMethodTxEngine implements DtoHandler {
     // timeout to wait for the answer, in milliseconds
     private final long timeout;
 
+    // period of the timeout checks, in milliseconds
+    private final long sweepPeriod;
+
+    /**
+     * Transaction waiting for its answer
+     */
+    private static class PendingTx {
+        private final RemoteMethodTx rm;
+        private final long deadline; // System.nanoTime()
+
+        private PendingTx(RemoteMethodTx rm, long deadline) {
+            this.rm = rm;
+            this.deadline = deadline;
+        }
+    }
+
     /**
      *
      * @param sender : dtosender used to send the keypleDto
      * @param timeout : timeout to wait for the answer, in milliseconds
      */
     public RemoteMethodTxEngine(DtoSender sender, long timeout) {
-        // this.queue = new LinkedList<RemoteMethodTx>();
         this.sender = sender;
         this.timeout = timeout;
+        this.sweepPeriod = Math.max(1, Math.min(timeout, MAX_SWEEP_PERIOD));
     }
 
 
@@ -67,41 +111,99 @@ public class RemoteMethodTxEngine implements DtoHandler {
         /*
          * Check that KeypleDto is a Response
          */
-        if (message.getKeypleDTO().isRequest()) {
+        if (keypleDto.isRequest()) {
             throw new IllegalArgumentException(
                     "RemoteMethodTxEngine expects a KeypleDto response. " + keypleDto);
         }
+
         /*
-         * Check that a request has been made previously
+         * Find the request matching the response
          */
-        if (remoteMethodTx == null) {
+        PendingTx pendingTx =
+                keypleDto.getId() != null ? pendingTxs.remove(keypleDto.getId()) : null;
+        if (pendingTx == null) {
             /*
-             * Should not happen, response received does not match a request. Ignore it
+             * Response received does not match a waiting request (unknown id or timeout already
+             * elapsed). Ignore it
              */
             logger.error(
-                    "RemoteMethodTxEngine receives a KeypleDto response but no remoteMethodTx are defined : "
+                    "RemoteMethodTxEngine receives a KeypleDto response but no matching remoteMethodTx is waiting : "
                             + keypleDto);
+        } else {
+            pendingTx.rm.setResponse(keypleDto);
         }
 
-        // only one operation is allowed at the time
-        remoteMethodTx.setResponse(keypleDto);
-
-        // re init remoteMethod
-        remoteMethodTx = null;
-
         return message.nextTransportDTO(KeypleDtoHelper.NoResponse(keypleDto.getId()));
     }
 
     /**
-     * Add RemoteMethod to executing stack
+     * Add RemoteMethod to executing stack, the timeout starts
      * 
      * @param rm : RemoteMethodTx to be executed
      */
     public void add(final RemoteMethodTx rm) {
         logger.debug("Register rm to engine : {}", rm);
         rm.setRegistered(true);
-        remoteMethodTx = rm;
         rm.setDtoSender(sender);
         rm.setTimeout(timeout);
+        pendingTxs.put(rm.getId(),
+                new PendingTx(rm, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout)));
+        scheduleSweep();
+    }
+
+    /**
+     * Number of transactions waiting for their answer
+     *
+     * @return number of pending transactions
+     */
+    public int getPendingTxCount() {
+        return pendingTxs.size();
+    }
+
+    /**
+     * Schedules a timeout check if none is scheduled yet
+     */
+    private void scheduleSweep() {
+        synchronized (pendingTxs) {
+            if (isSweepScheduled) {
+                return;
+            }
+            isSweepScheduled = true;
+        }
+        timeoutTimer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                sweep();
+            }
+        }, sweepPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Completes the expired transactions, reschedules a check while transactions are waiting
+     */
+    private void sweep() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, PendingTx>> iterator = pendingTxs.entrySet().iterator();
+        while (iterator.hasNext()) {
+            PendingTx pendingTx = iterator.next().getValue();
+            if (pendingTx.rm.isDone()) {
+                // failed while sending
+                iterator.remove();
+            } else if (now - pendingTx.deadline >= 0) {
+                iterator.remove();
+                logger.warn("Timeout elapsed for remoteMethodTx {}", pendingTx.rm.getId());
+                try {
+                    pendingTx.rm.setTimeoutElapsed();
+                } catch (RuntimeException e) {
+                    logger.error("Exception in the callback of remoteMethodTx", e);
+                }
+            }
+        }
+        synchronized (pendingTxs) {
+            isSweepScheduled = false;
+        }
+        if (!pendingTxs.isEmpty()) {
+            scheduleSweep();
+        }
     }
 }
@@ -0,0 +1,153 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.rm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Handle on the result of a {@link RemoteMethodTx} sent asynchronously.
+ * <p>
+ * The result can be waited for with {@link #get()} or {@link #getResponse()}, or processed without
+ * blocking any thread by adding callbacks with {@link #addCallback(RemoteMethodTxCallback)}. The
+ * callbacks are called by the thread completing the call (the transport thread receiving the
+ * response or the timeout timer): they must be short and must not block.
+ * <p>
+ * A remote call can not be cancelled, {@link #cancel(boolean)} always returns false.
+ *
+ * @param <T> : type of the response
+ */
+public class RemoteMethodTxFuture<T> implements Future<T>, RemoteMethodTxCallback<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RemoteMethodTxFuture.class);
+
+    private final CountDownLatch doneSignal = new CountDownLatch(1);
+
+    // callbacks to call when completed, guarded by this
+    private final List<RemoteMethodTxCallback<T>> callbacks =
+            new ArrayList<RemoteMethodTxCallback<T>>();
+
+    private boolean isDone; // guarded by this
+    private T response;
+    private KeypleRemoteException exception;
+
+    RemoteMethodTxFuture() {}
+
+    /**
+     * Completes the future, called once by the {@link RemoteMethodTx}
+     */
+    @Override
+    public void get(T response, KeypleRemoteException exception) {
+        List<RemoteMethodTxCallback<T>> callbacksToCall;
+        synchronized (this) {
+            if (isDone) {
+                return;
+            }
+            this.response = response;
+            this.exception = exception;
+            isDone = true;
+            callbacksToCall = new ArrayList<RemoteMethodTxCallback<T>>(callbacks);
+            callbacks.clear();
+        }
+        doneSignal.countDown();
+        for (RemoteMethodTxCallback<T> callback : callbacksToCall) {
+            call(callback);
+        }
+    }
+
+    /**
+     * Adds a callback called with the result of the call. It is called immediately by the current
+     * thread if the call is already completed.
+     *
+     * @param callback : callback to add
+     * @return this future
+     */
+    public RemoteMethodTxFuture<T> addCallback(RemoteMethodTxCallback<T> callback) {
+        synchronized (this) {
+            if (!isDone) {
+                callbacks.add(callback);
+                return this;
+            }
+        }
+        call(callback);
+        return this;
+    }
+
+    private void call(RemoteMethodTxCallback<T> callback) {
+        try {
+            callback.get(response, exception);
+        } catch (RuntimeException e) {
+            logger.error("Exception in a callback of RemoteMethodTxFuture", e);
+        }
+    }
+
+    /**
+     * Blocking method to get the result of the remote call
+     *
+     * @return T : result of the command
+     * @throws KeypleRemoteException : if the remote method failed or if no answer has been
+     *         received in time
+     */
+    public T getResponse() throws KeypleRemoteException {
+        try {
+            doneSignal.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the remote answer", e);
+        }
+        if (exception != null) {
+            throw exception;
+        }
+        return response;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return isDone;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        doneSignal.await();
+        return getResult();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!doneSignal.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return getResult();
+    }
+
+    private T getResult() throws ExecutionException {
+        if (exception != null) {
+            throw new ExecutionException(exception);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,51 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+/**
+ * Serialization format of the keypleDto exchanged between the master and the slave nodes.
+ * <p>
+ * A codec encodes the body of the keypleDto (the arguments and results of the remote methods). The
+ * keypleDto itself is serialized by the transport layers.
+ * <p>
+ * The codec used for the bodies sent to a slave node is negotiated when a reader is connected,
+ * the bodies are self-describing: the receiver finds the codec of a body with
+ * {@link DtoCodecs#forBody(String)}. The codecs are stateless and thread safe.
+ */
+public interface DtoCodec {
+
+    /**
+     * Name of the codec, used for the negotiation between nodes
+     *
+     * @return name of the codec
+     */
+    String getName();
+
+    /**
+     * Encodes an object in the body of a keypleDto
+     *
+     * @param object : object to be encoded
+     * @param type : type of the object
+     * @return body of the keypleDto
+     */
+    <T> String encodeBody(T object, Class<T> type);
+
+    /**
+     * Decodes an object from the body of a keypleDto encoded by this codec
+     *
+     * @param body : body of the keypleDto
+     * @param type : type of the object
+     * @return decoded object
+     * @throws IllegalArgumentException if the body is malformed
+     */
+    <T> T decodeBody(String body, Class<T> type);
+}
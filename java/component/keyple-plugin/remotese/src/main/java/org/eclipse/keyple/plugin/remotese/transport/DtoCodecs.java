@@ -0,0 +1,100 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonDtoCodec;
+
+/**
+ * Available {@link DtoCodec} and negotiation of the codec used between two nodes.
+ * <p>
+ * The nodes advertise the names of the codecs they support as a comma separated list, in their
+ * order of preference. The json codec is always supported, for the interoperability with the
+ * nodes which do not negotiate.
+ */
+public final class DtoCodecs {
+
+    private static final DtoCodec JSON = new JsonDtoCodec();
+
+    /**
+     * Names of the codecs supported by this implementation, in the order of preference
+     */
+    public static final String SUPPORTED_CODECS = JsonDtoCodec.NAME;
+
+    /**
+     * Names of the codecs accepted by default by a master node
+     */
+    public static final String DEFAULT_CODECS = JsonDtoCodec.NAME;
+
+    private DtoCodecs() {}
+
+    /**
+     * @return the json codec
+     */
+    public static DtoCodec json() {
+        return JSON;
+    }
+
+    /**
+     * Retrieve a codec by its name
+     *
+     * @param name : name of the codec
+     * @return the codec
+     * @throws IllegalArgumentException if the codec is unknown
+     */
+    public static DtoCodec getByName(String name) {
+        if (JsonDtoCodec.NAME.equals(name)) {
+            return JSON;
+        }
+        throw new IllegalArgumentException("Unknown DtoCodec " + name);
+    }
+
+    /**
+     * Find the codec able to decode a body
+     * <p>
+     * Only the json codec is available for now. Another codec has to make its bodies
+     * distinguishable from json ones, so that they are recognized here.
+     *
+     * @param body : body of a keypleDto
+     * @return the codec of the body
+     */
+    public static DtoCodec forBody(String body) {
+        return JSON;
+    }
+
+    /**
+     * Choose the codec to use with a remote node
+     *
+     * @param preferredCodecs : names of the codecs accepted by the local node, in the order of
+     *        preference (comma separated)
+     * @param remoteCodecs : names of the codecs advertised by the remote node (comma separated),
+     *        null if the remote node did not advertise any
+     * @return the first preferred codec supported by the remote node, json if none
+     */
+    public static DtoCodec negotiate(String preferredCodecs, String remoteCodecs) {
+        if (preferredCodecs == null || remoteCodecs == null) {
+            return JSON;
+        }
+        String[] remoteNames = remoteCodecs.split(",");
+        for (String preferredName : preferredCodecs.split(",")) {
+            for (String remoteName : remoteNames) {
+                if (preferredName.trim().equals(remoteName.trim())) {
+                    try {
+                        return getByName(preferredName.trim());
+                    } catch (IllegalArgumentException e) {
+                        // not supported locally, try the next one
+                    }
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,43 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.json;
+
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodec;
+import com.google.gson.JsonParseException;
+
+/**
+ * Json codec, the historical format of the keypleDto: the bodies are serialized by Gson (byte
+ * arrays as hex strings) and the keypleDto is a UTF-8 json document.
+ */
+public class JsonDtoCodec implements DtoCodec {
+
+    public static final String NAME = "json";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public <T> String encodeBody(T object, Class<T> type) {
+        return JsonParser.getGson().toJson(object, type);
+    }
+
+    @Override
+    public <T> T decodeBody(String body, Class<T> type) {
+        try {
+            return JsonParser.getGson().fromJson(body, type);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Malformed json body", e);
+        }
+    }
+}
@@ -13,7 +13,10 @@ package org.eclipse.keyple.plugin.remotese.transport.json;
 
 
 
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.core.seproxy.message.SeResponseSet;
 import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -22,12 +25,33 @@ import com.google.gson.GsonBuilder;
  */
 public class JsonParser {
 
-    static public Gson getGson() {
+    /*
+     * Gson instances are thread safe: a single instance is shared, its type adapters are created
+     * once
+     */
+    private static final Gson gson = createGson();
+
+    private static Gson createGson() {
         final GsonBuilder gsonBuilder = new GsonBuilder();
         gsonBuilder.registerTypeAdapter(SeProtocol.class, new GsonSeProtocolTypeAdapter());
         gsonBuilder.registerTypeAdapter(byte[].class, new HexTypeAdapter());
+        gsonBuilder.registerTypeAdapterFactory(new SeMessageTypeAdapterFactory());
         // gsonBuilder.setPrettyPrinting(); disable pretty printing for inline json
-        return gsonBuilder.create();
+        Gson gson = gsonBuilder.create();
+        // pre-warm the adapters of the messages exchanged at each transmission
+        gson.getAdapter(KeypleDto.class);
+        gson.getAdapter(SeRequestSet.class);
+        gson.getAdapter(SeResponseSet.class);
+        return gson;
+    }
+
+    /**
+     * Shared, thread safe, Gson instance
+     *
+     * @return gson
+     */
+    static public Gson getGson() {
+        return gson;
     }
 
 }
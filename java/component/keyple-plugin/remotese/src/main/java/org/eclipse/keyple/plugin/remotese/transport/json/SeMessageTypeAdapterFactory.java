@@ -0,0 +1,375 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.json;
+
+import java.io.IOException;
+import java.util.*;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming Gson adapters of the messages exchanged with the SE: {@link SeRequest},
+ * {@link ApduRequest}, {@link SeResponse}, {@link SelectionStatus} and {@link ApduResponse}.
+ * <p>
+ * They produce the same json as the reflective serialization of Gson (same field names, byte
+ * arrays as hex strings, null fields omitted) without the reflection, and accept the fields in any
+ * order. The {@link SeSelector} is still serialized by reflection.
+ */
+class SeMessageTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == ApduRequest.class) {
+            return (TypeAdapter<T>) new ApduRequestAdapter().nullSafe();
+        }
+        if (rawType == ApduResponse.class) {
+            return (TypeAdapter<T>) new ApduResponseAdapter().nullSafe();
+        }
+        if (rawType == SeRequest.class) {
+            return (TypeAdapter<T>) new SeRequestAdapter(gson.getAdapter(SeSelector.class),
+                    gson.getAdapter(ApduRequest.class)).nullSafe();
+        }
+        if (rawType == SelectionStatus.class) {
+            return (TypeAdapter<T>) new SelectionStatusAdapter(gson.getAdapter(ApduResponse.class))
+                    .nullSafe();
+        }
+        if (rawType == SeResponse.class) {
+            return (TypeAdapter<T>) new SeResponseAdapter(gson.getAdapter(SelectionStatus.class),
+                    gson.getAdapter(ApduResponse.class)).nullSafe();
+        }
+        return null;
+    }
+
+    private static void writeHex(JsonWriter out, String name, byte[] bytes) throws IOException {
+        if (bytes != null) {
+            out.name(name).value(ByteArrayUtil.toHex(bytes));
+        }
+    }
+
+    private static byte[] readHex(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return ByteArrayUtil.fromHex(in.nextString());
+    }
+
+    private static <E> void writeList(JsonWriter out, String name, List<E> list,
+            TypeAdapter<E> elementAdapter) throws IOException {
+        if (list != null) {
+            out.name(name).beginArray();
+            for (E element : list) {
+                elementAdapter.write(out, element);
+            }
+            out.endArray();
+        }
+    }
+
+    private static <E> List<E> readList(JsonReader in, TypeAdapter<E> elementAdapter)
+            throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        List<E> list = new ArrayList<E>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(elementAdapter.read(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static boolean readBoolean(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return false;
+        }
+        return in.nextBoolean();
+    }
+
+    /**
+     * Fields: bytes, case4, successfulStatusCodes, name
+     */
+    private static class ApduRequestAdapter extends TypeAdapter<ApduRequest> {
+        @Override
+        public void write(JsonWriter out, ApduRequest apduRequest) throws IOException {
+            out.beginObject();
+            writeHex(out, "bytes", apduRequest.getBytes());
+            out.name("case4").value(apduRequest.isCase4());
+            Set<Integer> successfulStatusCodes = apduRequest.getSuccessfulStatusCodes();
+            if (successfulStatusCodes != null) {
+                out.name("successfulStatusCodes").beginArray();
+                for (Integer statusCode : successfulStatusCodes) {
+                    out.value(statusCode);
+                }
+                out.endArray();
+            }
+            if (apduRequest.getName() != null) {
+                out.name("name").value(apduRequest.getName());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ApduRequest read(JsonReader in) throws IOException {
+            byte[] bytes = null;
+            boolean case4 = false;
+            Set<Integer> successfulStatusCodes = null;
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if ("bytes".equals(field)) {
+                    bytes = readHex(in);
+                } else if ("case4".equals(field)) {
+                    case4 = in.nextBoolean();
+                } else if ("successfulStatusCodes".equals(field)) {
+                    successfulStatusCodes = new LinkedHashSet<Integer>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        successfulStatusCodes.add(in.nextInt());
+                    }
+                    in.endArray();
+                } else if ("name".equals(field)) {
+                    name = in.nextString();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ApduRequest(name, bytes, case4, successfulStatusCodes);
+        }
+    }
+
+    /**
+     * Fields: successful, bytes
+     */
+    private static class ApduResponseAdapter extends TypeAdapter<ApduResponse> {
+        @Override
+        public void write(JsonWriter out, ApduResponse apduResponse) throws IOException {
+            out.beginObject();
+            out.name("successful").value(apduResponse.isSuccessful());
+            writeHex(out, "bytes", apduResponse.getBytes());
+            out.endObject();
+        }
+
+        @Override
+        public ApduResponse read(JsonReader in) throws IOException {
+            boolean successful = false;
+            byte[] bytes = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if ("successful".equals(field)) {
+                    successful = readBoolean(in);
+                } else if ("bytes".equals(field)) {
+                    bytes = readHex(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            Set<Integer> successfulStatusCodes = null;
+            if (successful && bytes != null && bytes.length >= 2) {
+                /* the successful status of the sender is kept, whatever its status codes */
+                successfulStatusCodes = Collections.singleton(
+                        ((bytes[bytes.length - 2] & 0xFF) << 8) | (bytes[bytes.length - 1] & 0xFF));
+            }
+            try {
+                return new ApduResponse(bytes, successfulStatusCodes);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Illegal ApduResponse", e);
+            }
+        }
+    }
+
+    /**
+     * Fields: seSelector, apduRequests, channelState
+     */
+    private static class SeRequestAdapter extends TypeAdapter<SeRequest> {
+        private final TypeAdapter<SeSelector> seSelectorAdapter;
+        private final TypeAdapter<ApduRequest> apduRequestAdapter;
+
+        private SeRequestAdapter(TypeAdapter<SeSelector> seSelectorAdapter,
+                TypeAdapter<ApduRequest> apduRequestAdapter) {
+            this.seSelectorAdapter = seSelectorAdapter;
+            this.apduRequestAdapter = apduRequestAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, SeRequest seRequest) throws IOException {
+            out.beginObject();
+            if (seRequest.getSeSelector() != null) {
+                out.name("seSelector");
+                seSelectorAdapter.write(out, seRequest.getSeSelector());
+            }
+            writeList(out, "apduRequests", seRequest.getApduRequests(), apduRequestAdapter);
+            out.name("channelState").value(seRequest.isKeepChannelOpen()
+                    ? ChannelState.KEEP_OPEN.name()
+                    : ChannelState.CLOSE_AFTER.name());
+            out.endObject();
+        }
+
+        @Override
+        public SeRequest read(JsonReader in) throws IOException {
+            SeSelector seSelector = null;
+            List<ApduRequest> apduRequests = null;
+            ChannelState channelState = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if ("seSelector".equals(field)) {
+                    seSelector = seSelectorAdapter.read(in);
+                } else if ("apduRequests".equals(field)) {
+                    apduRequests = readList(in, apduRequestAdapter);
+                } else if ("channelState".equals(field) && in.peek() != JsonToken.NULL) {
+                    try {
+                        channelState = ChannelState.valueOf(in.nextString());
+                    } catch (IllegalArgumentException e) {
+                        throw new JsonParseException("Unknown channel state", e);
+                    }
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SeRequest(seSelector, apduRequests, channelState);
+        }
+    }
+
+    /**
+     * Fields: atr (atrBytes), fci, isMatching
+     */
+    private static class SelectionStatusAdapter extends TypeAdapter<SelectionStatus> {
+        private final TypeAdapter<ApduResponse> apduResponseAdapter;
+
+        private SelectionStatusAdapter(TypeAdapter<ApduResponse> apduResponseAdapter) {
+            this.apduResponseAdapter = apduResponseAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, SelectionStatus selectionStatus) throws IOException {
+            out.beginObject();
+            if (selectionStatus.getAtr() != null) {
+                out.name("atr").beginObject();
+                writeHex(out, "atrBytes", selectionStatus.getAtr().getBytes());
+                out.endObject();
+            }
+            if (selectionStatus.getFci() != null) {
+                out.name("fci");
+                apduResponseAdapter.write(out, selectionStatus.getFci());
+            }
+            out.name("isMatching").value(selectionStatus.hasMatched());
+            out.endObject();
+        }
+
+        @Override
+        public SelectionStatus read(JsonReader in) throws IOException {
+            AnswerToReset atr = null;
+            ApduResponse fci = null;
+            boolean isMatching = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if ("atr".equals(field) && in.peek() != JsonToken.NULL) {
+                    byte[] atrBytes = null;
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        if ("atrBytes".equals(in.nextName())) {
+                            atrBytes = readHex(in);
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    in.endObject();
+                    atr = new AnswerToReset(atrBytes);
+                } else if ("fci".equals(field)) {
+                    fci = apduResponseAdapter.read(in);
+                } else if ("isMatching".equals(field)) {
+                    isMatching = readBoolean(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SelectionStatus(atr, fci, isMatching);
+        }
+    }
+
+    /**
+     * Fields: channelPreviouslyOpen, logicalChannelIsOpen, selectionStatus, apduResponses
+     */
+    private static class SeResponseAdapter extends TypeAdapter<SeResponse> {
+        private final TypeAdapter<SelectionStatus> selectionStatusAdapter;
+        private final TypeAdapter<ApduResponse> apduResponseAdapter;
+
+        private SeResponseAdapter(TypeAdapter<SelectionStatus> selectionStatusAdapter,
+                TypeAdapter<ApduResponse> apduResponseAdapter) {
+            this.selectionStatusAdapter = selectionStatusAdapter;
+            this.apduResponseAdapter = apduResponseAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, SeResponse seResponse) throws IOException {
+            out.beginObject();
+            out.name("channelPreviouslyOpen").value(seResponse.wasChannelPreviouslyOpen());
+            out.name("logicalChannelIsOpen").value(seResponse.isLogicalChannelOpen());
+            if (seResponse.getSelectionStatus() != null) {
+                out.name("selectionStatus");
+                selectionStatusAdapter.write(out, seResponse.getSelectionStatus());
+            }
+            writeList(out, "apduResponses", seResponse.getApduResponses(), apduResponseAdapter);
+            out.endObject();
+        }
+
+        @Override
+        public SeResponse read(JsonReader in) throws IOException {
+            boolean channelPreviouslyOpen = false;
+            boolean logicalChannelIsOpen = false;
+            SelectionStatus selectionStatus = null;
+            List<ApduResponse> apduResponses = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if ("channelPreviouslyOpen".equals(field)) {
+                    channelPreviouslyOpen = readBoolean(in);
+                } else if ("logicalChannelIsOpen".equals(field)) {
+                    logicalChannelIsOpen = readBoolean(in);
+                } else if ("selectionStatus".equals(field)) {
+                    selectionStatus = selectionStatusAdapter.read(in);
+                } else if ("apduResponses".equals(field)) {
+                    apduResponses = readList(in, apduResponseAdapter);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new SeResponse(logicalChannelIsOpen, channelPreviouslyOpen, selectionStatus,
+                    apduResponses);
+        }
+    }
+}
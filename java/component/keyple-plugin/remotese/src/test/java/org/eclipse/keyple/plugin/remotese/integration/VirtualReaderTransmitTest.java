@@ -11,8 +11,10 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.remotese.integration;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.calypso.command.PoClass;
 import org.eclipse.keyple.calypso.command.po.builder.ReadRecordsCmdBuild;
 import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
@@ -20,7 +22,10 @@ import org.eclipse.keyple.core.seproxy.ChannelState;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.*;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
 import org.eclipse.keyple.plugin.remotese.pluginse.VirtualReader;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxCallback;
+import org.eclipse.keyple.plugin.remotese.rm.RemoteMethodTxFuture;
 import org.eclipse.keyple.plugin.remotese.rm.json.SampleFactory;
 import org.eclipse.keyple.plugin.stub.StubReaderTest;
 import org.junit.After;
@@ -142,6 +147,41 @@ public class VirtualReaderTransmitTest extends VirtualReaderBaseTest {
 
     }
 
+    /**
+     * Successful asynchronous Transmit with a Calypso command to a Calypso SE
+     *
+     * @throws Exception
+     */
+    @Test
+    public void rse_transmitSetAsync_Hoplink_Sucessfull() throws Exception {
+        // insert SE
+        nativeReader.insertSe(StubReaderTest.hoplinkSE());
+
+        Thread.sleep(1000);
+
+        StubReaderTest.selectSe(virtualReader);
+
+        ReadRecordsCmdBuild poReadRecordCmd_T2Env = new ReadRecordsCmdBuild(PoClass.ISO,
+                (byte) 0x14, ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, true, (byte) 0x20,
+                "");
+        SeRequest seRequest = new SeRequest(Arrays.asList(poReadRecordCmd_T2Env.getApduRequest()),
+                ChannelState.KEEP_OPEN);
+
+        final List<SeResponseSet> responses = new ArrayList<SeResponseSet>();
+        RemoteMethodTxFuture<SeResponseSet> future = virtualReader
+                .transmitSetAsync(new SeRequestSet(seRequest))
+                .addCallback(new RemoteMethodTxCallback<SeResponseSet>() {
+                    @Override
+                    public void get(SeResponseSet response, KeypleRemoteException exception) {
+                        responses.add(response);
+                    }
+                });
+
+        SeResponseSet seResponse = future.get(1, TimeUnit.SECONDS);
+        Assert.assertTrue(seResponse.getSingleResponse().getApduResponses().get(0).isSuccessful());
+        Assert.assertEquals(Arrays.asList(seResponse), responses);
+    }
+
     @Test(expected = KeypleReaderException.class)
     public void rse_transmit_no_response() throws Exception {
 
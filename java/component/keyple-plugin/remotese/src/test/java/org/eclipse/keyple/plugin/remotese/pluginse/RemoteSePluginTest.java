@@ -0,0 +1,116 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.pluginse;
+
+import java.util.HashMap;
+import org.eclipse.keyple.core.seproxy.SeProxyService;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderNotFoundException;
+import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
+import org.eclipse.keyple.plugin.remotese.integration.Integration;
+import org.eclipse.keyple.plugin.remotese.transport.DtoCodecs;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit Test RemoteSePlugin readers lookups and codec negotiation
+ */
+public class RemoteSePluginTest {
+
+    final String NATIVE_READER_NAME = "testStubReader";
+    final String CLIENT_NODE_ID = "testClientNodeId";
+    final String CLIENT_NODE_ID_2 = "testClientNodeId2";
+
+    RemoteSePlugin plugin;
+
+    @Before
+    public void setUp() throws Exception {
+        MasterAPI masterAPI =
+                new MasterAPI(SeProxyService.getInstance(), Integration.getFakeDtoNode());
+        plugin = masterAPI.getPlugin();
+    }
+
+    private VirtualReader connect(String slaveNodeId) throws Exception {
+        return (VirtualReader) plugin.createVirtualReader(slaveNodeId, NATIVE_READER_NAME,
+                Integration.getFakeDtoNode(), TransmissionMode.CONTACTLESS,
+                new HashMap<String, String>());
+    }
+
+    @Test
+    public void lookups_afterConnect() throws Exception {
+        VirtualReader reader1 = connect(CLIENT_NODE_ID);
+        VirtualReader reader2 = connect(CLIENT_NODE_ID_2);
+
+        Assert.assertSame(reader1,
+                plugin.getReaderByRemoteName(NATIVE_READER_NAME, CLIENT_NODE_ID));
+        Assert.assertSame(reader2,
+                plugin.getReaderByRemoteName(NATIVE_READER_NAME, CLIENT_NODE_ID_2));
+        Assert.assertSame(reader1, plugin.getReader(reader1.getName()));
+        Assert.assertSame(reader1,
+                plugin.getReaderBySessionId(reader1.getSession().getSessionId()));
+        Assert.assertSame(reader2,
+                plugin.getReaderBySessionId(reader2.getSession().getSessionId()));
+        Assert.assertEquals(2, plugin.getReaders().size());
+    }
+
+    @Test
+    public void dtoCodec_jsonByDefault() throws Exception {
+        VirtualReader reader = (VirtualReader) plugin.createVirtualReader(CLIENT_NODE_ID,
+                NATIVE_READER_NAME, Integration.getFakeDtoNode(), TransmissionMode.CONTACTLESS,
+                new HashMap<String, String>(), DtoCodecs.SUPPORTED_CODECS);
+        Assert.assertSame(DtoCodecs.json(), reader.getDtoCodec());
+    }
+
+    @Test
+    public void dtoCodec_unknownCodecsIgnored() throws Exception {
+        plugin.setParameter(RemoteSePlugin.PARAMETER_DTO_CODECS, "other,json");
+        VirtualReader reader = (VirtualReader) plugin.createVirtualReader(CLIENT_NODE_ID,
+                NATIVE_READER_NAME, Integration.getFakeDtoNode(), TransmissionMode.CONTACTLESS,
+                new HashMap<String, String>(), "other,json");
+        Assert.assertSame(DtoCodecs.json(), reader.getDtoCodec());
+    }
+
+    @Test
+    public void lookups_afterDisconnect() throws Exception {
+        VirtualReader reader1 = connect(CLIENT_NODE_ID);
+        VirtualReader reader2 = connect(CLIENT_NODE_ID_2);
+
+        plugin.disconnectRemoteReader(NATIVE_READER_NAME, CLIENT_NODE_ID);
+
+        try {
+            plugin.getReaderByRemoteName(NATIVE_READER_NAME, CLIENT_NODE_ID);
+            Assert.fail();
+        } catch (KeypleReaderNotFoundException e) {
+            // expected
+        }
+        try {
+            plugin.getReaderBySessionId(reader1.getSession().getSessionId());
+            Assert.fail();
+        } catch (KeypleReaderNotFoundException e) {
+            // expected
+        }
+        Assert.assertSame(reader2,
+                plugin.getReaderBySessionId(reader2.getSession().getSessionId()));
+        Assert.assertEquals(1, plugin.getReaders().size());
+
+        /* the reader can connect again */
+        VirtualReader reader3 = connect(CLIENT_NODE_ID);
+        Assert.assertSame(reader3,
+                plugin.getReaderByRemoteName(NATIVE_READER_NAME, CLIENT_NODE_ID));
+    }
+
+    @Test(expected = KeypleReaderNotFoundException.class)
+    public void getReaderBySessionId_unknown() throws Exception {
+        connect(CLIENT_NODE_ID);
+        plugin.getReaderBySessionId("unknownSessionId");
+    }
+}
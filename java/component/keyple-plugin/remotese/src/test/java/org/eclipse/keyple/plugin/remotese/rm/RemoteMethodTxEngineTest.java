@@ -0,0 +1,228 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.rm;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import org.eclipse.keyple.plugin.remotese.exception.KeypleRemoteException;
+import org.eclipse.keyple.plugin.remotese.transport.DtoSender;
+import org.eclipse.keyple.plugin.remotese.transport.impl.java.LocalTransportDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDto;
+import org.eclipse.keyple.plugin.remotese.transport.model.KeypleDtoHelper;
+import org.eclipse.keyple.plugin.remotese.transport.model.TransportDto;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteMethodTxEngineTest {
+
+    /**
+     * Remote method returning the body of the response
+     */
+    private static class EchoTx extends RemoteMethodTx<String> {
+        private EchoTx() {
+            super("session1", "nativeReader", "virtualReader", "slave", "master");
+        }
+
+        @Override
+        protected String parseResponse(KeypleDto keypleDto) throws KeypleRemoteException {
+            return keypleDto.getBody();
+        }
+
+        @Override
+        public RemoteMethod getMethodName() {
+            return RemoteMethod.READER_TRANSMIT;
+        }
+
+        @Override
+        protected KeypleDto dto() {
+            return KeypleDtoHelper.buildRequest(getMethodName().getName(), "request", sessionId,
+                    nativeReaderName, virtualReaderName, requesterNodeId, targetNodeId, id);
+        }
+    }
+
+    /**
+     * Sender keeping the sent requests, the answers are given by the test
+     */
+    private static class RecordingSender implements DtoSender {
+        private final BlockingQueue<KeypleDto> sentDtos = new LinkedBlockingQueue<KeypleDto>();
+
+        @Override
+        public void sendDTO(TransportDto message) {
+            sentDtos.add(message.getKeypleDTO());
+        }
+
+        @Override
+        public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+            sentDtos.add(message);
+        }
+
+        @Override
+        public String getNodeId() {
+            return "master";
+        }
+    }
+
+    private RecordingSender sender;
+
+    @Before
+    public void setUp() {
+        sender = new RecordingSender();
+    }
+
+    private static TransportDto response(KeypleDto request, String body) {
+        return new LocalTransportDto(KeypleDtoHelper.buildResponse(request.getAction(), body,
+                request.getSessionId(), request.getNativeReaderName(),
+                request.getVirtualReaderName(), request.getTargetNodeId(),
+                request.getRequesterNodeId(), request.getId()), null);
+    }
+
+    @Test
+    public void onDTO_crossedResponses_matchedById() throws Exception {
+        final RemoteMethodTxEngine engine = new RemoteMethodTxEngine(sender, 5000);
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        for (int i = 0; i < 10; i++) {
+            final EchoTx tx = new EchoTx();
+            engine.add(tx);
+            futures.add(executorService.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    String response = tx.getResponse();
+                    results.add(response);
+                    return tx.getId() + response;
+                }
+            }));
+        }
+
+        List<KeypleDto> requests = new ArrayList<KeypleDto>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(sender.sentDtos.poll(1, TimeUnit.SECONDS));
+        }
+        assertEquals(10, engine.getPendingTxCount());
+
+        /* answer in the reverse order, the body of each response is the id of its request */
+        Collections.reverse(requests);
+        for (KeypleDto request : requests) {
+            engine.onDTO(response(request, request.getId()));
+        }
+
+        for (Future<String> future : futures) {
+            String result = future.get(1, TimeUnit.SECONDS);
+            assertEquals(result.substring(0, result.length() / 2),
+                    result.substring(result.length() / 2));
+        }
+        executorService.shutdown();
+        assertEquals(10, results.size());
+        assertEquals(0, engine.getPendingTxCount());
+    }
+
+    @Test
+    public void onDTO_unknownResponse_ignored() throws Exception {
+        RemoteMethodTxEngine engine = new RemoteMethodTxEngine(sender, 5000);
+        EchoTx tx = new EchoTx();
+        engine.add(tx);
+
+        KeypleDto unknownRequest = new EchoTx().dto();
+        TransportDto out = engine.onDTO(response(unknownRequest, "unknown"));
+
+        assertTrue(KeypleDtoHelper.isNoResponse(out.getKeypleDTO()));
+        assertEquals(1, engine.getPendingTxCount());
+        assertFalse(tx.isDone());
+    }
+
+    @Test
+    public void getResponse_timeout() throws Exception {
+        RemoteMethodTxEngine engine = new RemoteMethodTxEngine(sender, 50);
+        EchoTx tx = new EchoTx();
+        engine.add(tx);
+
+        long start = System.currentTimeMillis();
+        try {
+            tx.getResponse();
+            fail();
+        } catch (KeypleRemoteException e) {
+            assertTrue(System.currentTimeMillis() - start >= 40);
+        }
+        assertEquals(0, engine.getPendingTxCount());
+
+        /* a late response is ignored */
+        engine.onDTO(response(sender.sentDtos.take(), "late"));
+        assertEquals(0, engine.getPendingTxCount());
+    }
+
+    @Test
+    public void getResponseAsync_callbacks() throws Exception {
+        RemoteMethodTxEngine engine = new RemoteMethodTxEngine(sender, 5000);
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        RemoteMethodTxCallback<String> callback = new RemoteMethodTxCallback<String>() {
+            @Override
+            public void get(String response, KeypleRemoteException exception) {
+                results.add(response);
+            }
+        };
+
+        EchoTx tx1 = new EchoTx();
+        EchoTx tx2 = new EchoTx();
+        engine.add(tx1);
+        engine.add(tx2);
+        RemoteMethodTxFuture<String> future1 = tx1.getResponseAsync().addCallback(callback);
+        RemoteMethodTxFuture<String> future2 = tx2.getResponseAsync().addCallback(callback);
+        KeypleDto request1 = sender.sentDtos.take();
+        KeypleDto request2 = sender.sentDtos.take();
+        assertFalse(future1.isDone());
+
+        engine.onDTO(response(request2, "response2"));
+        engine.onDTO(response(request1, "response1"));
+
+        assertEquals("response1", future1.get());
+        assertEquals("response2", future2.getResponse());
+        assertEquals(Arrays.asList("response2", "response1"), results);
+
+        /* callback added after the completion: called immediately */
+        future1.addCallback(callback);
+        assertEquals("response1", results.get(2));
+    }
+
+    @Test
+    public void getResponseAsync_sendFailure() throws Exception {
+        DtoSender failingSender = new RecordingSender() {
+            @Override
+            public void sendDTO(KeypleDto message) throws KeypleRemoteException {
+                throw new KeypleRemoteException("Unable to connect to server");
+            }
+        };
+        RemoteMethodTxEngine engine = new RemoteMethodTxEngine(failingSender, 5000);
+        EchoTx tx = new EchoTx();
+        engine.add(tx);
+
+        RemoteMethodTxFuture<String> future = tx.getResponseAsync();
+
+        assertTrue(future.isDone());
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof KeypleRemoteException);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getResponse_notRegistered() throws Exception {
+        new EchoTx().getResponse();
+    }
+}
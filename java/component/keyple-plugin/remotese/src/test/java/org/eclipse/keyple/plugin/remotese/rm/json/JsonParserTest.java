@@ -88,6 +88,11 @@ public class JsonParserTest {
 
     }
 
+    @Test
+    public void testGsonIsShared() {
+        assert JsonParser.getGson() == JsonParser.getGson();
+    }
+
     /*
      * Utility Method
      */
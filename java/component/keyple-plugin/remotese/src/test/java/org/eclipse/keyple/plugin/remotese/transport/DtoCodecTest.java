@@ -0,0 +1,62 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport;
+
+import static org.junit.Assert.*;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.plugin.remotese.rm.json.SampleFactory;
+import org.eclipse.keyple.plugin.remotese.transport.json.JsonParser;
+import org.junit.Test;
+
+public class DtoCodecTest {
+
+    /**
+     * Encodes and decodes an object with the codec found from the body, checks that the json
+     * representations of the original and decoded objects are equal
+     */
+    private static <T> void assertBodyRoundTrip(DtoCodec dtoCodec, T object, Class<T> type) {
+        String body = dtoCodec.encodeBody(object, type);
+        T decoded = DtoCodecs.forBody(body).decodeBody(body, type);
+        assertEquals(JsonParser.getGson().toJson(object, type),
+                JsonParser.getGson().toJson(decoded, type));
+    }
+
+    @Test
+    public void body_roundTrip() {
+        DtoCodec dtoCodec = DtoCodecs.json();
+        assertBodyRoundTrip(dtoCodec, SampleFactory.getCompleteRequestSet(), SeRequestSet.class);
+        assertBodyRoundTrip(dtoCodec, SampleFactory.getASeRequestSet_ISO14443_4(),
+                SeRequestSet.class);
+        assertBodyRoundTrip(dtoCodec, SampleFactory.getASeRequest(), SeRequest.class);
+        assertBodyRoundTrip(dtoCodec, SampleFactory.getCompleteResponseSet(),
+                SeResponseSet.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeBody_malformed() {
+        DtoCodecs.json().decodeBody("{\"seRequests\": [", SeRequestSet.class);
+    }
+
+    @Test
+    public void negotiate() {
+        assertSame(DtoCodecs.json(),
+                DtoCodecs.negotiate(DtoCodecs.DEFAULT_CODECS, DtoCodecs.SUPPORTED_CODECS));
+        assertSame(DtoCodecs.json(), DtoCodecs.negotiate(DtoCodecs.DEFAULT_CODECS, null));
+        assertSame(DtoCodecs.json(), DtoCodecs.negotiate("other, json", "json, other"));
+        assertSame(DtoCodecs.json(), DtoCodecs.negotiate("other", "other"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getByName_unknown() {
+        DtoCodecs.getByName("other");
+    }
+}
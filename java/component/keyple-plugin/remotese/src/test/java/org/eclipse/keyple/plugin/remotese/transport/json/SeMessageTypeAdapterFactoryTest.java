@@ -0,0 +1,76 @@
+/********************************************************************************
+ * Copyright (c) 2018 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.remotese.transport.json;
+
+import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.protocol.SeProtocol;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.remotese.rm.json.SampleFactory;
+import org.junit.Test;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Check that the streaming adapters produce and read the json of the reflective serialization
+ */
+public class SeMessageTypeAdapterFactoryTest {
+
+    // Gson configuration without the streaming adapters
+    private final Gson reflectiveGson = new GsonBuilder()
+            .registerTypeAdapter(SeProtocol.class, new GsonSeProtocolTypeAdapter())
+            .registerTypeAdapter(byte[].class, new HexTypeAdapter()).create();
+
+    private void assertReflectiveCompatibility(Object object, Class<?> type) {
+        String json = JsonParser.getGson().toJson(object);
+
+        assertEquals(reflectiveGson.toJson(object), json);
+        assertEquals(json, reflectiveGson.toJson(JsonParser.getGson().fromJson(json, type)));
+        assertEquals(json, JsonParser.getGson().toJson(reflectiveGson.fromJson(json, type)));
+    }
+
+    @Test
+    public void seRequestSet() {
+        HashSet<Integer> successfulStatusCodes = new HashSet<Integer>(Arrays.asList(0x6283));
+        SeRequestSet seRequestSet = SampleFactory.getCompleteRequestSet();
+        seRequestSet.add(new SeRequest(Arrays.asList(new ApduRequest("named",
+                ByteArrayUtil.fromHex("00B2014400"), false, successfulStatusCodes)),
+                ChannelState.KEEP_OPEN));
+
+        assertReflectiveCompatibility(seRequestSet, SeRequestSet.class);
+        assertReflectiveCompatibility(SampleFactory.getASeRequestSet_ISO14443_4(),
+                SeRequestSet.class);
+    }
+
+    @Test
+    public void seResponseSet() {
+        HashSet<Integer> successfulStatusCodes = new HashSet<Integer>(Arrays.asList(0x6283));
+        List<ApduResponse> apduResponses = new ArrayList<ApduResponse>();
+        apduResponses.add(new ApduResponse(ByteArrayUtil.fromHex("6283"), successfulStatusCodes));
+        apduResponses.add(new ApduResponse(ByteArrayUtil.fromHex("6A82"), null));
+        List<SeResponse> seResponses = new ArrayList<SeResponse>();
+        seResponses.add(new SeResponse(false, true,
+                new SelectionStatus(new AnswerToReset(ByteArrayUtil.fromHex("3B8880010000")),
+                        null, false),
+                apduResponses));
+        seResponses.add(null);
+
+        assertReflectiveCompatibility(new SeResponseSet(seResponses), SeResponseSet.class);
+        assertReflectiveCompatibility(SampleFactory.getCompleteResponseSet(),
+                SeResponseSet.class);
+    }
+}
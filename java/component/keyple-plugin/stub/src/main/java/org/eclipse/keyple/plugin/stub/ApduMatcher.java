@@ -0,0 +1,247 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import java.util.Arrays;
+
+/**
+ * Byte trie matching the incoming APDUs against the command patterns of a
+ * {@link StubSecureElement}.
+ * <p>
+ * A pattern is an hexadecimal string where:
+ * <ul>
+ * <li>two hexadecimal digits match a byte exactly,</li>
+ * <li>an 'X' digit matches any nibble (e.g. "XX" matches any byte, "0X" any byte from 00 to
+ * 0F),</li>
+ * <li>a trailing '*' matches any remaining bytes, including none (prefix rule).</li>
+ * </ul>
+ * Spaces are ignored. When several patterns match an APDU, the exact bytes are preferred to the
+ * wildcards, position by position, and the longest prefix rule wins.
+ * <p>
+ * The APDUs are matched byte per byte, without hexadecimal conversion nor allocation.
+ */
+final class ApduMatcher {
+
+    private static final class Node {
+        /* exact edges: parallel arrays, the fan-out of a node is small */
+        byte[] exactValues = new byte[0];
+        Node[] exactChildren = new Node[0];
+
+        /* masked edges, tried in insertion order after the exact edges */
+        byte[] maskedValues = new byte[0];
+        byte[] masks = new byte[0];
+        Node[] maskedChildren = new Node[0];
+
+        /* response of a pattern ending at this node */
+        byte[] response;
+
+        /* response of a prefix pattern ending at this node */
+        byte[] prefixResponse;
+
+        Node exactChild(byte value) {
+            for (int i = 0; i < exactValues.length; i++) {
+                if (exactValues[i] == value) {
+                    return exactChildren[i];
+                }
+            }
+            return null;
+        }
+
+        Node maskedChild(byte value, byte mask) {
+            for (int i = 0; i < masks.length; i++) {
+                if (masks[i] == mask && maskedValues[i] == value) {
+                    return maskedChildren[i];
+                }
+            }
+            return null;
+        }
+
+        Node addExactChild(byte value) {
+            int n = exactValues.length;
+            exactValues = Arrays.copyOf(exactValues, n + 1);
+            exactChildren = Arrays.copyOf(exactChildren, n + 1);
+            exactValues[n] = value;
+            exactChildren[n] = new Node();
+            return exactChildren[n];
+        }
+
+        Node addMaskedChild(byte value, byte mask) {
+            int n = masks.length;
+            maskedValues = Arrays.copyOf(maskedValues, n + 1);
+            masks = Arrays.copyOf(masks, n + 1);
+            maskedChildren = Arrays.copyOf(maskedChildren, n + 1);
+            maskedValues[n] = value;
+            masks[n] = mask;
+            maskedChildren[n] = new Node();
+            return maskedChildren[n];
+        }
+    }
+
+    /**
+     * Compiled form of a pattern
+     */
+    private static final class Pattern {
+        final byte[] values;
+        final byte[] masks;
+        final boolean prefix;
+
+        Pattern(byte[] values, byte[] masks, boolean prefix) {
+            this.values = values;
+            this.masks = masks;
+            this.prefix = prefix;
+        }
+    }
+
+    private final Node root = new Node();
+
+    private int size;
+
+    /**
+     * Adds a pattern, or replaces the response of an identical pattern
+     *
+     * @param pattern the command pattern
+     * @param response the response, not copied
+     * @throws IllegalArgumentException if the pattern is malformed
+     */
+    void put(String pattern, byte[] response) {
+        Pattern compiled = compile(pattern);
+        Node node = root;
+        for (int i = 0; i < compiled.values.length; i++) {
+            byte value = compiled.values[i];
+            byte mask = compiled.masks[i];
+            Node child;
+            if (mask == (byte) 0xFF) {
+                child = node.exactChild(value);
+                if (child == null) {
+                    child = node.addExactChild(value);
+                }
+            } else {
+                child = node.maskedChild(value, mask);
+                if (child == null) {
+                    child = node.addMaskedChild(value, mask);
+                }
+            }
+            node = child;
+        }
+        if (compiled.prefix) {
+            if (node.prefixResponse == null) {
+                size++;
+            }
+            node.prefixResponse = response;
+        } else {
+            if (node.response == null) {
+                size++;
+            }
+            node.response = response;
+        }
+    }
+
+    /**
+     * Removes a pattern
+     *
+     * @param pattern the command pattern, as provided to {@link #put(String, byte[])}
+     * @return true if the pattern was present
+     * @throws IllegalArgumentException if the pattern is malformed
+     */
+    boolean remove(String pattern) {
+        Pattern compiled = compile(pattern);
+        Node node = root;
+        for (int i = 0; i < compiled.values.length && node != null; i++) {
+            node = compiled.masks[i] == (byte) 0xFF ? node.exactChild(compiled.values[i])
+                    : node.maskedChild(compiled.values[i], compiled.masks[i]);
+        }
+        if (node == null) {
+            return false;
+        }
+        boolean removed;
+        if (compiled.prefix) {
+            removed = node.prefixResponse != null;
+            node.prefixResponse = null;
+        } else {
+            removed = node.response != null;
+            node.response = null;
+        }
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * @return the number of patterns
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds the response to an APDU
+     *
+     * @param apdu the incoming APDU
+     * @return the response of the best matching pattern (not copied), null if none matches
+     */
+    byte[] match(byte[] apdu) {
+        return match(root, apdu, 0);
+    }
+
+    private static byte[] match(Node node, byte[] apdu, int offset) {
+        if (offset == apdu.length) {
+            return node.response != null ? node.response : node.prefixResponse;
+        }
+        byte b = apdu[offset];
+        Node exact = node.exactChild(b);
+        if (exact != null) {
+            byte[] response = match(exact, apdu, offset + 1);
+            if (response != null) {
+                return response;
+            }
+        }
+        byte[] masks = node.masks;
+        for (int i = 0; i < masks.length; i++) {
+            if ((b & masks[i]) == node.maskedValues[i]) {
+                byte[] response = match(node.maskedChildren[i], apdu, offset + 1);
+                if (response != null) {
+                    return response;
+                }
+            }
+        }
+        return node.prefixResponse;
+    }
+
+    private static Pattern compile(String pattern) {
+        String digits = pattern.replace(" ", "");
+        boolean prefix = digits.endsWith("*");
+        if (prefix) {
+            digits = digits.substring(0, digits.length() - 1);
+        }
+        if (digits.length() % 2 != 0) {
+            throw new IllegalArgumentException("Odd numbered hex pattern: " + pattern);
+        }
+        byte[] values = new byte[digits.length() / 2];
+        byte[] masks = new byte[values.length];
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            int shift = i % 2 == 0 ? 4 : 0;
+            if (c == 'X' || c == 'x') {
+                continue;
+            }
+            int nibble = Character.digit(c, 16);
+            if (nibble < 0) {
+                throw new IllegalArgumentException(
+                        "Illegal character '" + c + "' in hex pattern: " + pattern);
+            }
+            values[i / 2] |= nibble << shift;
+            masks[i / 2] |= 0x0F << shift;
+        }
+        return new Pattern(values, masks, prefix);
+    }
+}
@@ -0,0 +1,122 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+
+/**
+ * Stub SE replaying a recorded session, loaded once when the SE is created.
+ * <p>
+ * The session is a text file made of:
+ * 
+ * <pre>
+ * # comment, blank lines are ignored
+ * atr 3B 8E 80 01 80 31 80 66 40 90 89 12 08 02 83 01 90 00 0B
+ * protocol PROTOCOL_ISO14443_4
+ * &gt; 00 A4 04 00 0A A0 00 00 02 91 A0 00 00 01 91 00
+ * &lt; 6F 25 84 0B A0 00 00 02 91 A0 00 00 01 91 02 A5 16 BF 0C 13 C7 08 ... 90 00
+ * &gt; 00 84 00 00 XX
+ * &lt; 01 02 03 04 90 00
+ * &gt; 00 B2 *
+ * &lt; 6A 82
+ * </pre>
+ * 
+ * Each command line ("&gt;") is followed by its response line ("&lt;"). The commands are
+ * patterns as accepted by {@link StubSecureElement#addHexCommand(String, String)}, so that the
+ * dynamic bytes of a capture (challenges, signatures...) can be replaced by wildcards.
+ * <p>
+ * Additional commands may still be added with {@link #addHexCommand(String, String)}.
+ */
+public class RecordedSecureElement extends StubSecureElement {
+
+    private static final String ATR_KEYWORD = "atr";
+    private static final String PROTOCOL_KEYWORD = "protocol";
+
+    private byte[] atr;
+    private String seProtocol;
+
+    /**
+     * Loads a recorded session
+     *
+     * @param session the session text, read to the end but not closed
+     * @throws IOException if the session cannot be read
+     * @throws IllegalArgumentException if the session is malformed
+     */
+    public RecordedSecureElement(Reader session) throws IOException {
+        BufferedReader reader = new BufferedReader(session);
+        String command = null;
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.length() == 0 || line.charAt(0) == '#') {
+                continue;
+            }
+            try {
+                if (line.charAt(0) == '>') {
+                    if (command != null) {
+                        throw new IllegalArgumentException("command without response");
+                    }
+                    command = line.substring(1).trim();
+                } else if (line.charAt(0) == '<') {
+                    if (command == null) {
+                        throw new IllegalArgumentException("response without command");
+                    }
+                    addHexCommand(command, line.substring(1).trim());
+                    command = null;
+                } else if (line.startsWith(ATR_KEYWORD + " ")) {
+                    atr = ByteArrayUtil.fromHex(line.substring(ATR_KEYWORD.length()).trim());
+                } else if (line.startsWith(PROTOCOL_KEYWORD + " ")) {
+                    seProtocol = line.substring(PROTOCOL_KEYWORD.length()).trim();
+                } else {
+                    throw new IllegalArgumentException("unexpected line");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(
+                        "Malformed session, line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        if (command != null) {
+            throw new IllegalArgumentException("Malformed session: last command without response");
+        }
+        if (atr == null || seProtocol == null) {
+            throw new IllegalArgumentException("Malformed session: ATR or protocol missing");
+        }
+    }
+
+    /**
+     * Loads a recorded session encoded in UTF-8 (e.g. a test resource)
+     *
+     * @param session the session stream, read to the end but not closed
+     * @throws IOException if the session cannot be read
+     * @throws IllegalArgumentException if the session is malformed
+     */
+    public RecordedSecureElement(InputStream session) throws IOException {
+        this(new InputStreamReader(session, "UTF-8"));
+    }
+
+    @Override
+    public byte[] getATR() {
+        return atr.clone();
+    }
+
+    @Override
+    public String getSeProcotol() {
+        return seProtocol;
+    }
+}
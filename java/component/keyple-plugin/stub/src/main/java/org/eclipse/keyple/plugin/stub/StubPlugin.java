@@ -98,7 +98,7 @@ public final class StubPlugin extends AbstractThreadedObservablePlugin {
 
         if (!exist && synchronous) {
             /* add the reader as a new reader to the readers list */
-            readers.add(new StubReader(name));
+            addReader(new StubReader(name));
         }
 
         connectedStubNames.add(name);
@@ -134,11 +134,9 @@ public final class StubPlugin extends AbstractThreadedObservablePlugin {
 
         if (newNames.size() > 0) {
             if (synchronous) {
-                List<StubReader> newReaders = new ArrayList<StubReader>();
                 for (String name : newNames) {
-                    newReaders.add(new StubReader(name));
+                    addReader(new StubReader(name));
                 }
-                readers.addAll(newReaders);
             }
 
             connectedStubNames.addAll(names);
@@ -168,7 +166,7 @@ public final class StubPlugin extends AbstractThreadedObservablePlugin {
             /* remove the reader from the readers list */
             if (synchronous) {
                 connectedStubNames.remove(name);
-                readers.remove(getReader(name));
+                removeReader((StubReader) getReader(name));
             } else {
                 connectedStubNames.remove(name);
             }
@@ -198,7 +196,9 @@ public final class StubPlugin extends AbstractThreadedObservablePlugin {
         }
         connectedStubNames.removeAll(names);
         if (synchronous) {
-            readers.removeAll(readersToDelete);
+            for (StubReader reader : readersToDelete) {
+                removeReader(reader);
+            }
         }
     }
 
@@ -11,8 +11,6 @@
  ********************************************************************************/
 package org.eclipse.keyple.plugin.stub;
 
-import java.util.HashMap;
-import java.util.Map;
 import org.eclipse.keyple.core.seproxy.exception.KeypleChannelStateException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
@@ -48,28 +46,34 @@ public abstract class StubSecureElement {
     public abstract String getSeProcotol();
 
 
-    Map<String, String> hexCommands = new HashMap<String, String>();
+    /* command patterns and their responses, decoded once */
+    private final ApduMatcher commands = new ApduMatcher();
 
     /**
      * Add more simulated commands to the Stub SE
+     * <p>
+     * Besides exact hexadecimal commands, the command may be a pattern: an 'X' digit matches any
+     * nibble (e.g. "XX" for a challenge byte) and a trailing '*' matches any remaining bytes. An
+     * exact byte is preferred to a wildcard when several patterns match, and the longest prefix
+     * wins.
      *
-     * @param command : hexadecimal command to react to
+     * @param command : hexadecimal command (or command pattern) to react to
      * @param response : hexadecimal response to be sent in reaction to command
+     * @throws IllegalArgumentException if the command or the response is malformed
      */
     public void addHexCommand(String command, String response) {
         assert command != null && response != null : "command and response should not be null";
-        // add commands without space
-        hexCommands.put(command.replace(" ", ""), response.replace(" ", ""));
+        commands.put(command, ByteArrayUtil.fromHex(response));
     }
 
     /**
      * Remove simulated commands from the Stub SE
      *
-     * @param command : hexadecimal command to be removed
+     * @param command : hexadecimal command (or command pattern) to be removed
      */
     public void removeHexCommand(String command) {
         assert command != null : "command should not be null";
-        hexCommands.remove(command.trim());
+        commands.remove(command.trim());
     }
 
     /**
@@ -85,12 +89,10 @@ public abstract class StubSecureElement {
             return null;
         }
 
-        // convert apduIn to hexa
-        String hexApdu = ByteArrayUtil.toHex(apduIn);
-
-        // return matching hexa response if found
-        if (hexCommands.containsKey(hexApdu)) {
-            return ByteArrayUtil.fromHex(hexCommands.get(hexApdu));
+        // return a copy of the matching response if found
+        byte[] response = commands.match(apduIn);
+        if (response != null) {
+            return response.clone();
         }
 
         // throw a KeypleIOReaderException if not found
@@ -0,0 +1,122 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub.calypso;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+
+/**
+ * Cryptography shared by the {@link CalypsoPoSimulator} and the {@link CalypsoSamSimulator}.
+ * <p>
+ * This is not the Calypso cryptography but an equivalent built on HMAC-SHA1, so that a PO and a
+ * SAM agree on the session signatures only if they use the same key, the same diversifier, the same
+ * challenges and the same digest data:
+ * <ul>
+ * <li>diversified key = HMAC(master key, serial number),</li>
+ * <li>session key = HMAC(diversified key, SAM challenge | PO challenge),</li>
+ * <li>signature = HMAC(session key, role | SHA-1(digest data)) truncated to the signature
+ * length.</li>
+ * </ul>
+ * An instance is not thread-safe.
+ */
+final class CalypsoCrypto {
+    /** KIF of the default keys, as defined in the default security settings of the terminal */
+    static final byte KIF_PERSO = (byte) 0x21;
+    static final byte KIF_LOAD = (byte) 0x27;
+    static final byte KIF_DEBIT = (byte) 0x30;
+    /** KVC of the default keys */
+    static final byte DEFAULT_KVC = (byte) 0x79;
+
+    /** Default test keys */
+    static final byte[] TEST_KEY_PERSO = ByteArrayUtil.fromHex("2121212121212121DEADBEEF00000001");
+    static final byte[] TEST_KEY_LOAD = ByteArrayUtil.fromHex("2727272727272727DEADBEEF00000002");
+    static final byte[] TEST_KEY_DEBIT = ByteArrayUtil.fromHex("3030303030303030DEADBEEF00000003");
+
+    private static final String MAC_ALGORITHM = "HmacSHA1";
+    private static final byte ROLE_TERMINAL = (byte) 0x54;
+    private static final byte ROLE_PO = (byte) 0x50;
+
+    private final Mac mac;
+    private final MessageDigest digest;
+
+    CalypsoCrypto() {
+        try {
+            mac = Mac.getInstance(MAC_ALGORITHM);
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the key diversified with the provided serial number
+     */
+    byte[] diversify(byte[] masterKey, byte[] serialNumber) {
+        init(masterKey);
+        return mac.doFinal(serialNumber);
+    }
+
+    /**
+     * @return the session key computed from the diversified key and the challenges
+     */
+    byte[] sessionKey(byte[] diversifiedKey, byte[] samChallenge, byte[] poChallenge) {
+        init(diversifiedKey);
+        mac.update(samChallenge);
+        return mac.doFinal(poChallenge);
+    }
+
+    /**
+     * Starts a new digest computation, dropping the current one
+     */
+    void startDigest() {
+        digest.reset();
+    }
+
+    void updateDigest(byte[] data, int offset, int length) {
+        digest.update(data, offset, length);
+    }
+
+    /**
+     * Ends the digest computation
+     *
+     * @return the hash of the digest data, to provide to the signature methods
+     */
+    byte[] closeDigest() {
+        return digest.digest();
+    }
+
+    byte[] terminalSignature(byte[] sessionKey, byte[] digestHash, int length) {
+        return signature(sessionKey, ROLE_TERMINAL, digestHash, length);
+    }
+
+    byte[] poSignature(byte[] sessionKey, byte[] digestHash, int length) {
+        return signature(sessionKey, ROLE_PO, digestHash, length);
+    }
+
+    private byte[] signature(byte[] sessionKey, byte role, byte[] digestHash, int length) {
+        init(sessionKey);
+        mac.update(role);
+        return Arrays.copyOf(mac.doFinal(digestHash), length);
+    }
+
+    private void init(byte[] key) {
+        try {
+            mac.init(new SecretKeySpec(key, MAC_ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
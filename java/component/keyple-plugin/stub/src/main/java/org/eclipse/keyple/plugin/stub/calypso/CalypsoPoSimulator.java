@@ -0,0 +1,686 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub.calypso;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.eclipse.keyple.core.seproxy.exception.KeypleChannelStateException;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+
+/**
+ * Simulated Calypso rev 3.1 PO, to be inserted in a {@link StubReader}.
+ * <p>
+ * Unlike a scripted {@link StubSecureElement}, the simulator keeps a state: an in-memory file
+ * system made of linear, cyclic and counters files addressed by their SFI, a transaction counter,
+ * the ratification status and the secure session. It answers the Select Application, Read Records,
+ * Update Record, Append Record, Increase, Decrease, Open Secure Session and Close Secure Session
+ * commands.
+ * <p>
+ * The modifications made inside a secure session are kept in the modification buffer: they are
+ * committed when the session is closed with the right terminal signature, and undone when the
+ * session is aborted, closed with a wrong signature, or when the application is selected again or
+ * the physical channel closed. The size of the buffer is 430 bytes (as announced in the FCI), each
+ * modification using its data length + 6 bytes.
+ * <p>
+ * The session signatures are computed with the key of the session access level, diversified with
+ * the PO serial number. The default keys are the ones the {@link CalypsoSamSimulator} holds by
+ * default, with the KIF expected by the default security settings of the terminal.
+ * <p>
+ * As a real PO, an instance is meant to be used by one reader at a time.
+ */
+public final class CalypsoPoSimulator extends StubSecureElement {
+    private static final byte[] ATR = ByteArrayUtil.fromHex("3B8880010000000000718100F9");
+    private static final byte BUFFER_SIZE_INDICATOR = (byte) 0x0A;
+    private static final int BUFFER_SIZE = 430;
+    private static final int CHALLENGE_LENGTH = 4;
+    private static final int SIGNATURE_LENGTH = 4;
+    private static final int MAX_RECORD_SIZE = 250;
+    private static final int MAX_COUNTER_VALUE = 0xFFFFFF;
+
+    private static final int SW_SUCCESS = 0x9000;
+    private static final int SW_LC_INCORRECT = 0x6700;
+    private static final int SW_TOO_MANY_MODIFICATIONS = 0x6400;
+    private static final int SW_TRANSACTION_COUNTER_IS_0 = 0x6900;
+    private static final int SW_INCOMPATIBLE_FILE = 0x6981;
+    private static final int SW_CONDITIONS_NOT_SATISFIED = 0x6985;
+    private static final int SW_INCORRECT_SIGNATURE = 0x6988;
+    private static final int SW_OVERFLOW = 0x6A80;
+    private static final int SW_WRONG_KEY_INDEX = 0x6A81;
+    private static final int SW_FILE_NOT_FOUND = 0x6A82;
+    private static final int SW_RECORD_NOT_FOUND = 0x6A83;
+    private static final int SW_INCORRECT_P1_P2 = 0x6B00;
+    private static final int SW_INS_NOT_SUPPORTED = 0x6D00;
+
+    private enum FileType {
+        LINEAR, CYCLIC, COUNTERS
+    }
+
+    private static final class ElementaryFile {
+        private final FileType type;
+        private final byte[][] records;
+
+        private ElementaryFile(FileType type, int numberOfRecords, int recordSize) {
+            this.type = type;
+            this.records = new byte[numberOfRecords][recordSize];
+        }
+
+        private ElementaryFile copy() {
+            ElementaryFile copy = new ElementaryFile(type, records.length, 0);
+            for (int i = 0; i < records.length; i++) {
+                copy.records[i] = records[i].clone();
+            }
+            return copy;
+        }
+    }
+
+    private static final class Key {
+        private final byte kif;
+        private final byte kvc;
+        private final byte[] diversifiedKey;
+
+        private Key(byte kif, byte kvc, byte[] diversifiedKey) {
+            this.kif = kif;
+            this.kvc = kvc;
+            this.diversifiedKey = diversifiedKey;
+        }
+    }
+
+    private final byte[] aid;
+    private final byte[] serialNumber;
+    private final byte[] fci;
+    private final Map<Byte, ElementaryFile> files = new HashMap<Byte, ElementaryFile>();
+    /* keys indexed by key index (1: personalization, 2: load, 3: debit) */
+    private final Key[] keys = new Key[4];
+    private final CalypsoCrypto crypto = new CalypsoCrypto();
+    private final Random random = new Random();
+
+    private int transactionCounter = MAX_COUNTER_VALUE;
+    private boolean ratified = true;
+    private boolean ratificationPending;
+    private int committedSessionCount;
+    private int rejectedSessionCount;
+
+    /* secure session state */
+    private boolean sessionOpen;
+    private byte[] sessionKey;
+    private int modificationsBufferUsage;
+    /* state of the files modified in the current session, before their first modification */
+    private final Map<Byte, ElementaryFile> filesBeforeSession =
+            new HashMap<Byte, ElementaryFile>();
+
+    /**
+     * Creates a PO with an empty file system and the default keys
+     *
+     * @param aid the AID of the Calypso application (5 to 16 bytes)
+     * @param serialNumber the application serial number (8 bytes)
+     */
+    public CalypsoPoSimulator(byte[] aid, byte[] serialNumber) {
+        if (aid == null || aid.length < 5 || aid.length > 16) {
+            throw new IllegalArgumentException("Bad AID: " + ByteArrayUtil.toHex(aid));
+        }
+        if (serialNumber == null || serialNumber.length != 8) {
+            throw new IllegalArgumentException(
+                    "Bad serial number: " + ByteArrayUtil.toHex(serialNumber));
+        }
+        this.aid = aid.clone();
+        this.serialNumber = serialNumber.clone();
+        this.fci = buildFci();
+        setKey(1, CalypsoCrypto.KIF_PERSO, CalypsoCrypto.DEFAULT_KVC, CalypsoCrypto.TEST_KEY_PERSO);
+        setKey(2, CalypsoCrypto.KIF_LOAD, CalypsoCrypto.DEFAULT_KVC, CalypsoCrypto.TEST_KEY_LOAD);
+        setKey(3, CalypsoCrypto.KIF_DEBIT, CalypsoCrypto.DEFAULT_KVC, CalypsoCrypto.TEST_KEY_DEBIT);
+    }
+
+    /**
+     * Defines the key used to open the sessions with the provided key index
+     *
+     * @param keyIndex the key index (1: personalization, 2: load, 3: debit)
+     * @param kif the KIF of the key
+     * @param kvc the KVC of the key
+     * @param masterKey the master key, diversified with the serial number of the PO
+     * @return this PO
+     */
+    public CalypsoPoSimulator setKey(int keyIndex, byte kif, byte kvc, byte[] masterKey) {
+        if (keyIndex < 1 || keyIndex > 3) {
+            throw new IllegalArgumentException("Bad key index: " + keyIndex);
+        }
+        keys[keyIndex] = new Key(kif, kvc, crypto.diversify(masterKey, serialNumber));
+        return this;
+    }
+
+    /**
+     * Adds a linear file, its records being filled with zeros
+     *
+     * @param sfi the SFI of the file (1 to 30)
+     * @param numberOfRecords the number of records
+     * @param recordSize the size of the records
+     * @return this PO
+     */
+    public CalypsoPoSimulator addLinearFile(byte sfi, int numberOfRecords, int recordSize) {
+        return addFile(sfi, new ElementaryFile(FileType.LINEAR, numberOfRecords, recordSize));
+    }
+
+    /**
+     * Adds a cyclic file, its records being filled with zeros
+     * <p>
+     * A record appended to a cyclic file becomes the record #1, the oldest record is lost.
+     *
+     * @param sfi the SFI of the file (1 to 30)
+     * @param numberOfRecords the number of records
+     * @param recordSize the size of the records
+     * @return this PO
+     */
+    public CalypsoPoSimulator addCyclicFile(byte sfi, int numberOfRecords, int recordSize) {
+        return addFile(sfi, new ElementaryFile(FileType.CYCLIC, numberOfRecords, recordSize));
+    }
+
+    /**
+     * Adds a counters file, the counters being set to zero
+     * <p>
+     * The counters are stored in the record #1, 3 bytes per counter.
+     *
+     * @param sfi the SFI of the file (1 to 30)
+     * @param numberOfCounters the number of counters
+     * @return this PO
+     */
+    public CalypsoPoSimulator addCountersFile(byte sfi, int numberOfCounters) {
+        return addFile(sfi, new ElementaryFile(FileType.COUNTERS, 1, 3 * numberOfCounters));
+    }
+
+    private CalypsoPoSimulator addFile(byte sfi, ElementaryFile file) {
+        if (sfi < 1 || sfi > 30) {
+            throw new IllegalArgumentException("Bad SFI: " + sfi);
+        }
+        if (file.records.length < 1 || file.records.length > 30 || file.records[0].length < 1
+                || file.records[0].length > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Bad file size.");
+        }
+        files.put(sfi, file);
+        return this;
+    }
+
+    /**
+     * Sets the content of a record outside of any session
+     *
+     * @param sfi the SFI of the file
+     * @param recordNumber the record number (from 1)
+     * @param data the data, padded with zeros up to the record size
+     */
+    public void setRecord(byte sfi, int recordNumber, byte[] data) {
+        ElementaryFile file = getFile(sfi);
+        if (recordNumber < 1 || recordNumber > file.records.length
+                || data.length > file.records[0].length) {
+            throw new IllegalArgumentException("Bad record number or record size.");
+        }
+        writeRecord(file, recordNumber - 1, data, 0, data.length);
+    }
+
+    /**
+     * @param sfi the SFI of the file
+     * @param recordNumber the record number (from 1)
+     * @return a copy of the current content of the record
+     */
+    public byte[] getRecord(byte sfi, int recordNumber) {
+        ElementaryFile file = getFile(sfi);
+        if (recordNumber < 1 || recordNumber > file.records.length) {
+            throw new IllegalArgumentException("Bad record number: " + recordNumber);
+        }
+        return file.records[recordNumber - 1].clone();
+    }
+
+    /**
+     * Sets the value of a counter outside of any session
+     *
+     * @param sfi the SFI of the counters file
+     * @param counterNumber the counter number (from 1)
+     * @param value the value (0 to 16777215)
+     */
+    public void setCounter(byte sfi, int counterNumber, int value) {
+        ElementaryFile file = getFile(sfi);
+        if (file.type != FileType.COUNTERS || counterNumber < 1
+                || 3 * counterNumber > file.records[0].length || value < 0
+                || value > MAX_COUNTER_VALUE) {
+            throw new IllegalArgumentException("Bad counter or value.");
+        }
+        writeCounter(file, counterNumber, value);
+    }
+
+    /**
+     * @param sfi the SFI of the counters file
+     * @param counterNumber the counter number (from 1)
+     * @return the current value of the counter
+     */
+    public int getCounter(byte sfi, int counterNumber) {
+        ElementaryFile file = getFile(sfi);
+        if (file.type != FileType.COUNTERS || counterNumber < 1
+                || 3 * counterNumber > file.records[0].length) {
+            throw new IllegalArgumentException("Bad counter: " + counterNumber);
+        }
+        return ByteArrayUtil.threeBytesToInt(file.records[0], 3 * (counterNumber - 1));
+    }
+
+    private ElementaryFile getFile(byte sfi) {
+        ElementaryFile file = files.get(sfi);
+        if (file == null) {
+            throw new IllegalArgumentException("No file with SFI " + sfi);
+        }
+        return file;
+    }
+
+    /**
+     * @return the transaction counter, decremented at each session opening
+     */
+    public int getTransactionCounter() {
+        return transactionCounter;
+    }
+
+    /**
+     * @return true if a secure session is open
+     */
+    public boolean isSessionOpen() {
+        return sessionOpen;
+    }
+
+    /**
+     * @return the number of sessions closed successfully, their modifications being committed
+     */
+    public int getCommittedSessionCount() {
+        return committedSessionCount;
+    }
+
+    /**
+     * @return the number of sessions closed with an incorrect terminal signature
+     */
+    public int getRejectedSessionCount() {
+        return rejectedSessionCount;
+    }
+
+    @Override
+    public byte[] getATR() {
+        return ATR;
+    }
+
+    @Override
+    public String getSeProcotol() {
+        return "PROTOCOL_ISO14443_4";
+    }
+
+    @Override
+    public void closePhysicalChannel() throws KeypleChannelStateException {
+        /* the PO is removed: the current session is lost, the last one is not ratified */
+        cancelSession();
+        ratificationPending = false;
+        super.closePhysicalChannel();
+    }
+
+    @Override
+    public byte[] processApdu(byte[] apduIn) {
+        if (apduIn == null) {
+            return null;
+        }
+        if (ratificationPending) {
+            /* any command received after the closing of a session ratifies it */
+            ratificationPending = false;
+            ratified = true;
+        }
+        if (apduIn.length < 4 || (apduIn.length > 5 && apduIn.length < 5 + (apduIn[4] & 0xFF))) {
+            return status(SW_LC_INCORRECT);
+        }
+        byte[] response = execute(apduIn);
+        if (sessionOpen && apduIn[1] != (byte) 0x8A) {
+            /* Le is excluded from the digest for case 4 commands */
+            int length = apduIn.length > 5 && apduIn.length == 6 + (apduIn[4] & 0xFF)
+                    ? apduIn.length - 1
+                    : apduIn.length;
+            crypto.updateDigest(apduIn, 0, length);
+            crypto.updateDigest(response, 0, response.length);
+        }
+        return response;
+    }
+
+    private byte[] execute(byte[] apdu) {
+        switch (apdu[1]) {
+            case (byte) 0xA4:
+                return selectApplication(apdu);
+            case (byte) 0xB2:
+                return readRecords(apdu);
+            case (byte) 0xDC:
+                return updateRecord(apdu);
+            case (byte) 0xE2:
+                return appendRecord(apdu);
+            case (byte) 0x32:
+                return changeCounter(apdu, 1);
+            case (byte) 0x30:
+                return changeCounter(apdu, -1);
+            case (byte) 0x8A:
+                return openSession(apdu);
+            case (byte) 0x8E:
+                return closeSession(apdu);
+            default:
+                return status(SW_INS_NOT_SUPPORTED);
+        }
+    }
+
+    private byte[] selectApplication(byte[] apdu) {
+        if (apdu[2] != (byte) 0x04 || apdu.length < 5 || (apdu[3] & 0x03) != 0) {
+            return status(SW_FILE_NOT_FOUND);
+        }
+        int lc = apdu[4] & 0xFF;
+        if (lc > aid.length || !Arrays.equals(Arrays.copyOf(aid, lc),
+                Arrays.copyOfRange(apdu, 5, 5 + lc))) {
+            return status(SW_FILE_NOT_FOUND);
+        }
+        cancelSession();
+        return fci.clone();
+    }
+
+    private byte[] readRecords(byte[] apdu) {
+        int recordNumber = apdu[2] & 0xFF;
+        int mode = apdu[3] & 0x07;
+        if (recordNumber == 0 || (mode != 4 && mode != 5)) {
+            return status(SW_INCORRECT_P1_P2);
+        }
+        ElementaryFile file = files.get((byte) ((apdu[3] & 0xFF) >> 3));
+        if (file == null) {
+            return status(SW_FILE_NOT_FOUND);
+        }
+        if (recordNumber > file.records.length) {
+            return status(SW_RECORD_NOT_FOUND);
+        }
+        if (mode == 4) {
+            return withStatus(file.records[recordNumber - 1], SW_SUCCESS);
+        }
+        /* multiple records: number, length and data of each record fitting in the response */
+        int recordSize = file.records[0].length;
+        int count = Math.min(file.records.length - recordNumber + 1,
+                MAX_RECORD_SIZE / (2 + recordSize));
+        byte[] data = new byte[count * (2 + recordSize)];
+        for (int i = 0; i < count; i++) {
+            data[i * (2 + recordSize)] = (byte) (recordNumber + i);
+            data[i * (2 + recordSize) + 1] = (byte) recordSize;
+            System.arraycopy(file.records[recordNumber - 1 + i], 0, data,
+                    i * (2 + recordSize) + 2, recordSize);
+        }
+        return withStatus(data, SW_SUCCESS);
+    }
+
+    private byte[] updateRecord(byte[] apdu) {
+        int recordNumber = apdu[2] & 0xFF;
+        if (recordNumber == 0 || (apdu[3] & 0x07) != 4) {
+            return status(SW_INCORRECT_P1_P2);
+        }
+        byte sfi = (byte) ((apdu[3] & 0xFF) >> 3);
+        ElementaryFile file = files.get(sfi);
+        if (file == null) {
+            return status(SW_FILE_NOT_FOUND);
+        }
+        if (recordNumber > file.records.length) {
+            return status(SW_RECORD_NOT_FOUND);
+        }
+        int lc = apdu.length > 4 ? apdu[4] & 0xFF : 0;
+        if (lc == 0 || lc > file.records[0].length) {
+            return status(SW_LC_INCORRECT);
+        }
+        if (!useModificationsBuffer(sfi, file, lc)) {
+            return status(SW_TOO_MANY_MODIFICATIONS);
+        }
+        writeRecord(file, recordNumber - 1, apdu, 5, lc);
+        return status(SW_SUCCESS);
+    }
+
+    private byte[] appendRecord(byte[] apdu) {
+        if (apdu[2] != 0 || (apdu[3] & 0x07) != 0) {
+            return status(SW_INCORRECT_P1_P2);
+        }
+        byte sfi = (byte) ((apdu[3] & 0xFF) >> 3);
+        ElementaryFile file = files.get(sfi);
+        if (file == null) {
+            return status(SW_FILE_NOT_FOUND);
+        }
+        if (file.type != FileType.CYCLIC) {
+            return status(SW_INCOMPATIBLE_FILE);
+        }
+        int lc = apdu.length > 4 ? apdu[4] & 0xFF : 0;
+        if (lc == 0 || lc > file.records[0].length) {
+            return status(SW_LC_INCORRECT);
+        }
+        if (!useModificationsBuffer(sfi, file, lc)) {
+            return status(SW_TOO_MANY_MODIFICATIONS);
+        }
+        /* the oldest record is reused as the new record #1 */
+        byte[] oldest = file.records[file.records.length - 1];
+        System.arraycopy(file.records, 0, file.records, 1, file.records.length - 1);
+        file.records[0] = oldest;
+        writeRecord(file, 0, apdu, 5, lc);
+        return status(SW_SUCCESS);
+    }
+
+    /**
+     * Increase (sign = 1) or Decrease (sign = -1) command
+     */
+    private byte[] changeCounter(byte[] apdu, int sign) {
+        int counterNumber = apdu[2] & 0xFF;
+        if ((apdu[3] & 0x07) != 0) {
+            return status(SW_INCORRECT_P1_P2);
+        }
+        byte sfi = (byte) ((apdu[3] & 0xFF) >> 3);
+        ElementaryFile file = files.get(sfi);
+        if (file == null) {
+            return status(SW_FILE_NOT_FOUND);
+        }
+        if (file.type != FileType.COUNTERS) {
+            return status(SW_INCOMPATIBLE_FILE);
+        }
+        if (counterNumber < 1 || 3 * counterNumber > file.records[0].length) {
+            return status(SW_INCORRECT_P1_P2);
+        }
+        if (apdu.length < 8 || (apdu[4] & 0xFF) != 3) {
+            return status(SW_LC_INCORRECT);
+        }
+        int value = ByteArrayUtil.threeBytesToInt(file.records[0], 3 * (counterNumber - 1))
+                + sign * ByteArrayUtil.threeBytesToInt(apdu, 5);
+        if (value < 0 || value > MAX_COUNTER_VALUE) {
+            return status(SW_OVERFLOW);
+        }
+        if (!useModificationsBuffer(sfi, file, 3)) {
+            return status(SW_TOO_MANY_MODIFICATIONS);
+        }
+        writeCounter(file, counterNumber, value);
+        return withStatus(Arrays.copyOfRange(file.records[0], 3 * (counterNumber - 1),
+                3 * counterNumber), SW_SUCCESS);
+    }
+
+    /**
+     * Open Secure Session rev 3.1
+     */
+    private byte[] openSession(byte[] apdu) {
+        int keyIndex = apdu[2] & 0x07;
+        int recordNumber = (apdu[2] & 0xFF) >> 3;
+        byte sfi = (byte) ((apdu[3] & 0xFF) >> 3);
+        if ((apdu[3] & 0x07) != 1) {
+            return status(SW_INCORRECT_P1_P2);
+        }
+        if (keyIndex < 1 || keyIndex > 3) {
+            return status(SW_WRONG_KEY_INDEX);
+        }
+        if (apdu.length < 5 + CHALLENGE_LENGTH || (apdu[4] & 0xFF) != CHALLENGE_LENGTH) {
+            return status(SW_LC_INCORRECT);
+        }
+        if (transactionCounter == 0) {
+            return status(SW_TRANSACTION_COUNTER_IS_0);
+        }
+        byte[] record = new byte[0];
+        if (recordNumber != 0) {
+            ElementaryFile file = files.get(sfi);
+            if (file == null) {
+                return status(SW_FILE_NOT_FOUND);
+            }
+            if (recordNumber > file.records.length) {
+                return status(SW_RECORD_NOT_FOUND);
+            }
+            record = file.records[recordNumber - 1];
+        }
+        cancelSession();
+        transactionCounter--;
+
+        Key key = keys[keyIndex];
+        byte[] data = new byte[8 + record.length];
+        data[0] = (byte) (transactionCounter >> 16);
+        data[1] = (byte) (transactionCounter >> 8);
+        data[2] = (byte) transactionCounter;
+        data[3] = (byte) random.nextInt();
+        data[4] = ratified ? (byte) 0x00 : (byte) 0x01;
+        data[5] = key.kif;
+        data[6] = key.kvc;
+        data[7] = (byte) record.length;
+        System.arraycopy(record, 0, data, 8, record.length);
+
+        /* the PO challenge is made of the transaction counter and the random byte */
+        sessionKey = crypto.sessionKey(key.diversifiedKey, Arrays.copyOfRange(apdu, 5, 9),
+                Arrays.copyOf(data, 4));
+        crypto.startDigest();
+        crypto.updateDigest(data, 0, data.length);
+        sessionOpen = true;
+        modificationsBufferUsage = 0;
+        return withStatus(data, SW_SUCCESS);
+    }
+
+    /**
+     * Close Secure Session, or Abort Secure Session when no signature is provided
+     */
+    private byte[] closeSession(byte[] apdu) {
+        int lc = apdu.length > 5 ? apdu[4] & 0xFF : 0;
+        if (lc == 0) {
+            cancelSession();
+            return status(SW_SUCCESS);
+        }
+        if (!sessionOpen) {
+            return status(SW_CONDITIONS_NOT_SATISFIED);
+        }
+        sessionOpen = false;
+        if (lc != SIGNATURE_LENGTH) {
+            undoModifications();
+            return status(SW_LC_INCORRECT);
+        }
+        byte[] digestHash = crypto.closeDigest();
+        if (!Arrays.equals(Arrays.copyOfRange(apdu, 5, 5 + lc),
+                crypto.terminalSignature(sessionKey, digestHash, SIGNATURE_LENGTH))) {
+            undoModifications();
+            rejectedSessionCount++;
+            return status(SW_INCORRECT_SIGNATURE);
+        }
+        filesBeforeSession.clear();
+        committedSessionCount++;
+        if (apdu[2] == (byte) 0x80) {
+            /* ratification asked in the close command */
+            ratified = true;
+        } else {
+            ratified = false;
+            ratificationPending = true;
+        }
+        return withStatus(crypto.poSignature(sessionKey, digestHash, SIGNATURE_LENGTH),
+                SW_SUCCESS);
+    }
+
+    /**
+     * Checks the space left in the modifications buffer and saves the file before its first
+     * modification in the session
+     *
+     * @return false if the buffer would overflow
+     */
+    private boolean useModificationsBuffer(byte sfi, ElementaryFile file, int dataLength) {
+        if (!sessionOpen) {
+            return true;
+        }
+        if (modificationsBufferUsage + dataLength + 6 > BUFFER_SIZE) {
+            return false;
+        }
+        modificationsBufferUsage += dataLength + 6;
+        if (!filesBeforeSession.containsKey(sfi)) {
+            filesBeforeSession.put(sfi, file.copy());
+        }
+        return true;
+    }
+
+    private void cancelSession() {
+        if (sessionOpen) {
+            sessionOpen = false;
+            undoModifications();
+        }
+    }
+
+    private void undoModifications() {
+        files.putAll(filesBeforeSession);
+        filesBeforeSession.clear();
+    }
+
+    private static void writeRecord(ElementaryFile file, int recordIndex, byte[] data,
+            int offset, int length) {
+        byte[] record = file.records[recordIndex];
+        System.arraycopy(data, offset, record, 0, length);
+        Arrays.fill(record, length, record.length, (byte) 0);
+    }
+
+    private static void writeCounter(ElementaryFile file, int counterNumber, int value) {
+        byte[] record = file.records[0];
+        int offset = 3 * (counterNumber - 1);
+        record[offset] = (byte) (value >> 16);
+        record[offset + 1] = (byte) (value >> 8);
+        record[offset + 2] = (byte) value;
+    }
+
+    private byte[] buildFci() {
+        /* startup information: rev 3.1 application, no PIN, no SV */
+        byte[] startupInfo = {BUFFER_SIZE_INDICATOR, (byte) 0x3C, (byte) 0x20, (byte) 0x00,
+                (byte) 0x14, (byte) 0x10, (byte) 0x01};
+        int discretionaryLength = 2 + serialNumber.length + 2 + startupInfo.length;
+        int proprietaryLength = 3 + discretionaryLength;
+        byte[] fci = new byte[2 + 2 + aid.length + 2 + proprietaryLength + 2];
+        int i = 0;
+        fci[i++] = (byte) 0x6F;
+        fci[i++] = (byte) (fci.length - 4);
+        fci[i++] = (byte) 0x84;
+        fci[i++] = (byte) aid.length;
+        System.arraycopy(aid, 0, fci, i, aid.length);
+        i += aid.length;
+        fci[i++] = (byte) 0xA5;
+        fci[i++] = (byte) proprietaryLength;
+        fci[i++] = (byte) 0xBF;
+        fci[i++] = (byte) 0x0C;
+        fci[i++] = (byte) discretionaryLength;
+        fci[i++] = (byte) 0xC7;
+        fci[i++] = (byte) serialNumber.length;
+        System.arraycopy(serialNumber, 0, fci, i, serialNumber.length);
+        i += serialNumber.length;
+        fci[i++] = (byte) 0x53;
+        fci[i++] = (byte) startupInfo.length;
+        System.arraycopy(startupInfo, 0, fci, i, startupInfo.length);
+        i += startupInfo.length;
+        fci[i++] = (byte) 0x90;
+        fci[i] = (byte) 0x00;
+        return fci;
+    }
+
+    private static byte[] status(int statusWord) {
+        return new byte[] {(byte) (statusWord >> 8), (byte) statusWord};
+    }
+
+    private static byte[] withStatus(byte[] data, int statusWord) {
+        byte[] response = Arrays.copyOf(data, data.length + 2);
+        response[data.length] = (byte) (statusWord >> 8);
+        response[data.length + 1] = (byte) statusWord;
+        return response;
+    }
+}
@@ -0,0 +1,243 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub.calypso;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSecureElement;
+
+/**
+ * Simulated Calypso SAM, to be inserted in a {@link StubReader}, computing and checking the
+ * session signatures of the {@link CalypsoPoSimulator}.
+ * <p>
+ * It answers the Select Diversifier, Get Challenge, Digest Init, Digest Update, Digest Update
+ * Multiple, Digest Close and Digest Authenticate commands. Each challenge can be used by one
+ * Digest Init command only.
+ * <p>
+ * The master keys are identified by their KIF and KVC. By default the SAM holds the default keys
+ * of the {@link CalypsoPoSimulator}.
+ * <p>
+ * As a real SAM, an instance is meant to be used by one reader at a time.
+ */
+public final class CalypsoSamSimulator extends StubSecureElement {
+    private static final int SW_SUCCESS = 0x9000;
+    private static final int SW_LC_INCORRECT = 0x6700;
+    private static final int SW_CONDITIONS_NOT_SATISFIED = 0x6985;
+    private static final int SW_INCORRECT_SIGNATURE = 0x6988;
+    private static final int SW_KEY_NOT_FOUND = 0x6A83;
+    private static final int SW_INS_NOT_SUPPORTED = 0x6D00;
+
+    private final byte[] atr;
+    /* master keys indexed by KIF * 256 + KVC */
+    private final Map<Integer, byte[]> masterKeys = new HashMap<Integer, byte[]>();
+    private final CalypsoCrypto crypto = new CalypsoCrypto();
+    private final Random random = new Random();
+
+    private byte[] diversifier;
+    private byte[] challenge;
+    private byte[] sessionKey;
+    private boolean digestInProgress;
+    private byte[] digestHash;
+    private int authenticatedSessionCount;
+    private int failedAuthenticationCount;
+
+    /**
+     * Creates a SAM holding the default keys
+     *
+     * @param serialNumber the SAM serial number (4 bytes)
+     */
+    public CalypsoSamSimulator(byte[] serialNumber) {
+        if (serialNumber == null || serialNumber.length != 4) {
+            throw new IllegalArgumentException(
+                    "Bad serial number: " + ByteArrayUtil.toHex(serialNumber));
+        }
+        atr = ByteArrayUtil.fromHex(
+                "3B3F9600805A0080C1200000" + ByteArrayUtil.toHex(serialNumber) + "829000");
+        setKey(CalypsoCrypto.KIF_PERSO, CalypsoCrypto.DEFAULT_KVC, CalypsoCrypto.TEST_KEY_PERSO);
+        setKey(CalypsoCrypto.KIF_LOAD, CalypsoCrypto.DEFAULT_KVC, CalypsoCrypto.TEST_KEY_LOAD);
+        setKey(CalypsoCrypto.KIF_DEBIT, CalypsoCrypto.DEFAULT_KVC, CalypsoCrypto.TEST_KEY_DEBIT);
+    }
+
+    /**
+     * Adds or replaces a master key
+     *
+     * @param kif the KIF of the key
+     * @param kvc the KVC of the key
+     * @param masterKey the key, diversified with the PO serial number for each session
+     * @return this SAM
+     */
+    public CalypsoSamSimulator setKey(byte kif, byte kvc, byte[] masterKey) {
+        masterKeys.put(((kif & 0xFF) << 8) | (kvc & 0xFF), masterKey.clone());
+        return this;
+    }
+
+    /**
+     * @return the number of PO signatures successfully checked
+     */
+    public int getAuthenticatedSessionCount() {
+        return authenticatedSessionCount;
+    }
+
+    /**
+     * @return the number of PO signatures found incorrect
+     */
+    public int getFailedAuthenticationCount() {
+        return failedAuthenticationCount;
+    }
+
+    @Override
+    public byte[] getATR() {
+        return atr;
+    }
+
+    @Override
+    public String getSeProcotol() {
+        return "PROTOCOL_ISO7816_3";
+    }
+
+    @Override
+    public byte[] processApdu(byte[] apduIn) {
+        if (apduIn == null) {
+            return null;
+        }
+        if (apduIn.length < 5
+                || (apduIn.length > 5 && apduIn.length < 5 + (apduIn[4] & 0xFF))) {
+            return status(SW_LC_INCORRECT);
+        }
+        switch (apduIn[1]) {
+            case (byte) 0x14:
+                return selectDiversifier(apduIn);
+            case (byte) 0x84:
+                return getChallenge(apduIn);
+            case (byte) 0x8A:
+                return digestInit(apduIn);
+            case (byte) 0x8C:
+                return digestUpdate(apduIn);
+            case (byte) 0x8E:
+                return digestClose(apduIn);
+            case (byte) 0x82:
+                return digestAuthenticate(apduIn);
+            default:
+                return status(SW_INS_NOT_SUPPORTED);
+        }
+    }
+
+    private byte[] selectDiversifier(byte[] apdu) {
+        int lc = apdu[4] & 0xFF;
+        if (lc != 4 && lc != 8) {
+            return status(SW_LC_INCORRECT);
+        }
+        diversifier = Arrays.copyOfRange(apdu, 5, 5 + lc);
+        return status(SW_SUCCESS);
+    }
+
+    private byte[] getChallenge(byte[] apdu) {
+        int le = apdu[4] & 0xFF;
+        if (le != 4 && le != 8) {
+            return status(SW_LC_INCORRECT);
+        }
+        challenge = new byte[le];
+        random.nextBytes(challenge);
+        return withStatus(challenge, SW_SUCCESS);
+    }
+
+    /**
+     * Digest Init: KIF, KVC and the data of the Open Secure Session response
+     */
+    private byte[] digestInit(byte[] apdu) {
+        int lc = apdu[4] & 0xFF;
+        if (apdu[3] != (byte) 0xFF || lc < 2 + 4) {
+            return status(SW_LC_INCORRECT);
+        }
+        if (challenge == null || diversifier == null) {
+            return status(SW_CONDITIONS_NOT_SATISFIED);
+        }
+        byte[] masterKey = masterKeys.get(((apdu[5] & 0xFF) << 8) | (apdu[6] & 0xFF));
+        if (masterKey == null) {
+            return status(SW_KEY_NOT_FOUND);
+        }
+        /* the PO challenge is made of the transaction counter and the random byte */
+        sessionKey = crypto.sessionKey(crypto.diversify(masterKey, diversifier), challenge,
+                Arrays.copyOfRange(apdu, 7, 11));
+        challenge = null;
+        crypto.startDigest();
+        crypto.updateDigest(apdu, 7, lc - 2);
+        digestInProgress = true;
+        digestHash = null;
+        return status(SW_SUCCESS);
+    }
+
+    private byte[] digestUpdate(byte[] apdu) {
+        if (!digestInProgress) {
+            return status(SW_CONDITIONS_NOT_SATISFIED);
+        }
+        int lc = apdu[4] & 0xFF;
+        if (apdu[2] == (byte) 0x80) {
+            /* Digest Update Multiple: length-prefixed blocks */
+            int offset = 5;
+            while (offset < 5 + lc) {
+                int length = apdu[offset] & 0xFF;
+                if (offset + 1 + length > 5 + lc) {
+                    return status(SW_LC_INCORRECT);
+                }
+                crypto.updateDigest(apdu, offset + 1, length);
+                offset += 1 + length;
+            }
+        } else {
+            crypto.updateDigest(apdu, 5, lc);
+        }
+        return status(SW_SUCCESS);
+    }
+
+    private byte[] digestClose(byte[] apdu) {
+        if (!digestInProgress) {
+            return status(SW_CONDITIONS_NOT_SATISFIED);
+        }
+        int le = apdu[4] & 0xFF;
+        if (le != 4 && le != 8) {
+            return status(SW_LC_INCORRECT);
+        }
+        digestInProgress = false;
+        digestHash = crypto.closeDigest();
+        return withStatus(crypto.terminalSignature(sessionKey, digestHash, le), SW_SUCCESS);
+    }
+
+    private byte[] digestAuthenticate(byte[] apdu) {
+        if (digestHash == null) {
+            return status(SW_CONDITIONS_NOT_SATISFIED);
+        }
+        int lc = apdu[4] & 0xFF;
+        byte[] expectedSignature = crypto.poSignature(sessionKey, digestHash, lc);
+        digestHash = null;
+        if (!Arrays.equals(Arrays.copyOfRange(apdu, 5, 5 + lc), expectedSignature)) {
+            failedAuthenticationCount++;
+            return status(SW_INCORRECT_SIGNATURE);
+        }
+        authenticatedSessionCount++;
+        return status(SW_SUCCESS);
+    }
+
+    private static byte[] status(int statusWord) {
+        return new byte[] {(byte) (statusWord >> 8), (byte) statusWord};
+    }
+
+    private static byte[] withStatus(byte[] data, int statusWord) {
+        byte[] response = Arrays.copyOf(data, data.length + 2);
+        response[data.length] = (byte) (statusWord >> 8);
+        response[data.length + 1] = (byte) statusWord;
+        return response;
+    }
+}
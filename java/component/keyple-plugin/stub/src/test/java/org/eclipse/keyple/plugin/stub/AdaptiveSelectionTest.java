@@ -0,0 +1,154 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import org.eclipse.keyple.calypso.transaction.PoSelectionRequest;
+import org.eclipse.keyple.calypso.transaction.PoSelector;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.selection.SelectionStatistics;
+import org.eclipse.keyple.core.selection.SelectionsResult;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.message.ApduRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequest;
+import org.eclipse.keyple.core.seproxy.message.SeRequestSet;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Explicit selection with the adaptive ordering of {@link SeSelection}: the selection commands
+ * received by the SE are counted.
+ */
+public class AdaptiveSelectionTest {
+    private static final String READER_NAME = "adaptiveSelectionReader";
+    private static final String[] AIDS =
+            {"315449432E49434131", "A000000291A000000192", "A000000291A000000191"};
+
+    private StubReader reader;
+    private StubSecureElement se;
+    private int selectCommandCount;
+
+    @Before
+    public void setUp() throws KeypleReaderException {
+        StubPlugin.getInstance().plugStubReader(READER_NAME, true);
+        reader = (StubReader) StubPlugin.getInstance().getReader(READER_NAME);
+        reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        se = new StubSecureElement() {
+            @Override
+            public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+                if (apduIn[1] == (byte) 0xA4) {
+                    selectCommandCount++;
+                }
+                return super.processApdu(apduIn);
+            }
+
+            @Override
+            public byte[] getATR() {
+                return ByteArrayUtil.fromHex("3B8E800180318066409089120802830190000B");
+            }
+
+            @Override
+            public String getSeProcotol() {
+                return "PROTOCOL_ISO14443_4";
+            }
+        };
+        se.addHexCommand("00A4040009315449432E4943413100", "6A82");
+        se.addHexCommand("00A404000AA000000291A00000019200", "6A82");
+        se.addHexCommand("00A404000AA000000291A00000019100",
+                "6F25840BA000000291A00000019102A516BF0C13C70800000000C0E11FA653070A3C230C1410019000");
+        reader.insertSe(se);
+    }
+
+    @After
+    public void tearDown() throws KeypleReaderException {
+        StubPlugin.getInstance().unplugStubReader(READER_NAME, true);
+    }
+
+    private SeSelection prepareSelection() {
+        SeSelection seSelection = new SeSelection();
+        for (String aid : AIDS) {
+            seSelection.prepareSelection(new PoSelectionRequest(
+                    new PoSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                            new PoSelector.PoAidSelector(new SeSelector.AidSelector.IsoAid(aid),
+                                    null),
+                            aid),
+                    ChannelState.KEEP_OPEN));
+        }
+        return seSelection;
+    }
+
+    /**
+     * Presents the SE and runs the selection
+     *
+     * @return the number of selection commands received by the SE
+     */
+    private int tap(SeSelection seSelection, int expectedSelectionIndex)
+            throws KeypleReaderException {
+        selectCommandCount = 0;
+        SelectionsResult selectionsResult = seSelection.processExplicitSelection(reader);
+        assertTrue(selectionsResult.hasActiveSelection());
+        assertEquals(expectedSelectionIndex,
+                selectionsResult.getActiveSelection().getSelectionIndex());
+        assertNotNull(selectionsResult.getMatchingSelection(expectedSelectionIndex));
+        assertEquals(1, selectionsResult.getMatchingSelections().size());
+        /* end of the transaction */
+        reader.transmitSet(new SeRequestSet(
+                new SeRequest(new ArrayList<ApduRequest>(), ChannelState.CLOSE_AFTER)));
+        return selectCommandCount;
+    }
+
+    @Test
+    public void preparedOrder_allSelectionsTried() throws Exception {
+        SeSelection seSelection = prepareSelection();
+
+        assertEquals(3, tap(seSelection, 2));
+        assertEquals(3, tap(seSelection, 2));
+    }
+
+    @Test
+    public void adaptiveOrder_mostFrequentTriedFirst() throws Exception {
+        SeSelection seSelection = prepareSelection();
+        SelectionStatistics statistics =
+                new SelectionStatistics(SelectionStatistics.Scope.PER_READER);
+        seSelection.setSelectionStatistics(statistics);
+
+        assertEquals(3, tap(seSelection, 2));
+        assertEquals(1, statistics.getMatchCount(READER_NAME, 2));
+        /* the selection index stays the prepared one */
+        assertEquals(1, tap(seSelection, 2));
+        assertEquals(1, tap(seSelection, 2));
+        assertEquals(3, statistics.getMatchCount(READER_NAME, 2));
+    }
+
+    @Test
+    public void adaptiveOrder_noMatch() throws Exception {
+        SeSelection seSelection = prepareSelection();
+        seSelection.setSelectionStatistics(
+                new SelectionStatistics(SelectionStatistics.Scope.GLOBAL));
+        se.removeHexCommand("00A404000AA000000291A00000019100");
+        se.addHexCommand("00A404000AA000000291A00000019100", "6A82");
+
+        SelectionsResult selectionsResult = seSelection.processExplicitSelection(reader);
+
+        assertFalse(selectionsResult.hasActiveSelection());
+        assertEquals(0, seSelection.getSelectionStatistics().getMatchCount(READER_NAME, 2));
+    }
+}
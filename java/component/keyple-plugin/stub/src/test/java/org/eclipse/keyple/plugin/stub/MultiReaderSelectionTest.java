@@ -0,0 +1,205 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.calypso.transaction.PoSelectionRequest;
+import org.eclipse.keyple.calypso.transaction.PoSelector;
+import org.eclipse.keyple.core.selection.ReaderSelectionsResult;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeReader;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Explicit selection run concurrently on several {@link StubReader}s.
+ */
+public class MultiReaderSelectionTest {
+    private static final String AID = "A000000291A000000191";
+    private static final int READER_COUNT = 4;
+
+    private final Set<String> readerNames = new LinkedHashSet<String>();
+    private final List<StubReader> readers = new ArrayList<StubReader>();
+    private ExecutorService executorService;
+    private SeSelection seSelection;
+
+    @Before
+    public void setUp() throws KeypleReaderException {
+        for (int i = 0; i < READER_COUNT; i++) {
+            readerNames.add("multiReader" + i);
+        }
+        StubPlugin.getInstance().plugStubReaders(readerNames, true);
+        for (String readerName : readerNames) {
+            StubReader reader = (StubReader) StubPlugin.getInstance().getReader(readerName);
+            reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                    StubProtocolSetting.STUB_PROTOCOL_SETTING
+                            .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+            readers.add(reader);
+        }
+        executorService = Executors.newFixedThreadPool(READER_COUNT);
+        seSelection = selection(ChannelState.CLOSE_AFTER);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+        StubPlugin.getInstance().unplugStubReaders(readerNames, true);
+    }
+
+    private static SeSelection selection(ChannelState channelState) {
+        SeSelection seSelection = new SeSelection();
+        seSelection.prepareSelection(new PoSelectionRequest(
+                new PoSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new PoSelector.PoAidSelector(new SeSelector.AidSelector.IsoAid(AID),
+                                null),
+                        "PO"),
+                channelState));
+        return seSelection;
+    }
+
+    private static StubSecureElement se(boolean matching) {
+        return se(matching, null);
+    }
+
+    /**
+     * @param answerGate if not null, the SE waits for it before answering
+     */
+    private static StubSecureElement se(boolean matching, final CountDownLatch answerGate) {
+        StubSecureElement se = new StubSecureElement() {
+            @Override
+            public byte[] processApdu(byte[] apduIn) throws KeypleIOReaderException {
+                if (answerGate != null) {
+                    try {
+                        answerGate.await();
+                    } catch (InterruptedException e) {
+                        throw new KeypleIOReaderException("Interrupted");
+                    }
+                }
+                return super.processApdu(apduIn);
+            }
+
+            @Override
+            public byte[] getATR() {
+                return ByteArrayUtil.fromHex("3B8E800180318066409089120802830190000B");
+            }
+
+            @Override
+            public String getSeProcotol() {
+                return "PROTOCOL_ISO14443_4";
+            }
+        };
+        se.addHexCommand("00A404000AA000000291A00000019100", matching
+                ? "6F25840BA000000291A00000019102A516BF0C13C70800000000C0E11FA653070A3C230C1410019000"
+                : "6A82");
+        return se;
+    }
+
+    @Test
+    public void firstMatch_onlyOneCard() throws Exception {
+        readers.get(2).insertSe(se(true));
+
+        ReaderSelectionsResult result =
+                seSelection.processExplicitSelection(readers, executorService);
+
+        assertNotNull(result);
+        assertSame(readers.get(2), result.getSeReader());
+        assertNotNull(result.getSelectionsResult().getMatchingSelection(0));
+    }
+
+    @Test
+    public void firstMatch_noMatchingCard() throws Exception {
+        readers.get(1).insertSe(se(false));
+
+        assertNull(seSelection.processExplicitSelection(readers, executorService));
+    }
+
+    @Test
+    public void firstMatch_keepOpen_otherChannelsClosed() throws Exception {
+        for (StubReader reader : readers) {
+            reader.insertSe(se(true));
+        }
+
+        ReaderSelectionsResult result = selection(ChannelState.KEEP_OPEN)
+                .processExplicitSelection(readers, executorService);
+
+        assertNotNull(result);
+        /* the other readers may still be closing their channel */
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        for (StubReader reader : readers) {
+            assertEquals(reader == result.getSeReader(), reader.isPhysicalChannelOpen());
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void firstMatch_slowReaderNotAwaited() throws Exception {
+        CountDownLatch answerGate = new CountDownLatch(1);
+        readers.get(0).insertSe(se(true, answerGate));
+        readers.get(2).insertSe(se(true));
+
+        /* returns while the slow reader is still selecting */
+        ReaderSelectionsResult result = selection(ChannelState.KEEP_OPEN)
+                .processExplicitSelection(readers, executorService);
+
+        assertSame(readers.get(2), result.getSeReader());
+        answerGate.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+        /* the late match of the slow reader has been closed */
+        assertFalse(readers.get(0).isPhysicalChannelOpen());
+        assertTrue(readers.get(2).isPhysicalChannelOpen());
+    }
+
+    @Test(expected = KeypleReaderException.class)
+    public void firstMatch_noCard() throws Exception {
+        seSelection.processExplicitSelection(readers, executorService);
+    }
+
+    @Test
+    public void collectAll() throws Exception {
+        readers.get(0).insertSe(se(false));
+        readers.get(1).insertSe(se(true));
+        readers.get(3).insertSe(se(true));
+
+        List<ReaderSelectionsResult> results =
+                seSelection.processExplicitSelectionAll(readers, executorService);
+
+        assertEquals(2, results.size());
+        assertSame(readers.get(1), results.get(0).getSeReader());
+        assertSame(readers.get(3), results.get(1).getSeReader());
+    }
+
+    @Test
+    public void collectAll_singleReader() throws Exception {
+        readers.get(0).insertSe(se(true));
+        List<SeReader> singleReader = new ArrayList<SeReader>();
+        singleReader.add(readers.get(0));
+
+        assertEquals(1,
+                seSelection.processExplicitSelectionAll(singleReader, executorService).size());
+    }
+}
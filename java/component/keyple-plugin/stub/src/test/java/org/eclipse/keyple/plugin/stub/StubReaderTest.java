@@ -14,7 +14,9 @@ package org.eclipse.keyple.plugin.stub;
 
 
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import org.eclipse.keyple.calypso.command.PoClass;
 import org.eclipse.keyple.calypso.command.po.builder.IncreaseCmdBuild;
@@ -34,6 +36,10 @@ import org.eclipse.keyple.core.seproxy.exception.KeypleChannelStateException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
 import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
 import org.eclipse.keyple.core.seproxy.message.*;
+import org.eclipse.keyple.core.seproxy.metrics.DefaultReaderMetrics;
+import org.eclipse.keyple.core.seproxy.metrics.ReaderMetrics;
+import org.eclipse.keyple.core.seproxy.metrics.ReaderStatistics;
+import org.eclipse.keyple.core.seproxy.plugin.PollingPresenceMonitor;
 import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
 import org.eclipse.keyple.core.seproxy.protocol.TransmissionMode;
 import org.eclipse.keyple.core.util.ByteArrayUtil;
@@ -183,6 +189,48 @@ public class StubReaderTest extends BaseStubTest {
 
     }
 
+    /**
+     * Insert and remove SE with a presence monitor shared by the readers of the plugin
+     *
+     * @throws InterruptedException
+     */
+    @Test
+    public void testInsertRemove_sharedPresenceMonitor() throws Exception {
+        PollingPresenceMonitor presenceMonitor = new PollingPresenceMonitor(1, 10);
+        stubPlugin.setPresenceMonitor(presenceMonitor);
+        try {
+            stubPlugin.plugStubReader("StubReaderTest", true);
+            final StubReader reader = (StubReader) stubPlugin.getReader("StubReaderTest");
+            Assert.assertSame(presenceMonitor, reader.getPresenceMonitor());
+
+            final BlockingQueue<ReaderEvent.EventType> events =
+                    new LinkedBlockingQueue<ReaderEvent.EventType>();
+            ObservableReader.ReaderObserver observer = new ObservableReader.ReaderObserver() {
+                @Override
+                public void update(ReaderEvent event) {
+                    Assert.assertEquals(event.getReaderName(), reader.getName());
+                    events.add(event.getEventType());
+                }
+            };
+            reader.addObserver(observer);
+            Assert.assertEquals(1, presenceMonitor.getReaderCount());
+
+            reader.insertSe(hoplinkSE());
+            Assert.assertEquals(ReaderEvent.EventType.SE_INSERTED,
+                    events.poll(2, TimeUnit.SECONDS));
+
+            reader.removeSe();
+            Assert.assertEquals(ReaderEvent.EventType.SE_REMOVAL,
+                    events.poll(2, TimeUnit.SECONDS));
+
+            reader.removeObserver(observer);
+            Assert.assertEquals(0, presenceMonitor.getReaderCount());
+        } finally {
+            stubPlugin.setPresenceMonitor(null);
+            presenceMonitor.shutdown();
+        }
+    }
+
     /**
      * Remove SE check : event and se presence
      * 
@@ -645,6 +693,60 @@ public class StubReaderTest extends BaseStubTest {
     }
 
 
+    @Test
+    public void transmit_Hoplink_readerMetrics() throws Exception {
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        StubReader reader = (StubReader) stubPlugin.getReader("StubReaderTest");
+        DefaultReaderMetrics readerMetrics = new DefaultReaderMetrics();
+        reader.setReaderMetrics(readerMetrics);
+        reader.insertSe(hoplinkSE());
+        reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+
+        selectSe(reader);
+        reader.transmitSet(getRequestIsoDepSetSample());
+
+        ReaderStatistics statistics = readerMetrics.getReaderStatistics("StubReaderTest");
+        Assert.assertNotNull(statistics);
+        /* selection then read record */
+        Assert.assertEquals(2, statistics
+                .getHistogram(ReaderMetrics.Operation.PROCESS_SE_REQUEST_SET).getCount());
+        Assert.assertEquals(1,
+                statistics.getHistogram(ReaderMetrics.Operation.SELECTION).getCount());
+        Assert.assertEquals(1, statistics.getApduHistogram(0xB2).getCount());
+        Assert.assertEquals(1, statistics
+                .getHistogram(ReaderMetrics.Operation.CLOSE_PHYSICAL_CHANNEL).getCount());
+        Assert.assertEquals(0,
+                statistics.getFailureCount(ReaderMetrics.Operation.PROCESS_SE_REQUEST_SET));
+    }
+
+    @Test
+    public void transmit_no_response_readerMetrics() throws Exception {
+        stubPlugin.plugStubReader("StubReaderTest", true);
+        StubReader reader = (StubReader) stubPlugin.getReader("StubReaderTest");
+        DefaultReaderMetrics readerMetrics = new DefaultReaderMetrics();
+        reader.insertSe(noApduResponseSE());
+        reader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        selectSe(reader);
+        reader.setReaderMetrics(readerMetrics);
+
+        try {
+            reader.transmitSet(getNoResponseRequest());
+            Assert.fail();
+        } catch (KeypleReaderException e) {
+            // expected
+        }
+
+        ReaderStatistics statistics = readerMetrics.getReaderStatistics("StubReaderTest");
+        Assert.assertEquals(1,
+                statistics.getFailureCount(ReaderMetrics.Operation.PROCESS_SE_REQUEST_SET));
+        Assert.assertEquals(1, statistics.getFailureCount(ReaderMetrics.Operation.TRANSMIT_APDU));
+        Assert.assertEquals(1, statistics.getApduFailureCount(0x32));
+    }
+
     // @Test
     // public void transmit_null_Selection() throws KeypleReaderException {
     // // init SE
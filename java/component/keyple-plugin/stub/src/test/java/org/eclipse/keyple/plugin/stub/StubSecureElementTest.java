@@ -0,0 +1,175 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub;
+
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import org.eclipse.keyple.core.seproxy.exception.KeypleIOReaderException;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StubSecureElementTest {
+
+    private StubSecureElement se;
+
+    @Before
+    public void setUp() {
+        se = new StubSecureElement() {
+            @Override
+            public byte[] getATR() {
+                return ByteArrayUtil.fromHex("3B00");
+            }
+
+            @Override
+            public String getSeProcotol() {
+                return "PROTOCOL_ISO14443_4";
+            }
+        };
+    }
+
+    private byte[] process(String hexApdu) throws KeypleIOReaderException {
+        return se.processApdu(ByteArrayUtil.fromHex(hexApdu));
+    }
+
+    @Test
+    public void processApdu_exactCommand() throws Exception {
+        se.addHexCommand("00 B2 01 3C 00", "0102 9000");
+        se.addHexCommand("00B2023C00", "6A83");
+
+        assertArrayEquals(ByteArrayUtil.fromHex("01029000"), process("00B2013C00"));
+        assertArrayEquals(ByteArrayUtil.fromHex("6A83"), process("00B2023C00"));
+    }
+
+    @Test(expected = KeypleIOReaderException.class)
+    public void processApdu_unknownCommand() throws Exception {
+        se.addHexCommand("00B2013C00", "9000");
+        process("00B2013C");
+    }
+
+    @Test
+    public void processApdu_nullCommand() throws Exception {
+        assertNull(se.processApdu(null));
+    }
+
+    @Test
+    public void processApdu_responseCopied() throws Exception {
+        se.addHexCommand("0084000004", "010203049000");
+        process("0084000004")[0] = (byte) 0xFF;
+
+        assertArrayEquals(ByteArrayUtil.fromHex("010203049000"), process("0084000004"));
+    }
+
+    @Test
+    public void processApdu_replacedCommand() throws Exception {
+        se.addHexCommand("0084000004", "6D00");
+        se.addHexCommand("0084000004", "010203049000");
+
+        assertArrayEquals(ByteArrayUtil.fromHex("010203049000"), process("0084000004"));
+    }
+
+    @Test
+    public void processApdu_wildcards() throws Exception {
+        se.addHexCommand("00 8A 0B 39 04 XX XX XX XX 00", "9000");
+        se.addHexCommand("00 B2 0X 3C 00", "6A83");
+
+        assertArrayEquals(ByteArrayUtil.fromHex("9000"), process("008A0B390412345678 00"));
+        assertArrayEquals(ByteArrayUtil.fromHex("9000"), process("008A0B3904FFFFFFFF00"));
+        assertArrayEquals(ByteArrayUtil.fromHex("6A83"), process("00B20F3C00"));
+        try {
+            process("00B2103C00");
+            fail("the nibble wildcard should not match");
+        } catch (KeypleIOReaderException e) {
+        }
+    }
+
+    @Test
+    public void processApdu_prefix() throws Exception {
+        se.addHexCommand("00 B2 *", "6A82");
+        se.addHexCommand("00 B2 01 *", "9000");
+
+        assertArrayEquals(ByteArrayUtil.fromHex("6A82"), process("00B2"));
+        assertArrayEquals(ByteArrayUtil.fromHex("6A82"), process("00B2023C00"));
+        /* the longest prefix wins */
+        assertArrayEquals(ByteArrayUtil.fromHex("9000"), process("00B2013C00"));
+    }
+
+    @Test
+    public void processApdu_exactPreferredToWildcard() throws Exception {
+        se.addHexCommand("00 B2 XX 3C 00", "6A83");
+        se.addHexCommand("00 B2 01 3C 00", "9000");
+        se.addHexCommand("00 B2 01 *", "6A82");
+
+        assertArrayEquals(ByteArrayUtil.fromHex("9000"), process("00B2013C00"));
+        assertArrayEquals(ByteArrayUtil.fromHex("6A83"), process("00B2023C00"));
+        /* backtracking: the exact branch does not match the end of the command */
+        assertArrayEquals(ByteArrayUtil.fromHex("6A82"), process("00B2014C00"));
+    }
+
+    @Test
+    public void removeHexCommand() throws Exception {
+        se.addHexCommand("00 B2 01 3C 00", "9000");
+        se.addHexCommand("00 B2 *", "6A82");
+        se.removeHexCommand("00B2013C00");
+
+        assertArrayEquals(ByteArrayUtil.fromHex("6A82"), process("00B2013C00"));
+
+        se.removeHexCommand("00B2*");
+        try {
+            process("00B2013C00");
+            fail("the commands should have been removed");
+        } catch (KeypleIOReaderException e) {
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addHexCommand_malformedCommand() {
+        se.addHexCommand("00B2013C0", "9000");
+    }
+
+    @Test
+    public void recordedSession_loadedFromResource() throws Exception {
+        InputStream session = getClass().getResourceAsStream("/recorded_session.txt");
+        RecordedSecureElement recordedSe;
+        try {
+            recordedSe = new RecordedSecureElement(session);
+        } finally {
+            session.close();
+        }
+
+        assertArrayEquals(ByteArrayUtil.fromHex("3B8E800180318066409089120802830190000B"),
+                recordedSe.getATR());
+        assertEquals("PROTOCOL_ISO14443_4", recordedSe.getSeProcotol());
+        assertArrayEquals(ByteArrayUtil.fromHex("01020304050607089000"),
+                recordedSe.processApdu(ByteArrayUtil.fromHex("0084000008")));
+        assertEquals((byte) 0x90, recordedSe.processApdu(
+                ByteArrayUtil.fromHex("008A0B3904C1C2C3C400"))[40]);
+        assertArrayEquals(ByteArrayUtil.fromHex("6A82"),
+                recordedSe.processApdu(ByteArrayUtil.fromHex("00B2013C00")));
+    }
+
+    @Test
+    public void recordedSession_malformed() throws IOException {
+        String[] sessions = {"atr 3B00\nprotocol P\n> 0084000008\n",
+                "atr 3B00\nprotocol P\n< 9000\n", "atr 3B00\nprotocol P\n> 00G4\n< 9000\n",
+                "protocol P\n", "atr 3B00\nprotocol P\nunknown\n"};
+        for (String session : sessions) {
+            try {
+                new RecordedSecureElement(new StringReader(session));
+                fail("malformed session accepted: " + session);
+            } catch (IllegalArgumentException e) {
+            }
+        }
+    }
+}
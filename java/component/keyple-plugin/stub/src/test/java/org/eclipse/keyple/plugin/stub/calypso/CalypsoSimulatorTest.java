@@ -0,0 +1,180 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub.calypso;
+
+import static org.junit.Assert.*;
+import java.util.Arrays;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Complete secure sessions run by {@link PoTransaction} with the {@link CalypsoPoSimulator} and
+ * the {@link CalypsoSamSimulator}.
+ */
+public class CalypsoSimulatorTest {
+    private static final byte SFI_ENVIRONMENT = (byte) 0x07;
+    private static final byte SFI_EVENT_LOG = (byte) 0x08;
+    private static final byte SFI_COUNTER = (byte) 0x19;
+    private static final byte[] EVENT = ByteArrayUtil.fromHex("0102030405060708");
+
+    private SimulatorFixture fixture;
+    private CalypsoPoSimulator po;
+    private CalypsoSamSimulator sam;
+
+    @Before
+    public void setUp() throws KeypleReaderException {
+        fixture = new SimulatorFixture();
+        po = fixture.po.addLinearFile(SFI_ENVIRONMENT, 1, 29).addCyclicFile(SFI_EVENT_LOG, 3, 29)
+                .addCountersFile(SFI_COUNTER, 2);
+        po.setRecord(SFI_ENVIRONMENT, 1, ByteArrayUtil.fromHex("EE01"));
+        po.setCounter(SFI_COUNTER, 1, 100);
+        sam = fixture.sam;
+    }
+
+    @After
+    public void tearDown() {
+        fixture.unplug();
+    }
+
+    @Test
+    public void closedSession_commitsModifications() throws Exception {
+        PoTransaction poTransaction = fixture.newPoTransaction();
+        int counterIndex = poTransaction.prepareReadRecordsCmd(SFI_COUNTER,
+                ReadDataStructure.SINGLE_COUNTER, (byte) 0x01, "Counter");
+
+        assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SFI_ENVIRONMENT, (byte) 0x01));
+        assertArrayEquals(po.getRecord(SFI_ENVIRONMENT, 1),
+                poTransaction.getOpenRecordDataRead());
+        assertEquals(100, (int) ((ReadRecordsRespPars) poTransaction
+                .getResponseParser(counterIndex)).getCounters().get(1));
+
+        poTransaction.prepareDecreaseCmd(SFI_COUNTER, (byte) 0x01, 7, "Decrease");
+        poTransaction.prepareAppendRecordCmd(SFI_EVENT_LOG, EVENT, "Event");
+        assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+        assertTrue(poTransaction.isSuccessful());
+
+        assertEquals(93, po.getCounter(SFI_COUNTER, 1));
+        assertArrayEquals(Arrays.copyOf(EVENT, 29), po.getRecord(SFI_EVENT_LOG, 1));
+        assertEquals(1, po.getCommittedSessionCount());
+        assertEquals(1, sam.getAuthenticatedSessionCount());
+        assertEquals(0xFFFFFE, po.getTransactionCounter());
+    }
+
+    @Test
+    public void successiveSessions_allSucceed() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            PoTransaction poTransaction = fixture.newPoTransaction();
+            poTransaction.prepareReadRecordsCmd(SFI_COUNTER, ReadDataStructure.SINGLE_COUNTER,
+                    (byte) 0x01, "Counter");
+            assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                    PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SFI_ENVIRONMENT,
+                    (byte) 0x01));
+            poTransaction.prepareDecreaseCmd(SFI_COUNTER, (byte) 0x01, 1, "Decrease");
+            poTransaction.prepareAppendRecordCmd(SFI_EVENT_LOG, new byte[] {(byte) i}, "Event");
+            assertTrue(poTransaction.processClosing(ChannelState.CLOSE_AFTER));
+        }
+        assertEquals(90, po.getCounter(SFI_COUNTER, 1));
+        /* the cyclic file keeps the last 3 events */
+        assertEquals(9, po.getRecord(SFI_EVENT_LOG, 1)[0]);
+        assertEquals(7, po.getRecord(SFI_EVENT_LOG, 3)[0]);
+        assertEquals(10, po.getCommittedSessionCount());
+        assertEquals(10, sam.getAuthenticatedSessionCount());
+    }
+
+    @Test
+    public void cancelledSession_undoesModifications() throws Exception {
+        PoTransaction poTransaction = fixture.newPoTransaction();
+        assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SFI_ENVIRONMENT, (byte) 0x01));
+        poTransaction.prepareIncreaseCmd(SFI_COUNTER, (byte) 0x02, 5, "Increase");
+        assertTrue(poTransaction.processPoCommandsInSession());
+        assertEquals(5, po.getCounter(SFI_COUNTER, 2));
+
+        assertTrue(poTransaction.processCancel(ChannelState.KEEP_OPEN));
+        assertFalse(po.isSessionOpen());
+        assertEquals(0, po.getCounter(SFI_COUNTER, 2));
+        assertEquals(0, po.getCommittedSessionCount());
+    }
+
+    @Test
+    public void wrongPoKey_sessionRejected() throws Exception {
+        po.setKey(3, (byte) 0x30, (byte) 0x79, ByteArrayUtil.fromHex("000102030405060708090A0B"));
+        PoTransaction poTransaction = fixture.newPoTransaction();
+        poTransaction.prepareReadRecordsCmd(SFI_COUNTER, ReadDataStructure.SINGLE_COUNTER,
+                (byte) 0x01, "Counter");
+        assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SFI_ENVIRONMENT, (byte) 0x01));
+        poTransaction.prepareDecreaseCmd(SFI_COUNTER, (byte) 0x01, 7, "Decrease");
+        try {
+            poTransaction.processClosing(ChannelState.KEEP_OPEN);
+            fail("The PO should have rejected the terminal signature.");
+        } catch (KeypleReaderException e) {
+            // expected
+        }
+        assertEquals(100, po.getCounter(SFI_COUNTER, 1));
+        assertEquals(1, po.getRejectedSessionCount());
+        assertEquals(0, sam.getAuthenticatedSessionCount());
+    }
+
+    @Test
+    public void contactlessClosing_ratified() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            PoTransaction poTransaction = fixture.newPoTransaction();
+            poTransaction.prepareReadRecordsCmd(SFI_COUNTER, ReadDataStructure.SINGLE_COUNTER,
+                    (byte) 0x01, "Counter");
+            assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                    PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SFI_ENVIRONMENT,
+                    (byte) 0x01));
+            /* the previous session has been ratified by the ratification command */
+            assertTrue(poTransaction.wasRatified());
+            poTransaction.prepareDecreaseCmd(SFI_COUNTER, (byte) 0x01, 1, "Decrease");
+            assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+        }
+    }
+
+    @Test
+    public void modificationsBuffer_overflow() {
+        po.processApdu(ByteArrayUtil.fromHex("008A0B3904" + "01020304" + "00"));
+        /* 430 bytes: 12 updates of 29 bytes (35 bytes each) fit in the modifications buffer */
+        String update = "00DC013C1D" + ByteArrayUtil.toHex(new byte[29]);
+        for (int i = 0; i < 12; i++) {
+            assertEquals("9000",
+                    ByteArrayUtil.toHex(po.processApdu(ByteArrayUtil.fromHex(update))));
+        }
+        assertEquals("6400", ByteArrayUtil.toHex(po.processApdu(ByteArrayUtil.fromHex(update))));
+    }
+
+    @Test
+    public void shortApdu_lcIncorrect() {
+        assertEquals("6700", ByteArrayUtil.toHex(po.processApdu(new byte[] {0x00})));
+        /* also in a session, where the commands are added to the digest */
+        po.processApdu(ByteArrayUtil.fromHex("008A0B3904" + "01020304" + "00"));
+        assertEquals("6700", ByteArrayUtil.toHex(po.processApdu(new byte[] {0x00})));
+        assertEquals("6700", ByteArrayUtil.toHex(po.processApdu(ByteArrayUtil.fromHex("00B2"))));
+    }
+
+    @Test
+    public void unknownFile() {
+        assertEquals("6A82",
+                ByteArrayUtil.toHex(po.processApdu(ByteArrayUtil.fromHex("00B2010C00"))));
+        assertEquals("6A83",
+                ByteArrayUtil.toHex(po.processApdu(ByteArrayUtil.fromHex("00B2023C00"))));
+    }
+}
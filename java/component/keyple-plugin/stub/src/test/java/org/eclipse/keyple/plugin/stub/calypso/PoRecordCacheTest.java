@@ -0,0 +1,212 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub.calypso;
+
+import static org.junit.Assert.*;
+import java.util.Arrays;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Record cache of the {@link CalypsoPo} filled at selection, at session opening and by the
+ * {@link PoTransaction} commands, with the {@link CalypsoPoSimulator}.
+ * <p>
+ * The simulated PO content is modified behind the back of the transaction: a read served from the
+ * cache returns the former content.
+ */
+public class PoRecordCacheTest {
+    private static final byte SFI_ENVIRONMENT = (byte) 0x07;
+    private static final byte SFI_CONTRACTS = (byte) 0x09;
+    private static final byte SFI_COUNTER = (byte) 0x19;
+    private static final byte[] ENVIRONMENT = Arrays.copyOf(ByteArrayUtil.fromHex("EE01"), 29);
+    private static final byte[] CONTRACT = Arrays.copyOf(ByteArrayUtil.fromHex("C001"), 29);
+
+    private SimulatorFixture fixture;
+    private CalypsoPoSimulator po;
+
+    @Before
+    public void setUp() throws KeypleReaderException {
+        fixture = new SimulatorFixture();
+        po = fixture.po.addLinearFile(SFI_ENVIRONMENT, 1, 29).addLinearFile(SFI_CONTRACTS, 2, 29)
+                .addCountersFile(SFI_COUNTER, 2);
+        po.setRecord(SFI_ENVIRONMENT, 1, ENVIRONMENT);
+        po.setRecord(SFI_CONTRACTS, 1, CONTRACT);
+        po.setCounter(SFI_COUNTER, 1, 100);
+    }
+
+    @After
+    public void tearDown() {
+        fixture.unplug();
+    }
+
+    @Test
+    public void selectionReads_cached() throws Exception {
+        CalypsoPo calypsoPo = selectPo(true);
+
+        PoRecordCache recordCache = calypsoPo.getRecordCache();
+        assertEquals(2, recordCache.size());
+        assertArrayEquals(ENVIRONMENT, recordCache.getRecord(SFI_ENVIRONMENT, 1));
+        assertArrayEquals(CONTRACT, recordCache.getRecord(SFI_CONTRACTS, 1));
+        assertFalse(recordCache.hasRecord(SFI_CONTRACTS, 2));
+        /* no lookup */
+        assertEquals(0.0, recordCache.getHitRate(), 0.0);
+    }
+
+    @Test
+    public void fillOnly_readsSentToPo() throws Exception {
+        CalypsoPo calypsoPo = selectPo(true);
+        po.setRecord(SFI_ENVIRONMENT, 1, ByteArrayUtil.fromHex("EE02"));
+        PoTransaction poTransaction = fixture.newPoTransaction(calypsoPo);
+        assertEquals(PoTransaction.RecordCacheMode.FILL_ONLY, poTransaction.getRecordCacheMode());
+
+        int environmentIndex = poTransaction.prepareReadRecordsCmd(SFI_ENVIRONMENT,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, 29, "Environment");
+        assertTrue(poTransaction.processPoCommands(ChannelState.KEEP_OPEN));
+
+        assertArrayEquals(po.getRecord(SFI_ENVIRONMENT, 1), getRecord(poTransaction,
+                environmentIndex, 1));
+        /* the cache is updated */
+        assertArrayEquals(po.getRecord(SFI_ENVIRONMENT, 1),
+                calypsoPo.getRecordCache().getRecord(SFI_ENVIRONMENT, 1));
+        assertEquals(0, calypsoPo.getRecordCache().getHitCount());
+        assertEquals(0, calypsoPo.getRecordCache().getMissCount());
+    }
+
+    @Test
+    public void serveOutOfSessionReads_readsServedFromCache() throws Exception {
+        CalypsoPo calypsoPo = selectPo(true);
+        /* not seen by the transaction */
+        po.setRecord(SFI_ENVIRONMENT, 1, ByteArrayUtil.fromHex("EE02"));
+        PoTransaction poTransaction = fixture.newPoTransaction(calypsoPo);
+        poTransaction.setRecordCacheMode(PoTransaction.RecordCacheMode.SERVE_OUT_OF_SESSION_READS);
+
+        int environmentIndex = poTransaction.prepareReadRecordsCmd(SFI_ENVIRONMENT,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, 29, "Environment");
+        int contractIndex = poTransaction.prepareReadRecordsCmd(SFI_CONTRACTS,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, 29, "Contract");
+        int secondContractIndex = poTransaction.prepareReadRecordsCmd(SFI_CONTRACTS,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x02, 29, "Contract 2");
+        assertTrue(poTransaction.processPoCommands(ChannelState.KEEP_OPEN));
+
+        assertArrayEquals(ENVIRONMENT, getRecord(poTransaction, environmentIndex, 1));
+        assertArrayEquals(CONTRACT, getRecord(poTransaction, contractIndex, 1));
+        assertArrayEquals(new byte[29], getRecord(poTransaction, secondContractIndex, 2));
+        PoRecordCache recordCache = calypsoPo.getRecordCache();
+        assertEquals(2, recordCache.getHitCount());
+        assertEquals(1, recordCache.getMissCount());
+        assertEquals(2.0 / 3, recordCache.getHitRate(), 1e-9);
+        assertTrue(recordCache.hasRecord(SFI_CONTRACTS, 2));
+
+        /* all the reads served: nothing sent to the PO */
+        poTransaction.prepareReadRecordsCmd(SFI_CONTRACTS, ReadDataStructure.SINGLE_RECORD_DATA,
+                (byte) 0x02, 29, "Contract 2");
+        assertTrue(poTransaction.processPoCommands(ChannelState.KEEP_OPEN));
+        assertEquals(3, recordCache.getHitCount());
+    }
+
+    @Test
+    public void serveOutOfSessionReads_closeAfterWithAllReadsServed() throws Exception {
+        CalypsoPo calypsoPo = selectPo(true);
+        PoTransaction poTransaction = fixture.newPoTransaction(calypsoPo);
+        poTransaction.setRecordCacheMode(PoTransaction.RecordCacheMode.SERVE_OUT_OF_SESSION_READS);
+
+        int environmentIndex = poTransaction.prepareReadRecordsCmd(SFI_ENVIRONMENT,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, 29, "Environment");
+        assertTrue(poTransaction.processPoCommands(ChannelState.CLOSE_AFTER));
+
+        assertArrayEquals(ENVIRONMENT, getRecord(poTransaction, environmentIndex, 1));
+        assertEquals(1, calypsoPo.getRecordCache().getHitCount());
+        /* the channel has been closed */
+        assertFalse(po.isPhysicalChannelOpen());
+    }
+
+    @Test
+    public void session_fillsCacheAndInvalidatesModifiedFiles() throws Exception {
+        CalypsoPo calypsoPo = selectPo(false);
+        PoRecordCache recordCache = calypsoPo.getRecordCache();
+        assertEquals(0, recordCache.size());
+        PoTransaction poTransaction = fixture.newPoTransaction(calypsoPo);
+
+        poTransaction.prepareReadRecordsCmd(SFI_COUNTER, ReadDataStructure.SINGLE_COUNTER,
+                (byte) 0x01, "Counter");
+        assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SFI_ENVIRONMENT, (byte) 0x01));
+        /* record read at opening and counters read in session */
+        assertArrayEquals(ENVIRONMENT, recordCache.getRecord(SFI_ENVIRONMENT, 1));
+        assertTrue(recordCache.hasRecord(SFI_COUNTER, 1));
+
+        poTransaction.prepareDecreaseCmd(SFI_COUNTER, (byte) 0x01, 7, "Decrease");
+        assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+        assertTrue(poTransaction.isSuccessful());
+        assertFalse(recordCache.hasRecord(SFI_COUNTER, 1));
+        assertTrue(recordCache.hasRecord(SFI_ENVIRONMENT, 1));
+
+        /* the counter is read again from the PO */
+        poTransaction.setRecordCacheMode(PoTransaction.RecordCacheMode.SERVE_OUT_OF_SESSION_READS);
+        int environmentIndex = poTransaction.prepareReadRecordsCmd(SFI_ENVIRONMENT,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, 29, "Environment");
+        int counterIndex = poTransaction.prepareReadRecordsCmd(SFI_COUNTER,
+                ReadDataStructure.SINGLE_COUNTER, (byte) 0x01, "Counter");
+        assertTrue(poTransaction.processPoCommands(ChannelState.KEEP_OPEN));
+        assertArrayEquals(ENVIRONMENT, getRecord(poTransaction, environmentIndex, 1));
+        assertEquals(93, (int) ((ReadRecordsRespPars) poTransaction
+                .getResponseParser(counterIndex)).getCounters().get(1));
+        assertEquals(1, recordCache.getHitCount());
+        assertEquals(1, recordCache.getMissCount());
+    }
+
+    @Test
+    public void cancelledSession_cacheCleared() throws Exception {
+        CalypsoPo calypsoPo = selectPo(true);
+        PoTransaction poTransaction = fixture.newPoTransaction(calypsoPo);
+        assertTrue(poTransaction.processOpening(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SFI_ENVIRONMENT, (byte) 0x01));
+        poTransaction.prepareUpdateRecordCmd(SFI_CONTRACTS, (byte) 0x01,
+                ByteArrayUtil.fromHex("C002"), "Contract");
+        poTransaction.prepareReadRecordsCmd(SFI_CONTRACTS, ReadDataStructure.SINGLE_RECORD_DATA,
+                (byte) 0x01, 29, "Contract");
+        assertTrue(poTransaction.processPoCommandsInSession());
+        /* the content updated in the session */
+        assertEquals((byte) 0x02, calypsoPo.getRecordCache().getRecord(SFI_CONTRACTS, 1)[1]);
+
+        assertTrue(poTransaction.processCancel(ChannelState.KEEP_OPEN));
+        assertEquals(0, calypsoPo.getRecordCache().size());
+        assertArrayEquals(CONTRACT, po.getRecord(SFI_CONTRACTS, 1));
+    }
+
+    private static byte[] getRecord(PoTransaction poTransaction, int commandIndex,
+            int recordNumber) {
+        return ((ReadRecordsRespPars) poTransaction.getResponseParser(commandIndex)).getRecords()
+                .get(recordNumber);
+    }
+
+    /**
+     * Selects the PO, reads the environment and the first contract if requested
+     */
+    private CalypsoPo selectPo(boolean readRecords) throws KeypleReaderException {
+        PoSelectionRequest poSelectionRequest = SimulatorFixture.poSelectionRequest();
+        if (readRecords) {
+            poSelectionRequest.prepareReadRecordsCmd(SFI_ENVIRONMENT,
+                    ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, 29, "Environment");
+            poSelectionRequest.prepareReadRecordsCmd(SFI_CONTRACTS,
+                    ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, 29, "Contract");
+        }
+        return fixture.selectPo(poSelectionRequest);
+    }
+}
@@ -0,0 +1,121 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub.calypso;
+
+import static org.junit.Assert.*;
+import org.eclipse.keyple.calypso.command.po.parser.ReadDataStructure;
+import org.eclipse.keyple.calypso.command.po.parser.ReadRecordsRespPars;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Execution of a {@link PoTransactionPlan} on several taps with the {@link CalypsoPoSimulator}
+ * and the {@link CalypsoSamSimulator}.
+ */
+public class PoTransactionPlanTest {
+    private static final byte SFI_ENVIRONMENT = (byte) 0x07;
+    private static final byte SFI_EVENT_LOG = (byte) 0x08;
+    private static final byte SFI_CONTRACTS = (byte) 0x09;
+    private static final byte SFI_COUNTER = (byte) 0x19;
+
+    private SimulatorFixture fixture;
+    private CalypsoPoSimulator po;
+
+    private PoTransactionPlan plan;
+    private int contractIndex;
+    private int counterIndex;
+    private int decreaseIndex;
+    private int eventIndex;
+
+    @Before
+    public void setUp() throws KeypleReaderException {
+        fixture = new SimulatorFixture();
+        po = fixture.po.addLinearFile(SFI_ENVIRONMENT, 1, 29).addCyclicFile(SFI_EVENT_LOG, 3, 29)
+                .addLinearFile(SFI_CONTRACTS, 4, 29).addCountersFile(SFI_COUNTER, 4);
+        po.setRecord(SFI_ENVIRONMENT, 1, ByteArrayUtil.fromHex("EE01"));
+        po.setRecord(SFI_CONTRACTS, 1, ByteArrayUtil.fromHex("C001"));
+        po.setCounter(SFI_COUNTER, 1, 100);
+
+        plan = new PoTransactionPlan(PoTransaction.ModificationMode.ATOMIC,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SFI_ENVIRONMENT, (byte) 0x01,
+                ChannelState.CLOSE_AFTER);
+        contractIndex = plan.prepareReadRecordsCmd(SFI_CONTRACTS,
+                ReadDataStructure.SINGLE_RECORD_DATA, (byte) 0x01, 29, "Contract");
+        counterIndex = plan.prepareReadRecordsCmd(SFI_COUNTER, ReadDataStructure.SINGLE_COUNTER,
+                (byte) 0x01, "Counter");
+        decreaseIndex = plan.prepareDecreaseCmd(SFI_COUNTER, (byte) 0x01, 1, "Decrease");
+        eventIndex = plan.prepareAppendRecordCmd(SFI_EVENT_LOG, new byte[29], "Event");
+    }
+
+    @After
+    public void tearDown() {
+        fixture.unplug();
+    }
+
+    @Test
+    public void processPlan_severalTaps() throws Exception {
+        assertEquals(4, plan.getCommandCount());
+        int counter = 100;
+        for (int i = 1; i <= 5; i++) {
+            plan.setCounterValue(decreaseIndex, i);
+            byte[] event = new byte[29];
+            event[0] = (byte) i;
+            plan.setRecordData(eventIndex, event);
+
+            PoTransaction poTransaction = fixture.newPoTransaction();
+            assertTrue(poTransaction.processPlan(plan));
+            assertTrue(poTransaction.isSuccessful());
+
+            assertArrayEquals(po.getRecord(SFI_ENVIRONMENT, 1),
+                    poTransaction.getOpenRecordDataRead());
+            assertArrayEquals(po.getRecord(SFI_CONTRACTS, 1),
+                    ((ReadRecordsRespPars) plan.getResponseParser(contractIndex)).getRecords()
+                            .get(1));
+            assertEquals(counter, (int) ((ReadRecordsRespPars) plan.getResponseParser(counterIndex))
+                    .getCounters().get(1));
+            assertTrue(plan.getResponseParser(decreaseIndex).isSuccessful());
+            counter -= i;
+            assertEquals(counter, po.getCounter(SFI_COUNTER, 1));
+            assertArrayEquals(event, po.getRecord(SFI_EVENT_LOG, 1));
+        }
+        assertEquals(5, po.getCommittedSessionCount());
+    }
+
+    @Test
+    public void processPlan_preparedCommandsDiscarded() throws Exception {
+        PoTransaction poTransaction = fixture.newPoTransaction();
+        poTransaction.prepareIncreaseCmd(SFI_COUNTER, (byte) 0x02, 1, "Increase");
+        assertTrue(poTransaction.processPlan(plan));
+        assertEquals(0, po.getCounter(SFI_COUNTER, 2));
+        assertEquals(99, po.getCounter(SFI_COUNTER, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setRecordData_badLength() {
+        plan.setRecordData(eventIndex, new byte[28]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setCounterValue_notACounterCommand() {
+        plan.setCounterValue(contractIndex, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getResponseParser_badIndex() {
+        plan.getResponseParser(4);
+    }
+}
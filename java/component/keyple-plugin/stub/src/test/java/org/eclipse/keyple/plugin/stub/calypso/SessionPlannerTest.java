@@ -0,0 +1,158 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub.calypso;
+
+import static org.junit.Assert.*;
+import java.util.Arrays;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Modifications exceeding the buffer of the {@link CalypsoPoSimulator} (430 bytes) in MULTIPLE
+ * mode: the four Update Record commands need 230, 220, 199 and 209 bytes, three sessions when
+ * closed at the first overflowing command, two when packed.
+ */
+public class SessionPlannerTest {
+    private static final byte SFI_ENVIRONMENT = (byte) 0x07;
+    private static final byte[] SFIS = {(byte) 0x01, (byte) 0x02, (byte) 0x03, (byte) 0x04};
+    private static final int[] RECORD_SIZES = {224, 214, 193, 203};
+
+    private SimulatorFixture fixture;
+    private CalypsoPoSimulator po;
+
+    @Before
+    public void setUp() throws KeypleReaderException {
+        fixture = new SimulatorFixture();
+        po = fixture.po.addLinearFile(SFI_ENVIRONMENT, 1, 29);
+        for (int i = 0; i < SFIS.length; i++) {
+            po.addLinearFile(SFIS[i], 1, RECORD_SIZES[i]);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        fixture.unplug();
+    }
+
+    @Test
+    public void processClosing_twoSessions() throws Exception {
+        PoTransaction poTransaction = openSession(PoTransaction.ModificationMode.MULTIPLE);
+        byte[][] records = prepareUpdates(poTransaction);
+        assertEquals(2, poTransaction.getPlannedSessionCount());
+
+        assertTrue(poTransaction.processClosing(ChannelState.CLOSE_AFTER));
+
+        assertTrue(poTransaction.isSuccessful());
+        assertEquals(2, po.getCommittedSessionCount());
+        for (int i = 0; i < SFIS.length; i++) {
+            assertArrayEquals(records[i], po.getRecord(SFIS[i], 1));
+        }
+    }
+
+    @Test
+    public void processPoCommandsInSession_twoSessions() throws Exception {
+        PoTransaction poTransaction = openSession(PoTransaction.ModificationMode.MULTIPLE);
+        byte[][] records = prepareUpdates(poTransaction);
+
+        assertTrue(poTransaction.processPoCommandsInSession());
+        assertEquals(1, po.getCommittedSessionCount());
+        assertTrue(po.isSessionOpen());
+        assertEquals(1, poTransaction.getPlannedSessionCount());
+        assertTrue(poTransaction.processClosing(ChannelState.CLOSE_AFTER));
+
+        assertEquals(2, po.getCommittedSessionCount());
+        for (int i = 0; i < SFIS.length; i++) {
+            assertArrayEquals(records[i], po.getRecord(SFIS[i], 1));
+        }
+    }
+
+    @Test
+    public void processClosing_sameRecordOrderKept() throws Exception {
+        PoTransaction poTransaction = openSession(PoTransaction.ModificationMode.MULTIPLE);
+        byte[] first = filledArray(RECORD_SIZES[0], (byte) 0x11);
+        byte[] second = filledArray(193, (byte) 0x22);
+        poTransaction.prepareUpdateRecordCmd(SFIS[0], (byte) 0x01, first, "First");
+        poTransaction.prepareUpdateRecordCmd(SFIS[1], (byte) 0x01,
+                filledArray(RECORD_SIZES[1], (byte) 0x33), "Other file");
+        /* placed in the first session after the first update */
+        poTransaction.prepareUpdateRecordCmd(SFIS[0], (byte) 0x01, second, "Second");
+        assertEquals(2, poTransaction.getPlannedSessionCount());
+
+        assertTrue(poTransaction.processClosing(ChannelState.CLOSE_AFTER));
+
+        assertEquals(2, po.getCommittedSessionCount());
+        assertArrayEquals(second,
+                Arrays.copyOf(po.getRecord(SFIS[0], 1), second.length));
+    }
+
+    @Test
+    public void processOpening_sessionsPlannedBeforeOpening() throws Exception {
+        PoTransaction poTransaction = fixture.newPoTransaction();
+        byte[][] records = prepareUpdates(poTransaction);
+        /* processOpening sends the commands in order: 230, 220 + 199, 209 */
+        assertEquals(3, poTransaction.getPlannedSessionCount());
+
+        assertTrue(openSession(poTransaction, PoTransaction.ModificationMode.MULTIPLE));
+        assertEquals(2, po.getCommittedSessionCount());
+        assertTrue(poTransaction.processClosing(ChannelState.KEEP_OPEN));
+        assertEquals(3, po.getCommittedSessionCount());
+        for (int i = 0; i < SFIS.length; i++) {
+            assertArrayEquals(records[i], po.getRecord(SFIS[i], 1));
+        }
+
+        /* the next session starts with an empty buffer, whatever the previous one left */
+        prepareUpdates(poTransaction);
+        assertEquals(3, poTransaction.getPlannedSessionCount());
+        assertTrue(openSession(poTransaction, PoTransaction.ModificationMode.MULTIPLE));
+        assertEquals(5, po.getCommittedSessionCount());
+        assertTrue(poTransaction.processClosing(ChannelState.CLOSE_AFTER));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void processClosing_atomicOverflow() throws Exception {
+        PoTransaction poTransaction = openSession(PoTransaction.ModificationMode.ATOMIC);
+        prepareUpdates(poTransaction);
+        poTransaction.processClosing(ChannelState.CLOSE_AFTER);
+    }
+
+    private byte[][] prepareUpdates(PoTransaction poTransaction) {
+        byte[][] records = new byte[SFIS.length][];
+        for (int i = 0; i < SFIS.length; i++) {
+            records[i] = filledArray(RECORD_SIZES[i], (byte) (i + 1));
+            poTransaction.prepareUpdateRecordCmd(SFIS[i], (byte) 0x01, records[i], "Update");
+        }
+        return records;
+    }
+
+    private static byte[] filledArray(int length, byte value) {
+        byte[] array = new byte[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+
+    private PoTransaction openSession(PoTransaction.ModificationMode modificationMode)
+            throws KeypleReaderException {
+        PoTransaction poTransaction = fixture.newPoTransaction();
+        assertTrue(openSession(poTransaction, modificationMode));
+        return poTransaction;
+    }
+
+    private static boolean openSession(PoTransaction poTransaction,
+            PoTransaction.ModificationMode modificationMode) throws KeypleReaderException {
+        return poTransaction.processOpening(modificationMode,
+                PoTransaction.SessionAccessLevel.SESSION_LVL_DEBIT, SFI_ENVIRONMENT, (byte) 0x01);
+    }
+}
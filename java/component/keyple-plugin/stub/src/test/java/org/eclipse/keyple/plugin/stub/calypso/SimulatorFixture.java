@@ -0,0 +1,142 @@
+/********************************************************************************
+ * Copyright (c) 2019 Calypso Networks Association https://www.calypsonet-asso.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information regarding copyright
+ * ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the Eclipse
+ * Public License 2.0 which is available at http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ ********************************************************************************/
+package org.eclipse.keyple.plugin.stub.calypso;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.eclipse.keyple.calypso.command.sam.SamRevision;
+import org.eclipse.keyple.calypso.transaction.*;
+import org.eclipse.keyple.core.selection.SeSelection;
+import org.eclipse.keyple.core.seproxy.ChannelState;
+import org.eclipse.keyple.core.seproxy.SeSelector;
+import org.eclipse.keyple.core.seproxy.exception.KeypleReaderException;
+import org.eclipse.keyple.core.seproxy.protocol.SeCommonProtocols;
+import org.eclipse.keyple.core.util.ByteArrayUtil;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubProtocolSetting;
+import org.eclipse.keyple.plugin.stub.StubReader;
+
+/**
+ * A PO reader and a SAM reader plugged in the {@link StubPlugin} with a {@link CalypsoPoSimulator}
+ * and a {@link CalypsoSamSimulator}.
+ * <p>
+ * The PO simulator has no file: the tests declare their own file layout before the first
+ * selection. The simulators are inserted when needed by the selections.
+ */
+final class SimulatorFixture {
+    static final String AID = "315449432E49434131";
+
+    private static final String PO_READER_NAME = "simulatorPoReader";
+    private static final String SAM_READER_NAME = "simulatorSamReader";
+
+    private final StubPlugin stubPlugin = StubPlugin.getInstance();
+    private final Set<String> readerNames =
+            new HashSet<String>(Arrays.asList(PO_READER_NAME, SAM_READER_NAME));
+    final StubReader poReader;
+    final StubReader samReader;
+    final CalypsoPoSimulator po;
+    final CalypsoSamSimulator sam;
+    private SamResource samResource;
+
+    /**
+     * Plugs the readers and creates the simulators
+     */
+    SimulatorFixture() throws KeypleReaderException {
+        stubPlugin.plugStubReaders(readerNames, true);
+        poReader = (StubReader) stubPlugin.getReader(PO_READER_NAME);
+        poReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO14443_4,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO14443_4));
+        samReader = (StubReader) stubPlugin.getReader(SAM_READER_NAME);
+        samReader.addSeProtocolSetting(SeCommonProtocols.PROTOCOL_ISO7816_3,
+                StubProtocolSetting.STUB_PROTOCOL_SETTING
+                        .get(SeCommonProtocols.PROTOCOL_ISO7816_3));
+
+        po = new CalypsoPoSimulator(ByteArrayUtil.fromHex(AID),
+                ByteArrayUtil.fromHex("0000000011223344"));
+        sam = new CalypsoSamSimulator(ByteArrayUtil.fromHex("12345678"));
+    }
+
+    /**
+     * Unplugs the readers
+     */
+    void unplug() {
+        stubPlugin.unplugStubReaders(readerNames, true);
+    }
+
+    /**
+     * @return a request selecting the PO by its AID and keeping its channel open
+     */
+    static PoSelectionRequest poSelectionRequest() {
+        return new PoSelectionRequest(
+                new PoSelector(SeCommonProtocols.PROTOCOL_ISO14443_4, null,
+                        new PoSelector.PoAidSelector(new SeSelector.AidSelector.IsoAid(AID),
+                                PoSelector.InvalidatedPo.REJECT),
+                        "PO"),
+                ChannelState.KEEP_OPEN);
+    }
+
+    /**
+     * Inserts the PO if it is not present and selects it
+     *
+     * @param poSelectionRequest the selection request, with its optional commands
+     * @return the selected PO
+     */
+    CalypsoPo selectPo(PoSelectionRequest poSelectionRequest) throws KeypleReaderException {
+        if (poReader.getSe() == null) {
+            poReader.insertSe(po);
+        }
+        SeSelection poSelection = new SeSelection();
+        poSelection.prepareSelection(poSelectionRequest);
+        return (CalypsoPo) poSelection.processExplicitSelection(poReader).getActiveSelection()
+                .getMatchingSe();
+    }
+
+    /**
+     * Inserts and selects the SAM at the first call
+     *
+     * @return the selected SAM
+     */
+    SamResource getSamResource() throws KeypleReaderException {
+        if (samResource == null) {
+            samReader.insertSe(sam);
+            SeSelection samSelection = new SeSelection();
+            samSelection.prepareSelection(new SamSelectionRequest(
+                    new SamSelector(SamRevision.C1, null, "SAM"), ChannelState.KEEP_OPEN));
+            samResource = new SamResource(samReader,
+                    (CalypsoSam) samSelection.processExplicitSelection(samReader)
+                            .getActiveSelection().getMatchingSe());
+        }
+        return samResource;
+    }
+
+    /**
+     * Creates a transaction with an already selected PO
+     *
+     * @param calypsoPo the selected PO
+     * @return the transaction
+     */
+    PoTransaction newPoTransaction(CalypsoPo calypsoPo) throws KeypleReaderException {
+        return new PoTransaction(new PoResource(poReader, calypsoPo), getSamResource(),
+                new SecuritySettings());
+    }
+
+    /**
+     * Selects the PO without command and creates a transaction
+     *
+     * @return the transaction
+     */
+    PoTransaction newPoTransaction() throws KeypleReaderException {
+        return newPoTransaction(selectPo(poSelectionRequest()));
+    }
+}